@@ -0,0 +1,35 @@
+package pe.soapros.otel.benchmarks;
+
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.Tracer;
+import io.opentelemetry.context.Scope;
+import io.opentelemetry.sdk.trace.SdkTracerProvider;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Span muestreado y activo en el hilo del benchmark durante cada iteración,
+ * para medir los caminos que dependen del contexto actual (correlación, spans hijos)
+ */
+@State(org.openjdk.jmh.annotations.Scope.Thread)
+public class ActiveSpanState {
+
+    private static final Tracer TRACER = SdkTracerProvider.builder().build().get("benchmark");
+
+    private Span span;
+    private Scope scope;
+
+    @Setup(Level.Iteration)
+    public void start() {
+        span = TRACER.spanBuilder("request").startSpan();
+        scope = span.makeCurrent();
+    }
+
+    @TearDown(Level.Iteration)
+    public void end() {
+        scope.close();
+        span.end();
+    }
+}
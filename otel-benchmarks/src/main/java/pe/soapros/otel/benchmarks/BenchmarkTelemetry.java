@@ -0,0 +1,122 @@
+package pe.soapros.otel.benchmarks;
+
+import io.opentelemetry.sdk.OpenTelemetrySdk;
+import io.opentelemetry.sdk.common.CompletableResultCode;
+import io.opentelemetry.sdk.logs.SdkLoggerProvider;
+import io.opentelemetry.sdk.logs.data.LogRecordData;
+import io.opentelemetry.sdk.logs.export.BatchLogRecordProcessor;
+import io.opentelemetry.sdk.logs.export.LogRecordExporter;
+import io.opentelemetry.sdk.metrics.InstrumentType;
+import io.opentelemetry.sdk.metrics.SdkMeterProvider;
+import io.opentelemetry.sdk.metrics.data.AggregationTemporality;
+import io.opentelemetry.sdk.metrics.data.MetricData;
+import io.opentelemetry.sdk.metrics.export.MetricExporter;
+import io.opentelemetry.sdk.metrics.export.PeriodicMetricReader;
+import io.opentelemetry.sdk.trace.SdkTracerProvider;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import io.opentelemetry.sdk.trace.export.BatchSpanProcessor;
+import io.opentelemetry.sdk.trace.export.SpanExporter;
+import pe.soapros.otel.core.infrastructure.ObservabilityConfig;
+import pe.soapros.otel.core.infrastructure.OpenTelemetryManager;
+
+import java.time.Duration;
+import java.util.Collection;
+
+/**
+ * SDK real (batch processors, agregación de métricas) con exportadores que descartan todo,
+ * para medir el costo de la instrumentación sin red.
+ */
+final class BenchmarkTelemetry {
+
+    private BenchmarkTelemetry() {
+        throw new UnsupportedOperationException("This is a utility class and cannot be instantiated");
+    }
+
+    static OpenTelemetrySdk createSdk() {
+        return OpenTelemetrySdk.builder()
+                .setTracerProvider(SdkTracerProvider.builder()
+                        .addSpanProcessor(BatchSpanProcessor.builder(new NoopSpanExporter()).build())
+                        .build())
+                .setMeterProvider(SdkMeterProvider.builder()
+                        .registerMetricReader(PeriodicMetricReader.builder(new NoopMetricExporter())
+                                .setInterval(Duration.ofSeconds(30))
+                                .build())
+                        .build())
+                .setLoggerProvider(SdkLoggerProvider.builder()
+                        .addLogRecordProcessor(BatchLogRecordProcessor.builder(new NoopLogRecordExporter()).build())
+                        .build())
+                .build();
+    }
+
+    /**
+     * ObservabilityManager y MetricsFactory leen la configuración central del manager;
+     * se inicializa una sola vez por JVM (fork) apuntando a un endpoint inexistente.
+     */
+    static void ensureManagerInitialized() {
+        if (!OpenTelemetryManager.isInitialized()) {
+            synchronized (BenchmarkTelemetry.class) {
+                if (!OpenTelemetryManager.isInitialized()) {
+                    OpenTelemetryManager.initialize(ObservabilityConfig.builder("otel-benchmarks")
+                            .otlpEndpoint("http://localhost:1")
+                            .build());
+                }
+            }
+        }
+    }
+
+    private static final class NoopSpanExporter implements SpanExporter {
+        @Override
+        public CompletableResultCode export(Collection<SpanData> spans) {
+            return CompletableResultCode.ofSuccess();
+        }
+
+        @Override
+        public CompletableResultCode flush() {
+            return CompletableResultCode.ofSuccess();
+        }
+
+        @Override
+        public CompletableResultCode shutdown() {
+            return CompletableResultCode.ofSuccess();
+        }
+    }
+
+    private static final class NoopMetricExporter implements MetricExporter {
+        @Override
+        public CompletableResultCode export(Collection<MetricData> metrics) {
+            return CompletableResultCode.ofSuccess();
+        }
+
+        @Override
+        public CompletableResultCode flush() {
+            return CompletableResultCode.ofSuccess();
+        }
+
+        @Override
+        public CompletableResultCode shutdown() {
+            return CompletableResultCode.ofSuccess();
+        }
+
+        @Override
+        public AggregationTemporality getAggregationTemporality(InstrumentType instrumentType) {
+            return AggregationTemporality.CUMULATIVE;
+        }
+    }
+
+    private static final class NoopLogRecordExporter implements LogRecordExporter {
+        @Override
+        public CompletableResultCode export(Collection<LogRecordData> logs) {
+            return CompletableResultCode.ofSuccess();
+        }
+
+        @Override
+        public CompletableResultCode flush() {
+            return CompletableResultCode.ofSuccess();
+        }
+
+        @Override
+        public CompletableResultCode shutdown() {
+            return CompletableResultCode.ofSuccess();
+        }
+    }
+}
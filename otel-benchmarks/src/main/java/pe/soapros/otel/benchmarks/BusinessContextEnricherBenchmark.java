@@ -0,0 +1,36 @@
+package pe.soapros.otel.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import pe.soapros.otel.core.infrastructure.BusinessContextEnricher;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * BusinessContextEnricher.enrichMDCFromHeaders con un span activo, seguido del clear
+ * que hacen los wrappers al final de la invocación
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class BusinessContextEnricherBenchmark {
+
+    private final Map<String, String> headers = TraceContextExtractorBenchmark.apiGatewayHeaders("traceparent");
+
+    @Benchmark
+    public void enrichFromHeaders(ActiveSpanState activeSpan) {
+        BusinessContextEnricher.enrichMDCFromHeaders(headers);
+        BusinessContextEnricher.clearBusinessContext();
+    }
+}
@@ -0,0 +1,70 @@
+package pe.soapros.otel.benchmarks;
+
+import com.amazonaws.services.lambda.runtime.Context;
+import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyRequestEvent;
+import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyResponseEvent;
+import io.opentelemetry.sdk.OpenTelemetrySdk;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import pe.soapros.otel.lambda.infrastructure.HttpTracingLambdaWrapper;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Invocación completa de HttpTracingLambdaWrapper.handleRequest: extracción de contexto,
+ * span SERVER, logs, métricas de Lambda y flush de fin de invocación con exportadores noop.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class HttpLambdaWrapperBenchmark {
+
+    private OpenTelemetrySdk sdk;
+    private HttpTracingLambdaWrapper wrapper;
+    private APIGatewayProxyRequestEvent event;
+    private Context lambdaContext;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        BenchmarkTelemetry.ensureManagerInitialized();
+
+        sdk = BenchmarkTelemetry.createSdk();
+        wrapper = new HttpTracingLambdaWrapper(sdk) {
+            @Override
+            public APIGatewayProxyResponseEvent handle(APIGatewayProxyRequestEvent input, Context context) {
+                return new APIGatewayProxyResponseEvent()
+                        .withStatusCode(200)
+                        .withBody("{\"id\":\"123\"}");
+            }
+        };
+
+        event = new APIGatewayProxyRequestEvent()
+                .withHttpMethod("GET")
+                .withPath("/users/123")
+                .withHeaders(TraceContextExtractorBenchmark.apiGatewayHeaders("traceparent"));
+        lambdaContext = new BenchmarkLambdaContext();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        sdk.close();
+    }
+
+    @Benchmark
+    public APIGatewayProxyResponseEvent handleRequest() {
+        return wrapper.handleRequest(event, lambdaContext);
+    }
+}
@@ -0,0 +1,59 @@
+package pe.soapros.otel.benchmarks;
+
+import io.opentelemetry.sdk.OpenTelemetrySdk;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import pe.soapros.otel.metrics.infrastructure.HttpMetricsCollector;
+import pe.soapros.otel.metrics.infrastructure.MetricsFactory;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * HttpMetricsCollector.startRequest + HttpRequestTimer.end para una request exitosa y una con error
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class HttpMetricsCollectorBenchmark {
+
+    private static final RuntimeException ERROR = new IllegalStateException("boom");
+
+    private OpenTelemetrySdk sdk;
+    private HttpMetricsCollector collector;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        sdk = BenchmarkTelemetry.createSdk();
+        collector = MetricsFactory.create(sdk, "otel-benchmarks", "1.0.0").getHttpMetricsCollector();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        sdk.close();
+    }
+
+    @Benchmark
+    public void requestSuccess() {
+        collector.startRequest("GET", "/users/{id}", "benchmark-agent", "10.0.0.1")
+                .end(200, 128, 512, null);
+    }
+
+    @Benchmark
+    public void requestServerError() {
+        collector.startRequest("POST", "/orders", "benchmark-agent", "10.0.0.1")
+                .end(500, 256, 64, ERROR);
+    }
+}
@@ -0,0 +1,73 @@
+package pe.soapros.otel.benchmarks;
+
+import io.opentelemetry.api.logs.Severity;
+import io.opentelemetry.sdk.OpenTelemetrySdk;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import pe.soapros.otel.core.infrastructure.OpenTelemetryLoggerService;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * OpenTelemetryLoggerService.info: emitido con correlación de traza, y descartado
+ * por el umbral de severidad (costo del gating)
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class LoggerServiceBenchmark {
+
+    private static final Map<String, String> ATTRIBUTES = Map.of(
+            "request.id", "req-123",
+            "user.id", "user-123",
+            "operation", "get-user");
+
+    private static final RuntimeException ERROR = new IllegalStateException("boom");
+
+    private OpenTelemetrySdk sdk;
+    private OpenTelemetryLoggerService infoLogger;
+    private OpenTelemetryLoggerService warnLogger;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        sdk = BenchmarkTelemetry.createSdk();
+        infoLogger = new OpenTelemetryLoggerService(
+                sdk.getLogsBridge().get("benchmark"), "benchmark", true, Severity.INFO);
+        warnLogger = new OpenTelemetryLoggerService(
+                sdk.getLogsBridge().get("benchmark"), "benchmark", true, Severity.WARN);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        sdk.close();
+    }
+
+    @Benchmark
+    public void infoEmitted(ActiveSpanState activeSpan) {
+        infoLogger.info("User retrieved", ATTRIBUTES);
+    }
+
+    @Benchmark
+    public void infoBelowThreshold(ActiveSpanState activeSpan) {
+        warnLogger.info("User retrieved", ATTRIBUTES);
+    }
+
+    @Benchmark
+    public void errorWithException(ActiveSpanState activeSpan) {
+        infoLogger.error("Failed to retrieve user", ERROR, ATTRIBUTES);
+    }
+}
@@ -0,0 +1,66 @@
+package pe.soapros.otel.benchmarks;
+
+import io.opentelemetry.sdk.OpenTelemetrySdk;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import pe.soapros.otel.core.infrastructure.OpenTelemetryTracerService;
+import pe.soapros.otel.lambda.infrastructure.SubSpanExecutor;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * SubSpanExecutor.executeWithSubSpan con y sin eventos/métricas de duración
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SubSpanExecutorBenchmark {
+
+    private static final Map<String, String> ATTRIBUTES = Map.of(
+            "db.system", "dynamodb",
+            "db.operation", "GetItem");
+
+    private static final Supplier<String> OPERATION = () -> "result";
+
+    private OpenTelemetrySdk sdk;
+    private SubSpanExecutor fullExecutor;
+    private SubSpanExecutor leanExecutor;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        sdk = BenchmarkTelemetry.createSdk();
+        OpenTelemetryTracerService tracerService = new OpenTelemetryTracerService(sdk.getTracer("benchmark"));
+        fullExecutor = new SubSpanExecutor(tracerService, true, true);
+        leanExecutor = new SubSpanExecutor(tracerService, false, false);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        sdk.close();
+    }
+
+    @Benchmark
+    public String executeWithEventsAndMetrics() {
+        return fullExecutor.executeWithSubSpan("dynamodb.get-item", ATTRIBUTES, OPERATION);
+    }
+
+    @Benchmark
+    public String executeWithoutEvents() {
+        return leanExecutor.executeWithSubSpan("dynamodb.get-item", ATTRIBUTES, OPERATION);
+    }
+}
@@ -0,0 +1,74 @@
+package pe.soapros.otel.benchmarks;
+
+import io.opentelemetry.sdk.OpenTelemetrySdk;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import pe.soapros.otel.core.domain.ActiveSpan;
+import pe.soapros.otel.core.domain.TraceSpan;
+import pe.soapros.otel.core.infrastructure.OpenTelemetryTracerService;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * OpenTelemetryTracerService.startSpan + end, sin padre y con un span padre activo,
+ * y activate + close (span current durante el bloque)
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TracerServiceBenchmark {
+
+    private static final Map<String, String> ATTRIBUTES = Map.of(
+            "operation", "get-user",
+            "user.id", "user-123",
+            "tenant.id", "tenant-1");
+
+    private OpenTelemetrySdk sdk;
+    private OpenTelemetryTracerService tracerService;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        sdk = BenchmarkTelemetry.createSdk();
+        tracerService = new OpenTelemetryTracerService(sdk.getTracer("benchmark"));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        sdk.close();
+    }
+
+    @Benchmark
+    public TraceSpan startSpanRoot() {
+        TraceSpan span = tracerService.startSpan("operation", ATTRIBUTES);
+        span.end();
+        return span;
+    }
+
+    @Benchmark
+    public TraceSpan startSpanWithActiveParent(ActiveSpanState activeSpan) {
+        TraceSpan span = tracerService.startSpan("child-operation", ATTRIBUTES);
+        span.end();
+        return span;
+    }
+
+    @Benchmark
+    public TraceSpan activateWithActiveParent(ActiveSpanState activeSpan) {
+        try (ActiveSpan span = tracerService.activate("child-operation", ATTRIBUTES)) {
+            return span;
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package pe.soapros.otel.core.domain;
+
+/**
+ * Span iniciado y hecho current en un solo paso; close() lo termina y restaura el contexto anterior.
+ *
+ * <pre>
+ *   try (ActiveSpan span = tracerService.activate("get-user")) {
+ *       span.addAttribute("user.id", userId);
+ *       ...
+ *   }
+ * </pre>
+ *
+ * Se debe cerrar en el mismo hilo que lo creó.
+ */
+public interface ActiveSpan extends TraceSpan {
+
+    @Override
+    void close();
+}
@@ -1,5 +1,7 @@
 package pe.soapros.otel.core.domain;
 
+import io.opentelemetry.api.logs.Severity;
+
 import java.util.Map;
 
 public interface LoggerService {
@@ -9,4 +11,15 @@ public interface LoggerService {
     void error(String message, Map<String, String> attributes);
 
     void error(String message, Throwable throwable, Map<String, String> attributes);
+
+    /**
+     * Permite a los llamadores evitar construir mapas de atributos para logs que se descartarán
+     */
+    default boolean isEnabled(Severity severity) {
+        return true;
+    }
+
+    default boolean isDebugEnabled() {
+        return isEnabled(Severity.DEBUG);
+    }
 }
@@ -1,11 +1,44 @@
 package pe.soapros.otel.core.domain;
 
+import io.opentelemetry.api.common.AttributeKey;
 import io.opentelemetry.api.trace.Span;
 
 import java.util.Map;
 
 public interface TraceSpan extends AutoCloseable{
     void addAttribute(String key, String value);
+
+    /**
+     * Las implementaciones existentes reciben el valor como texto; las de OpenTelemetry lo
+     * guardan con su tipo
+     */
+    default void addAttribute(String key, long value) {
+        addAttribute(key, String.valueOf(value));
+    }
+
+    default void addAttribute(String key, double value) {
+        addAttribute(key, String.valueOf(value));
+    }
+
+    default void addAttribute(String key, boolean value) {
+        addAttribute(key, String.valueOf(value));
+    }
+
+    /**
+     * Atributo tipado con una clave pre-declarada (p.ej. de semconv): evita crear la AttributeKey en cada llamada
+     */
+    default <T> void addAttribute(AttributeKey<T> key, T value) {
+        if (key == null || value == null) {
+            return;
+        }
+        switch (key.getType()) {
+            case LONG -> addAttribute(key.getKey(), ((Long) value).longValue());
+            case DOUBLE -> addAttribute(key.getKey(), ((Double) value).doubleValue());
+            case BOOLEAN -> addAttribute(key.getKey(), ((Boolean) value).booleanValue());
+            default -> addAttribute(key.getKey(), String.valueOf(value));
+        }
+    }
+
     void addAttributes(Map<String, String> attributes);
     void addEvent(String eventName);
     void addEvent(String eventName, Map<String, String> attributes);
@@ -9,4 +9,10 @@ public interface TracerService {
 
     TraceSpan startSpan(String spanName);
     TraceSpan startSpan(String spanName, TraceSpan parent);
+
+    /**
+     * Iniciar un span hijo del contexto actual y hacerlo current hasta close()
+     */
+    ActiveSpan activate(String spanName);
+    ActiveSpan activate(String spanName, Map<String, String> attributes);
 }
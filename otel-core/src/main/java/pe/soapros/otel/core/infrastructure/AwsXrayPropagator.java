@@ -0,0 +1,130 @@
+package pe.soapros.otel.core.infrastructure;
+
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.SpanContext;
+import io.opentelemetry.api.trace.SpanId;
+import io.opentelemetry.api.trace.TraceFlags;
+import io.opentelemetry.api.trace.TraceId;
+import io.opentelemetry.api.trace.TraceState;
+import io.opentelemetry.context.Context;
+import io.opentelemetry.context.propagation.TextMapGetter;
+import io.opentelemetry.context.propagation.TextMapPropagator;
+import io.opentelemetry.context.propagation.TextMapSetter;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Propagator del header de AWS X-Ray:
+ * {@code X-Amzn-Trace-Id: Root=1-5759e988-bd862e3fe1be46a994272793;Parent=53995c3f42cd8ad8;Sampled=1}
+ *
+ * El Root de X-Ray (versión, epoch de 8 hex y 24 hex aleatorios) es un trace id W3C de 32 hex,
+ * así que la traza se mantiene al cruzar API Gateway, ALB o SQS (atributo AWSTraceHeader).
+ */
+public final class AwsXrayPropagator implements TextMapPropagator {
+
+    public static final String TRACE_HEADER = "X-Amzn-Trace-Id";
+
+    private static final String ROOT = "Root";
+    private static final String PARENT = "Parent";
+    private static final String SAMPLED = "Sampled";
+    private static final String VERSION = "1";
+    private static final List<String> FIELDS = List.of(TRACE_HEADER);
+    private static final AwsXrayPropagator INSTANCE = new AwsXrayPropagator();
+
+    private AwsXrayPropagator() {
+    }
+
+    public static AwsXrayPropagator getInstance() {
+        return INSTANCE;
+    }
+
+    @Override
+    public Collection<String> fields() {
+        return FIELDS;
+    }
+
+    @Override
+    public <C> void inject(Context context, C carrier, TextMapSetter<C> setter) {
+        if (context == null || setter == null) {
+            return;
+        }
+        SpanContext spanContext = Span.fromContext(context).getSpanContext();
+        if (!spanContext.isValid()) {
+            return;
+        }
+
+        String traceId = spanContext.getTraceId();
+        String header = ROOT + '=' + VERSION + '-' + traceId.substring(0, 8) + '-' + traceId.substring(8)
+                + ';' + PARENT + '=' + spanContext.getSpanId()
+                + ';' + SAMPLED + '=' + (spanContext.isSampled() ? '1' : '0');
+        setter.set(carrier, TRACE_HEADER, header);
+    }
+
+    @Override
+    public <C> Context extract(Context context, C carrier, TextMapGetter<C> getter) {
+        if (context == null) {
+            return Context.root();
+        }
+        if (getter == null) {
+            return context;
+        }
+        String header = getter.get(carrier, TRACE_HEADER);
+        if (header == null || header.isEmpty()) {
+            return context;
+        }
+
+        SpanContext spanContext = parse(header);
+        return spanContext.isValid() ? context.with(Span.wrap(spanContext)) : context;
+    }
+
+    static SpanContext parse(String header) {
+        String traceId = null;
+        String spanId = null;
+        boolean sampled = false;
+
+        int start = 0;
+        while (start < header.length()) {
+            int end = header.indexOf(';', start);
+            if (end < 0) {
+                end = header.length();
+            }
+            int equals = header.indexOf('=', start);
+            if (equals > start && equals < end) {
+                String key = header.substring(start, equals).trim();
+                String value = header.substring(equals + 1, end).trim();
+                if (ROOT.equals(key)) {
+                    traceId = parseRoot(value);
+                } else if (PARENT.equals(key)) {
+                    spanId = value;
+                } else if (SAMPLED.equals(key)) {
+                    sampled = "1".equals(value);
+                }
+            }
+            start = end + 1;
+        }
+
+        // Sin Parent (p.ej. primer salto en API Gateway) no hay span remoto al que colgarse
+        if (traceId == null || spanId == null || !TraceId.isValid(traceId) || !SpanId.isValid(spanId)) {
+            return SpanContext.getInvalid();
+        }
+        return SpanContext.createFromRemoteParent(
+                traceId,
+                spanId,
+                sampled ? TraceFlags.getSampled() : TraceFlags.getDefault(),
+                TraceState.getDefault());
+    }
+
+    private static String parseRoot(String root) {
+        // 1-{8 hex epoch}-{24 hex}
+        if (root.length() != 35 || !root.startsWith(VERSION + "-") || root.charAt(10) != '-') {
+            return null;
+        }
+        return root.substring(2, 10) + root.substring(11);
+    }
+
+    @Override
+    public String toString() {
+        return "AwsXrayPropagator";
+    }
+}
@@ -0,0 +1,138 @@
+package pe.soapros.otel.core.infrastructure;
+
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.SpanContext;
+import io.opentelemetry.api.trace.SpanId;
+import io.opentelemetry.api.trace.TraceFlags;
+import io.opentelemetry.api.trace.TraceId;
+import io.opentelemetry.api.trace.TraceState;
+import io.opentelemetry.context.Context;
+import io.opentelemetry.context.propagation.TextMapGetter;
+import io.opentelemetry.context.propagation.TextMapPropagator;
+import io.opentelemetry.context.propagation.TextMapSetter;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Propagator B3 (Zipkin). Extrae tanto el header único {@code b3} como los headers
+ * {@code X-B3-*}; inyecta en el formato elegido al construirlo.
+ */
+public final class B3Propagator implements TextMapPropagator {
+
+    static final String SINGLE_HEADER = "b3";
+    static final String TRACE_ID_HEADER = "X-B3-TraceId";
+    static final String SPAN_ID_HEADER = "X-B3-SpanId";
+    static final String SAMPLED_HEADER = "X-B3-Sampled";
+    static final String FLAGS_HEADER = "X-B3-Flags";
+
+    private static final List<String> FIELDS =
+            List.of(SINGLE_HEADER, TRACE_ID_HEADER, SPAN_ID_HEADER, SAMPLED_HEADER, FLAGS_HEADER);
+    private static final B3Propagator SINGLE = new B3Propagator(true);
+    private static final B3Propagator MULTI = new B3Propagator(false);
+
+    private final boolean singleHeader;
+
+    private B3Propagator(boolean singleHeader) {
+        this.singleHeader = singleHeader;
+    }
+
+    /** Inyecta {@code b3: traceId-spanId-sampled} */
+    public static B3Propagator injectingSingleHeader() {
+        return SINGLE;
+    }
+
+    /** Inyecta {@code X-B3-TraceId}, {@code X-B3-SpanId} y {@code X-B3-Sampled} */
+    public static B3Propagator injectingMultiHeaders() {
+        return MULTI;
+    }
+
+    @Override
+    public Collection<String> fields() {
+        return FIELDS;
+    }
+
+    @Override
+    public <C> void inject(Context context, C carrier, TextMapSetter<C> setter) {
+        if (context == null || setter == null) {
+            return;
+        }
+        SpanContext spanContext = Span.fromContext(context).getSpanContext();
+        if (!spanContext.isValid()) {
+            return;
+        }
+
+        String sampled = spanContext.isSampled() ? "1" : "0";
+        if (singleHeader) {
+            setter.set(carrier, SINGLE_HEADER,
+                    spanContext.getTraceId() + '-' + spanContext.getSpanId() + '-' + sampled);
+        } else {
+            setter.set(carrier, TRACE_ID_HEADER, spanContext.getTraceId());
+            setter.set(carrier, SPAN_ID_HEADER, spanContext.getSpanId());
+            setter.set(carrier, SAMPLED_HEADER, sampled);
+        }
+    }
+
+    @Override
+    public <C> Context extract(Context context, C carrier, TextMapGetter<C> getter) {
+        if (context == null) {
+            return Context.root();
+        }
+        if (getter == null) {
+            return context;
+        }
+
+        SpanContext spanContext = extractSingle(carrier, getter);
+        if (!spanContext.isValid()) {
+            spanContext = extractMulti(carrier, getter);
+        }
+        return spanContext.isValid() ? context.with(Span.wrap(spanContext)) : context;
+    }
+
+    private static <C> SpanContext extractSingle(C carrier, TextMapGetter<C> getter) {
+        String header = getter.get(carrier, SINGLE_HEADER);
+        if (header == null || header.isEmpty()) {
+            return SpanContext.getInvalid();
+        }
+        // {TraceId}-{SpanId}[-{SamplingState}[-{ParentSpanId}]]
+        String[] parts = header.split("-");
+        if (parts.length < 2) {
+            return SpanContext.getInvalid();
+        }
+        String samplingState = parts.length > 2 ? parts[2] : null;
+        return create(parts[0], parts[1], isSampled(samplingState, null));
+    }
+
+    private static <C> SpanContext extractMulti(C carrier, TextMapGetter<C> getter) {
+        String traceId = getter.get(carrier, TRACE_ID_HEADER);
+        String spanId = getter.get(carrier, SPAN_ID_HEADER);
+        if (traceId == null || spanId == null) {
+            return SpanContext.getInvalid();
+        }
+        return create(traceId, spanId,
+                isSampled(getter.get(carrier, SAMPLED_HEADER), getter.get(carrier, FLAGS_HEADER)));
+    }
+
+    private static SpanContext create(String traceId, String spanId, boolean sampled) {
+        // B3 admite trace ids de 64 bits: se completan a 128 con ceros a la izquierda
+        String paddedTraceId = traceId.length() == 16 ? "0000000000000000" + traceId : traceId;
+        if (!TraceId.isValid(paddedTraceId) || !SpanId.isValid(spanId)) {
+            return SpanContext.getInvalid();
+        }
+        return SpanContext.createFromRemoteParent(
+                paddedTraceId,
+                spanId,
+                sampled ? TraceFlags.getSampled() : TraceFlags.getDefault(),
+                TraceState.getDefault());
+    }
+
+    private static boolean isSampled(String sampled, String flags) {
+        // "d" / X-B3-Flags: 1 = debug, implica muestreo
+        return "1".equals(sampled) || "true".equalsIgnoreCase(sampled) || "d".equals(sampled) || "1".equals(flags);
+    }
+
+    @Override
+    public String toString() {
+        return singleHeader ? "B3Propagator{single}" : "B3Propagator{multi}";
+    }
+}
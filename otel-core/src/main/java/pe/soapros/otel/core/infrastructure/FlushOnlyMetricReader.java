@@ -0,0 +1,104 @@
+package pe.soapros.otel.core.infrastructure;
+
+import io.opentelemetry.sdk.common.CompletableResultCode;
+import io.opentelemetry.sdk.common.export.MemoryMode;
+import io.opentelemetry.sdk.metrics.Aggregation;
+import io.opentelemetry.sdk.metrics.InstrumentType;
+import io.opentelemetry.sdk.metrics.data.AggregationTemporality;
+import io.opentelemetry.sdk.metrics.data.MetricData;
+import io.opentelemetry.sdk.metrics.export.CollectionRegistration;
+import io.opentelemetry.sdk.metrics.export.MetricExporter;
+import io.opentelemetry.sdk.metrics.export.MetricReader;
+
+import java.util.Collection;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * MetricReader sin timer: colecta y exporta sólo en {@link #forceFlush()} (y en el shutdown).
+ *
+ * Pensado para Lambda, donde el entorno se congela entre invocaciones y un reader periódico
+ * exporta tarde o no llega a exportar; el flush de fin de invocación marca el ritmo.
+ * Temporalidad, agregación y modo de memoria se delegan al exporter.
+ */
+final class FlushOnlyMetricReader implements MetricReader {
+
+    private final MetricExporter exporter;
+    private volatile CollectionRegistration registration = CollectionRegistration.noop();
+    // Con REUSABLE_DATA no se puede colectar de nuevo mientras el export anterior usa los puntos
+    private final AtomicReference<CompletableResultCode> inFlight = new AtomicReference<>();
+
+    FlushOnlyMetricReader(MetricExporter exporter) {
+        this.exporter = exporter;
+    }
+
+    @Override
+    public void register(CollectionRegistration registration) {
+        this.registration = registration;
+    }
+
+    @Override
+    public AggregationTemporality getAggregationTemporality(InstrumentType instrumentType) {
+        return exporter.getAggregationTemporality(instrumentType);
+    }
+
+    @Override
+    public Aggregation getDefaultAggregation(InstrumentType instrumentType) {
+        return exporter.getDefaultAggregation(instrumentType);
+    }
+
+    @Override
+    public MemoryMode getMemoryMode() {
+        return exporter.getMemoryMode();
+    }
+
+    @Override
+    public CompletableResultCode forceFlush() {
+        CompletableResultCode result = new CompletableResultCode();
+        CompletableResultCode previous = inFlight.compareAndExchange(null, result);
+        if (previous != null) {
+            // Export en curso: el llamador espera ese mismo resultado
+            return previous;
+        }
+
+        try {
+            Collection<MetricData> metrics = registration.collectAllMetrics();
+            CompletableResultCode export = metrics.isEmpty()
+                    ? CompletableResultCode.ofSuccess()
+                    : exporter.export(metrics);
+            export.whenComplete(() -> {
+                inFlight.set(null);
+                if (export.isSuccess()) {
+                    result.succeed();
+                } else {
+                    result.fail();
+                }
+            });
+        } catch (RuntimeException e) {
+            inFlight.set(null);
+            result.fail();
+        }
+        return result;
+    }
+
+    @Override
+    public CompletableResultCode shutdown() {
+        CompletableResultCode result = new CompletableResultCode();
+        // Export final antes de cerrar el exporter
+        forceFlush().whenComplete(() -> {
+            CompletableResultCode exporterShutdown = exporter.shutdown();
+            exporterShutdown.whenComplete(() -> {
+                if (exporterShutdown.isSuccess()) {
+                    result.succeed();
+                } else {
+                    result.fail();
+                }
+            });
+        });
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return "FlushOnlyMetricReader{exporter=" + exporter + "}";
+    }
+}
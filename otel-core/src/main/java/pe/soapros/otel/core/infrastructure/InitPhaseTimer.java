@@ -0,0 +1,142 @@
+package pe.soapros.otel.core.infrastructure;
+
+import java.lang.management.ManagementFactory;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Registro de las fases de inicialización del proceso (cold start).
+ *
+ * Las fases se miden con {@link #start(String)} durante el init (creación del SDK, constructores
+ * de los wrappers) y se reportan una sola vez, en la primera invocación, con
+ * {@link #claimReport()}. Después de reportar ya no se registran fases nuevas.
+ */
+public final class InitPhaseTimer {
+
+    /** Fase de init: inicio en epoch nanos y duración medida con nanoTime */
+    public record Phase(String name, long startEpochNanos, long durationNanos) {
+
+        public double durationMs() {
+            return durationNanos / 1_000_000.0;
+        }
+    }
+
+    /**
+     * Resumen del init entregado en la primera invocación.
+     *
+     * @param jvmStartEpochMillis  arranque de la JVM (RuntimeMXBean)
+     * @param libraryLoadEpochNanos primera carga de esta librería
+     * @param reportEpochNanos     inicio de la primera invocación
+     * @param initType             AWS_LAMBDA_INITIALIZATION_TYPE (on-demand, provisioned-concurrency, snap-start)
+     */
+    public record InitReport(long jvmStartEpochMillis, long libraryLoadEpochNanos, long reportEpochNanos,
+                             String initType, List<Phase> phases) {
+
+        public long jvmStartEpochNanos() {
+            return jvmStartEpochMillis * 1_000_000L;
+        }
+
+        /** Desde el arranque de la JVM hasta la primera invocación */
+        public double totalMs() {
+            return (reportEpochNanos - jvmStartEpochNanos()) / 1_000_000.0;
+        }
+
+        /** Desde el arranque de la JVM hasta que se cargó la librería (runtime + init propio de la app) */
+        public double runtimeMs() {
+            return Math.max(0, libraryLoadEpochNanos - jvmStartEpochNanos()) / 1_000_000.0;
+        }
+
+        /** Suma de las fases medidas por la librería de observabilidad */
+        public double observabilityMs() {
+            return phases.stream().mapToDouble(Phase::durationMs).sum();
+        }
+
+        /**
+         * Con provisioned concurrency o SnapStart el init no ocurre junto a la primera invocación,
+         * así que {@link #totalMs()} incluye tiempo ocioso
+         */
+        public boolean isOnDemand() {
+            return initType == null || "on-demand".equals(initType);
+        }
+    }
+
+    /** Medición en curso; {@link #stop()} (o close) la registra una vez */
+    public static final class Measurement implements AutoCloseable {
+        private final String name;
+        private final long startEpochNanos;
+        private final long startNanos;
+        private final AtomicBoolean stopped = new AtomicBoolean(false);
+
+        private Measurement(String name) {
+            this.name = name;
+            this.startEpochNanos = epochNanos();
+            this.startNanos = System.nanoTime();
+        }
+
+        public void stop() {
+            if (stopped.compareAndSet(false, true) && !reported.get()) {
+                phases.add(new Phase(name, startEpochNanos, System.nanoTime() - startNanos));
+            }
+        }
+
+        @Override
+        public void close() {
+            stop();
+        }
+    }
+
+    private static final long LIBRARY_LOAD_EPOCH_NANOS = epochNanos();
+    private static final List<Phase> phases = new CopyOnWriteArrayList<>();
+    private static final AtomicBoolean reported = new AtomicBoolean(false);
+
+    private InitPhaseTimer() {
+        throw new UnsupportedOperationException("Utility class");
+    }
+
+    /**
+     * Iniciar la medición de una fase de init. Fuera del init (ya reportado) no registra nada.
+     */
+    public static Measurement start(String phaseName) {
+        return new Measurement(phaseName);
+    }
+
+    /**
+     * Devuelve el reporte sólo la primera vez que se llama en el proceso
+     */
+    public static Optional<InitReport> claimReport() {
+        if (!reported.compareAndSet(false, true)) {
+            return Optional.empty();
+        }
+        return Optional.of(new InitReport(
+            ManagementFactory.getRuntimeMXBean().getStartTime(),
+            LIBRARY_LOAD_EPOCH_NANOS,
+            epochNanos(),
+            System.getenv("AWS_LAMBDA_INITIALIZATION_TYPE"),
+            List.copyOf(phases)
+        ));
+    }
+
+    public static List<Phase> getPhases() {
+        return List.copyOf(phases);
+    }
+
+    public static boolean isReported() {
+        return reported.get();
+    }
+
+    /**
+     * Reiniciar el registro (útil para testing)
+     */
+    public static void reset() {
+        phases.clear();
+        reported.set(false);
+    }
+
+    private static long epochNanos() {
+        Instant now = Instant.now();
+        return now.getEpochSecond() * 1_000_000_000L + now.getNano();
+    }
+}
@@ -0,0 +1,126 @@
+package pe.soapros.otel.core.infrastructure;
+
+import io.opentelemetry.context.Context;
+import io.opentelemetry.sdk.common.CompletableResultCode;
+import io.opentelemetry.sdk.logs.LogRecordProcessor;
+import io.opentelemetry.sdk.logs.ReadWriteLogRecord;
+import io.opentelemetry.sdk.logs.data.LogRecordData;
+import io.opentelemetry.sdk.logs.export.LogRecordExporter;
+
+import java.util.Collection;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Cuenta los log records que el BatchLogRecordProcessor descarta por cola llena, aparte de las
+ * estadísticas de flush.
+ *
+ * El batch processor no expone sus descartes, así que se cuentan los records emitidos (antes del
+ * processor) y los exportados o fallidos (en el exporter). Tras un flush completo la cola está
+ * vacía: todo lo emitido antes del flush que no se exportó ni falló se descartó.
+ */
+final class LogRecordAccounting {
+
+    private final LongAdder emitted = new LongAdder();
+    private final LongAdder exported = new LongAdder();
+    private final LongAdder exportFailed = new LongAdder();
+    private final AtomicLong dropped = new AtomicLong();
+
+    LogRecordProcessor wrap(LogRecordProcessor delegate) {
+        return new CountingProcessor(delegate);
+    }
+
+    LogRecordExporter wrap(LogRecordExporter delegate) {
+        return new CountingExporter(delegate);
+    }
+
+    /**
+     * Records emitidos hasta ahora; se toma antes de disparar el flush
+     */
+    long emittedCount() {
+        return emitted.sum();
+    }
+
+    /**
+     * Actualizar los descartes después de un flush de logs completo. Los records exportados
+     * que se emitieron durante el flush restan de más, así que el valor nunca sobrecuenta.
+     */
+    void reconcile(long emittedBeforeFlush) {
+        long value = emittedBeforeFlush - exported.sum() - exportFailed.sum();
+        dropped.accumulateAndGet(value, Math::max);
+    }
+
+    long droppedCount() {
+        return dropped.get();
+    }
+
+    long exportFailedCount() {
+        return exportFailed.sum();
+    }
+
+    private final class CountingProcessor implements LogRecordProcessor {
+        private final LogRecordProcessor delegate;
+
+        private CountingProcessor(LogRecordProcessor delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public void onEmit(Context context, ReadWriteLogRecord logRecord) {
+            emitted.increment();
+            delegate.onEmit(context, logRecord);
+        }
+
+        @Override
+        public CompletableResultCode shutdown() {
+            return delegate.shutdown();
+        }
+
+        @Override
+        public CompletableResultCode forceFlush() {
+            return delegate.forceFlush();
+        }
+
+        @Override
+        public String toString() {
+            return delegate.toString();
+        }
+    }
+
+    private final class CountingExporter implements LogRecordExporter {
+        private final LogRecordExporter delegate;
+
+        private CountingExporter(LogRecordExporter delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public CompletableResultCode export(Collection<LogRecordData> logs) {
+            int count = logs.size();
+            CompletableResultCode result = delegate.export(logs);
+            result.whenComplete(() -> {
+                if (result.isSuccess()) {
+                    exported.add(count);
+                } else {
+                    exportFailed.add(count);
+                }
+            });
+            return result;
+        }
+
+        @Override
+        public CompletableResultCode flush() {
+            return delegate.flush();
+        }
+
+        @Override
+        public CompletableResultCode shutdown() {
+            return delegate.shutdown();
+        }
+
+        @Override
+        public String toString() {
+            return delegate.toString();
+        }
+    }
+}
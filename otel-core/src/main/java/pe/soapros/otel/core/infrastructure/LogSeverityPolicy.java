@@ -0,0 +1,137 @@
+package pe.soapros.otel.core.infrastructure;
+
+import io.opentelemetry.api.logs.Severity;
+import io.opentelemetry.api.trace.SpanContext;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Política de severidad para los logs: umbral mínimo por nombre de instrumentación
+ * (el prefijo más largo gana) y tratamiento de DEBUG/INFO en trazas no muestreadas.
+ */
+public class LogSeverityPolicy {
+
+    public enum UnsampledMode {
+        /** Emitir siempre (comportamiento por defecto) */
+        KEEP,
+        /** Descartar DEBUG/INFO de trazas no muestreadas */
+        DROP,
+        /** Emitir sólo una fracción de DEBUG/INFO de trazas no muestreadas */
+        SAMPLE
+    }
+
+    private static final LogSeverityPolicy DEFAULTS = builder().build();
+
+    private final Severity defaultMinimumSeverity;
+    private final Map<String, Severity> minimumSeverityByInstrumentation;
+    private final UnsampledMode unsampledMode;
+    private final double unsampledSampleRatio;
+
+    private LogSeverityPolicy(Builder builder) {
+        this.defaultMinimumSeverity = builder.defaultMinimumSeverity;
+        this.minimumSeverityByInstrumentation = Map.copyOf(builder.minimumSeverityByInstrumentation);
+        this.unsampledMode = builder.unsampledMode;
+        this.unsampledSampleRatio = builder.unsampledSampleRatio;
+    }
+
+    public static LogSeverityPolicy defaults() {
+        return DEFAULTS;
+    }
+
+    /**
+     * Umbral para una instrumentación: coincidencia exacta o por prefijo más largo
+     * ("pe.soapros.otel.lambda" aplica a "pe.soapros.otel.lambda.http").
+     */
+    public Severity minimumSeverityFor(String instrumentationName) {
+        if (instrumentationName == null || minimumSeverityByInstrumentation.isEmpty()) {
+            return defaultMinimumSeverity;
+        }
+
+        Severity match = defaultMinimumSeverity;
+        int matchLength = -1;
+        for (Map.Entry<String, Severity> entry : minimumSeverityByInstrumentation.entrySet()) {
+            String prefix = entry.getKey();
+            if (prefix.length() > matchLength && instrumentationName.startsWith(prefix)) {
+                match = entry.getValue();
+                matchLength = prefix.length();
+            }
+        }
+        return match;
+    }
+
+    /**
+     * Decide si un log de baja severidad (por debajo de WARN) se emite dado el span actual.
+     * Los logs sin traza activa o de trazas muestreadas no se ven afectados.
+     */
+    public boolean shouldEmit(Severity severity, SpanContext spanContext) {
+        if (unsampledMode == UnsampledMode.KEEP
+                || severity.getSeverityNumber() >= Severity.WARN.getSeverityNumber()
+                || !spanContext.isValid()
+                || spanContext.isSampled()) {
+            return true;
+        }
+
+        return unsampledMode == UnsampledMode.SAMPLE
+                && ThreadLocalRandom.current().nextDouble() < unsampledSampleRatio;
+    }
+
+    /**
+     * Variante determinista para {@code isEnabled}: en modo SAMPLE se considera habilitado
+     * y la decisión final la toma {@link #shouldEmit(Severity, SpanContext)}.
+     */
+    public boolean mayEmit(Severity severity, SpanContext spanContext) {
+        if (unsampledMode != UnsampledMode.DROP) {
+            return true;
+        }
+        return shouldEmit(severity, spanContext);
+    }
+
+    public Severity getDefaultMinimumSeverity() { return defaultMinimumSeverity; }
+    public Map<String, Severity> getMinimumSeverityByInstrumentation() { return minimumSeverityByInstrumentation; }
+    public UnsampledMode getUnsampledMode() { return unsampledMode; }
+    public double getUnsampledSampleRatio() { return unsampledSampleRatio; }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public static class Builder {
+        private Severity defaultMinimumSeverity = Severity.TRACE;
+        private final Map<String, Severity> minimumSeverityByInstrumentation = new HashMap<>();
+        private UnsampledMode unsampledMode = UnsampledMode.KEEP;
+        private double unsampledSampleRatio = 1.0;
+
+        private Builder() {
+        }
+
+        public Builder minimumSeverity(Severity severity) {
+            this.defaultMinimumSeverity = severity;
+            return this;
+        }
+
+        public Builder minimumSeverity(String instrumentationPrefix, Severity severity) {
+            this.minimumSeverityByInstrumentation.put(instrumentationPrefix, severity);
+            return this;
+        }
+
+        public Builder dropUnsampledLowSeverity() {
+            this.unsampledMode = UnsampledMode.DROP;
+            return this;
+        }
+
+        public Builder sampleUnsampledLowSeverity(double ratio) {
+            if (ratio < 0.0 || ratio > 1.0) {
+                throw new IllegalArgumentException("ratio must be between 0.0 and 1.0");
+            }
+            this.unsampledMode = UnsampledMode.SAMPLE;
+            this.unsampledSampleRatio = ratio;
+            return this;
+        }
+
+        public LogSeverityPolicy build() {
+            return new LogSeverityPolicy(this);
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package pe.soapros.otel.core.infrastructure;
+
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.api.common.Attributes;
+import io.opentelemetry.api.metrics.LongCounter;
+import io.opentelemetry.api.metrics.Meter;
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.SpanContext;
+import io.opentelemetry.api.trace.SpanKind;
+import io.opentelemetry.context.Context;
+import io.opentelemetry.sdk.trace.data.LinkData;
+import io.opentelemetry.sdk.trace.samplers.Sampler;
+import io.opentelemetry.sdk.trace.samplers.SamplingDecision;
+import io.opentelemetry.sdk.trace.samplers.SamplingResult;
+
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Cuenta las decisiones de muestreo por decisión y por origen (raíz, padre local o remoto)
+ */
+final class MeteredSampler implements Sampler {
+
+    private static final AttributeKey<String> DECISION = AttributeKey.stringKey("sampler.decision");
+    private static final AttributeKey<String> PARENT = AttributeKey.stringKey("sampler.parent");
+
+    private final Sampler delegate;
+    private final LongCounter decisions;
+
+    // Combinaciones fijas y pocas: se pre-construyen para no crear Attributes por span
+    private final Map<SamplingDecision, Attributes[]> attributesByDecision = new EnumMap<>(SamplingDecision.class);
+
+    MeteredSampler(Sampler delegate, Meter meter) {
+        this.delegate = delegate;
+        this.decisions = meter.counterBuilder("otel.sampler.decisions")
+                .setDescription("Decisiones de muestreo de spans")
+                .setUnit("{span}")
+                .build();
+
+        String[] parents = {"none", "local", "remote"};
+        for (SamplingDecision decision : SamplingDecision.values()) {
+            Attributes[] byParent = new Attributes[parents.length];
+            for (int i = 0; i < parents.length; i++) {
+                byParent[i] = Attributes.of(DECISION, decision.name().toLowerCase(), PARENT, parents[i]);
+            }
+            attributesByDecision.put(decision, byParent);
+        }
+    }
+
+    @Override
+    public SamplingResult shouldSample(Context parentContext, String traceId, String name, SpanKind spanKind,
+                                       Attributes attributes, List<LinkData> parentLinks) {
+        SamplingResult result = delegate.shouldSample(parentContext, traceId, name, spanKind, attributes, parentLinks);
+
+        SpanContext parent = Span.fromContext(parentContext).getSpanContext();
+        int parentIndex = !parent.isValid() ? 0 : parent.isRemote() ? 2 : 1;
+        decisions.add(1, attributesByDecision.get(result.getDecision())[parentIndex]);
+
+        return result;
+    }
+
+    @Override
+    public String getDescription() {
+        return delegate.getDescription();
+    }
+}
@@ -0,0 +1,185 @@
+package pe.soapros.otel.core.infrastructure;
+
+import io.opentelemetry.sdk.common.export.MemoryMode;
+import io.opentelemetry.sdk.metrics.export.AggregationTemporalitySelector;
+import io.opentelemetry.sdk.metrics.export.MetricExporter;
+import io.opentelemetry.sdk.metrics.export.MetricReader;
+import io.opentelemetry.sdk.metrics.export.PeriodicMetricReader;
+
+import java.time.Duration;
+import java.util.Locale;
+
+/**
+ * Configuración del export de métricas: temporalidad, modo de memoria de la agregación,
+ * intervalo del reader periódico o export sólo en el flush de fin de invocación.
+ *
+ * En Lambda conviene {@link #lambda()}: con DELTA cada contenedor envía sólo lo ocurrido desde
+ * el último export (las series cumulativas se reinician con cada contenedor nuevo y el backend
+ * cobra por serie), REUSABLE_DATA evita asignar los puntos en cada colección, y el export se hace
+ * en el flush en vez de en un timer de fondo que queda congelado entre invocaciones.
+ */
+public class MetricExportConfig {
+
+    public enum Temporality {
+        /** Default del SDK: todas las series cumulativas */
+        CUMULATIVE,
+        /** Delta para counters e histogramas; up-down counters cumulativos */
+        DELTA,
+        /** Delta para counters síncronos e histogramas; observables cumulativos (menos memoria en el SDK) */
+        LOWMEMORY
+    }
+
+    public static final Duration DEFAULT_EXPORT_INTERVAL = Duration.ofSeconds(30);
+
+    private static final MetricExportConfig DEFAULTS = builder().build();
+
+    private final Temporality temporality;
+    private final MemoryMode memoryMode;
+    private final Duration exportInterval;
+    private final boolean exportOnFlush;
+
+    private MetricExportConfig(Builder builder) {
+        this.temporality = builder.temporality;
+        this.memoryMode = builder.memoryMode;
+        this.exportInterval = builder.exportInterval;
+        this.exportOnFlush = builder.exportOnFlush;
+    }
+
+    /**
+     * Cumulativo, IMMUTABLE_DATA y reader periódico cada 30s (equivalente al default del SDK)
+     */
+    public static MetricExportConfig defaults() {
+        return DEFAULTS;
+    }
+
+    /**
+     * DELTA, REUSABLE_DATA y export en el flush de cada invocación
+     */
+    public static MetricExportConfig lambda() {
+        return builder()
+                .temporality(Temporality.DELTA)
+                .memoryMode(MemoryMode.REUSABLE_DATA)
+                .exportOnFlush(true)
+                .build();
+    }
+
+    /**
+     * Defaults ajustados con las variables estándar del SDK:
+     * OTEL_EXPORTER_OTLP_METRICS_TEMPORALITY_PREFERENCE (cumulative | delta | lowmemory),
+     * OTEL_METRIC_EXPORT_INTERVAL (ms) y OTEL_JAVA_EXPERIMENTAL_EXPORTER_MEMORY_MODE
+     * (immutable_data | reusable_data). Un valor inválido se ignora con un warning y se
+     * mantiene el default.
+     */
+    public static MetricExportConfig fromEnvironment() {
+        Builder builder = builder();
+
+        String temporality = System.getenv("OTEL_EXPORTER_OTLP_METRICS_TEMPORALITY_PREFERENCE");
+        if (temporality != null && !temporality.isBlank()) {
+            try {
+                builder.temporality(Temporality.valueOf(temporality.trim().toUpperCase(Locale.ROOT)));
+            } catch (IllegalArgumentException e) {
+                warnInvalid("OTEL_EXPORTER_OTLP_METRICS_TEMPORALITY_PREFERENCE", temporality);
+            }
+        }
+
+        String interval = System.getenv("OTEL_METRIC_EXPORT_INTERVAL");
+        if (interval != null && !interval.isBlank()) {
+            try {
+                builder.exportInterval(Duration.ofMillis(Long.parseLong(interval.trim())));
+            } catch (IllegalArgumentException e) {
+                warnInvalid("OTEL_METRIC_EXPORT_INTERVAL", interval);
+            }
+        }
+
+        String memoryMode = System.getenv("OTEL_JAVA_EXPERIMENTAL_EXPORTER_MEMORY_MODE");
+        if (memoryMode != null && !memoryMode.isBlank()) {
+            try {
+                builder.memoryMode(MemoryMode.valueOf(memoryMode.trim().toUpperCase(Locale.ROOT)));
+            } catch (IllegalArgumentException e) {
+                warnInvalid("OTEL_JAVA_EXPERIMENTAL_EXPORTER_MEMORY_MODE", memoryMode);
+            }
+        }
+
+        return builder.build();
+    }
+
+    private static void warnInvalid(String variable, String value) {
+        System.err.println("⚠️ Ignoring invalid " + variable + "='" + value + "', using the default");
+    }
+
+    public AggregationTemporalitySelector temporalitySelector() {
+        return switch (temporality) {
+            case CUMULATIVE -> AggregationTemporalitySelector.alwaysCumulative();
+            case DELTA -> AggregationTemporalitySelector.deltaPreferred();
+            case LOWMEMORY -> AggregationTemporalitySelector.lowMemory();
+        };
+    }
+
+    /**
+     * Reader para el SdkMeterProvider: periódico o sólo en forceFlush
+     */
+    public MetricReader createReader(MetricExporter exporter) {
+        if (exportOnFlush) {
+            return new FlushOnlyMetricReader(exporter);
+        }
+        return PeriodicMetricReader.builder(exporter)
+                .setInterval(exportInterval)
+                .build();
+    }
+
+    public Temporality getTemporality() { return temporality; }
+    public MemoryMode getMemoryMode() { return memoryMode; }
+    public Duration getExportInterval() { return exportInterval; }
+    public boolean isExportOnFlush() { return exportOnFlush; }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public static class Builder {
+        private Temporality temporality = Temporality.CUMULATIVE;
+        private MemoryMode memoryMode = MemoryMode.IMMUTABLE_DATA;
+        private Duration exportInterval = DEFAULT_EXPORT_INTERVAL;
+        private boolean exportOnFlush = false;
+
+        private Builder() {
+        }
+
+        public Builder temporality(Temporality temporality) {
+            this.temporality = temporality != null ? temporality : Temporality.CUMULATIVE;
+            return this;
+        }
+
+        /**
+         * REUSABLE_DATA reutiliza los puntos entre colecciones (sin asignaciones por export)
+         */
+        public Builder memoryMode(MemoryMode memoryMode) {
+            this.memoryMode = memoryMode != null ? memoryMode : MemoryMode.IMMUTABLE_DATA;
+            return this;
+        }
+
+        /**
+         * Intervalo del reader periódico (ignorado con exportOnFlush)
+         */
+        public Builder exportInterval(Duration exportInterval) {
+            if (exportInterval == null || exportInterval.isNegative() || exportInterval.isZero()) {
+                throw new IllegalArgumentException("exportInterval must be > 0");
+            }
+            this.exportInterval = exportInterval;
+            return this;
+        }
+
+        /**
+         * Exportar sólo en forceFlush (TelemetryFlushCoordinator al final de la invocación),
+         * sin thread de fondo
+         */
+        public Builder exportOnFlush(boolean exportOnFlush) {
+            this.exportOnFlush = exportOnFlush;
+            return this;
+        }
+
+        public MetricExportConfig build() {
+            return new MetricExportConfig(this);
+        }
+    }
+}
@@ -0,0 +1,185 @@
+package pe.soapros.otel.core.infrastructure;
+
+import io.opentelemetry.sdk.metrics.Aggregation;
+import io.opentelemetry.sdk.metrics.InstrumentSelector;
+import io.opentelemetry.sdk.metrics.InstrumentType;
+import io.opentelemetry.sdk.metrics.SdkMeterProviderBuilder;
+import io.opentelemetry.sdk.metrics.View;
+import io.opentelemetry.sdk.metrics.export.DefaultAggregationSelector;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Registro de vistas para los histogramas: límites de buckets explícitos por instrumento
+ * o histogramas exponenciales base 2.
+ *
+ * Se registra una vista por nombre exacto de instrumento; registrar de nuevo un nombre
+ * reemplaza la vista anterior (el SDK exportaría un stream por cada vista que coincida).
+ * Los histogramas sin vista usan los buckets por defecto del SDK, o el exponencial si se
+ * activa {@link Builder#exponentialByDefault()}.
+ */
+public class MetricViewConfig {
+
+    public static final int DEFAULT_MAX_EXPONENTIAL_BUCKETS = 160;
+    private static final int MAX_EXPONENTIAL_SCALE = 20;
+
+    /** Latencias en ms: 5ms .. 10s */
+    public static final List<Double> LATENCY_MS_BUCKETS = List.of(
+            5d, 10d, 25d, 50d, 100d, 250d, 500d, 1_000d, 2_500d, 5_000d, 10_000d);
+
+    /** Tamaños en bytes: 256B .. 4MiB (6MB es el límite de payload de Lambda) */
+    public static final List<Double> SIZE_BYTES_BUCKETS = List.of(
+            256d, 1_024d, 4_096d, 16_384d, 65_536d, 262_144d, 1_048_576d, 4_194_304d);
+
+    /** Latencia / umbral del SLO: el bucket 1.0 separa eventos buenos de malos */
+    public static final List<Double> SLO_RATIO_BUCKETS = List.of(
+            0.25, 0.5, 0.75, 1.0, 1.5, 2.0, 4.0);
+
+    /** Duración de sesiones en minutos: 1min .. 8h */
+    public static final List<Double> SESSION_MINUTES_BUCKETS = List.of(
+            1d, 5d, 15d, 30d, 60d, 120d, 240d, 480d);
+
+    private static final MetricViewConfig DEFAULTS = builder().defaultViews().build();
+    private static final MetricViewConfig NONE = builder().build();
+
+    private final Map<String, Aggregation> histogramViews;
+    private final boolean exponentialByDefault;
+    private final int maxExponentialBuckets;
+
+    private MetricViewConfig(Builder builder) {
+        this.histogramViews = Map.copyOf(builder.histogramViews);
+        this.exponentialByDefault = builder.exponentialByDefault;
+        this.maxExponentialBuckets = builder.maxExponentialBuckets;
+    }
+
+    /**
+     * Buckets ajustados para los histogramas de los colectores de la librería
+     */
+    public static MetricViewConfig defaults() {
+        return DEFAULTS;
+    }
+
+    /**
+     * Sin vistas: buckets por defecto del SDK para todo
+     */
+    public static MetricViewConfig none() {
+        return NONE;
+    }
+
+    /**
+     * Registrar las vistas en el meter provider
+     */
+    public void applyTo(SdkMeterProviderBuilder meterProviderBuilder) {
+        histogramViews.forEach((instrumentName, aggregation) ->
+                meterProviderBuilder.registerView(
+                        InstrumentSelector.builder()
+                                .setType(InstrumentType.HISTOGRAM)
+                                .setName(instrumentName)
+                                .build(),
+                        View.builder()
+                                .setAggregation(aggregation)
+                                .build()));
+    }
+
+    /**
+     * Agregación por defecto del exporter para los instrumentos sin vista
+     */
+    public DefaultAggregationSelector aggregationSelector() {
+        DefaultAggregationSelector selector = DefaultAggregationSelector.getDefault();
+        if (exponentialByDefault) {
+            selector = selector.with(InstrumentType.HISTOGRAM,
+                    Aggregation.base2ExponentialBucketHistogram(maxExponentialBuckets, MAX_EXPONENTIAL_SCALE));
+        }
+        return selector;
+    }
+
+    public Map<String, Aggregation> getHistogramViews() { return histogramViews; }
+    public boolean isExponentialByDefault() { return exponentialByDefault; }
+    public int getMaxExponentialBuckets() { return maxExponentialBuckets; }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public static class Builder {
+        private final Map<String, Aggregation> histogramViews = new LinkedHashMap<>();
+        private boolean exponentialByDefault = false;
+        private int maxExponentialBuckets = DEFAULT_MAX_EXPONENTIAL_BUCKETS;
+
+        private Builder() {
+        }
+
+        /**
+         * Vistas de {@link #defaults()}; se pueden sobrescribir después por nombre
+         */
+        public Builder defaultViews() {
+            explicitBuckets("http.request.duration", LATENCY_MS_BUCKETS);
+            explicitBuckets("db.operation.duration", LATENCY_MS_BUCKETS);
+            explicitBuckets("external.service.duration", LATENCY_MS_BUCKETS);
+            explicitBuckets("lambda.execution.duration", LATENCY_MS_BUCKETS);
+            explicitBuckets("business.transaction.duration", LATENCY_MS_BUCKETS);
+
+            explicitBuckets("http.request.size", SIZE_BYTES_BUCKETS);
+            explicitBuckets("http.response.size", SIZE_BYTES_BUCKETS);
+            explicitBuckets("http.request.size_bytes", SIZE_BYTES_BUCKETS);
+            explicitBuckets("http.response.size_bytes", SIZE_BYTES_BUCKETS);
+            explicitBuckets("http.throughput.bytes_total", SIZE_BYTES_BUCKETS);
+
+            explicitBuckets("business.user.session.duration", SESSION_MINUTES_BUCKETS);
+            explicitBuckets("slo.latency.ratio", SLO_RATIO_BUCKETS);
+
+            // Montos: rango desconocido a priori, el exponencial se ajusta solo
+            exponential("business.transaction.amount");
+            exponential("business.sales.amount");
+            return this;
+        }
+
+        public Builder explicitBuckets(String instrumentName, List<Double> boundaries) {
+            if (boundaries == null || boundaries.isEmpty()) {
+                throw new IllegalArgumentException("boundaries cannot be empty");
+            }
+            histogramViews.put(instrumentName, Aggregation.explicitBucketHistogram(List.copyOf(boundaries)));
+            return this;
+        }
+
+        public Builder exponential(String instrumentName) {
+            return exponential(instrumentName, DEFAULT_MAX_EXPONENTIAL_BUCKETS);
+        }
+
+        public Builder exponential(String instrumentName, int maxBuckets) {
+            histogramViews.put(instrumentName,
+                    Aggregation.base2ExponentialBucketHistogram(maxBuckets, MAX_EXPONENTIAL_SCALE));
+            return this;
+        }
+
+        /**
+         * Quitar la vista de un instrumento (vuelve a la agregación por defecto)
+         */
+        public Builder removeView(String instrumentName) {
+            histogramViews.remove(instrumentName);
+            return this;
+        }
+
+        /**
+         * Histogramas exponenciales base 2 para todo histograma sin vista explícita
+         */
+        public Builder exponentialByDefault() {
+            return exponentialByDefault(DEFAULT_MAX_EXPONENTIAL_BUCKETS);
+        }
+
+        public Builder exponentialByDefault(int maxBuckets) {
+            if (maxBuckets < 2) {
+                throw new IllegalArgumentException("maxBuckets must be >= 2");
+            }
+            this.exponentialByDefault = true;
+            this.maxExponentialBuckets = maxBuckets;
+            return this;
+        }
+
+        public MetricViewConfig build() {
+            return new MetricViewConfig(this);
+        }
+    }
+}
@@ -3,6 +3,7 @@ package pe.soapros.otel.core.infrastructure;
 import io.opentelemetry.api.OpenTelemetry;
 import io.opentelemetry.api.common.AttributeKey;
 import io.opentelemetry.api.common.Attributes;
+import io.opentelemetry.api.metrics.Meter;
 import io.opentelemetry.exporter.otlp.logs.OtlpGrpcLogRecordExporter;
 import io.opentelemetry.exporter.otlp.metrics.OtlpGrpcMetricExporter;
 import io.opentelemetry.exporter.otlp.trace.OtlpGrpcSpanExporter;
@@ -10,9 +11,10 @@ import io.opentelemetry.sdk.OpenTelemetrySdk;
 import io.opentelemetry.sdk.logs.SdkLoggerProvider;
 import io.opentelemetry.sdk.logs.export.BatchLogRecordProcessor;
 import io.opentelemetry.sdk.metrics.SdkMeterProvider;
-import io.opentelemetry.sdk.metrics.export.PeriodicMetricReader;
+import io.opentelemetry.sdk.metrics.SdkMeterProviderBuilder;
 import io.opentelemetry.sdk.resources.Resource;
 import io.opentelemetry.sdk.trace.SdkTracerProvider;
+import io.opentelemetry.sdk.trace.SpanProcessor;
 import io.opentelemetry.sdk.trace.export.BatchSpanProcessor;
 import io.opentelemetry.semconv.ServiceAttributes;
 
@@ -47,6 +49,12 @@ public class ObservabilityConfig {
     private final Environment environment;
     private final String otlpEndpoint;
     private final Map<String, String> customAttributes;
+    private final LogSeverityPolicy logSeverityPolicy;
+    private final SamplingConfig samplingConfig;
+    private final TailSamplingConfig tailSamplingConfig;
+    private final MetricViewConfig metricViewConfig;
+    private final MetricExportConfig metricExportConfig;
+    private final PropagationConfig propagationConfig;
     
     private ObservabilityConfig(Builder builder) {
         this.serviceName = builder.serviceName;
@@ -54,16 +62,45 @@ public class ObservabilityConfig {
         this.environment = builder.environment;
         this.otlpEndpoint = resolveEndpoint(builder.otlpEndpoint);
         this.customAttributes = Map.copyOf(builder.customAttributes);
+        this.logSeverityPolicy = builder.logSeverityPolicy;
+        this.samplingConfig = builder.samplingConfig;
+        this.tailSamplingConfig = builder.tailSamplingConfig;
+        this.metricViewConfig = builder.metricViewConfig;
+        this.metricExportConfig = builder.metricExportConfig;
+        this.propagationConfig = builder.propagationConfig;
     }
     
     public OpenTelemetry createOpenTelemetry() {
-        Resource resource = createResource();
-        
-        return OpenTelemetrySdk.builder()
-                .setTracerProvider(createTracerProvider(resource))
-                .setMeterProvider(createMeterProvider(resource))
-                .setLoggerProvider(createLoggerProvider(resource))
-                .build();
+        return createOpenTelemetrySdk();
+    }
+    
+    /**
+     * Igual que {@link #createOpenTelemetry()} pero conservando el tipo del SDK,
+     * necesario para hacer flush/shutdown de los providers.
+     */
+    public OpenTelemetrySdk createOpenTelemetrySdk() {
+        return createOpenTelemetrySdk(new LogRecordAccounting());
+    }
+
+    /**
+     * SDK cuyos logs descartados por cola llena se cuentan en {@code logRecords}
+     */
+    OpenTelemetrySdk createOpenTelemetrySdk(LogRecordAccounting logRecords) {
+        // Forma parte del cold start: se reporta como fase de init en la primera invocación
+        try (InitPhaseTimer.Measurement ignored = InitPhaseTimer.start("otel.sdk")) {
+            Resource resource = createResource();
+            
+            // El meter provider va primero: los batch processors publican en él
+            // sus métricas internas (tamaño de cola, spans/logs descartados)
+            SdkMeterProvider meterProvider = createMeterProvider(resource);
+            
+            return OpenTelemetrySdk.builder()
+                    .setTracerProvider(createTracerProvider(resource, meterProvider))
+                    .setMeterProvider(meterProvider)
+                    .setLoggerProvider(createLoggerProvider(resource, meterProvider, logRecords))
+                    .setPropagators(propagationConfig.createContextPropagators())
+                    .build();
+        }
     }
     
     private Resource createResource() {
@@ -79,18 +116,29 @@ public class ObservabilityConfig {
         return resourceBuilder.build();
     }
     
-    private SdkTracerProvider createTracerProvider(Resource resource) {
+    private SdkTracerProvider createTracerProvider(Resource resource, SdkMeterProvider meterProvider) {
         OtlpGrpcSpanExporter spanExporter = OtlpGrpcSpanExporter.builder()
                 .setEndpoint(otlpEndpoint)
                 .setTimeout(environment.getExportTimeout())
                 .build();
         
+        Meter samplingMeter = meterProvider.get("pe.soapros.otel.core.sampling");
+        
+        SpanProcessor spanProcessor = BatchSpanProcessor.builder(spanExporter)
+                .setMaxExportBatchSize(environment.getMaxBatchSize())
+                .setExporterTimeout(environment.getExportTimeout())
+                .setMeterProvider(meterProvider)
+                .build();
+        
+        // El muestreo por cola decide por traza antes de pasar los spans al batch processor
+        if (tailSamplingConfig != null) {
+            spanProcessor = new TailSamplingSpanProcessor(spanProcessor, tailSamplingConfig, samplingMeter);
+        }
+        
         return SdkTracerProvider.builder()
                 .setResource(resource)
-                .addSpanProcessor(BatchSpanProcessor.builder(spanExporter)
-                        .setMaxExportBatchSize(environment.getMaxBatchSize())
-                        .setExporterTimeout(environment.getExportTimeout())
-                        .build())
+                .setSampler(samplingConfig.createSampler(samplingMeter))
+                .addSpanProcessor(spanProcessor)
                 .build();
     }
     
@@ -98,17 +146,21 @@ public class ObservabilityConfig {
         OtlpGrpcMetricExporter metricExporter = OtlpGrpcMetricExporter.builder()
                 .setEndpoint(otlpEndpoint)
                 .setTimeout(environment.getExportTimeout())
+                .setDefaultAggregationSelector(metricViewConfig.aggregationSelector())
+                .setAggregationTemporalitySelector(metricExportConfig.temporalitySelector())
+                .setMemoryMode(metricExportConfig.getMemoryMode())
                 .build();
         
-        return SdkMeterProvider.builder()
+        SdkMeterProviderBuilder builder = SdkMeterProvider.builder()
                 .setResource(resource)
-                .registerMetricReader(PeriodicMetricReader.builder(metricExporter)
-                        .setInterval(Duration.ofSeconds(30))
-                        .build())
-                .build();
+                .registerMetricReader(metricExportConfig.createReader(metricExporter));
+        
+        metricViewConfig.applyTo(builder);
+        return builder.build();
     }
     
-    private SdkLoggerProvider createLoggerProvider(Resource resource) {
+    private SdkLoggerProvider createLoggerProvider(Resource resource, SdkMeterProvider meterProvider,
+                                                   LogRecordAccounting logRecords) {
         OtlpGrpcLogRecordExporter logExporter = OtlpGrpcLogRecordExporter.builder()
                 .setEndpoint(otlpEndpoint)
                 .setTimeout(environment.getExportTimeout())
@@ -116,11 +168,12 @@ public class ObservabilityConfig {
 
         return SdkLoggerProvider.builder()
                 .setResource(resource)
-                .addLogRecordProcessor(BatchLogRecordProcessor.builder(logExporter)
+                .addLogRecordProcessor(logRecords.wrap(BatchLogRecordProcessor.builder(logRecords.wrap(logExporter))
                         .setMaxExportBatchSize(environment.getMaxBatchSize())
                         .setExporterTimeout(environment.getExportTimeout())
                         .setScheduleDelay(Duration.ofMillis(500))
-                        .build())
+                        .setMeterProvider(meterProvider)
+                        .build()))
                 .build();
     }
     
@@ -142,6 +195,12 @@ public class ObservabilityConfig {
     public Environment getEnvironment() { return environment; }
     public String getOtlpEndpoint() { return otlpEndpoint; }
     public Map<String, String> getCustomAttributes() { return customAttributes; }
+    public LogSeverityPolicy getLogSeverityPolicy() { return logSeverityPolicy; }
+    public SamplingConfig getSamplingConfig() { return samplingConfig; }
+    public TailSamplingConfig getTailSamplingConfig() { return tailSamplingConfig; }
+    public MetricViewConfig getMetricViewConfig() { return metricViewConfig; }
+    public MetricExportConfig getMetricExportConfig() { return metricExportConfig; }
+    public PropagationConfig getPropagationConfig() { return propagationConfig; }
     
     public static Builder builder(String serviceName) {
         return new Builder(serviceName);
@@ -153,6 +212,12 @@ public class ObservabilityConfig {
         private Environment environment = Environment.DEVELOPMENT;
         private String otlpEndpoint;
         private Map<String, String> customAttributes = Map.of();
+        private LogSeverityPolicy logSeverityPolicy = LogSeverityPolicy.defaults();
+        private SamplingConfig samplingConfig = SamplingConfig.defaults();
+        private TailSamplingConfig tailSamplingConfig;
+        private MetricViewConfig metricViewConfig = MetricViewConfig.defaults();
+        private MetricExportConfig metricExportConfig = MetricExportConfig.fromEnvironment();
+        private PropagationConfig propagationConfig = PropagationConfig.fromEnvironment();
         
         private Builder(String serviceName) {
             this.serviceName = serviceName;
@@ -183,6 +248,50 @@ public class ObservabilityConfig {
             return this;
         }
         
+        public Builder logSeverityPolicy(LogSeverityPolicy logSeverityPolicy) {
+            this.logSeverityPolicy = logSeverityPolicy != null ? logSeverityPolicy : LogSeverityPolicy.defaults();
+            return this;
+        }
+        
+        public Builder sampling(SamplingConfig samplingConfig) {
+            this.samplingConfig = samplingConfig != null ? samplingConfig : SamplingConfig.defaults();
+            return this;
+        }
+        
+        /**
+         * Activar el muestreo por cola (null lo desactiva). Combinar con un head sampling
+         * que muestree todo lo que deba evaluarse.
+         */
+        public Builder tailSampling(TailSamplingConfig tailSamplingConfig) {
+            this.tailSamplingConfig = tailSamplingConfig;
+            return this;
+        }
+        
+        /**
+         * Vistas de histogramas (buckets / exponencial). Por defecto {@link MetricViewConfig#defaults()}
+         */
+        public Builder metricViews(MetricViewConfig metricViewConfig) {
+            this.metricViewConfig = metricViewConfig != null ? metricViewConfig : MetricViewConfig.defaults();
+            return this;
+        }
+        
+        /**
+         * Temporalidad, modo de memoria e intervalo / export en flush. Por defecto
+         * {@link MetricExportConfig#fromEnvironment()}; en Lambda ver {@link MetricExportConfig#lambda()}
+         */
+        public Builder metricExport(MetricExportConfig metricExportConfig) {
+            this.metricExportConfig = metricExportConfig != null ? metricExportConfig : MetricExportConfig.fromEnvironment();
+            return this;
+        }
+        
+        /**
+         * Formatos de propagación (W3C, baggage, B3, X-Ray). Por defecto {@link PropagationConfig#fromEnvironment()}
+         */
+        public Builder propagation(PropagationConfig propagationConfig) {
+            this.propagationConfig = propagationConfig != null ? propagationConfig : PropagationConfig.fromEnvironment();
+            return this;
+        }
+        
         public ObservabilityConfig build() {
             return new ObservabilityConfig(this);
         }
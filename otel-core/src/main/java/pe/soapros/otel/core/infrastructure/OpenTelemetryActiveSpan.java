@@ -0,0 +1,16 @@
+package pe.soapros.otel.core.infrastructure;
+
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.context.Context;
+import pe.soapros.otel.core.domain.ActiveSpan;
+
+/**
+ * OpenTelemetryTraceSpan que se hace current al crearse; el mismo objeto guarda span y scope
+ */
+final class OpenTelemetryActiveSpan extends OpenTelemetryTraceSpan implements ActiveSpan {
+
+    OpenTelemetryActiveSpan(Span span, Context parentContext, String spanName) {
+        super(span, parentContext, spanName);
+        makeCurrent();
+    }
+}
@@ -1,5 +1,8 @@
 package pe.soapros.otel.core.infrastructure;
 
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.api.common.Attributes;
+import io.opentelemetry.api.common.AttributesBuilder;
 import io.opentelemetry.api.logs.LogRecordBuilder;
 import io.opentelemetry.api.logs.Logger;
 import io.opentelemetry.api.logs.Severity;
@@ -8,72 +11,129 @@ import io.opentelemetry.api.trace.SpanContext;
 import io.opentelemetry.context.Context;
 import pe.soapros.otel.core.domain.LoggerService;
 
-import java.time.Instant;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
 
 public class OpenTelemetryLoggerService implements LoggerService {
-    
+
+    // Claves pre-construidas: evitan crear un AttributeKey por atributo y por log
+    static final AttributeKey<String> TRACE_ID = AttributeKey.stringKey("trace_id");
+    static final AttributeKey<String> SPAN_ID = AttributeKey.stringKey("span_id");
+    static final AttributeKey<String> TRACE_FLAGS = AttributeKey.stringKey("trace_flags");
+    static final AttributeKey<Boolean> TRACE_SAMPLED = AttributeKey.booleanKey("trace_sampled");
+    static final AttributeKey<String> EXCEPTION_TYPE = AttributeKey.stringKey("exception.type");
+    static final AttributeKey<String> EXCEPTION_MESSAGE = AttributeKey.stringKey("exception.message");
+    static final AttributeKey<String> EXCEPTION_STACKTRACE = AttributeKey.stringKey("exception.stacktrace");
+    static final AttributeKey<String> THREAD_NAME = AttributeKey.stringKey("thread.name");
+    static final AttributeKey<Long> THREAD_ID = AttributeKey.longKey("thread.id");
+    static final AttributeKey<String> SERVICE_NAME = AttributeKey.stringKey("service.name");
+    static final AttributeKey<String> ENVIRONMENT = AttributeKey.stringKey("environment");
+    static final AttributeKey<String> FAAS_NAME = AttributeKey.stringKey("faas.name");
+    static final AttributeKey<String> FAAS_VERSION = AttributeKey.stringKey("faas.version");
+
+    static final int MAX_STACK_FRAMES = 64;
+    private static final int MAX_CACHED_KEYS = 512;
+
+    // Nombre e id del hilo no cambian en la práctica: se resuelven una vez por hilo
+    private static final ThreadLocal<Attributes> THREAD_ATTRIBUTES = ThreadLocal.withInitial(() -> {
+        Thread thread = Thread.currentThread();
+        return Attributes.of(THREAD_NAME, thread.getName(), THREAD_ID, thread.threadId());
+    });
+
+    private static final Map<String, AttributeKey<String>> USER_KEYS = new ConcurrentHashMap<>();
+
     private final Logger logger;
     private final String instrumentationName;
     private final boolean enableTraceCorrelation;
-    
+    private final Severity minimumSeverity;
+    private final LogSeverityPolicy severityPolicy;
+    private final Attributes staticAttributes;
+
     public OpenTelemetryLoggerService(Logger logger) {
         this(logger, "otel-core", true);
     }
-    
+
     public OpenTelemetryLoggerService(Logger logger, String instrumentationName, boolean enableTraceCorrelation) {
+        this(logger, instrumentationName, enableTraceCorrelation, Severity.TRACE);
+    }
+
+    public OpenTelemetryLoggerService(Logger logger, String instrumentationName, boolean enableTraceCorrelation,
+                                      Severity minimumSeverity) {
+        this(logger, instrumentationName, enableTraceCorrelation,
+                LogSeverityPolicy.builder().minimumSeverity(minimumSeverity).build());
+    }
+
+    public OpenTelemetryLoggerService(Logger logger, String instrumentationName, boolean enableTraceCorrelation,
+                                      LogSeverityPolicy severityPolicy) {
         this.logger = logger;
         this.instrumentationName = instrumentationName;
         this.enableTraceCorrelation = enableTraceCorrelation;
+        this.severityPolicy = severityPolicy != null ? severityPolicy : LogSeverityPolicy.defaults();
+        this.minimumSeverity = this.severityPolicy.minimumSeverityFor(instrumentationName);
+        this.staticAttributes = resolveStaticAttributes(instrumentationName);
+    }
+
+    @Override
+    public boolean isEnabled(Severity severity) {
+        if (severity.getSeverityNumber() < minimumSeverity.getSeverityNumber()) {
+            return false;
+        }
+        return severityPolicy.mayEmit(severity, Span.current().getSpanContext());
     }
-    
+
     @Override
     public void info(String message, Map<String, String> attributes) {
         log(Severity.INFO, message, attributes, null);
     }
-    
+
     @Override
     public void debug(String message, Map<String, String> attributes) {
         log(Severity.DEBUG, message, attributes, null);
     }
-    
+
     @Override
     public void warn(String message, Map<String, String> attributes) {
         log(Severity.WARN, message, attributes, null);
     }
-    
+
     @Override
     public void error(String message, Map<String, String> attributes) {
         log(Severity.ERROR, message, attributes, null);
     }
-    
+
     @Override
     public void error(String message, Throwable throwable, Map<String, String> attributes) {
         log(Severity.ERROR, message, attributes, throwable);
     }
-    
+
     private void log(Severity severity, String message, Map<String, String> attributes, Throwable throwable) {
+        // Descartar antes de hacer cualquier trabajo
+        if (severity.getSeverityNumber() < minimumSeverity.getSeverityNumber()) {
+            return;
+        }
+
         try {
-            // 🔧 PUNTO CLAVE: Obtener el contexto actual CORRECTAMENTE
             Context currentContext = Context.current();
-            System.out.println("currentContext.toString() = " + currentContext.toString());
 
-            var logRecordBuilder = logger.logRecordBuilder()
-                    .setTimestamp(Instant.now())
+            // DEBUG/INFO de trazas no muestreadas según la política configurada
+            if (!severityPolicy.shouldEmit(severity, Span.fromContext(currentContext).getSpanContext())) {
+                return;
+            }
+
+            LogRecordBuilder logRecordBuilder = logger.logRecordBuilder()
+                    .setTimestamp(System.currentTimeMillis(), TimeUnit.MILLISECONDS)
                     .setSeverity(severity)
                     .setBody(message)
-                    .setContext(currentContext); // ← CRÍTICO: Usar el contexto actual
+                    .setContext(currentContext);
 
-            // 🚀 CORRELACIÓN AUTOMÁTICA DE TRACE
             if (enableTraceCorrelation) {
-                addTraceCorrelation(logRecordBuilder);
-                //addTraceCorrelationExplicit(logRecordBuilder, currentContext);
+                addTraceCorrelation(logRecordBuilder, currentContext);
             }
 
-
             // Add user attributes
             if (attributes != null) {
-                attributes.forEach(logRecordBuilder::setAttribute);
+                attributes.forEach((key, value) -> logRecordBuilder.setAttribute(userKey(key), value));
             }
 
             // Add exception details if present
@@ -82,7 +142,8 @@ public class OpenTelemetryLoggerService implements LoggerService {
             }
 
             // Add contextual information
-            addContextualInformation(logRecordBuilder);
+            logRecordBuilder.setAllAttributes(THREAD_ATTRIBUTES.get());
+            logRecordBuilder.setAllAttributes(staticAttributes);
 
             logRecordBuilder.emit();
 
@@ -92,104 +153,115 @@ public class OpenTelemetryLoggerService implements LoggerService {
             System.err.println("Original message: " + message);
         }
     }
-    
-    private void addTraceCorrelation(io.opentelemetry.api.logs.LogRecordBuilder logRecordBuilder) {
+
+    private void addTraceCorrelation(LogRecordBuilder logRecordBuilder, Context context) {
         try {
-            Context currentContext = Context.current();
-            Span currentSpan = Span.fromContext(currentContext);
-            SpanContext spanContext = currentSpan.getSpanContext();
-            System.out.println("spanContext.getTraceId = " + spanContext.getTraceId() );
-            System.out.println("spanContext.getSpanId() = " + spanContext.getSpanId());
+            SpanContext spanContext = Span.fromContext(context).getSpanContext();
 
             if (spanContext.isValid()) {
-                logRecordBuilder.setAttribute("trace_id", spanContext.getTraceId());
-                logRecordBuilder.setAttribute("span_id", spanContext.getSpanId());
-                logRecordBuilder.setAttribute("trace_flags", String.format("0%d", spanContext.getTraceFlags().asByte()));
-                
+                logRecordBuilder.setAttribute(TRACE_ID, spanContext.getTraceId());
+                logRecordBuilder.setAttribute(SPAN_ID, spanContext.getSpanId());
+                logRecordBuilder.setAttribute(TRACE_FLAGS, spanContext.getTraceFlags().asHex());
+
                 if (spanContext.isSampled()) {
-                    logRecordBuilder.setAttribute("trace_sampled", true);
+                    logRecordBuilder.setAttribute(TRACE_SAMPLED, true);
                 }
-            }else{
-                System.out.println("is no valida spanContext");
             }
         } catch (Exception e) {
-            System.out.println("Exception: " +  e.getMessage());
             // Silently ignore - don't let logging correlation break actual logging
         }
     }
 
+    private void addExceptionDetails(LogRecordBuilder logRecordBuilder, Throwable throwable) {
+        logRecordBuilder.setAttribute(EXCEPTION_TYPE, throwable.getClass().getName());
+        logRecordBuilder.setAttribute(EXCEPTION_MESSAGE, throwable.getMessage() != null ? throwable.getMessage() : "");
+        logRecordBuilder.setAttribute(EXCEPTION_STACKTRACE, renderStackTrace(throwable));
+    }
+
     /**
-     * 🔧 MÉTODO CRÍTICO: Agregar correlación de trace EXPLÍCITAMENTE
+     * Stack trace con el mismo formato que printStackTrace, pero sin StringWriter/PrintWriter
+     * y limitado a {@link #MAX_STACK_FRAMES} frames por throwable. Solo se calcula cuando
+     * el log supera el umbral de severidad.
      */
-    private void addTraceCorrelationExplicit(LogRecordBuilder logRecordBuilder, Context context) {
-        try {
-            // Obtener el span actual del contexto
-            Span currentSpan = Span.fromContext(context);
-            SpanContext spanContext = currentSpan.getSpanContext();
+    static String renderStackTrace(Throwable throwable) {
+        StringBuilder sb = new StringBuilder(1024);
+        Throwable current = throwable;
+        int depth = 0;
 
-            if (spanContext.isValid()) {
-                // ✅ ESTABLECER EXPLÍCITAMENTE trace_id y span_id
-                logRecordBuilder.setAttribute("trace_id", spanContext.getTraceId());
-                logRecordBuilder.setAttribute("span_id", spanContext.getSpanId());
-                logRecordBuilder.setAttribute("trace_flags", spanContext.getTraceFlags().asByte());
-
-                if (spanContext.isSampled()) {
-                    logRecordBuilder.setAttribute("trace_sampled", true);
-                }
+        // El límite de profundidad protege contra ciclos en la cadena de causas
+        while (current != null && depth < 16) {
+            if (depth > 0) {
+                sb.append("Caused by: ");
+            }
+            sb.append(current).append('\n');
 
-                System.out.println("🎯 TRACE CORRELATION ADDED: traceId=" + spanContext.getTraceId() +
-                        ", spanId=" + spanContext.getSpanId());
-            } else {
-                System.out.println("⚠️ NO VALID SPAN CONTEXT FOUND");
+            StackTraceElement[] frames = current.getStackTrace();
+            int limit = Math.min(frames.length, MAX_STACK_FRAMES);
+            for (int i = 0; i < limit; i++) {
+                sb.append("\tat ").append(frames[i]).append('\n');
             }
-        } catch (Exception e) {
-            System.err.println("🔥 ERROR adding trace correlation: " + e.getMessage());
-            e.printStackTrace();
+            if (frames.length > limit) {
+                sb.append("\t... ").append(frames.length - limit).append(" more\n");
+            }
+
+            current = current.getCause() != current ? current.getCause() : null;
+            depth++;
         }
+        return sb.toString();
     }
 
-    private void addExceptionDetails(io.opentelemetry.api.logs.LogRecordBuilder logRecordBuilder, Throwable throwable) {
-        logRecordBuilder.setAttribute("exception.type", throwable.getClass().getName());
-        logRecordBuilder.setAttribute("exception.message", throwable.getMessage() != null ? throwable.getMessage() : "");
-        logRecordBuilder.setAttribute("exception.stacktrace", getStackTrace(throwable));
+    private static AttributeKey<String> userKey(String key) {
+        AttributeKey<String> cached = USER_KEYS.get(key);
+        if (cached != null) {
+            return cached;
+        }
+        AttributeKey<String> created = AttributeKey.stringKey(key);
+        if (USER_KEYS.size() < MAX_CACHED_KEYS) {
+            USER_KEYS.putIfAbsent(key, created);
+        }
+        return created;
     }
-    
-    private void addContextualInformation(io.opentelemetry.api.logs.LogRecordBuilder logRecordBuilder) {
-        Thread currentThread = Thread.currentThread();
-        logRecordBuilder.setAttribute("thread.name", currentThread.getName());
-        logRecordBuilder.setAttribute("thread.id", currentThread.getId());
-        logRecordBuilder.setAttribute("service.name", instrumentationName);
-        
+
+    private static Attributes resolveStaticAttributes(String instrumentationName) {
+        AttributesBuilder builder = Attributes.builder()
+                .put(SERVICE_NAME, instrumentationName);
+
         // Environment information
         String environment = System.getenv("ENVIRONMENT");
         if (environment != null) {
-            logRecordBuilder.setAttribute("environment", environment);
+            builder.put(ENVIRONMENT, environment);
         }
-        
+
         // Lambda context if available
         String functionName = System.getenv("AWS_LAMBDA_FUNCTION_NAME");
         if (functionName != null) {
-            logRecordBuilder.setAttribute("faas.name", functionName);
-            
+            builder.put(FAAS_NAME, functionName);
+
             String functionVersion = System.getenv("AWS_LAMBDA_FUNCTION_VERSION");
             if (functionVersion != null) {
-                logRecordBuilder.setAttribute("faas.version", functionVersion);
+                builder.put(FAAS_VERSION, functionVersion);
             }
         }
+        return builder.build();
     }
-    
-    private String getStackTrace(Throwable throwable) {
-        var writer = new java.io.StringWriter();
-        var printWriter = new java.io.PrintWriter(writer);
-        throwable.printStackTrace(printWriter);
-        return writer.toString();
-    }
-    
+
     public Logger getLogger() {
         return logger;
     }
-    
+
+    public String getInstrumentationName() {
+        return instrumentationName;
+    }
+
+    public Severity getMinimumSeverity() {
+        return minimumSeverity;
+    }
+
+    public LogSeverityPolicy getSeverityPolicy() {
+        return severityPolicy;
+    }
+
     public boolean isTraceCorrelationEnabled() {
         return enableTraceCorrelation;
     }
-}
\ No newline at end of file
+}
@@ -1,10 +1,12 @@
 package pe.soapros.otel.core.infrastructure;
 
 import io.opentelemetry.api.OpenTelemetry;
+import io.opentelemetry.sdk.OpenTelemetrySdk;
 import pe.soapros.otel.core.domain.LoggerService;
 import pe.soapros.otel.core.domain.MetricsService;
 import pe.soapros.otel.core.domain.TracerService;
 
+import java.time.Duration;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 public class OpenTelemetryManager {
@@ -14,6 +16,7 @@ public class OpenTelemetryManager {
     
     private final OpenTelemetry openTelemetry;
     private final ObservabilityConfig config;
+    private final TelemetryFlushCoordinator flushCoordinator;
     private final AtomicBoolean initialized = new AtomicBoolean(false);
     
     private volatile TracerService tracerService;
@@ -22,7 +25,10 @@ public class OpenTelemetryManager {
     
     private OpenTelemetryManager(ObservabilityConfig config) {
         this.config = config;
-        this.openTelemetry = config.createOpenTelemetry();
+        LogRecordAccounting logRecords = new LogRecordAccounting();
+        OpenTelemetrySdk sdk = config.createOpenTelemetrySdk(logRecords);
+        this.openTelemetry = sdk;
+        this.flushCoordinator = TelemetryFlushCoordinator.forSdk(sdk, logRecords);
         this.initialized.set(true);
     }
     
@@ -65,6 +71,37 @@ public class OpenTelemetryManager {
         return config;
     }
     
+    public TelemetryFlushCoordinator getFlushCoordinator() {
+        return flushCoordinator;
+    }
+    
+    /**
+     * Flush de todas las señales con presupuesto derivado del tiempo restante de la invocación
+     */
+    public boolean forceFlush(long remainingTimeMillis) {
+        return flushCoordinator.flushForRemainingTime(remainingTimeMillis);
+    }
+    
+    public boolean shutdown(Duration timeout) {
+        initialized.set(false);
+        return flushCoordinator.shutdown(timeout);
+    }
+    
+    /**
+     * Resolver el coordinador de flush para una instancia de OpenTelemetry cualquiera:
+     * la del manager si es la misma, uno nuevo si es un SDK, o un noop en otro caso.
+     */
+    public static TelemetryFlushCoordinator flushCoordinatorFor(OpenTelemetry openTelemetry) {
+        OpenTelemetryManager current = instance;
+        if (current != null && current.openTelemetry == openTelemetry) {
+            return current.flushCoordinator;
+        }
+        if (openTelemetry instanceof OpenTelemetrySdk sdk) {
+            return TelemetryFlushCoordinator.forSdk(sdk);
+        }
+        return TelemetryFlushCoordinator.noop();
+    }
+    
     public TracerService getTracerService() {
         if (tracerService == null) {
             synchronized (this) {
@@ -110,7 +147,8 @@ public class OpenTelemetryManager {
         return new OpenTelemetryLoggerService(
             openTelemetry.getLogsBridge().get(instrumentationName), 
             instrumentationName, 
-            true // Enable trace correlation by default
+            true, // Enable trace correlation by default
+            config.getLogSeverityPolicy()
         );
     }
     
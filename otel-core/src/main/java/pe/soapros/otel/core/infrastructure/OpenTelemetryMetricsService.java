@@ -1,58 +1,312 @@
 package pe.soapros.otel.core.infrastructure;
 
-import io.opentelemetry.api.metrics.DoubleCounter;
+import io.opentelemetry.api.common.Attributes;
 import io.opentelemetry.api.metrics.DoubleHistogram;
+import io.opentelemetry.api.metrics.DoubleHistogramBuilder;
 import io.opentelemetry.api.metrics.LongCounter;
+import io.opentelemetry.api.metrics.LongCounterBuilder;
 import io.opentelemetry.api.metrics.LongHistogram;
+import io.opentelemetry.api.metrics.LongHistogramBuilder;
 import io.opentelemetry.api.metrics.Meter;
 import pe.soapros.otel.core.domain.MetricsService;
 
+import java.util.HashMap;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class OpenTelemetryMetricsService implements MetricsService {
-    
+
+    static final int DEFAULT_ATTRIBUTES_CACHE_SIZE = 1024;
+
     private final Meter meter;
-    
+    private final int maxCachedAttributes;
+
+    // Instrumentos creados una sola vez por (name, kind); la unidad es la del primer pedido
+    private final Map<InstrumentKey, CachedInstrument> instruments = new ConcurrentHashMap<>();
+    private final Set<String> unitMismatchWarnings = ConcurrentHashMap.newKeySet();
+
+    // Attributes pre-construidos para mapas de atributos repetidos (acotado)
+    private final Map<Map<String, String>, Attributes> attributesCache = new ConcurrentHashMap<>();
+
     public OpenTelemetryMetricsService(Meter meter) {
+        this(meter, DEFAULT_ATTRIBUTES_CACHE_SIZE);
+    }
+
+    public OpenTelemetryMetricsService(Meter meter, int maxCachedAttributes) {
+        if (maxCachedAttributes < 0) {
+            throw new IllegalArgumentException("maxCachedAttributes must be >= 0");
+        }
         this.meter = meter;
+        this.maxCachedAttributes = maxCachedAttributes;
     }
-    
+
     @Override
     public void incrementCounter(String name, Map<String, String> attributes) {
-        LongCounter counter = meter.counterBuilder(name).build();
-        counter.add(1, toAttributes(attributes));
+        longCounter(name, "").add(1, toAttributes(attributes));
     }
-    
+
     @Override
     public void incrementCounter(String name, long value, Map<String, String> attributes) {
-        LongCounter counter = meter.counterBuilder(name).build();
-        counter.add(value, toAttributes(attributes));
+        longCounter(name, "").add(value, toAttributes(attributes));
     }
-    
+
     @Override
     public void recordValue(String name, double value, Map<String, String> attributes) {
-        DoubleHistogram histogram = meter.histogramBuilder(name).build();
-        histogram.record(value, toAttributes(attributes));
+        doubleHistogram(name, "").record(value, toAttributes(attributes));
     }
-    
+
     @Override
     public void recordDuration(String name, long durationMs, Map<String, String> attributes) {
-        LongHistogram histogram = meter.histogramBuilder(name).ofLongs().build();
-        histogram.record(durationMs, toAttributes(attributes));
+        longHistogram(name, "").record(durationMs, toAttributes(attributes));
+    }
+
+    // ===== API DE INSTRUMENTOS REUTILIZABLES =====
+
+    public Counter counter(String name) {
+        return counter(name, "");
+    }
+
+    public Counter counter(String name, String unit) {
+        return new Counter(longCounter(name, unit), this);
     }
-    
-    private io.opentelemetry.api.common.Attributes toAttributes(Map<String, String> attributes) {
+
+    public Histogram histogram(String name) {
+        return histogram(name, "");
+    }
+
+    public Histogram histogram(String name, String unit) {
+        return new Histogram(doubleHistogram(name, unit), this);
+    }
+
+    public DurationHistogram durationHistogram(String name) {
+        return durationHistogram(name, "");
+    }
+
+    public DurationHistogram durationHistogram(String name, String unit) {
+        return new DurationHistogram(longHistogram(name, unit), this);
+    }
+
+    private LongCounter longCounter(String name, String unit) {
+        return (LongCounter) instrument(name, InstrumentKind.COUNTER, unit);
+    }
+
+    private DoubleHistogram doubleHistogram(String name, String unit) {
+        return (DoubleHistogram) instrument(name, InstrumentKind.DOUBLE_HISTOGRAM, unit);
+    }
+
+    private LongHistogram longHistogram(String name, String unit) {
+        return (LongHistogram) instrument(name, InstrumentKind.LONG_HISTOGRAM, unit);
+    }
+
+    /**
+     * Un instrumento por (name, kind): el SDK no admite dos instrumentos con el mismo nombre y
+     * distinta unidad, así que se reutiliza el primero y se avisa una vez por unidad distinta.
+     * Una unidad vacía (métodos sin unidad) usa el instrumento existente sin aviso.
+     */
+    private Object instrument(String name, InstrumentKind kind, String unit) {
+        String normalizedUnit = normalizeUnit(unit);
+        InstrumentKey key = new InstrumentKey(name, kind);
+        CachedInstrument cached = instruments.get(key);
+        if (cached == null) {
+            cached = instruments.computeIfAbsent(key, k -> new CachedInstrument(create(k, normalizedUnit), normalizedUnit));
+        }
+        if (!normalizedUnit.isEmpty() && !normalizedUnit.equals(cached.unit())
+                && unitMismatchWarnings.add(name + '|' + normalizedUnit)) {
+            System.err.println("⚠️ Instrument '" + name + "' already registered with unit '" + cached.unit()
+                    + "'; ignoring requested unit '" + normalizedUnit + "'");
+        }
+        return cached.instrument();
+    }
+
+    private Object create(InstrumentKey key, String unit) {
+        switch (key.kind()) {
+            case COUNTER -> {
+                LongCounterBuilder builder = meter.counterBuilder(key.name());
+                if (!unit.isEmpty()) {
+                    builder.setUnit(unit);
+                }
+                return builder.build();
+            }
+            case DOUBLE_HISTOGRAM -> {
+                DoubleHistogramBuilder builder = meter.histogramBuilder(key.name());
+                if (!unit.isEmpty()) {
+                    builder.setUnit(unit);
+                }
+                return builder.build();
+            }
+            default -> {
+                LongHistogramBuilder builder = meter.histogramBuilder(key.name()).ofLongs();
+                if (!unit.isEmpty()) {
+                    builder.setUnit(unit);
+                }
+                return builder.build();
+            }
+        }
+    }
+
+    private static String normalizeUnit(String unit) {
+        return unit == null ? "" : unit;
+    }
+
+    Attributes toAttributes(Map<String, String> attributes) {
         if (attributes == null || attributes.isEmpty()) {
-            return io.opentelemetry.api.common.Attributes.empty();
+            return Attributes.empty();
+        }
+
+        Attributes cached = attributesCache.get(attributes);
+        if (cached != null) {
+            return cached;
         }
-        
-        var builder = io.opentelemetry.api.common.Attributes.builder();
+
+        var builder = Attributes.builder();
         attributes.forEach(builder::put);
-        return builder.build();
+        Attributes built = builder.build();
+
+        // Al llenarse la caché se siguen construyendo Attributes, pero sin guardarlos
+        if (attributesCache.size() < maxCachedAttributes) {
+            attributesCache.putIfAbsent(new HashMap<>(attributes), built);
+        }
+        return built;
     }
-    
+
     public Meter getMeter() {
         return meter;
     }
 
-}
\ No newline at end of file
+    /**
+     * Limpiar instrumentos y atributos cacheados (útil para testing)
+     */
+    public void clearCaches() {
+        instruments.clear();
+        unitMismatchWarnings.clear();
+        attributesCache.clear();
+    }
+
+    /**
+     * Obtener estadísticas de las cachés
+     */
+    public Map<String, Object> getCacheStats() {
+        return Map.of(
+                "instruments", instruments.size(),
+                "cached_attributes", attributesCache.size(),
+                "max_cached_attributes", maxCachedAttributes
+        );
+    }
+
+    // ===== CLASES DE SOPORTE =====
+
+    private enum InstrumentKind {
+        COUNTER, DOUBLE_HISTOGRAM, LONG_HISTOGRAM
+    }
+
+    private record InstrumentKey(String name, InstrumentKind kind) {
+    }
+
+    private record CachedInstrument(Object instrument, String unit) {
+    }
+
+    /**
+     * Contador reutilizable; {@link #bind(Map)} fija los atributos para el hot path
+     */
+    public static final class Counter {
+        private final LongCounter counter;
+        private final OpenTelemetryMetricsService service;
+
+        private Counter(LongCounter counter, OpenTelemetryMetricsService service) {
+            this.counter = counter;
+            this.service = service;
+        }
+
+        public void add(long value, Map<String, String> attributes) {
+            counter.add(value, service.toAttributes(attributes));
+        }
+
+        public BoundCounter bind(Map<String, String> attributes) {
+            return new BoundCounter(counter, service.toAttributes(attributes));
+        }
+    }
+
+    public static final class BoundCounter {
+        private final LongCounter counter;
+        private final Attributes attributes;
+
+        private BoundCounter(LongCounter counter, Attributes attributes) {
+            this.counter = counter;
+            this.attributes = attributes;
+        }
+
+        public void increment() {
+            counter.add(1, attributes);
+        }
+
+        public void add(long value) {
+            counter.add(value, attributes);
+        }
+    }
+
+    public static final class Histogram {
+        private final DoubleHistogram histogram;
+        private final OpenTelemetryMetricsService service;
+
+        private Histogram(DoubleHistogram histogram, OpenTelemetryMetricsService service) {
+            this.histogram = histogram;
+            this.service = service;
+        }
+
+        public void record(double value, Map<String, String> attributes) {
+            histogram.record(value, service.toAttributes(attributes));
+        }
+
+        public BoundHistogram bind(Map<String, String> attributes) {
+            return new BoundHistogram(histogram, service.toAttributes(attributes));
+        }
+    }
+
+    public static final class BoundHistogram {
+        private final DoubleHistogram histogram;
+        private final Attributes attributes;
+
+        private BoundHistogram(DoubleHistogram histogram, Attributes attributes) {
+            this.histogram = histogram;
+            this.attributes = attributes;
+        }
+
+        public void record(double value) {
+            histogram.record(value, attributes);
+        }
+    }
+
+    public static final class DurationHistogram {
+        private final LongHistogram histogram;
+        private final OpenTelemetryMetricsService service;
+
+        private DurationHistogram(LongHistogram histogram, OpenTelemetryMetricsService service) {
+            this.histogram = histogram;
+            this.service = service;
+        }
+
+        public void record(long durationMs, Map<String, String> attributes) {
+            histogram.record(durationMs, service.toAttributes(attributes));
+        }
+
+        public BoundDurationHistogram bind(Map<String, String> attributes) {
+            return new BoundDurationHistogram(histogram, service.toAttributes(attributes));
+        }
+    }
+
+    public static final class BoundDurationHistogram {
+        private final LongHistogram histogram;
+        private final Attributes attributes;
+
+        private BoundDurationHistogram(LongHistogram histogram, Attributes attributes) {
+            this.histogram = histogram;
+            this.attributes = attributes;
+        }
+
+        public void record(long durationMs) {
+            histogram.record(durationMs, attributes);
+        }
+    }
+
+}
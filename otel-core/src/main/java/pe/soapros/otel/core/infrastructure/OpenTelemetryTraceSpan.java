@@ -1,18 +1,49 @@
 package pe.soapros.otel.core.infrastructure;
 
+import io.opentelemetry.api.common.AttributeKey;
 import io.opentelemetry.api.trace.Span;
 import io.opentelemetry.api.trace.StatusCode;
 import io.opentelemetry.context.Context;
+import io.opentelemetry.context.Scope;
 import pe.soapros.otel.core.domain.TraceSpan;
 
 import java.util.Map;
 
+/**
+ * TraceSpan sobre un Span de OpenTelemetry.
+ *
+ * end() es idempotente y close() termina el span y, si se activó con {@link #makeCurrent()},
+ * restaura el contexto anterior, así que se puede usar en try-with-resources.
+ */
 public class OpenTelemetryTraceSpan implements TraceSpan {
     
     private final Span span;
+    private final Context parentContext;
+    private final SpanLeakDetector.Tracker leakTracker;
+    private Scope scope;
+    private volatile boolean ended;
     
+    /**
+     * Envolver un span existente. No se registra en {@link SpanLeakDetector}: quien lo creó
+     * puede seguir usándolo y terminarlo por su cuenta después de soltar este wrapper.
+     */
     public OpenTelemetryTraceSpan(Span span) {
+        this(span, Context.current());
+    }
+
+    public OpenTelemetryTraceSpan(Span span, Context parentContext) {
+        this.span = span;
+        this.parentContext = parentContext != null ? parentContext : Context.root();
+        this.leakTracker = null;
+    }
+
+    /**
+     * Span creado por el TracerService, cuyo ciclo de vida pertenece al wrapper
+     */
+    OpenTelemetryTraceSpan(Span span, Context parentContext, String spanName) {
         this.span = span;
+        this.parentContext = parentContext != null ? parentContext : Context.root();
+        this.leakTracker = SpanLeakDetector.track(this, span, spanName);
     }
     
     @Override
@@ -20,6 +51,26 @@ public class OpenTelemetryTraceSpan implements TraceSpan {
         span.setAttribute(key, value);
     }
     
+    @Override
+    public void addAttribute(String key, long value) {
+        span.setAttribute(key, value);
+    }
+    
+    @Override
+    public void addAttribute(String key, double value) {
+        span.setAttribute(key, value);
+    }
+    
+    @Override
+    public void addAttribute(String key, boolean value) {
+        span.setAttribute(key, value);
+    }
+    
+    @Override
+    public <T> void addAttribute(AttributeKey<T> key, T value) {
+        span.setAttribute(key, value);
+    }
+    
     @Override
     public void addAttributes(Map<String, String> attributes) {
         if (attributes != null) {
@@ -56,7 +107,14 @@ public class OpenTelemetryTraceSpan implements TraceSpan {
     
     @Override
     public void end() {
+        if (ended) {
+            return;
+        }
+        ended = true;
         span.end();
+        if (leakTracker != null) {
+            leakTracker.release();
+        }
     }
     
     @Override
@@ -78,12 +136,36 @@ public class OpenTelemetryTraceSpan implements TraceSpan {
         return span;
     }
     
+    /**
+     * Contexto del span colgado de su padre (no del contexto current al momento de llamar)
+     */
     public Context getContext() {
-        return Context.current().with(span);
+        return parentContext.with(span);
     }
 
-    @Override
-    public void close() throws Exception {
+    /**
+     * Hacer current el span hasta close(). Se debe cerrar en el mismo hilo.
+     */
+    public OpenTelemetryTraceSpan makeCurrent() {
+        if (scope == null && !ended) {
+            scope = getContext().makeCurrent();
+        }
+        return this;
+    }
 
+    public boolean isEnded() {
+        return ended;
+    }
+
+    @Override
+    public void close() {
+        try {
+            end();
+        } finally {
+            if (scope != null) {
+                scope.close();
+                scope = null;
+            }
+        }
     }
 }
\ No newline at end of file
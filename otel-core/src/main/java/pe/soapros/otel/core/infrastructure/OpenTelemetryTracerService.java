@@ -4,6 +4,7 @@ import io.opentelemetry.api.trace.Span;
 import io.opentelemetry.api.trace.SpanBuilder;
 import io.opentelemetry.api.trace.Tracer;
 import io.opentelemetry.context.Context;
+import pe.soapros.otel.core.domain.ActiveSpan;
 import pe.soapros.otel.core.domain.TraceSpan;
 import pe.soapros.otel.core.domain.TracerService;
 
@@ -19,69 +20,50 @@ public class OpenTelemetryTracerService implements TracerService {
 
     @Override
     public TraceSpan startSpan(String name, Map<String, String> attributes) {
-        // 🔧 CORREGIDO: Usar el contexto actual como padre
-        Context currentContext = Context.current();
-
-        SpanBuilder spanBuilder = tracer.spanBuilder(name);
-
-        // Si hay un contexto padre, usarlo
-        if (currentContext != Context.root()) {
-            spanBuilder.setParent(currentContext);
-        }
-
-        Span span = spanBuilder.startSpan();
-
-        // Agregar atributos si existen
-        if (attributes != null) {
-            attributes.forEach(span::setAttribute);
-        }
-
-        return new OpenTelemetryTraceSpan(span);
+        // El contexto actual es el padre
+        Context parentContext = Context.current();
+        return new OpenTelemetryTraceSpan(createSpan(name, parentContext, attributes), parentContext, name);
     }
 
     @Override
     public TraceSpan startSpan(String spanName) {
-        Context currentContext = Context.current();
-        SpanBuilder spanBuilder = tracer.spanBuilder(spanName);
-
-        if (currentContext != Context.root()) {
-            spanBuilder.setParent(currentContext);
-        }
-
-        Span span = spanBuilder.startSpan();
-        return new OpenTelemetryTraceSpan(span);
+        return startSpan(spanName, (Map<String, String>) null);
     }
 
     @Override
     public TraceSpan startSpan(String spanName, TraceSpan parent) {
-        SpanBuilder spanBuilder = tracer.spanBuilder(spanName);
-
-        if (parent instanceof OpenTelemetryTraceSpan otelParent) {
-            // Usar el contexto del span padre
-            Context parentContext = otelParent.getContext();
-            spanBuilder.setParent(parentContext);
-        }
-
-        Span span = spanBuilder.startSpan();
-        return new OpenTelemetryTraceSpan(span);
+        // Usar el contexto del span padre
+        Context parentContext = parent instanceof OpenTelemetryTraceSpan otelParent
+                ? otelParent.getContext()
+                : Context.current();
+        return new OpenTelemetryTraceSpan(createSpan(spanName, parentContext, null), parentContext, spanName);
     }
 
     public TraceSpan startSpanWithContext(String name, Context parentContext, Map<String, String> attributes) {
-        SpanBuilder spanBuilder = tracer.spanBuilder(name);
+        Context parent = parentContext != null && parentContext != Context.root() ? parentContext : Context.current();
+        return new OpenTelemetryTraceSpan(createSpan(name, parent, attributes), parent, name);
+    }
 
-        if (parentContext != null && parentContext != Context.root()) {
-            spanBuilder.setParent(parentContext);
-        }else {
-            spanBuilder.setParent(Context.current());
-        }
+    @Override
+    public ActiveSpan activate(String spanName) {
+        return activate(spanName, null);
+    }
+
+    @Override
+    public ActiveSpan activate(String spanName, Map<String, String> attributes) {
+        Context parentContext = Context.current();
+        return new OpenTelemetryActiveSpan(createSpan(spanName, parentContext, attributes), parentContext, spanName);
+    }
 
-        Span span = spanBuilder.startSpan();
+    private Span createSpan(String name, Context parentContext, Map<String, String> attributes) {
+        SpanBuilder spanBuilder = tracer.spanBuilder(name).setParent(parentContext);
 
+        // Atributos en el builder: quedan disponibles para el sampler
         if (attributes != null) {
-            attributes.forEach(span::setAttribute);
+            attributes.forEach(spanBuilder::setAttribute);
         }
 
-        return new OpenTelemetryTraceSpan(span);
+        return spanBuilder.startSpan();
     }
 
     @Override
@@ -93,4 +75,4 @@ public class OpenTelemetryTracerService implements TracerService {
     public Tracer getTracer() {
         return tracer;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,178 @@
+package pe.soapros.otel.core.infrastructure;
+
+import io.opentelemetry.api.baggage.propagation.W3CBaggagePropagator;
+import io.opentelemetry.api.trace.propagation.W3CTraceContextPropagator;
+import io.opentelemetry.context.propagation.ContextPropagators;
+import io.opentelemetry.context.propagation.TextMapPropagator;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Propagators de contexto registrados en el SDK y usados tanto para extraer como para inyectar.
+ *
+ * Al extraer se prueban todos los formatos y, si varios traen contexto, gana el de mayor
+ * prioridad: W3C trace context, luego B3 y por último X-Ray. Al inyectar se escriben todos.
+ */
+public class PropagationConfig {
+
+    public enum Propagator {
+        /** traceparent / tracestate */
+        TRACECONTEXT,
+        /** baggage */
+        BAGGAGE,
+        /** b3 (header único) */
+        B3,
+        /** X-B3-TraceId / X-B3-SpanId / X-B3-Sampled */
+        B3MULTI,
+        /** X-Amzn-Trace-Id (API Gateway, ALB, SQS AWSTraceHeader) */
+        XRAY
+    }
+
+    private static final PropagationConfig DEFAULTS = builder().build();
+
+    private final Set<Propagator> propagators;
+
+    private PropagationConfig(Builder builder) {
+        this.propagators = Set.copyOf(builder.propagators);
+    }
+
+    /**
+     * W3C trace context + baggage (default del SDK)
+     */
+    public static PropagationConfig defaults() {
+        return DEFAULTS;
+    }
+
+    /**
+     * W3C trace context + baggage + X-Ray, para no cortar trazas que vienen de servicios AWS
+     */
+    public static PropagationConfig aws() {
+        return builder().add(Propagator.XRAY).build();
+    }
+
+    /**
+     * Lista de OTEL_PROPAGATORS (tracecontext, baggage, b3, b3multi, xray, xray-lambda, none);
+     * sin la variable, {@link #aws()} dentro de Lambda y {@link #defaults()} fuera.
+     *
+     * Los nombres no soportados (jaeger, ottrace, ...) se ignoran con un warning: esta
+     * configuración se lee en inicializadores estáticos y no debe impedir el arranque. Si
+     * ninguno es válido se usa el default del entorno.
+     */
+    public static PropagationConfig fromEnvironment() {
+        String value = System.getenv("OTEL_PROPAGATORS");
+        if (value == null || value.isBlank()) {
+            return environmentDefault();
+        }
+
+        Builder builder = builder().clear();
+        boolean none = false;
+        for (String name : value.split(",")) {
+            String normalized = name.trim().toUpperCase(Locale.ROOT);
+            if (normalized.isEmpty()) {
+                continue;
+            }
+            if ("NONE".equals(normalized)) {
+                none = true;
+                continue;
+            }
+            Propagator propagator = parse(normalized);
+            if (propagator == null) {
+                System.err.println("⚠️ Ignoring unsupported propagator '" + name.trim() + "' in OTEL_PROPAGATORS");
+                continue;
+            }
+            builder.add(propagator);
+        }
+
+        if (builder.propagators.isEmpty() && !none) {
+            return environmentDefault();
+        }
+        return builder.build();
+    }
+
+    private static PropagationConfig environmentDefault() {
+        return System.getenv("AWS_LAMBDA_FUNCTION_NAME") != null ? aws() : defaults();
+    }
+
+    private static Propagator parse(String normalized) {
+        // xray-lambda del SDK también lee _X_AMZN_TRACE_ID; aquí se mapea al propagator del header
+        if ("XRAY-LAMBDA".equals(normalized)) {
+            return Propagator.XRAY;
+        }
+        for (Propagator propagator : Propagator.values()) {
+            if (propagator.name().equals(normalized)) {
+                return propagator;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Propagators para {@code OpenTelemetrySdk.builder().setPropagators(...)}
+     */
+    public ContextPropagators createContextPropagators() {
+        return ContextPropagators.create(createTextMapPropagator());
+    }
+
+    public TextMapPropagator createTextMapPropagator() {
+        // El composite aplica los extract en orden y el último con contexto válido gana:
+        // se ordena de menor a mayor prioridad
+        List<TextMapPropagator> ordered = new ArrayList<>();
+        if (propagators.contains(Propagator.XRAY)) {
+            ordered.add(AwsXrayPropagator.getInstance());
+        }
+        if (propagators.contains(Propagator.B3MULTI)) {
+            ordered.add(B3Propagator.injectingMultiHeaders());
+        }
+        if (propagators.contains(Propagator.B3)) {
+            ordered.add(B3Propagator.injectingSingleHeader());
+        }
+        if (propagators.contains(Propagator.TRACECONTEXT)) {
+            ordered.add(W3CTraceContextPropagator.getInstance());
+        }
+        if (propagators.contains(Propagator.BAGGAGE)) {
+            ordered.add(W3CBaggagePropagator.getInstance());
+        }
+        return ordered.isEmpty() ? TextMapPropagator.noop() : TextMapPropagator.composite(ordered);
+    }
+
+    public Set<Propagator> getPropagators() {
+        return propagators;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public static class Builder {
+        private final Set<Propagator> propagators = new LinkedHashSet<>(List.of(Propagator.TRACECONTEXT, Propagator.BAGGAGE));
+
+        private Builder() {
+        }
+
+        public Builder add(Propagator propagator) {
+            this.propagators.add(propagator);
+            return this;
+        }
+
+        public Builder remove(Propagator propagator) {
+            this.propagators.remove(propagator);
+            return this;
+        }
+
+        /**
+         * Quitar también los defaults (tracecontext, baggage)
+         */
+        public Builder clear() {
+            this.propagators.clear();
+            return this;
+        }
+
+        public PropagationConfig build() {
+            return new PropagationConfig(this);
+        }
+    }
+}
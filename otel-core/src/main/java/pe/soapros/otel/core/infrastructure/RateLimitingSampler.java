@@ -0,0 +1,86 @@
+package pe.soapros.otel.core.infrastructure;
+
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.api.common.Attributes;
+import io.opentelemetry.api.metrics.LongCounter;
+import io.opentelemetry.api.metrics.Meter;
+import io.opentelemetry.api.trace.SpanKind;
+import io.opentelemetry.context.Context;
+import io.opentelemetry.sdk.trace.data.LinkData;
+import io.opentelemetry.sdk.trace.samplers.Sampler;
+import io.opentelemetry.sdk.trace.samplers.SamplingDecision;
+import io.opentelemetry.sdk.trace.samplers.SamplingResult;
+
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Limita los spans muestreados por {@code delegate} a un máximo por segundo (token bucket
+ * con ráfaga de un segundo). Lo que excede el cupo se descarta y se cuenta.
+ *
+ * Con menos de un span por segundo el saldo máximo es un token, de lo contrario el bucket
+ * nunca acumularía lo suficiente para muestrear.
+ */
+final class RateLimitingSampler implements Sampler {
+
+    private static final Attributes THROTTLED = Attributes.of(AttributeKey.stringKey("sampler"), "rate_limiting");
+
+    private final Sampler delegate;
+    private final double maxSpansPerSecond;
+    private final double nanosPerToken;
+    private final long maxBalanceNanos;
+    private final LongCounter throttledCounter;
+    private final LongAdder throttled = new LongAdder();
+
+    // Saldo expresado como el instante (nanoTime) hasta el que ya se consumieron tokens
+    private long debtUntilNanos;
+
+    RateLimitingSampler(Sampler delegate, double maxSpansPerSecond, Meter meter) {
+        this.delegate = delegate;
+        this.maxSpansPerSecond = maxSpansPerSecond;
+        this.nanosPerToken = 1_000_000_000d / maxSpansPerSecond;
+        this.maxBalanceNanos = (long) Math.max(1_000_000_000d, nanosPerToken);
+        this.debtUntilNanos = System.nanoTime() - maxBalanceNanos;
+        this.throttledCounter = meter != null
+                ? meter.counterBuilder("otel.sampler.throttled")
+                        .setDescription("Spans descartados por el límite de spans por segundo")
+                        .setUnit("{span}")
+                        .build()
+                : null;
+    }
+
+    @Override
+    public SamplingResult shouldSample(Context parentContext, String traceId, String name, SpanKind spanKind,
+                                       Attributes attributes, List<LinkData> parentLinks) {
+        SamplingResult result = delegate.shouldSample(parentContext, traceId, name, spanKind, attributes, parentLinks);
+        if (result.getDecision() != SamplingDecision.RECORD_AND_SAMPLE || tryAcquire()) {
+            return result;
+        }
+
+        throttled.increment();
+        if (throttledCounter != null) {
+            throttledCounter.add(1, THROTTLED);
+        }
+        return SamplingResult.drop();
+    }
+
+    private synchronized boolean tryAcquire() {
+        long now = System.nanoTime();
+        long floor = now - maxBalanceNanos;
+        long next = Math.max(debtUntilNanos, floor) + (long) nanosPerToken;
+        if (next > now) {
+            return false;
+        }
+        debtUntilNanos = next;
+        return true;
+    }
+
+    long getThrottledCount() {
+        return throttled.sum();
+    }
+
+    @Override
+    public String getDescription() {
+        return "RateLimitingSampler{maxSpansPerSecond=" + maxSpansPerSecond + ", delegate=" + delegate.getDescription() + "}";
+    }
+}
@@ -0,0 +1,104 @@
+package pe.soapros.otel.core.infrastructure;
+
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.api.common.Attributes;
+import io.opentelemetry.api.trace.SpanKind;
+import io.opentelemetry.context.Context;
+import io.opentelemetry.sdk.trace.data.LinkData;
+import io.opentelemetry.sdk.trace.samplers.Sampler;
+import io.opentelemetry.sdk.trace.samplers.SamplingResult;
+
+import java.util.List;
+
+/**
+ * Sampler de reglas: la primera regla que coincide con el nombre, la ruta o un atributo
+ * del span decide; si ninguna coincide se delega en {@code fallback}.
+ */
+final class RuleBasedSampler implements Sampler {
+
+    private static final AttributeKey<String> HTTP_ROUTE = AttributeKey.stringKey("http.route");
+    private static final AttributeKey<String> URL_PATH = AttributeKey.stringKey("url.path");
+
+    private final CompiledRule[] rules;
+    private final Sampler fallback;
+
+    RuleBasedSampler(List<SamplingConfig.Rule> rules, Sampler fallback) {
+        this.rules = rules.stream().map(CompiledRule::new).toArray(CompiledRule[]::new);
+        this.fallback = fallback;
+    }
+
+    @Override
+    public SamplingResult shouldSample(Context parentContext, String traceId, String name, SpanKind spanKind,
+                                       Attributes attributes, List<LinkData> parentLinks) {
+        for (CompiledRule rule : rules) {
+            if (rule.matches(name, attributes)) {
+                return rule.sampler.shouldSample(parentContext, traceId, name, spanKind, attributes, parentLinks);
+            }
+        }
+        return fallback.shouldSample(parentContext, traceId, name, spanKind, attributes, parentLinks);
+    }
+
+    @Override
+    public String getDescription() {
+        return "RuleBasedSampler{rules=" + rules.length + ", fallback=" + fallback.getDescription() + "}";
+    }
+
+    private static final class CompiledRule {
+        private final String spanNamePrefix;
+        private final String route;
+        private final boolean routeIsPrefix;
+        private final AttributeKey<String> stringKey;
+        private final AttributeKey<Boolean> booleanKey;
+        private final String attributeValue;
+        private final Sampler sampler;
+
+        CompiledRule(SamplingConfig.Rule rule) {
+            this.spanNamePrefix = rule.spanNamePrefix();
+            if (rule.route() != null && rule.route().endsWith("*")) {
+                this.route = rule.route().substring(0, rule.route().length() - 1);
+                this.routeIsPrefix = true;
+            } else {
+                this.route = rule.route();
+                this.routeIsPrefix = false;
+            }
+            this.stringKey = rule.attributeKey() != null ? AttributeKey.stringKey(rule.attributeKey()) : null;
+            this.booleanKey = rule.attributeKey() != null ? AttributeKey.booleanKey(rule.attributeKey()) : null;
+            this.attributeValue = rule.attributeValue();
+            this.sampler = switch (rule.action()) {
+                case KEEP -> Sampler.alwaysOn();
+                case DROP -> Sampler.alwaysOff();
+                case RATIO -> Sampler.traceIdRatioBased(rule.ratio());
+            };
+        }
+
+        boolean matches(String name, Attributes attributes) {
+            if (spanNamePrefix != null && (name == null || !name.startsWith(spanNamePrefix))) {
+                return false;
+            }
+            if (route != null && !matchesRoute(attributes)) {
+                return false;
+            }
+            return stringKey == null || matchesAttribute(attributes);
+        }
+
+        private boolean matchesRoute(Attributes attributes) {
+            String value = attributes.get(HTTP_ROUTE);
+            if (value == null) {
+                value = attributes.get(URL_PATH);
+            }
+            if (value == null) {
+                return false;
+            }
+            return routeIsPrefix ? value.startsWith(route) : value.equals(route);
+        }
+
+        private boolean matchesAttribute(Attributes attributes) {
+            String value = attributes.get(stringKey);
+            if (value == null) {
+                Boolean flag = attributes.get(booleanKey);
+                value = flag != null ? flag.toString() : null;
+            }
+            return value != null && (attributeValue == null || attributeValue.equals(value));
+        }
+    }
+}
@@ -0,0 +1,198 @@
+package pe.soapros.otel.core.infrastructure;
+
+import io.opentelemetry.api.metrics.Meter;
+import io.opentelemetry.sdk.trace.samplers.Sampler;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Configuración del pipeline de muestreo de trazas:
+ * reglas por nombre de span / ruta → ratio base → límite de spans por segundo,
+ * todo dentro de un sampler parent-based (opcional) y con métricas de decisión.
+ *
+ * Las reglas se evalúan en orden al iniciar el span y la primera que coincide decide;
+ * los spans que pasan por una regla no consumen cupo del rate limiter.
+ */
+public class SamplingConfig {
+
+    public enum Action {
+        /** Muestrear siempre */
+        KEEP,
+        /** Descartar siempre */
+        DROP,
+        /** Muestrear con el ratio de la regla */
+        RATIO
+    }
+
+    /**
+     * Regla de muestreo: coincide por prefijo de nombre de span, por ruta
+     * (http.route / url.path, con '*' final como comodín) o por valor de atributo.
+     */
+    public record Rule(String spanNamePrefix, String route, String attributeKey, String attributeValue,
+                       Action action, double ratio) {
+
+        public static Rule spanName(String prefix, Action action) {
+            return new Rule(prefix, null, null, null, action, action == Action.KEEP ? 1.0 : 0.0);
+        }
+
+        public static Rule route(String route, Action action) {
+            return new Rule(null, route, null, null, action, action == Action.KEEP ? 1.0 : 0.0);
+        }
+
+        public static Rule attribute(String key, String value, Action action) {
+            return new Rule(null, null, key, value, action, action == Action.KEEP ? 1.0 : 0.0);
+        }
+
+        public Rule withRatio(double ratio) {
+            validateRatio(ratio);
+            return new Rule(spanNamePrefix, route, attributeKey, attributeValue, Action.RATIO, ratio);
+        }
+    }
+
+    private static final SamplingConfig DEFAULTS = builder().build();
+
+    private final double ratio;
+    private final boolean parentBased;
+    private final List<Rule> rules;
+    private final double maxSpansPerSecond;
+    private final boolean decisionMetrics;
+
+    private SamplingConfig(Builder builder) {
+        this.ratio = builder.ratio;
+        this.parentBased = builder.parentBased;
+        this.rules = List.copyOf(builder.rules);
+        this.maxSpansPerSecond = builder.maxSpansPerSecond;
+        this.decisionMetrics = builder.decisionMetrics;
+    }
+
+    /**
+     * Parent-based, 100% de las raíces, sin reglas ni límite (equivalente al default del SDK)
+     */
+    public static SamplingConfig defaults() {
+        return DEFAULTS;
+    }
+
+    /**
+     * Construir el sampler para el SdkTracerProvider. {@code meter} puede ser null
+     * si no se quieren métricas de decisión.
+     */
+    public Sampler createSampler(Meter meter) {
+        Sampler root = Sampler.traceIdRatioBased(ratio);
+
+        if (maxSpansPerSecond > 0) {
+            root = new RateLimitingSampler(root, maxSpansPerSecond, decisionMetrics ? meter : null);
+        }
+
+        if (!rules.isEmpty()) {
+            root = new RuleBasedSampler(rules, root);
+        }
+
+        Sampler sampler = parentBased ? Sampler.parentBased(root) : root;
+
+        if (decisionMetrics && meter != null) {
+            sampler = new MeteredSampler(sampler, meter);
+        }
+        return sampler;
+    }
+
+    public double getRatio() { return ratio; }
+    public boolean isParentBased() { return parentBased; }
+    public List<Rule> getRules() { return rules; }
+    public double getMaxSpansPerSecond() { return maxSpansPerSecond; }
+    public boolean isDecisionMetrics() { return decisionMetrics; }
+
+    private static void validateRatio(double ratio) {
+        if (ratio < 0.0 || ratio > 1.0) {
+            throw new IllegalArgumentException("ratio must be between 0.0 and 1.0");
+        }
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public static class Builder {
+        private double ratio = 1.0;
+        private boolean parentBased = true;
+        private final List<Rule> rules = new ArrayList<>();
+        private double maxSpansPerSecond = 0;
+        private boolean decisionMetrics = true;
+
+        private Builder() {
+        }
+
+        /**
+         * Fracción de trazas raíz a muestrear (por trace id, consistente entre servicios)
+         */
+        public Builder ratio(double ratio) {
+            validateRatio(ratio);
+            this.ratio = ratio;
+            return this;
+        }
+
+        /**
+         * Respetar la decisión del padre cuando existe (default: true)
+         */
+        public Builder parentBased(boolean parentBased) {
+            this.parentBased = parentBased;
+            return this;
+        }
+
+        public Builder rule(Rule rule) {
+            this.rules.add(rule);
+            return this;
+        }
+
+        /**
+         * Descartar una ruta (ej: "/health", "/internal/*")
+         */
+        public Builder dropRoute(String route) {
+            return rule(Rule.route(route, Action.DROP));
+        }
+
+        public Builder keepRoute(String route) {
+            return rule(Rule.route(route, Action.KEEP));
+        }
+
+        public Builder dropSpanName(String prefix) {
+            return rule(Rule.spanName(prefix, Action.DROP));
+        }
+
+        public Builder keepSpanName(String prefix) {
+            return rule(Rule.spanName(prefix, Action.KEEP));
+        }
+
+        public Builder routeRatio(String route, double ratio) {
+            return rule(Rule.route(route, Action.RATIO).withRatio(ratio));
+        }
+
+        /**
+         * Muestrear siempre los spans que nacen con el atributo "error"=true.
+         * Los errores que se conocen al terminar el span requieren muestreo por cola.
+         */
+        public Builder keepErrors() {
+            return rule(Rule.attribute("error", "true", Action.KEEP));
+        }
+
+        /**
+         * Límite de spans raíz muestreados por segundo (0 = sin límite)
+         */
+        public Builder maxSpansPerSecond(double maxSpansPerSecond) {
+            if (maxSpansPerSecond < 0) {
+                throw new IllegalArgumentException("maxSpansPerSecond must be >= 0");
+            }
+            this.maxSpansPerSecond = maxSpansPerSecond;
+            return this;
+        }
+
+        public Builder decisionMetrics(boolean enabled) {
+            this.decisionMetrics = enabled;
+            return this;
+        }
+
+        public SamplingConfig build() {
+            return new SamplingConfig(this);
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package pe.soapros.otel.core.infrastructure;
+
+import io.opentelemetry.api.trace.Span;
+
+import java.lang.ref.Cleaner;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Detección de spans que nunca se terminaron (modo debug).
+ *
+ * Cada {@link OpenTelemetryTraceSpan} creado por el TracerService se registra en un {@link Cleaner}
+ * (los que envuelven un span externo no, su dueño es otro); si el objeto deja de ser
+ * alcanzable sin haber llamado a end() / close(), se reporta por System.err con el stack trace de
+ * creación y se termina el span para que los processors lo liberen.
+ *
+ * Desactivado por defecto (captura un stack trace por span). Se activa con la propiedad
+ * {@code otel.span.leak.detection=true}, la variable {@code OTEL_SPAN_LEAK_DETECTION=true}
+ * o {@link #setEnabled(boolean)}.
+ */
+public final class SpanLeakDetector {
+
+    private static final LongAdder LEAKS = new LongAdder();
+
+    private static volatile boolean enabled = readEnabled();
+
+    private SpanLeakDetector() {
+        throw new UnsupportedOperationException("Utility class");
+    }
+
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    public static void setEnabled(boolean value) {
+        enabled = value;
+    }
+
+    /**
+     * Spans reportados como no terminados desde el arranque
+     */
+    public static long getLeakCount() {
+        return LEAKS.sum();
+    }
+
+    /**
+     * Registrar el span de {@code owner}; null si la detección está desactivada
+     */
+    static Tracker track(Object owner, Span span, String spanName) {
+        if (!enabled || !span.isRecording()) {
+            return null;
+        }
+        Tracker tracker = new Tracker(span, spanName);
+        tracker.cleanable = CleanerHolder.CLEANER.register(owner, tracker);
+        return tracker;
+    }
+
+    private static boolean readEnabled() {
+        String value = System.getProperty("otel.span.leak.detection");
+        if (value == null) {
+            value = System.getenv("OTEL_SPAN_LEAK_DETECTION");
+        }
+        return Boolean.parseBoolean(value);
+    }
+
+    // El thread del Cleaner sólo se crea si la detección llega a usarse
+    private static final class CleanerHolder {
+        private static final Cleaner CLEANER = Cleaner.create();
+    }
+
+    /**
+     * Acción del Cleaner. No debe referenciar al owner, o nunca sería recolectado.
+     */
+    static final class Tracker implements Runnable {
+        private final Span span;
+        private final String spanName;
+        private final Throwable origin;
+        private volatile boolean released;
+        private Cleaner.Cleanable cleanable;
+
+        private Tracker(Span span, String spanName) {
+            this.span = span;
+            this.spanName = spanName != null ? spanName : span.getSpanContext().getSpanId();
+            this.origin = new Throwable("Span '" + this.spanName + "' created here");
+        }
+
+        /**
+         * El span se terminó correctamente: se quita del Cleaner
+         */
+        void release() {
+            released = true;
+            if (cleanable != null) {
+                cleanable.clean();
+            }
+        }
+
+        @Override
+        public void run() {
+            // Un span terminado directamente con getSpan().end() deja de estar en recording
+            if (released || !span.isRecording()) {
+                return;
+            }
+            LEAKS.increment();
+            System.err.println("⚠️ Span leak detected: '" + spanName + "' (traceId="
+                    + span.getSpanContext().getTraceId() + ") was never ended");
+            origin.printStackTrace();
+            span.end();
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package pe.soapros.otel.core.infrastructure;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Configuración de {@link TailSamplingSpanProcessor}: qué trazas se conservan una vez
+ * que termina su span raíz, y cuánta memoria puede usar el buffer de trazas en curso.
+ */
+public class TailSamplingConfig {
+
+    private final Duration defaultLatencyThreshold;
+    private final Map<String, Duration> latencyThresholdByRoute;
+    private final double keepRatio;
+    private final boolean keepErrors;
+    private final int maxTraces;
+    private final int maxSpansPerTrace;
+    private final Duration orphanTimeout;
+
+    private TailSamplingConfig(Builder builder) {
+        this.defaultLatencyThreshold = builder.defaultLatencyThreshold;
+        this.latencyThresholdByRoute = Map.copyOf(builder.latencyThresholdByRoute);
+        this.keepRatio = builder.keepRatio;
+        this.keepErrors = builder.keepErrors;
+        this.maxTraces = builder.maxTraces;
+        this.maxSpansPerTrace = builder.maxSpansPerTrace;
+        this.orphanTimeout = builder.orphanTimeout;
+    }
+
+    /**
+     * Errores siempre, latencia mayor a 1s siempre, 10% del resto
+     */
+    public static TailSamplingConfig defaultForLambda() {
+        return builder().build();
+    }
+
+    /**
+     * Umbral de latencia para una ruta (http.route o nombre del span raíz)
+     */
+    public Duration latencyThresholdFor(String route) {
+        if (route == null || latencyThresholdByRoute.isEmpty()) {
+            return defaultLatencyThreshold;
+        }
+        return latencyThresholdByRoute.getOrDefault(route, defaultLatencyThreshold);
+    }
+
+    public Duration getDefaultLatencyThreshold() { return defaultLatencyThreshold; }
+    public Map<String, Duration> getLatencyThresholdByRoute() { return latencyThresholdByRoute; }
+    public double getKeepRatio() { return keepRatio; }
+    public boolean isKeepErrors() { return keepErrors; }
+    public int getMaxTraces() { return maxTraces; }
+    public int getMaxSpansPerTrace() { return maxSpansPerTrace; }
+    public Duration getOrphanTimeout() { return orphanTimeout; }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public static class Builder {
+        private Duration defaultLatencyThreshold = Duration.ofSeconds(1);
+        private final Map<String, Duration> latencyThresholdByRoute = new HashMap<>();
+        private double keepRatio = 0.1;
+        private boolean keepErrors = true;
+        private int maxTraces = 1000;
+        private int maxSpansPerTrace = 512;
+        private Duration orphanTimeout = Duration.ofSeconds(30);
+
+        private Builder() {
+        }
+
+        public Builder latencyThreshold(Duration threshold) {
+            this.defaultLatencyThreshold = threshold;
+            return this;
+        }
+
+        public Builder latencyThreshold(String route, Duration threshold) {
+            this.latencyThresholdByRoute.put(route, threshold);
+            return this;
+        }
+
+        /**
+         * Fracción de trazas sin error ni latencia alta que se conservan
+         */
+        public Builder keepRatio(double ratio) {
+            if (ratio < 0.0 || ratio > 1.0) {
+                throw new IllegalArgumentException("ratio must be between 0.0 and 1.0");
+            }
+            this.keepRatio = ratio;
+            return this;
+        }
+
+        public Builder keepErrors(boolean keepErrors) {
+            this.keepErrors = keepErrors;
+            return this;
+        }
+
+        /**
+         * Máximo de trazas en curso en memoria; al excederlo los spans nuevos se descartan
+         */
+        public Builder maxTraces(int maxTraces) {
+            if (maxTraces < 1) {
+                throw new IllegalArgumentException("maxTraces must be >= 1");
+            }
+            this.maxTraces = maxTraces;
+            return this;
+        }
+
+        public Builder maxSpansPerTrace(int maxSpansPerTrace) {
+            if (maxSpansPerTrace < 1) {
+                throw new IllegalArgumentException("maxSpansPerTrace must be >= 1");
+            }
+            this.maxSpansPerTrace = maxSpansPerTrace;
+            return this;
+        }
+
+        /**
+         * Tiempo que una traza puede esperar a su raíz; pasado ese plazo el flush la resuelve
+         * con {@code keepRatio}
+         */
+        public Builder orphanTimeout(Duration orphanTimeout) {
+            if (orphanTimeout == null || orphanTimeout.isNegative()) {
+                throw new IllegalArgumentException("orphanTimeout must be >= 0");
+            }
+            this.orphanTimeout = orphanTimeout;
+            return this;
+        }
+
+        public TailSamplingConfig build() {
+            return new TailSamplingConfig(this);
+        }
+    }
+}
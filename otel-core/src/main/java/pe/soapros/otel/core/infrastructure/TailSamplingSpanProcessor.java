@@ -0,0 +1,386 @@
+package pe.soapros.otel.core.infrastructure;
+
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.api.common.Attributes;
+import io.opentelemetry.api.metrics.Meter;
+import io.opentelemetry.api.trace.SpanContext;
+import io.opentelemetry.api.trace.StatusCode;
+import io.opentelemetry.context.Context;
+import io.opentelemetry.sdk.common.CompletableResultCode;
+import io.opentelemetry.sdk.trace.ReadWriteSpan;
+import io.opentelemetry.sdk.trace.ReadableSpan;
+import io.opentelemetry.sdk.trace.SpanProcessor;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Muestreo por cola para invocaciones Lambda.
+ *
+ * Los spans terminados se acumulan por raíz local (span sin padre o con padre remoto) hasta
+ * que esa raíz termina. En ese momento el segmento se conserva si la raíz terminó con error,
+ * si superó el umbral de latencia de su ruta o, en otro caso, con probabilidad
+ * {@code keepRatio}; los spans conservados pasan al {@code delegate} (normalmente el
+ * BatchSpanProcessor).
+ *
+ * La raíz de cada span se registra en onStart y los buffers se indexan por su spanId, no por
+ * traceId: dos invocaciones de la misma traza (p.ej. reintentos, o mensajes de un lote con el
+ * mismo productor) tienen raíces distintas y se deciden por separado.
+ *
+ * Requiere que el head sampling muestree las trazas que deben evaluarse.
+ */
+public class TailSamplingSpanProcessor implements SpanProcessor {
+
+    private static final AttributeKey<String> HTTP_ROUTE = AttributeKey.stringKey("http.route");
+    private static final int MAX_REMEMBERED_DECISIONS = 1024;
+
+    private final SpanProcessor delegate;
+    private final TailSamplingConfig config;
+    private final Map<String, TraceBuffer> pendingTraces = new ConcurrentHashMap<>();
+
+    // spanId → spanId de su raíz local, de onStart a onEnd
+    private final Map<String, String> localRoots = new ConcurrentHashMap<>();
+
+    // Decisiones recientes por raíz local, para spans que terminan después de su raíz
+    private final Map<String, Boolean> recentDecisions = new LinkedHashMap<>(64, 0.75f, false) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Boolean> eldest) {
+            return size() > MAX_REMEMBERED_DECISIONS;
+        }
+    };
+
+    private final LongAdder keptByError = new LongAdder();
+    private final LongAdder keptByLatency = new LongAdder();
+    private final LongAdder keptByRatio = new LongAdder();
+    private final LongAdder droppedTraces = new LongAdder();
+    private final LongAdder orphanedTraces = new LongAdder();
+    private final LongAdder lateSpans = new LongAdder();
+    private final LongAdder traceOverflow = new LongAdder();
+    private final LongAdder spanOverflow = new LongAdder();
+
+    public TailSamplingSpanProcessor(SpanProcessor delegate, TailSamplingConfig config) {
+        this(delegate, config, null);
+    }
+
+    /**
+     * @param meter si no es null, publica decisiones y overflow como contadores observables
+     */
+    public TailSamplingSpanProcessor(SpanProcessor delegate, TailSamplingConfig config, Meter meter) {
+        this.delegate = delegate;
+        this.config = config != null ? config : TailSamplingConfig.defaultForLambda();
+        if (meter != null) {
+            registerMetrics(meter);
+        }
+    }
+
+    private void registerMetrics(Meter meter) {
+        AttributeKey<String> decision = AttributeKey.stringKey("decision");
+        Attributes error = Attributes.of(decision, "kept_error");
+        Attributes latency = Attributes.of(decision, "kept_latency");
+        Attributes ratio = Attributes.of(decision, "kept_ratio");
+        Attributes dropped = Attributes.of(decision, "dropped");
+        Attributes orphaned = Attributes.of(decision, "orphaned");
+
+        meter.counterBuilder("otel.tail_sampling.traces")
+                .setDescription("Decisiones del muestreo por cola")
+                .setUnit("{trace}")
+                .buildWithCallback(m -> {
+                    m.record(keptByError.sum(), error);
+                    m.record(keptByLatency.sum(), latency);
+                    m.record(keptByRatio.sum(), ratio);
+                    m.record(droppedTraces.sum(), dropped);
+                    m.record(orphanedTraces.sum(), orphaned);
+                });
+
+        AttributeKey<String> reason = AttributeKey.stringKey("reason");
+        Attributes tooManyTraces = Attributes.of(reason, "max_traces");
+        Attributes tooManySpans = Attributes.of(reason, "max_spans_per_trace");
+
+        meter.counterBuilder("otel.tail_sampling.spans_overflow")
+                .setDescription("Spans descartados por falta de espacio en el buffer")
+                .setUnit("{span}")
+                .buildWithCallback(m -> {
+                    m.record(traceOverflow.sum(), tooManyTraces);
+                    m.record(spanOverflow.sum(), tooManySpans);
+                });
+
+        meter.upDownCounterBuilder("otel.tail_sampling.pending_traces")
+                .setDescription("Trazas en memoria a la espera de su span raíz")
+                .setUnit("{trace}")
+                .buildWithCallback(m -> m.record(pendingTraces.size()));
+    }
+
+    @Override
+    public void onStart(Context parentContext, ReadWriteSpan span) {
+        SpanContext spanContext = span.getSpanContext();
+        if (spanContext.isSampled() && localRoots.size() < maxTrackedSpans()) {
+            localRoots.put(spanContext.getSpanId(), rootOf(span));
+        }
+        delegate.onStart(parentContext, span);
+    }
+
+    @Override
+    public boolean isStartRequired() {
+        return true;
+    }
+
+    @Override
+    public void onEnd(ReadableSpan span) {
+        if (!span.getSpanContext().isSampled()) {
+            return;
+        }
+
+        String rootId = localRoots.remove(span.getSpanContext().getSpanId());
+        if (rootId == null) {
+            rootId = rootOf(span);
+        }
+
+        if (isLocalRoot(span)) {
+            // La decisión se registra antes de retirar y cerrar el buffer: un span que llegue
+            // después encuentra el buffer cerrado o ausente y consulta la decisión
+            boolean keep = decide(span);
+            rememberDecision(rootId, keep);
+            TraceBuffer buffer = pendingTraces.remove(rootId);
+            List<ReadableSpan> spans = buffer != null ? buffer.drain() : new ArrayList<>(1);
+            spans.add(span);
+            if (keep) {
+                spans.forEach(delegate::onEnd);
+            }
+            return;
+        }
+
+        TraceBuffer buffer = pendingTraces.get(rootId);
+        boolean created = false;
+        if (buffer == null) {
+            Boolean decided = decisionFor(rootId);
+            if (decided != null) {
+                endLate(span, decided);
+                return;
+            }
+            if (pendingTraces.size() >= config.getMaxTraces()) {
+                traceOverflow.increment();
+                return;
+            }
+            TraceBuffer fresh = new TraceBuffer(System.nanoTime());
+            buffer = pendingTraces.putIfAbsent(rootId, fresh);
+            if (buffer == null) {
+                buffer = fresh;
+                created = true;
+            }
+        }
+
+        switch (buffer.add(span, config.getMaxSpansPerTrace())) {
+            case FULL -> spanOverflow.increment();
+            case CLOSED -> endLate(span, decisionFor(rootId));
+            case ADDED -> {
+                if (created) {
+                    resolveIfAlreadyDecided(rootId, buffer);
+                }
+            }
+        }
+    }
+
+    private void endLate(ReadableSpan span, Boolean decided) {
+        lateSpans.increment();
+        if (Boolean.TRUE.equals(decided)) {
+            delegate.onEnd(span);
+        }
+    }
+
+    /**
+     * Un buffer creado justo después de que la raíz retirara el suyo no lo recogería nadie:
+     * si la decisión ya existe, su creador lo resuelve.
+     */
+    private void resolveIfAlreadyDecided(String rootId, TraceBuffer buffer) {
+        Boolean decided = decisionFor(rootId);
+        if (decided == null || !pendingTraces.remove(rootId, buffer)) {
+            return;
+        }
+        List<ReadableSpan> spans = buffer.drain();
+        lateSpans.add(spans.size());
+        if (decided) {
+            spans.forEach(delegate::onEnd);
+        }
+    }
+
+    @Override
+    public boolean isEndRequired() {
+        return true;
+    }
+
+    /**
+     * Las trazas que esperan a su raíz más de {@code orphanTimeout} (p.ej. una raíz que nunca
+     * terminó) se resuelven aquí con {@code keepRatio} antes del flush del delegate. Las más
+     * recientes siguen esperando: su raíz puede terminar en el mismo segmento.
+     */
+    @Override
+    public CompletableResultCode forceFlush() {
+        resolveOrphans(System.nanoTime() - config.getOrphanTimeout().toNanos());
+        return delegate.forceFlush();
+    }
+
+    @Override
+    public CompletableResultCode shutdown() {
+        resolveOrphans(Long.MAX_VALUE);
+        localRoots.clear();
+        return delegate.shutdown();
+    }
+
+    /**
+     * Resolver los buffers creados antes de {@code createdBeforeNanos}
+     */
+    private void resolveOrphans(long createdBeforeNanos) {
+        for (Map.Entry<String, TraceBuffer> entry : pendingTraces.entrySet()) {
+            TraceBuffer buffer = entry.getValue();
+            if (buffer.createdAtNanos - createdBeforeNanos >= 0) {
+                continue;
+            }
+            String rootId = entry.getKey();
+            boolean keep = sampleByRatio();
+            // Si la raíz ya decidió, ella (o quien creó el buffer) lo resuelve con su decisión
+            if (!rememberDecisionIfAbsent(rootId, keep) || !pendingTraces.remove(rootId, buffer)) {
+                continue;
+            }
+            orphanedTraces.increment();
+            List<ReadableSpan> spans = buffer.drain();
+            if (keep) {
+                spans.forEach(delegate::onEnd);
+            }
+        }
+    }
+
+    private boolean decide(ReadableSpan root) {
+        if (config.isKeepErrors() && root.toSpanData().getStatus().getStatusCode() == StatusCode.ERROR) {
+            keptByError.increment();
+            return true;
+        }
+
+        String route = root.getAttribute(HTTP_ROUTE);
+        long thresholdNanos = config.latencyThresholdFor(route != null ? route : root.getName()).toNanos();
+        if (root.getLatencyNanos() > thresholdNanos) {
+            keptByLatency.increment();
+            return true;
+        }
+
+        if (sampleByRatio()) {
+            keptByRatio.increment();
+            return true;
+        }
+        droppedTraces.increment();
+        return false;
+    }
+
+    private boolean sampleByRatio() {
+        double ratio = config.getKeepRatio();
+        return ratio >= 1.0 || (ratio > 0.0 && ThreadLocalRandom.current().nextDouble() < ratio);
+    }
+
+    private static boolean isLocalRoot(ReadableSpan span) {
+        SpanContext parent = span.getParentSpanContext();
+        return !parent.isValid() || parent.isRemote();
+    }
+
+    /**
+     * spanId de la raíz local: la propia si es raíz, la de su padre si éste sigue abierto.
+     * Si el padre ya terminó se usa su spanId, que coincide con la raíz cuando el padre lo era.
+     */
+    private String rootOf(ReadableSpan span) {
+        if (isLocalRoot(span)) {
+            return span.getSpanContext().getSpanId();
+        }
+        String parentId = span.getParentSpanContext().getSpanId();
+        String rootId = localRoots.get(parentId);
+        return rootId != null ? rootId : parentId;
+    }
+
+    // Mismo límite de memoria que el buffer: maxTraces × maxSpansPerTrace spans
+    private long maxTrackedSpans() {
+        return (long) config.getMaxTraces() * config.getMaxSpansPerTrace();
+    }
+
+    private void rememberDecision(String rootId, boolean keep) {
+        synchronized (recentDecisions) {
+            recentDecisions.put(rootId, keep);
+        }
+    }
+
+    private boolean rememberDecisionIfAbsent(String rootId, boolean keep) {
+        synchronized (recentDecisions) {
+            return recentDecisions.putIfAbsent(rootId, keep) == null;
+        }
+    }
+
+    private Boolean decisionFor(String rootId) {
+        synchronized (recentDecisions) {
+            return recentDecisions.get(rootId);
+        }
+    }
+
+    /**
+     * Obtener estadísticas del muestreo por cola
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("pending_traces", pendingTraces.size());
+        stats.put("tracked_spans", localRoots.size());
+        stats.put("kept_error", keptByError.sum());
+        stats.put("kept_latency", keptByLatency.sum());
+        stats.put("kept_ratio", keptByRatio.sum());
+        stats.put("dropped_traces", droppedTraces.sum());
+        stats.put("orphaned_traces", orphanedTraces.sum());
+        stats.put("late_spans", lateSpans.sum());
+        stats.put("trace_overflow", traceOverflow.sum());
+        stats.put("span_overflow", spanOverflow.sum());
+        return stats;
+    }
+
+    /**
+     * Spans descartados por falta de espacio en el buffer
+     */
+    public long getOverflowCount() {
+        return traceOverflow.sum() + spanOverflow.sum();
+    }
+
+    public TailSamplingConfig getConfig() {
+        return config;
+    }
+
+    private enum AddResult { ADDED, FULL, CLOSED }
+
+    private static final class TraceBuffer {
+        private final List<ReadableSpan> spans = new ArrayList<>();
+        private final long createdAtNanos;
+        private boolean closed;
+
+        TraceBuffer(long createdAtNanos) {
+            this.createdAtNanos = createdAtNanos;
+        }
+
+        synchronized AddResult add(ReadableSpan span, int maxSpans) {
+            if (closed) {
+                return AddResult.CLOSED;
+            }
+            if (spans.size() >= maxSpans) {
+                return AddResult.FULL;
+            }
+            spans.add(span);
+            return AddResult.ADDED;
+        }
+
+        /**
+         * Vaciar y cerrar: los add() posteriores devuelven CLOSED
+         */
+        synchronized List<ReadableSpan> drain() {
+            closed = true;
+            List<ReadableSpan> drained = new ArrayList<>(spans.size() + 1);
+            drained.addAll(spans);
+            spans.clear();
+            return drained;
+        }
+    }
+}
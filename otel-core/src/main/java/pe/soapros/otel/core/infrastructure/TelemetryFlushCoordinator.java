@@ -0,0 +1,257 @@
+package pe.soapros.otel.core.infrastructure;
+
+import io.opentelemetry.sdk.OpenTelemetrySdk;
+import io.opentelemetry.sdk.common.CompletableResultCode;
+import io.opentelemetry.sdk.logs.SdkLoggerProvider;
+import io.opentelemetry.sdk.metrics.SdkMeterProvider;
+import io.opentelemetry.sdk.trace.SdkTracerProvider;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Coordina el flush de trazas, métricas y logs al final de cada invocación.
+ *
+ * Los tres providers se disparan a la vez y se espera el conjunto con un único
+ * presupuesto de tiempo, derivado del tiempo restante de la invocación para no
+ * comerse el timeout de la Lambda.
+ */
+public class TelemetryFlushCoordinator {
+
+    static final long DEFAULT_MAX_FLUSH_BUDGET_MS = 2000;
+    static final long DEFAULT_SAFETY_MARGIN_MS = 200;
+
+    private final SdkTracerProvider tracerProvider;
+    private final SdkMeterProvider meterProvider;
+    private final SdkLoggerProvider loggerProvider;
+    private final long maxFlushBudgetMs;
+    private final long safetyMarginMs;
+    // Descartes de logs por cola llena (null si el SDK no se creó con ObservabilityConfig)
+    private final LogRecordAccounting logRecords;
+
+    private final LongAdder flushCount = new LongAdder();
+    private final LongAdder skippedFlushes = new LongAdder();
+    private final LongAdder totalFlushLatencyMs = new LongAdder();
+    private final AtomicLong lastFlushLatencyMs = new AtomicLong();
+    private final AtomicLong maxFlushLatencyMs = new AtomicLong();
+    private final Map<String, SignalStats> signalStats = new LinkedHashMap<>();
+
+    public TelemetryFlushCoordinator(SdkTracerProvider tracerProvider,
+                                     SdkMeterProvider meterProvider,
+                                     SdkLoggerProvider loggerProvider) {
+        this(tracerProvider, meterProvider, loggerProvider, DEFAULT_MAX_FLUSH_BUDGET_MS, DEFAULT_SAFETY_MARGIN_MS);
+    }
+
+    public TelemetryFlushCoordinator(SdkTracerProvider tracerProvider,
+                                     SdkMeterProvider meterProvider,
+                                     SdkLoggerProvider loggerProvider,
+                                     long maxFlushBudgetMs,
+                                     long safetyMarginMs) {
+        this(tracerProvider, meterProvider, loggerProvider, maxFlushBudgetMs, safetyMarginMs, null);
+    }
+
+    TelemetryFlushCoordinator(SdkTracerProvider tracerProvider,
+                              SdkMeterProvider meterProvider,
+                              SdkLoggerProvider loggerProvider,
+                              long maxFlushBudgetMs,
+                              long safetyMarginMs,
+                              LogRecordAccounting logRecords) {
+        if (maxFlushBudgetMs <= 0) {
+            throw new IllegalArgumentException("maxFlushBudgetMs must be > 0");
+        }
+        if (safetyMarginMs < 0) {
+            throw new IllegalArgumentException("safetyMarginMs must be >= 0");
+        }
+        this.tracerProvider = tracerProvider;
+        this.meterProvider = meterProvider;
+        this.loggerProvider = loggerProvider;
+        this.maxFlushBudgetMs = maxFlushBudgetMs;
+        this.safetyMarginMs = safetyMarginMs;
+        this.logRecords = logRecords;
+
+        signalStats.put("traces", new SignalStats());
+        signalStats.put("metrics", new SignalStats());
+        signalStats.put("logs", new SignalStats());
+    }
+
+    public static TelemetryFlushCoordinator forSdk(OpenTelemetrySdk sdk) {
+        return new TelemetryFlushCoordinator(
+                sdk.getSdkTracerProvider(),
+                sdk.getSdkMeterProvider(),
+                sdk.getSdkLoggerProvider());
+    }
+
+    static TelemetryFlushCoordinator forSdk(OpenTelemetrySdk sdk, LogRecordAccounting logRecords) {
+        return new TelemetryFlushCoordinator(
+                sdk.getSdkTracerProvider(),
+                sdk.getSdkMeterProvider(),
+                sdk.getSdkLoggerProvider(),
+                DEFAULT_MAX_FLUSH_BUDGET_MS,
+                DEFAULT_SAFETY_MARGIN_MS,
+                logRecords);
+    }
+
+    /**
+     * Coordinador sin providers, para OpenTelemetry que no es del SDK (noop)
+     */
+    public static TelemetryFlushCoordinator noop() {
+        return new TelemetryFlushCoordinator(null, null, null);
+    }
+
+    /**
+     * Flush con presupuesto calculado a partir del tiempo restante de la invocación
+     * (p.ej. {@code Context.getRemainingTimeInMillis()}).
+     * @return true si todas las señales terminaron dentro del presupuesto
+     */
+    public boolean flushForRemainingTime(long remainingTimeMillis) {
+        long budgetMs = Math.min(maxFlushBudgetMs, remainingTimeMillis - safetyMarginMs);
+        if (budgetMs <= 0) {
+            skippedFlushes.increment();
+            return false;
+        }
+        return flush(Duration.ofMillis(budgetMs));
+    }
+
+    /**
+     * Flush en paralelo de las tres señales esperando como máximo {@code budget}
+     * @return true si todas las señales terminaron dentro del presupuesto
+     */
+    public boolean flush(Duration budget) {
+        long start = System.nanoTime();
+        long emittedLogs = logRecords != null ? logRecords.emittedCount() : 0;
+
+        // Disparar todos los flush antes de esperar a ninguno
+        List<PendingFlush> pending = new ArrayList<>(3);
+        if (tracerProvider != null) {
+            pending.add(new PendingFlush("traces", tracerProvider.forceFlush()));
+        }
+        if (loggerProvider != null) {
+            pending.add(new PendingFlush("logs", loggerProvider.forceFlush()));
+        }
+        if (meterProvider != null) {
+            pending.add(new PendingFlush("metrics", meterProvider.forceFlush()));
+        }
+
+        if (pending.isEmpty()) {
+            return true;
+        }
+
+        List<CompletableResultCode> results = new ArrayList<>(pending.size());
+        pending.forEach(p -> results.add(p.result()));
+        CompletableResultCode.ofAll(results).join(budget.toMillis(), TimeUnit.MILLISECONDS);
+
+        boolean allSucceeded = true;
+        for (PendingFlush p : pending) {
+            SignalStats stats = signalStats.get(p.signal());
+            if (!p.result().isDone()) {
+                stats.timedOut.increment();
+                allSucceeded = false;
+            } else if (!p.result().isSuccess()) {
+                stats.failed.increment();
+                allSucceeded = false;
+            } else {
+                stats.succeeded.increment();
+                if (logRecords != null && "logs".equals(p.signal())) {
+                    logRecords.reconcile(emittedLogs);
+                }
+            }
+        }
+
+        recordLatency(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        return allSucceeded;
+    }
+
+    /**
+     * Flush final y cierre de los providers
+     */
+    public boolean shutdown(Duration timeout) {
+        boolean flushed = flush(timeout);
+
+        List<CompletableResultCode> results = new ArrayList<>(3);
+        if (tracerProvider != null) {
+            results.add(tracerProvider.shutdown());
+        }
+        if (loggerProvider != null) {
+            results.add(loggerProvider.shutdown());
+        }
+        if (meterProvider != null) {
+            results.add(meterProvider.shutdown());
+        }
+
+        CompletableResultCode all = CompletableResultCode.ofAll(results)
+                .join(timeout.toMillis(), TimeUnit.MILLISECONDS);
+        return flushed && all.isSuccess();
+    }
+
+    private void recordLatency(long latencyMs) {
+        flushCount.increment();
+        totalFlushLatencyMs.add(latencyMs);
+        lastFlushLatencyMs.set(latencyMs);
+        maxFlushLatencyMs.accumulateAndGet(latencyMs, Math::max);
+    }
+
+    /**
+     * Obtener estadísticas de flush: latencias y señales que no llegaron a exportarse
+     */
+    public Map<String, Object> getFlushStats() {
+        long count = flushCount.sum();
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("flush_count", count);
+        stats.put("skipped_flushes", skippedFlushes.sum());
+        stats.put("last_flush_latency_ms", lastFlushLatencyMs.get());
+        stats.put("max_flush_latency_ms", maxFlushLatencyMs.get());
+        stats.put("avg_flush_latency_ms", count == 0 ? 0.0 : (double) totalFlushLatencyMs.sum() / count);
+
+        signalStats.forEach((signal, s) -> {
+            stats.put(signal + ".succeeded", s.succeeded.sum());
+            stats.put(signal + ".timed_out", s.timedOut.sum());
+            stats.put(signal + ".failed", s.failed.sum());
+        });
+
+        // Records perdidos, no flushes: se reportan aparte
+        if (logRecords != null) {
+            stats.put("logs.dropped_records", logRecords.droppedCount());
+            stats.put("logs.export_failed_records", logRecords.exportFailedCount());
+        }
+        return stats;
+    }
+
+    /**
+     * Flushes que no terminaron a tiempo o fallaron: sus datos pueden haberse perdido
+     */
+    public long getDroppedFlushCount() {
+        return signalStats.values().stream()
+                .mapToLong(s -> s.timedOut.sum() + s.failed.sum())
+                .sum();
+    }
+
+    /**
+     * Log records descartados por el batch processor con la cola llena (0 si no se cuentan)
+     */
+    public long getDroppedLogRecordCount() {
+        return logRecords != null ? logRecords.droppedCount() : 0;
+    }
+
+    public long getMaxFlushBudgetMs() {
+        return maxFlushBudgetMs;
+    }
+
+    public long getSafetyMarginMs() {
+        return safetyMarginMs;
+    }
+
+    private record PendingFlush(String signal, CompletableResultCode result) {
+    }
+
+    private static final class SignalStats {
+        private final LongAdder succeeded = new LongAdder();
+        private final LongAdder timedOut = new LongAdder();
+        private final LongAdder failed = new LongAdder();
+    }
+}
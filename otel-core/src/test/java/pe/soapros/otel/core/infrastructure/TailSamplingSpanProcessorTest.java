@@ -0,0 +1,210 @@
+package pe.soapros.otel.core.infrastructure;
+
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.StatusCode;
+import io.opentelemetry.api.trace.Tracer;
+import io.opentelemetry.context.Context;
+import io.opentelemetry.sdk.common.CompletableResultCode;
+import io.opentelemetry.sdk.trace.ReadWriteSpan;
+import io.opentelemetry.sdk.trace.ReadableSpan;
+import io.opentelemetry.sdk.trace.SdkTracerProvider;
+import io.opentelemetry.sdk.trace.SpanProcessor;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TailSamplingSpanProcessorTest {
+
+    private final RecordingProcessor delegate = new RecordingProcessor();
+    private SdkTracerProvider tracerProvider;
+    private TailSamplingSpanProcessor processor;
+    private Tracer tracer;
+
+    @AfterEach
+    void tearDown() {
+        if (tracerProvider != null) {
+            tracerProvider.close();
+        }
+    }
+
+    private void setUp(TailSamplingConfig.Builder config) {
+        processor = new TailSamplingSpanProcessor(delegate, config.build());
+        tracerProvider = SdkTracerProvider.builder().addSpanProcessor(processor).build();
+        tracer = tracerProvider.get("tail-sampling-test");
+    }
+
+    @Test
+    void keepsTracesThatEndWithError() {
+        setUp(TailSamplingConfig.builder().keepRatio(0.0));
+
+        Span root = tracer.spanBuilder("root").startSpan();
+        tracer.spanBuilder("child").setParent(Context.current().with(root)).startSpan().end();
+        root.setStatus(StatusCode.ERROR);
+        root.end();
+
+        assertEquals(List.of("child", "root"), delegate.names());
+        assertEquals(1L, processor.getStats().get("kept_error"));
+    }
+
+    @Test
+    void keepsTracesSlowerThanTheirRouteThreshold() {
+        setUp(TailSamplingConfig.builder()
+                .keepRatio(0.0)
+                .latencyThreshold("GET /orders", Duration.ofMillis(100)));
+
+        endRoot("slow", "GET /orders", 200);
+        endRoot("fast", "GET /orders", 50);
+
+        assertEquals(List.of("slow"), delegate.names());
+        assertEquals(1L, processor.getStats().get("kept_latency"));
+        assertEquals(1L, processor.getStats().get("dropped_traces"));
+    }
+
+    @Test
+    void appliesKeepRatioToRegularTraces() {
+        setUp(TailSamplingConfig.builder().keepRatio(0.0));
+
+        Span root = tracer.spanBuilder("dropped").startSpan();
+        Span late = tracer.spanBuilder("late").setParent(Context.current().with(root)).startSpan();
+        root.end();
+        // Un span que termina después de su raíz sigue la decisión ya tomada
+        late.end();
+        assertTrue(delegate.names().isEmpty());
+        assertEquals(1L, processor.getStats().get("late_spans"));
+
+        tearDown();
+        setUp(TailSamplingConfig.builder().keepRatio(1.0));
+        Span kept = tracer.spanBuilder("kept").startSpan();
+        tracer.spanBuilder("child").setParent(Context.current().with(kept)).startSpan().end();
+        kept.end();
+        assertEquals(List.of("child", "kept"), delegate.names());
+        assertEquals(1L, processor.getStats().get("kept_ratio"));
+    }
+
+    @Test
+    void resolvesOrphansOnFlush() {
+        setUp(TailSamplingConfig.builder().keepRatio(1.0).orphanTimeout(Duration.ZERO));
+
+        // La raíz nunca termina
+        Span root = tracer.spanBuilder("never-ends").startSpan();
+        tracer.spanBuilder("orphan").setParent(Context.current().with(root)).startSpan().end();
+        assertTrue(delegate.names().isEmpty());
+
+        processor.forceFlush().join(1, TimeUnit.SECONDS);
+
+        assertEquals(List.of("orphan"), delegate.names());
+        assertEquals(1L, processor.getStats().get("orphaned_traces"));
+        assertEquals(0, processor.getStats().get("pending_traces"));
+    }
+
+    @Test
+    void countsSpansThatDoNotFitInTheBuffer() {
+        setUp(TailSamplingConfig.builder().keepRatio(1.0).maxTraces(1).maxSpansPerTrace(1));
+
+        Span first = tracer.spanBuilder("first").startSpan();
+        Span second = tracer.spanBuilder("second").startSpan();
+        Context firstContext = Context.current().with(first);
+        tracer.spanBuilder("buffered").setParent(firstContext).startSpan().end();
+        tracer.spanBuilder("over-span-limit").setParent(firstContext).startSpan().end();
+        tracer.spanBuilder("over-trace-limit").setParent(Context.current().with(second)).startSpan().end();
+        first.end();
+        second.end();
+
+        assertEquals(List.of("buffered", "first", "second"), delegate.names());
+        assertEquals(1L, processor.getStats().get("span_overflow"));
+        assertEquals(1L, processor.getStats().get("trace_overflow"));
+        assertEquals(2L, processor.getOverflowCount());
+    }
+
+    @Test
+    void childrenEndingConcurrentlyWithTheirRootAreNotLost() throws Exception {
+        setUp(TailSamplingConfig.builder().keepRatio(1.0).orphanTimeout(Duration.ofHours(1)));
+        int children = 8;
+
+        try (ExecutorService executor = Executors.newFixedThreadPool(children + 1)) {
+            for (int round = 0; round < 200; round++) {
+                delegate.ended.clear();
+                Span root = tracer.spanBuilder("root").startSpan();
+                List<Span> started = new ArrayList<>();
+                for (int i = 0; i < children; i++) {
+                    started.add(tracer.spanBuilder("child").setParent(Context.current().with(root)).startSpan());
+                }
+
+                CountDownLatch gate = new CountDownLatch(1);
+                CountDownLatch done = new CountDownLatch(children + 1);
+                for (Span child : started) {
+                    executor.execute(() -> endAfter(gate, child, done));
+                }
+                executor.execute(() -> endAfter(gate, root, done));
+                gate.countDown();
+                assertTrue(done.await(5, TimeUnit.SECONDS));
+
+                assertEquals(children + 1, delegate.ended.size(), "round " + round);
+                assertEquals(0, processor.getStats().get("pending_traces"), "round " + round);
+            }
+        }
+    }
+
+    private void endRoot(String name, String route, long latencyMillis) {
+        long start = System.currentTimeMillis();
+        tracer.spanBuilder(name)
+                .setAttribute("http.route", route)
+                .setStartTimestamp(start, TimeUnit.MILLISECONDS)
+                .startSpan()
+                .end(start + latencyMillis, TimeUnit.MILLISECONDS);
+    }
+
+    private static void endAfter(CountDownLatch gate, Span span, CountDownLatch done) {
+        try {
+            gate.await();
+            span.end();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            done.countDown();
+        }
+    }
+
+    private static final class RecordingProcessor implements SpanProcessor {
+        private final Queue<ReadableSpan> ended = new ConcurrentLinkedQueue<>();
+
+        @Override
+        public void onStart(Context parentContext, ReadWriteSpan span) {
+        }
+
+        @Override
+        public boolean isStartRequired() {
+            return false;
+        }
+
+        @Override
+        public void onEnd(ReadableSpan span) {
+            ended.add(span);
+        }
+
+        @Override
+        public boolean isEndRequired() {
+            return true;
+        }
+
+        @Override
+        public CompletableResultCode forceFlush() {
+            return CompletableResultCode.ofSuccess();
+        }
+
+        List<String> names() {
+            return ended.stream().map(ReadableSpan::getName).toList();
+        }
+    }
+}
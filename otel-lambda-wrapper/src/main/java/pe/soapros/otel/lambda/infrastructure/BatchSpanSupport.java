@@ -0,0 +1,88 @@
+package pe.soapros.otel.lambda.infrastructure;
+
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.SpanBuilder;
+import io.opentelemetry.api.trace.SpanContext;
+import io.opentelemetry.api.trace.SpanKind;
+import io.opentelemetry.api.trace.Tracer;
+import io.opentelemetry.context.Context;
+
+import java.util.function.Function;
+
+/**
+ * Span CONSUMER a nivel de lote para eventos SQS/Kafka con varios mensajes.
+ *
+ * El span de lote enlaza (span links) los contextos de los productores en lugar de
+ * heredar de uno de ellos; el número de links se limita para lotes grandes.
+ */
+final class BatchSpanSupport {
+
+    static final int DEFAULT_MAX_LINKS = 128;
+
+    static final AttributeKey<Long> BATCH_MESSAGE_COUNT = AttributeKey.longKey("messaging.batch.message_count");
+    static final AttributeKey<Long> BATCH_LINK_COUNT = AttributeKey.longKey("messaging.batch.link_count");
+    static final AttributeKey<Boolean> BATCH_LINKS_TRUNCATED = AttributeKey.booleanKey("messaging.batch.links_truncated");
+    static final AttributeKey<Long> BATCH_FAILED_COUNT = AttributeKey.longKey("messaging.batch.failed_count");
+
+    private BatchSpanSupport() {
+        throw new UnsupportedOperationException("This is a utility class and cannot be instantiated");
+    }
+
+    /**
+     * Inicia el span de lote con un link por cada contexto de productor válido (hasta {@code maxLinks}).
+     * Los wrappers pasan como {@code contextExtractor} los contextos ya extraídos, que luego
+     * reutilizan en el span de cada mensaje; se deja de consultar al alcanzar el límite.
+     */
+    static <T> Span startBatchSpan(Tracer tracer,
+                                   String spanName,
+                                   String messagingSystem,
+                                   String destination,
+                                   Iterable<T> messages,
+                                   int messageCount,
+                                   Function<T, Context> contextExtractor,
+                                   int maxLinks) {
+        SpanBuilder builder = tracer.spanBuilder(spanName)
+                .setParent(Context.current())
+                .setSpanKind(SpanKind.CONSUMER)
+                .setAttribute("messaging.system", messagingSystem)
+                .setAttribute("messaging.operation", "process")
+                .setAttribute("messaging.destination", destination)
+                .setAttribute(BATCH_MESSAGE_COUNT, (long) messageCount);
+
+        SpanContext current = Span.current().getSpanContext();
+        long links = 0;
+        boolean truncated = false;
+
+        for (T message : messages) {
+            SpanContext producer = Span.fromContext(contextExtractor.apply(message)).getSpanContext();
+            if (!producer.isValid() || producer.equals(current)) {
+                continue;
+            }
+            if (links >= maxLinks) {
+                truncated = true;
+                break;
+            }
+            builder.addLink(producer);
+            links++;
+        }
+
+        builder.setAttribute(BATCH_LINK_COUNT, links);
+        if (truncated) {
+            builder.setAttribute(BATCH_LINKS_TRUNCATED, true);
+        }
+        return builder.startSpan();
+    }
+
+    /**
+     * Contexto de productor a enlazar desde un span de mensaje cuyo padre es el span de lote,
+     * o null si el mensaje no trae contexto propio.
+     */
+    static SpanContext producerLink(Context extracted, Context batchContext) {
+        SpanContext producer = Span.fromContext(extracted).getSpanContext();
+        if (!producer.isValid() || producer.equals(Span.fromContext(batchContext).getSpanContext())) {
+            return null;
+        }
+        return producer;
+    }
+}
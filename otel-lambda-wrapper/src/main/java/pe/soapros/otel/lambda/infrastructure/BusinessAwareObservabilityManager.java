@@ -28,11 +28,13 @@ public class BusinessAwareObservabilityManager extends ObservabilityManager{
      * Este método facilita la configuración inicial en funciones Lambda
      */
     public void setupQuickBusinessContext(String businessId, String userId, String operation) {
-        logDebug("Setting up quick business context", Map.of(
-                "business.id", businessId != null ? businessId : "null",
-                "user.id", userId != null ? userId : "null",
-                "operation", operation != null ? operation : "null"
-        ));
+        if (isDebugEnabled()) {
+            logDebug("Setting up quick business context", Map.of(
+                    "business.id", businessId != null ? businessId : "null",
+                    "user.id", userId != null ? userId : "null",
+                    "operation", operation != null ? operation : "null"
+            ));
+        }
 
         // Usar el BusinessContextManager para configuración centralizada
         BusinessContextManager.setQuickContext(businessId, userId, operation);
@@ -59,9 +61,11 @@ public class BusinessAwareObservabilityManager extends ObservabilityManager{
             return;
         }
 
-        logDebug("Setting up business context from headers", Map.of(
-                "headers.count", String.valueOf(headers.size())
-        ));
+        if (isDebugEnabled()) {
+            logDebug("Setting up business context from headers", Map.of(
+                    "headers.count", String.valueOf(headers.size())
+            ));
+        }
 
         // Usar BusinessContextManager para configuración desde headers
         BusinessContextManager.setContextFromHeaders(headers);
@@ -73,8 +77,10 @@ public class BusinessAwareObservabilityManager extends ObservabilityManager{
         }
 
         // Log con información extraída
-        Map<String, String> extractedInfo = BusinessContextManager.getCurrentContextInfo();
-        logInfo("Business context configured from headers", extractedInfo);
+        if (isInfoEnabled()) {
+            Map<String, String> extractedInfo = BusinessContextManager.getCurrentContextInfo();
+            logInfo("Business context configured from headers", extractedInfo);
+        }
     }
 
     /**
@@ -86,11 +92,13 @@ public class BusinessAwareObservabilityManager extends ObservabilityManager{
             return;
         }
 
-        logDebug("Setting up complete business context", Map.of(
-                "business.id", context.businessId() != null ? context.businessId() : "null",
-                "user.id", context.userId() != null ? context.userId() : "null",
-                "operation", context.operation() != null ? context.operation() : "null"
-        ));
+        if (isDebugEnabled()) {
+            logDebug("Setting up complete business context", Map.of(
+                    "business.id", context.businessId() != null ? context.businessId() : "null",
+                    "user.id", context.userId() != null ? context.userId() : "null",
+                    "operation", context.operation() != null ? context.operation() : "null"
+            ));
+        }
 
         // Usar BusinessContextManager
         BusinessContextManager.setContext(context);
@@ -110,7 +118,9 @@ public class BusinessAwareObservabilityManager extends ObservabilityManager{
      * Actualiza el business ID en el contexto actual
      */
     public void updateBusinessId(String businessId) {
-        logDebug("Updating business ID", Map.of("business.id", businessId));
+        if (isDebugEnabled()) {
+            logDebug("Updating business ID", Map.of("business.id", businessId));
+        }
 
         BusinessContextManager.updateBusinessId(businessId);
         enrichCurrentSpanWithBusinessContext();
@@ -123,7 +133,9 @@ public class BusinessAwareObservabilityManager extends ObservabilityManager{
      * Actualiza la operación en el contexto actual
      */
     public void updateOperation(String operation) {
-        logDebug("Updating operation", Map.of("operation", operation));
+        if (isDebugEnabled()) {
+            logDebug("Updating operation", Map.of("operation", operation));
+        }
 
         BusinessContextManager.updateOperation(operation);
         enrichCurrentSpanWithBusinessContext();
@@ -135,7 +147,9 @@ public class BusinessAwareObservabilityManager extends ObservabilityManager{
      * Actualiza el user ID en el contexto actual
      */
     public void updateUserId(String userId) {
-        logDebug("Updating user ID", Map.of("user.id", userId));
+        if (isDebugEnabled()) {
+            logDebug("Updating user ID", Map.of("user.id", userId));
+        }
 
         BusinessContextManager.updateUserId(userId);
         enrichCurrentSpanWithBusinessContext();
@@ -13,10 +13,14 @@ import io.opentelemetry.api.trace.Span;
 import io.opentelemetry.api.trace.SpanKind;
 import io.opentelemetry.api.trace.StatusCode;
 import io.opentelemetry.api.trace.Tracer;
+import io.opentelemetry.context.ContextKey;
+import io.opentelemetry.context.ImplicitContextKeyed;
 import io.opentelemetry.context.Scope;
 import io.opentelemetry.semconv.HttpAttributes;
 import io.opentelemetry.semconv.ServiceAttributes;
 import pe.soapros.otel.metrics.infrastructure.HttpMetricsCollector;
+import pe.soapros.otel.metrics.infrastructure.HttpRequestTimer;
+import pe.soapros.otel.metrics.infrastructure.LambdaExecutionTimer;
 import pe.soapros.otel.metrics.infrastructure.LambdaMetricsCollector;
 import pe.soapros.otel.metrics.infrastructure.MetricsFactory;
 import software.amazon.awssdk.core.http.ExecutionContext;
@@ -38,8 +42,6 @@ public class FrameworkAgnosticObservabilityManager {
     private final String serviceName;
     private final String serviceVersion;
 
-    private final ThreadLocal<ExecutionContext> currentExecution = new ThreadLocal<>();
-
     /**
      * Constructor que inicializa toda la infraestructura de observabilidad.
      * Este constructor reutiliza TODA la infraestructura existente de tu librería.
@@ -107,7 +109,7 @@ public class FrameworkAgnosticObservabilityManager {
             HttpLambdaFunction businessLogic) throws Exception {
 
         // Inicializar métricas de Lambda
-        lambdaMetricsCollector.startExecution(context);
+        LambdaExecutionTimer executionTimer = lambdaMetricsCollector.startExecution(context);
 
         // Configurar contexto de negocio desde headers
         observabilityManager.setupBusinessContextFromHeaders(
@@ -132,16 +134,22 @@ public class FrameworkAgnosticObservabilityManager {
                 .startSpan();
 
         // Iniciar métricas HTTP
-        httpMetricsCollector.startRequest(method, path, extractUserAgent(event), extractClientIp(event));
+        HttpRequestTimer requestTimer = httpMetricsCollector.startRequest(
+                method, path, extractUserAgent(event), extractClientIp(event));
 
-        // Configurar contexto de ejecución
+        // El contexto de ejecución viaja en el Context de OTel junto con el span
         ExecutionContext execContext = new ExecutionContext(span, Instant.now(), "HTTP");
-        currentExecution.set(execContext);
 
         // Log de inicio
         observabilityManager.logLambdaStart(serviceName, context.getAwsRequestId());
 
-        try (Scope scope = span.makeCurrent()) {
+        // Los timers viajan junto con el span (LambdaExecutionTimer.current() / HttpRequestTimer.current())
+        try (Scope scope = io.opentelemetry.context.Context.current()
+                .with(span)
+                .with(execContext)
+                .with(executionTimer)
+                .with(requestTimer)
+                .makeCurrent()) {
             // Enriquecer span con atributos HTTP
             enrichSpanWithHttpAttributes(span, event, context, correlationId, userId);
 
@@ -159,21 +167,21 @@ public class FrameworkAgnosticObservabilityManager {
             // Finalizar métricas HTTP
             long requestSize = event.getBody() != null ? event.getBody().length() : 0;
             long responseSize = response.getBody() != null ? response.getBody().length() : 0;
-            httpMetricsCollector.endRequest(response.getStatusCode(), requestSize, responseSize, null);
+            requestTimer.end(response.getStatusCode(), requestSize, responseSize, null);
 
             // Marcar span como exitoso
             observabilityManager.closeSpanSuccessfully(span, "HTTP " + response.getStatusCode());
 
             // Finalizar métricas de Lambda exitosamente
-            lambdaMetricsCollector.endExecution(context, true, null);
+            executionTimer.end(context, true, null);
 
             return response;
 
         } catch (Exception ex) {
             // Manejar error
             //observabilityManager.closeSpan(span, ex);
-            httpMetricsCollector.endRequest(500, 0, 0, ex);
-            lambdaMetricsCollector.endExecution(context, false, ex);
+            requestTimer.end(500, 0, 0, ex);
+            executionTimer.end(context, false, ex);
 
             throw ex;
         } finally {
@@ -181,7 +189,6 @@ public class FrameworkAgnosticObservabilityManager {
             observabilityManager.logLambdaEnd(serviceName, context.getAwsRequestId(), totalDuration.toMillis());
 
             span.end();
-            currentExecution.remove();
         }
     }
 
@@ -195,10 +202,10 @@ public class FrameworkAgnosticObservabilityManager {
             Context context,
             SqsLambdaFunction businessLogic) {
 
-        lambdaMetricsCollector.startExecution(context);
+        LambdaExecutionTimer executionTimer = lambdaMetricsCollector.startExecution(context);
         observabilityManager.logLambdaStart(serviceName, context.getAwsRequestId());
 
-        try {
+        try (Scope timerScope = executionTimer.makeCurrent()) {
             event.getRecords().forEach(message ->
             {
                 try {
@@ -208,10 +215,10 @@ public class FrameworkAgnosticObservabilityManager {
                 }
             });
 
-            lambdaMetricsCollector.endExecution(context, true, null);
+            executionTimer.end(context, true, null);
 
         } catch (Exception ex) {
-            lambdaMetricsCollector.endExecution(context, false, ex);
+            executionTimer.end(context, false, ex);
             throw ex;
         } finally {
             observabilityManager.logLambdaEnd(serviceName, context.getAwsRequestId(),
@@ -243,9 +250,8 @@ public class FrameworkAgnosticObservabilityManager {
                 .startSpan();
 
         ExecutionContext execContext = new ExecutionContext(span, Instant.now(), "SQS");
-        currentExecution.set(execContext);
 
-        try (Scope scope = span.makeCurrent()) {
+        try (Scope scope = io.opentelemetry.context.Context.current().with(span).with(execContext).makeCurrent()) {
             enrichSpanWithSqsAttributes(span, message, context);
 
             // Ejecutar lógica de negocio
@@ -258,7 +264,6 @@ public class FrameworkAgnosticObservabilityManager {
             throw ex;
         } finally {
             span.end();
-            currentExecution.remove();
         }
     }
 
@@ -272,18 +277,18 @@ public class FrameworkAgnosticObservabilityManager {
             Context context,
             KafkaLambdaFunction businessLogic) {
 
-        lambdaMetricsCollector.startExecution(context);
+        LambdaExecutionTimer executionTimer = lambdaMetricsCollector.startExecution(context);
         observabilityManager.logLambdaStart(serviceName, context.getAwsRequestId());
 
-        try {
+        try (Scope timerScope = executionTimer.makeCurrent()) {
             event.getRecords().values().stream()
                     .flatMap(java.util.List::stream)
                     .forEach(record -> processKafkaRecordWithObservability(record, context, businessLogic));
 
-            lambdaMetricsCollector.endExecution(context, true, null);
+            executionTimer.end(context, true, null);
 
         } catch (Exception ex) {
-            lambdaMetricsCollector.endExecution(context, false, ex);
+            executionTimer.end(context, false, ex);
             throw ex;
         } finally {
             observabilityManager.logLambdaEnd(serviceName, context.getAwsRequestId(),
@@ -318,7 +323,7 @@ public class FrameworkAgnosticObservabilityManager {
      * Permite a los usuarios registrar métricas personalizadas
      */
     public void recordCustomMetric(String name, double value, Map<String, String> attributes) {
-        ExecutionContext context = currentExecution.get();
+        ExecutionContext context = ExecutionContext.current();
         if (context != null) {
             switch (context.type) {
                 case "HTTP" -> httpMetricsCollector.recordEndpointMetric("custom", name, value, attributes);
@@ -526,7 +531,10 @@ public class FrameworkAgnosticObservabilityManager {
     /**
      * Clase interna para mantener contexto de ejecución
      */
-    private static class ExecutionContext {
+    private static class ExecutionContext implements ImplicitContextKeyed {
+        private static final ContextKey<ExecutionContext> KEY =
+                ContextKey.named("pe.soapros.otel.lambda.framework-agnostic.execution");
+
         final Span span;
         final Instant startTime;
         final String type; // "HTTP", "SQS", "Kafka"
@@ -536,5 +544,14 @@ public class FrameworkAgnosticObservabilityManager {
             this.startTime = startTime;
             this.type = type;
         }
+
+        @Override
+        public io.opentelemetry.context.Context storeInContext(io.opentelemetry.context.Context context) {
+            return context.with(KEY, this);
+        }
+
+        static ExecutionContext current() {
+            return io.opentelemetry.context.Context.current().get(KEY);
+        }
     }
 }
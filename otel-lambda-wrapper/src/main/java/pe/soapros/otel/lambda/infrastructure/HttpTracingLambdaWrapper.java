@@ -17,7 +17,11 @@ import io.opentelemetry.context.Scope;
 import io.opentelemetry.semconv.HttpAttributes;
 import io.opentelemetry.semconv.ServiceAttributes;
 import io.opentelemetry.semconv.UserAgentAttributes;
+import pe.soapros.otel.core.infrastructure.InitPhaseTimer;
+import pe.soapros.otel.core.infrastructure.OpenTelemetryManager;
+import pe.soapros.otel.core.infrastructure.TelemetryFlushCoordinator;
 import pe.soapros.otel.metrics.infrastructure.MetricsFactory;
+import pe.soapros.otel.metrics.infrastructure.LambdaExecutionTimer;
 import pe.soapros.otel.metrics.infrastructure.LambdaMetricsCollector;
 
 import javax.lang.model.SourceVersion;
@@ -33,6 +37,7 @@ public abstract class HttpTracingLambdaWrapper implements RequestHandler<APIGate
     protected OpenTelemetry openTelemetry = null;
     private BusinessAwareObservabilityManager observabilityManager = null;
     private LambdaMetricsCollector lambdaMetricsCollector = null;
+    private TelemetryFlushCoordinator flushCoordinator = null;
 
     private Tracer tracer = null;
     private String serviceName = "";
@@ -47,6 +52,7 @@ public abstract class HttpTracingLambdaWrapper implements RequestHandler<APIGate
     }
 
     public void setOpenTelemetry(OpenTelemetry openTelemetry) {
+        InitPhaseTimer.Measurement initPhase = InitPhaseTimer.start("wrapper.http");
         Objects.requireNonNull(openTelemetry, "OpenTelemetry instance cannot be null");
         this.openTelemetry = openTelemetry;
 
@@ -79,6 +85,10 @@ public abstract class HttpTracingLambdaWrapper implements RequestHandler<APIGate
                 serviceVersion != null ? serviceVersion : "1.0.0"
         );
         this.lambdaMetricsCollector = metricsFactory.getLambdaMetricsCollector();
+
+        // Flush real de trazas, métricas y logs al final de cada invocación
+        this.flushCoordinator = OpenTelemetryManager.flushCoordinatorFor(openTelemetry);
+        initPhase.stop();
     }
 
     protected Map<String, String> createCorsHeaders() {
@@ -128,9 +138,8 @@ public abstract class HttpTracingLambdaWrapper implements RequestHandler<APIGate
 
     @Override
     public APIGatewayProxyResponseEvent handleRequest(APIGatewayProxyRequestEvent event, Context context) {
-        System.out.println("event.toString() = " + event.toString());
         // Iniciar métricas de Lambda con el colector especializado
-        lambdaMetricsCollector.startExecution(context);
+        LambdaExecutionTimer executionTimer = lambdaMetricsCollector.startExecution(context);
 
         observabilityManager.setupBusinessContextFromHeaders(
                 Optional.ofNullable(event.getHeaders()).orElse(Map.of())
@@ -146,15 +155,20 @@ public abstract class HttpTracingLambdaWrapper implements RequestHandler<APIGate
                 Optional.ofNullable(event.getHeaders()).orElse(Map.of())
         );
 
-        Span span = tracer.spanBuilder(String.format("HTTP %s %s", method, normalizePath(path)))
+        // Método y ruta van en el builder para que las reglas del sampler los vean
+        String route = normalizePath(path);
+        Span span = tracer.spanBuilder(String.format("HTTP %s %s", method, route))
                 .setParent(otelContext)
                 .setSpanKind(SpanKind.SERVER)
+                .setAttribute(HttpAttributes.HTTP_REQUEST_METHOD, method)
+                .setAttribute(HttpAttributes.HTTP_ROUTE, route)
                 .startSpan();
 
         // Log lambda start
         observabilityManager.logLambdaStart(serviceName, context.getAwsRequestId());
         
-        try (Scope scope = span.makeCurrent()) {
+        // El timer viaja en el Context junto con el span (LambdaExecutionTimer.current())
+        try (Scope scope = io.opentelemetry.context.Context.current().with(span).with(executionTimer).makeCurrent()) {
             enrichSpanWithRequestAttributes(span, event, context, correlationId, userId);
             
             // Add user info to observability manager
@@ -173,7 +187,7 @@ public abstract class HttpTracingLambdaWrapper implements RequestHandler<APIGate
             observabilityManager.closeSpanSuccessfully(span, "HTTP " + response.getStatusCode());
             
             // Finalizar métricas de Lambda exitosamente
-            lambdaMetricsCollector.endExecution(context, true, null);
+            executionTimer.end(context, true, null);
             
             return response;
 
@@ -182,7 +196,7 @@ public abstract class HttpTracingLambdaWrapper implements RequestHandler<APIGate
             //observabilityManager.closeSpan(span, ex);
             
             // Finalizar métricas de Lambda con error
-            lambdaMetricsCollector.endExecution(context, false, ex);
+            executionTimer.end(context, false, ex);
             
             throw ex;
         } finally {
@@ -190,9 +204,7 @@ public abstract class HttpTracingLambdaWrapper implements RequestHandler<APIGate
             observabilityManager.logLambdaEnd(serviceName, context.getAwsRequestId(), totalDuration.toMillis());
             
             span.end();
-            if (context.getRemainingTimeInMillis() < 5000) {
-                forceFlushTelemetry();
-            }
+            forceFlushTelemetry(context.getRemainingTimeInMillis());
         }
     }
 
@@ -203,6 +215,10 @@ public abstract class HttpTracingLambdaWrapper implements RequestHandler<APIGate
     protected ObservabilityManager getObservabilityManager() {
         return observabilityManager;
     }
+
+    protected TelemetryFlushCoordinator getFlushCoordinator() {
+        return flushCoordinator;
+    }
     
     protected void logInfo(String message, Map<String, String> attributes) {
         observabilityManager.getLoggerService().info(message, attributes);
@@ -234,7 +250,7 @@ public abstract class HttpTracingLambdaWrapper implements RequestHandler<APIGate
         // Atributos HTTP semánticos (OpenTelemetry spec)
         span.setAllAttributes(Attributes.of(
                 HttpAttributes.HTTP_REQUEST_METHOD, extractMethod(event),
-                HttpAttributes.HTTP_ROUTE, extractPath(event),
+                HttpAttributes.HTTP_ROUTE, normalizePath(extractPath(event)),
                 UserAgentAttributes.USER_AGENT_ORIGINAL, extractUserAgent(event)
         ));
 
@@ -343,11 +359,12 @@ public abstract class HttpTracingLambdaWrapper implements RequestHandler<APIGate
     }
 
 
-    private void forceFlushTelemetry() {
+    private void forceFlushTelemetry(long remainingTimeMillis) {
         try {
-            // Intentar hacer flush de telemetría antes de que termine Lambda
-            // Esto es una aproximación - el método exacto depende de la implementación del SDK
-            System.out.println("Forcing telemetry flush due to low remaining time");
+            // Flush antes de que Lambda congele el entorno; el presupuesto sale del tiempo restante
+            if (!flushCoordinator.flushForRemainingTime(remainingTimeMillis)) {
+                System.err.println("Telemetry flush incomplete: " + flushCoordinator.getFlushStats());
+            }
         } catch (Exception e) {
             // No fallar la Lambda por problemas de telemetría
             System.err.println("Failed to flush telemetry: " + e.getMessage());
@@ -0,0 +1,76 @@
+package pe.soapros.otel.lambda.infrastructure;
+
+import lombok.Getter;
+
+/**
+ * Configuración del procesamiento de lotes Kafka en {@link KafkaTracingLambdaWrapper}
+ */
+@Getter
+public class KafkaBatchProcessingConfig {
+
+    private final int maxPartitionConcurrency;
+    private final boolean batchSpan;
+    private final int maxBatchSpanLinks;
+
+    private KafkaBatchProcessingConfig(Builder builder) {
+        this.maxPartitionConcurrency = builder.maxPartitionConcurrency;
+        this.batchSpan = builder.batchSpan;
+        this.maxBatchSpanLinks = builder.maxBatchSpanLinks;
+    }
+
+    /**
+     * Procesamiento secuencial de todas las particiones (comportamiento original)
+     */
+    public static KafkaBatchProcessingConfig sequential() {
+        return builder().build();
+    }
+
+    /**
+     * Particiones en paralelo en virtual threads; dentro de una partición el orden se respeta
+     */
+    public static KafkaBatchProcessingConfig parallelPartitions(int maxPartitionConcurrency) {
+        return builder()
+                .maxPartitionConcurrency(maxPartitionConcurrency)
+                .build();
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public static class Builder {
+        private int maxPartitionConcurrency = 1;
+        private boolean batchSpan = false;
+        private int maxBatchSpanLinks = BatchSpanSupport.DEFAULT_MAX_LINKS;
+
+        public Builder maxPartitionConcurrency(int maxPartitionConcurrency) {
+            if (maxPartitionConcurrency < 1) {
+                throw new IllegalArgumentException("maxPartitionConcurrency must be >= 1");
+            }
+            this.maxPartitionConcurrency = maxPartitionConcurrency;
+            return this;
+        }
+
+        /**
+         * Un span CONSUMER por lote con links a los contextos de los productores.
+         * Los spans por registro pasan a ser hijos del span de lote.
+         */
+        public Builder batchSpan(boolean enabled) {
+            this.batchSpan = enabled;
+            return this;
+        }
+
+        public Builder batchSpan(int maxLinks) {
+            if (maxLinks < 0) {
+                throw new IllegalArgumentException("maxLinks must be >= 0");
+            }
+            this.batchSpan = true;
+            this.maxBatchSpanLinks = maxLinks;
+            return this;
+        }
+
+        public KafkaBatchProcessingConfig build() {
+            return new KafkaBatchProcessingConfig(this);
+        }
+    }
+}
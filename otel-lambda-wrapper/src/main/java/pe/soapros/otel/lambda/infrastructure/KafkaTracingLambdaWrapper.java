@@ -7,36 +7,62 @@ import io.opentelemetry.api.OpenTelemetry;
 import io.opentelemetry.api.common.AttributeKey;
 import io.opentelemetry.api.common.Attributes;
 import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.SpanBuilder;
+import io.opentelemetry.api.trace.SpanContext;
 import io.opentelemetry.api.trace.SpanKind;
 import io.opentelemetry.api.trace.StatusCode;
 import io.opentelemetry.api.trace.Tracer;
 import io.opentelemetry.context.Scope;
 import io.opentelemetry.semconv.ServiceAttributes;
+import pe.soapros.otel.core.infrastructure.InitPhaseTimer;
+import pe.soapros.otel.core.infrastructure.OpenTelemetryManager;
+import pe.soapros.otel.core.infrastructure.TelemetryFlushCoordinator;
 import pe.soapros.otel.metrics.infrastructure.MetricsFactory;
+import pe.soapros.otel.metrics.infrastructure.LambdaExecutionTimer;
 import pe.soapros.otel.metrics.infrastructure.LambdaMetricsCollector;
 
 import java.nio.charset.StandardCharsets;
 import java.time.Duration;
 import java.time.Instant;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
 
 public abstract class KafkaTracingLambdaWrapper implements RequestHandler<KafkaEvent, Void> {
     
     protected final OpenTelemetry openTelemetry;
     private final BusinessAwareObservabilityManager observabilityManager;
     private final LambdaMetricsCollector lambdaMetricsCollector;
+    private final TelemetryFlushCoordinator flushCoordinator;
+    private final KafkaBatchProcessingConfig batchConfig;
 
     private final Tracer tracer;
     private final String serviceName;
     private final String serviceVersion;
 
     protected KafkaTracingLambdaWrapper(OpenTelemetry openTelemetry) {
+        this(openTelemetry, KafkaBatchProcessingConfig.sequential());
+    }
+
+    /**
+     * @param maxPartitionConcurrency particiones procesadas a la vez en virtual threads;
+     *                                1 mantiene el procesamiento secuencial original.
+     *                                Dentro de una partición el orden siempre se respeta.
+     */
+    protected KafkaTracingLambdaWrapper(OpenTelemetry openTelemetry, int maxPartitionConcurrency) {
+        this(openTelemetry, KafkaBatchProcessingConfig.parallelPartitions(maxPartitionConcurrency));
+    }
+
+    protected KafkaTracingLambdaWrapper(OpenTelemetry openTelemetry, KafkaBatchProcessingConfig batchConfig) {
+        InitPhaseTimer.Measurement initPhase = InitPhaseTimer.start("wrapper.kafka");
         Objects.requireNonNull(openTelemetry, "OpenTelemetry instance cannot be null");
         this.openTelemetry = openTelemetry;
+        this.batchConfig = batchConfig != null ? batchConfig : KafkaBatchProcessingConfig.sequential();
 
         // Configuración desde variables de entorno
         this.serviceName = Optional.ofNullable(System.getenv("OTEL_SERVICE_NAME"))
@@ -67,57 +93,166 @@ public abstract class KafkaTracingLambdaWrapper implements RequestHandler<KafkaE
                 serviceVersion != null ? serviceVersion : "1.0.0"
         );
         this.lambdaMetricsCollector = metricsFactory.getLambdaMetricsCollector();
+
+        // Flush real de trazas, métricas y logs al final de cada invocación
+        this.flushCoordinator = OpenTelemetryManager.flushCoordinatorFor(openTelemetry);
+        initPhase.stop();
     }
 
     @Override
     public Void handleRequest(KafkaEvent event, Context lambdaContext) {
         // Iniciar métricas de Lambda con el colector especializado
-        lambdaMetricsCollector.startExecution(lambdaContext);
+        LambdaExecutionTimer executionTimer = lambdaMetricsCollector.startExecution(lambdaContext);
 
         // Log lambda start
         observabilityManager.logLambdaStart(serviceName, lambdaContext.getAwsRequestId());
         
-        try {
-            event.getRecords().values().stream()
-                    .flatMap(List::stream)
-                    .forEach(record -> processKafkaRecord(record, lambdaContext));
+        // LambdaExecutionTimer.current() resuelve el timer durante toda la invocación
+        try (Scope timerScope = executionTimer.makeCurrent()) {
+            // Cada entrada del evento es una partición ("topic-partition") con sus registros en orden
+            List<List<KafkaEvent.KafkaEventRecord>> partitions = Optional.ofNullable(event.getRecords())
+                    .map(records -> records.values().stream()
+                            .filter(Objects::nonNull)
+                            .toList())
+                    .orElse(List.of());
+
+            if (batchConfig.isBatchSpan()) {
+                processWithBatchSpan(partitions, lambdaContext);
+            } else {
+                processPartitions(partitions, TraceContextExtractor::extractFromKafkaRecord, lambdaContext);
+            }
 
             // Finalizar métricas de Lambda exitosamente
-            lambdaMetricsCollector.endExecution(lambdaContext, true, null);
+            executionTimer.end(lambdaContext, true, null);
             
             return null;
             
         } catch (Exception ex) {
             // Finalizar métricas de Lambda con error
-            lambdaMetricsCollector.endExecution(lambdaContext, false, ex);
+            executionTimer.end(lambdaContext, false, ex);
             throw ex;
         } finally {
             Duration totalDuration = Duration.between(Instant.now().minusMillis(System.currentTimeMillis() - lambdaContext.getRemainingTimeInMillis()), Instant.now());
             observabilityManager.logLambdaEnd(serviceName, lambdaContext.getAwsRequestId(), totalDuration.toMillis());
             
-            if (lambdaContext.getRemainingTimeInMillis() < 5000) {
-                forceFlushTelemetry();
+            forceFlushTelemetry(lambdaContext.getRemainingTimeInMillis());
+        }
+    }
+
+    private void processPartitions(List<List<KafkaEvent.KafkaEventRecord>> partitions,
+                                   Function<KafkaEvent.KafkaEventRecord, io.opentelemetry.context.Context> producerContexts,
+                                   Context lambdaContext) {
+        if (batchConfig.getMaxPartitionConcurrency() > 1 && partitions.size() > 1) {
+            processPartitionsInParallel(partitions, producerContexts, lambdaContext);
+        } else {
+            partitions.stream()
+                    .flatMap(List::stream)
+                    .forEach(record -> processKafkaRecord(record, producerContexts.apply(record), lambdaContext));
+        }
+    }
+
+    /**
+     * Un span CONSUMER para todo el lote con links a los productores; los spans por
+     * registro quedan como hijos suyos, de modo que el lote completo es una sola traza.
+     * El contexto de cada productor se extrae una sola vez y sirve tanto para los links
+     * del lote como para el span del registro.
+     */
+    private void processWithBatchSpan(List<List<KafkaEvent.KafkaEventRecord>> partitions, Context lambdaContext) {
+        List<KafkaEvent.KafkaEventRecord> records = partitions.stream()
+                .flatMap(List::stream)
+                .toList();
+        String topic = records.isEmpty() || records.get(0).getTopic() == null
+                ? "unknown"
+                : records.get(0).getTopic();
+
+        Map<KafkaEvent.KafkaEventRecord, io.opentelemetry.context.Context> producerContexts = new IdentityHashMap<>(records.size());
+        for (KafkaEvent.KafkaEventRecord record : records) {
+            producerContexts.put(record, TraceContextExtractor.extractFromKafkaRecord(record));
+        }
+
+        Span batchSpan = BatchSpanSupport.startBatchSpan(
+                tracer,
+                String.format("kafka %s process batch", topic),
+                "kafka",
+                topic,
+                records,
+                records.size(),
+                producerContexts::get,
+                batchConfig.getMaxBatchSpanLinks());
+
+        try (Scope scope = batchSpan.makeCurrent()) {
+            batchSpan.setAttribute("faas.trigger", "pubsub");
+            batchSpan.setAttribute("faas.execution", lambdaContext.getAwsRequestId());
+            batchSpan.setAttribute("messaging.kafka.partition_count", (long) partitions.size());
+
+            processPartitions(partitions, producerContexts::get, lambdaContext);
+        } catch (Exception ex) {
+            batchSpan.recordException(ex);
+            batchSpan.setStatus(StatusCode.ERROR, ex.getMessage() != null ? ex.getMessage() : ex.getClass().getSimpleName());
+            throw ex;
+        } finally {
+            batchSpan.end();
+        }
+    }
+
+    /**
+     * Particiones en paralelo, registros de cada partición en orden. Una partición se
+     * detiene en su primer error para no procesar registros posteriores fuera de orden;
+     * el resto continúa y al final se relanza el primer error (reintento del lote).
+     * Un {@link Error} sale del carril y {@link ParallelLaneExecutor} lo relanza.
+     */
+    private void processPartitionsInParallel(List<List<KafkaEvent.KafkaEventRecord>> partitions,
+                                             Function<KafkaEvent.KafkaEventRecord, io.opentelemetry.context.Context> producerContexts,
+                                             Context lambdaContext) {
+        AtomicReference<RuntimeException> firstError = new AtomicReference<>();
+
+        ParallelLaneExecutor.run(partitions, batchConfig.getMaxPartitionConcurrency(), partition -> {
+            for (KafkaEvent.KafkaEventRecord record : partition) {
+                try {
+                    processKafkaRecord(record, producerContexts.apply(record), lambdaContext);
+                } catch (RuntimeException ex) {
+                    firstError.compareAndSet(null, ex);
+                    return;
+                }
             }
+        });
+
+        if (firstError.get() != null) {
+            throw firstError.get();
         }
     }
 
-    private void processKafkaRecord(KafkaEvent.KafkaEventRecord record, Context lambdaContext) {
+    private void processKafkaRecord(KafkaEvent.KafkaEventRecord record,
+                                    io.opentelemetry.context.Context context,
+                                    Context lambdaContext) {
         Map<String, String> headers = extractKafkaHeaders(record);
         
         // Setup business context from Kafka headers
         observabilityManager.setupBusinessContextFromHeaders(headers);
 
-        io.opentelemetry.context.Context context = TraceContextExtractor.extractFromKafkaRecord(record);
+        // En modo lote el span de lote es el contexto actual antes de activar el del productor
+        io.opentelemetry.context.Context batchContext = io.opentelemetry.context.Context.current();
 
         try (Scope ignored = context.makeCurrent()) {
             String topic = record.getTopic();
             final String correlationId = extractCorrelationId(headers);
             final String userId = extractUserId(headers);
             
-            Span span = tracer.spanBuilder(String.format("kafka %s process", topic))
-                    .setParent(context)
-                    .setSpanKind(SpanKind.CONSUMER)
-                    .startSpan();
+            SpanBuilder spanBuilder = tracer.spanBuilder(String.format("kafka %s process", topic))
+                    .setSpanKind(SpanKind.CONSUMER);
+
+            if (batchConfig.isBatchSpan()) {
+                // El padre es el span de lote y el productor queda como link
+                SpanContext producer = BatchSpanSupport.producerLink(context, batchContext);
+                if (producer != null) {
+                    spanBuilder.addLink(producer);
+                }
+                spanBuilder.setParent(batchContext);
+            } else {
+                spanBuilder.setParent(context);
+            }
+
+            Span span = spanBuilder.startSpan();
 
             try (Scope spanScope = span.makeCurrent()) {
                 enrichSpanWithKafkaAttributes(span, record, lambdaContext, correlationId, userId);
@@ -137,8 +272,8 @@ public abstract class KafkaTracingLambdaWrapper implements RequestHandler<KafkaE
                 observabilityManager.closeSpanSuccessfully(span, "Kafka record processed");
 
             } catch (Exception e) {
-                // Use observability manager for error handling
-                //observabilityManager.closeSpan(span, e);
+                span.recordException(e);
+                span.setStatus(StatusCode.ERROR, e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName());
                 throw e;
             } finally {
                 span.end();
@@ -243,6 +378,18 @@ public abstract class KafkaTracingLambdaWrapper implements RequestHandler<KafkaE
     protected ObservabilityManager getObservabilityManager() {
         return observabilityManager;
     }
+
+    protected TelemetryFlushCoordinator getFlushCoordinator() {
+        return flushCoordinator;
+    }
+
+    protected int getMaxPartitionConcurrency() {
+        return batchConfig.getMaxPartitionConcurrency();
+    }
+
+    protected KafkaBatchProcessingConfig getBatchConfig() {
+        return batchConfig;
+    }
     
     protected void logInfo(String message, Map<String, String> attributes) {
         observabilityManager.getLoggerService().info(message, attributes);
@@ -268,11 +415,12 @@ public abstract class KafkaTracingLambdaWrapper implements RequestHandler<KafkaE
         return observabilityManager.getCurrentBusinessId();
     }
 
-    private void forceFlushTelemetry() {
+    private void forceFlushTelemetry(long remainingTimeMillis) {
         try {
-            // Intentar hacer flush de telemetría antes de que termine Lambda
-            // Esto es una aproximación - el método exacto depende de la implementación del SDK
-            System.out.println("Forcing telemetry flush due to low remaining time");
+            // Flush antes de que Lambda congele el entorno; el presupuesto sale del tiempo restante
+            if (!flushCoordinator.flushForRemainingTime(remainingTimeMillis)) {
+                System.err.println("Telemetry flush incomplete: " + flushCoordinator.getFlushStats());
+            }
         } catch (Exception e) {
             // No fallar la Lambda por problemas de telemetría
             System.err.println("Failed to flush telemetry: " + e.getMessage());
@@ -31,10 +31,23 @@ public final class ObservabilityConstants {
     // Performance Attributes
     public static final AttributeKey<Long> OPERATION_DURATION_MS = AttributeKey.longKey("operation.duration_ms");
     public static final AttributeKey<String> OPERATION_NAME = AttributeKey.stringKey("operation.name");
+    public static final AttributeKey<String> OPERATION_STATUS = AttributeKey.stringKey("operation.status");
     
     // Size Attributes
     public static final AttributeKey<Long> REQUEST_SIZE_BYTES = AttributeKey.longKey("request.size_bytes");
     public static final AttributeKey<Long> RESPONSE_SIZE_BYTES = AttributeKey.longKey("response.size_bytes");
+
+    // HTTP Response Attributes
+    public static final AttributeKey<Long> HTTP_STATUS_CODE = AttributeKey.longKey("http.status_code");
+    public static final AttributeKey<Long> HTTP_RESPONSE_BODY_SIZE = AttributeKey.longKey("http.response.body.size");
+    public static final AttributeKey<Boolean> HTTP_RESPONSE_BODY_PRESENT = AttributeKey.booleanKey("http.response.body.present");
+    public static final AttributeKey<String> HTTP_RESPONSE_BODY_SNIPPET = AttributeKey.stringKey("http.response.body.snippet");
+    public static final AttributeKey<String> HTTP_RESPONSE_BODY_FORMAT = AttributeKey.stringKey("http.response.body.format");
+    public static final AttributeKey<Long> HTTP_RESPONSE_HEADERS_COUNT = AttributeKey.longKey("http.response.headers.count");
+    public static final AttributeKey<String> HTTP_RESPONSE_CATEGORY = AttributeKey.stringKey("http.response.category");
+    public static final AttributeKey<String> RESPONSE_OUTCOME = AttributeKey.stringKey("response.outcome");
+    public static final AttributeKey<Boolean> ERROR_CLIENT_SIDE = AttributeKey.booleanKey("error.client_side");
+    public static final AttributeKey<Boolean> ERROR_SERVER_SIDE = AttributeKey.booleanKey("error.server_side");
     
     // Lambda-specific Attributes
     public static final AttributeKey<String> LAMBDA_FUNCTION_NAME = AttributeKey.stringKey("lambda.function_name");
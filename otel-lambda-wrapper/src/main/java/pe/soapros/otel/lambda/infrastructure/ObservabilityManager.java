@@ -4,6 +4,7 @@ import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyResponseEvent
 import io.opentelemetry.api.OpenTelemetry;
 import io.opentelemetry.api.common.AttributeKey;
 import io.opentelemetry.api.common.Attributes;
+import io.opentelemetry.api.logs.Severity;
 import io.opentelemetry.api.trace.Span;
 import io.opentelemetry.api.trace.SpanBuilder;
 import io.opentelemetry.api.trace.StatusCode;
@@ -46,6 +47,9 @@ public class ObservabilityManager {
         this.openTelemetry = openTelemetry;
         this.config = config != null ? config : LambdaObservabilityConfig.defaultForLambda();
 
+        // Extraer e inyectar con los mismos propagators registrados en el SDK
+        TraceContextExtractor.usePropagators(openTelemetry.getPropagators());
+
         // Usar el logger service centralizado que ya incluye trace correlation
         /*this.loggerService = new pe.soapros.otel.core.infrastructure.OpenTelemetryLoggerService(
             openTelemetry.getLogsBridge().get(instrumentationName),
@@ -175,12 +179,14 @@ public class ObservabilityManager {
             enrichSpanWithBusinessContext(currentSpan, context);
         }
 
-        logDebug("Business context configured from headers", Map.of(
-                "headers.count", String.valueOf(headers.size()),
-                "business.id", businessId != null ? businessId : "null",
-                "user.id", userId != null ? userId : "null",
-                "correlation.id", correlationId != null ? correlationId : "null"
-        ));
+        if (isDebugEnabled()) {
+            logDebug("Business context configured from headers", Map.of(
+                    "headers.count", String.valueOf(headers.size()),
+                    "business.id", businessId != null ? businessId : "null",
+                    "user.id", userId != null ? userId : "null",
+                    "correlation.id", correlationId != null ? correlationId : "null"
+            ));
+        }
     }
 
     /**
@@ -192,11 +198,13 @@ public class ObservabilityManager {
      */
     @Deprecated
     public Span startSpanWithContext(String spanName, Context parentContext, Tracer tracer) {
-        Map<String, String> logAttributes = new HashMap<>();
-        logAttributes.put("span.name", spanName);
-        logAttributes.put("operation", "span.start");
-        
-        loggerService.debug("Starting span: " + spanName, logAttributes);
+        if (isDebugEnabled()) {
+            Map<String, String> logAttributes = new HashMap<>();
+            logAttributes.put("span.name", spanName);
+            logAttributes.put("operation", "span.start");
+
+            loggerService.debug("Starting span: " + spanName, logAttributes);
+        }
         
         return tracer.spanBuilder(spanName)
                 .setParent(parentContext)
@@ -401,6 +409,9 @@ public class ObservabilityManager {
     }
     
     public void logLambdaStart(String functionName, String requestId) {
+        if (!isInfoEnabled()) {
+            return;
+        }
         logInfo("Lambda function started", Map.of(
                 "lambda.function_name", functionName,
                 "lambda.request_id", requestId
@@ -408,11 +419,13 @@ public class ObservabilityManager {
     }
     
     public void logLambdaEnd(String functionName, String requestId, long durationMs) {
-        logInfo("Lambda function completed", Map.of(
-                "lambda.function_name", functionName,
-                "lambda.request_id", requestId,
-                "lambda.duration_ms", String.valueOf(durationMs)
-        ));
+        if (isInfoEnabled()) {
+            logInfo("Lambda function completed", Map.of(
+                    "lambda.function_name", functionName,
+                    "lambda.request_id", requestId,
+                    "lambda.duration_ms", String.valueOf(durationMs)
+            ));
+        }
 
         BusinessContextEnricher.clearMDC();
     }
@@ -435,7 +448,9 @@ public class ObservabilityManager {
             currentSpan.setAttribute(BUSINESS_ID, businessId);
         }
 
-        logDebug("Business ID updated", Map.of("business.id", businessId));
+        if (isDebugEnabled()) {
+            logDebug("Business ID updated", Map.of("business.id", businessId));
+        }
     }
 
     public void updateOperation(String operation) {
@@ -447,7 +462,9 @@ public class ObservabilityManager {
             currentSpan.setAttribute(OPERATION, operation);
         }
 
-        logDebug("Operation updated", Map.of("operation", operation));
+        if (isDebugEnabled()) {
+            logDebug("Operation updated", Map.of("operation", operation));
+        }
     }
 
     public Optional<String> getCurrentBusinessId() {
@@ -461,10 +478,16 @@ public class ObservabilityManager {
     // =============== MÉTODOS PRIVADOS DE SOPORTE ===============
 
     private LoggerService createLoggerService(OpenTelemetry openTelemetry, String instrumentationName) {
+        // Umbrales de severidad por instrumentación definidos en la configuración central
+        LogSeverityPolicy severityPolicy = OpenTelemetryManager.isInitialized()
+                ? OpenTelemetryManager.getInstance().getConfig().getLogSeverityPolicy()
+                : LogSeverityPolicy.defaults();
+
         return new pe.soapros.otel.core.infrastructure.OpenTelemetryLoggerService(
                 openTelemetry.getLogsBridge().get(instrumentationName),
                 instrumentationName,
-                true // Enable trace correlation
+                true, // Enable trace correlation
+                severityPolicy
         );
     }
 
@@ -507,14 +530,14 @@ public class ObservabilityManager {
 
             spanBuilder.setParent(parentContext);
 
-            if (config.isVerboseLogging()) {
+            if (config.isVerboseLogging() && isDebugEnabled()) {
                 logDebug("Creating Lambda span with parent context", Map.of(
                         "span.name", spanName,
                         "has.parent", "true"
                 ));
             }
         } else {
-            if (config.isVerboseLogging()) {
+            if (config.isVerboseLogging() && isDebugEnabled()) {
                 logDebug("Creating Lambda span without parent context", Map.of(
                         "span.name", spanName,
                         "has.parent", "false"
@@ -528,6 +551,7 @@ public class ObservabilityManager {
             attributes.forEach(span::setAttribute);
         }
 
+        // Wrapper sin leak tracking: el llamador puede terminar el Span directamente y soltar el wrapper
         return new OpenTelemetryTraceSpan(span);
     }
 
@@ -547,6 +571,17 @@ public class ObservabilityManager {
 
     // ==================== MÉTODOS AUXILIARES PARA LOGGING ====================
 
+    /**
+     * Evita construir mapas de atributos para logs de debug que se descartarán
+     */
+    protected boolean isDebugEnabled() {
+        return loggerService.isEnabled(Severity.DEBUG);
+    }
+
+    protected boolean isInfoEnabled() {
+        return loggerService.isEnabled(Severity.INFO);
+    }
+
     /**
      * Log de info con contexto automático
      */
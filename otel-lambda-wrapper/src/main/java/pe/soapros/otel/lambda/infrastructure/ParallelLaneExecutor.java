@@ -0,0 +1,84 @@
+package pe.soapros.otel.lambda.infrastructure;
+
+import io.opentelemetry.context.Context;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.function.Consumer;
+
+/**
+ * Ejecuta "carriles" de elementos en virtual threads con un límite de concurrencia.
+ *
+ * Los elementos de un mismo carril se procesan en orden; carriles distintos corren en
+ * paralelo. El contexto OpenTelemetry del hilo que invoca se propaga a cada carril, de
+ * modo que los spans creados dentro quedan bajo el mismo padre que en modo secuencial.
+ */
+final class ParallelLaneExecutor {
+
+    private ParallelLaneExecutor() {
+        throw new UnsupportedOperationException("This is a utility class and cannot be instantiated");
+    }
+
+    /**
+     * Procesa todos los carriles y espera a que terminen.
+     * {@code laneProcessor} captura sus propias excepciones por elemento; lo que escape de un
+     * carril (p.ej. un {@link Error} del handler) se relanza aquí cuando terminan todos, igual
+     * que se propagaría en modo secuencial.
+     */
+    static <T> void run(List<List<T>> lanes, int maxConcurrency, Consumer<List<T>> laneProcessor) {
+        if (lanes.isEmpty()) {
+            return;
+        }
+
+        Context parentContext = Context.current();
+        Semaphore permits = new Semaphore(maxConcurrency);
+        List<Future<?>> results = new ArrayList<>(lanes.size());
+
+        // close() espera a que terminen todas las tareas enviadas
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (List<T> lane : lanes) {
+                permits.acquireUninterruptibly();
+                try {
+                    results.add(executor.submit(parentContext.wrap(() -> {
+                        try {
+                            laneProcessor.accept(lane);
+                        } finally {
+                            permits.release();
+                        }
+                    })));
+                } catch (RuntimeException e) {
+                    permits.release();
+                    throw e;
+                }
+            }
+        }
+
+        rethrowFirstFailure(results);
+    }
+
+    private static void rethrowFirstFailure(List<Future<?>> results) {
+        for (Future<?> result : results) {
+            try {
+                result.get();
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause();
+                if (cause instanceof Error error) {
+                    throw error;
+                }
+                if (cause instanceof RuntimeException runtime) {
+                    throw runtime;
+                }
+                throw new IllegalStateException("Lane failed", cause);
+            } catch (InterruptedException e) {
+                // Las tareas ya terminaron (close() esperó), get() no bloquea
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while collecting lane results", e);
+            }
+        }
+    }
+}
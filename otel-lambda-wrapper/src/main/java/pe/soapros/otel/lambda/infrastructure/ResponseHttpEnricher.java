@@ -1,6 +1,7 @@
 package pe.soapros.otel.lambda.infrastructure;
 
 import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyResponseEvent;
+import io.opentelemetry.semconv.HttpAttributes;
 import pe.soapros.otel.core.domain.TraceSpan;
 
 import java.util.Map;
@@ -71,13 +72,13 @@ public class ResponseHttpEnricher {
         int statusCode = Optional.ofNullable(response.getStatusCode()).orElse(500);
 
         // Atributos estándar OpenTelemetry para HTTP
-        span.addAttribute("http.status_code", String.valueOf(statusCode));
-        span.addAttribute("http.response.status_code", String.valueOf(statusCode));
+        span.addAttribute(ObservabilityConstants.HTTP_STATUS_CODE, (long) statusCode);
+        span.addAttribute(HttpAttributes.HTTP_RESPONSE_STATUS_CODE, (long) statusCode);
 
         // Tamaño de la respuesta
         String body = response.getBody();
         if (body != null) {
-            span.addAttribute("http.response.body.size", String.valueOf(body.length()));
+            span.addAttribute(ObservabilityConstants.HTTP_RESPONSE_BODY_SIZE, (long) body.length());
         }
 
         // Agregar evento de respuesta generada
@@ -104,7 +105,7 @@ public class ResponseHttpEnricher {
                 });
 
         // Agregar conteo total de headers
-        span.addAttribute("http.response.headers.count", String.valueOf(headers.size()));
+        span.addAttribute(ObservabilityConstants.HTTP_RESPONSE_HEADERS_COUNT, (long) headers.size());
     }
 
     /**
@@ -113,18 +114,18 @@ public class ResponseHttpEnricher {
     private void enrichWithResponseBody(TraceSpan span, APIGatewayProxyResponseEvent response) {
         String body = response.getBody();
         if (body == null) {
-            span.addAttribute("http.response.body.present", "false");
+            span.addAttribute(ObservabilityConstants.HTTP_RESPONSE_BODY_PRESENT, false);
             return;
         }
 
-        span.addAttribute("http.response.body.present", "true");
-        span.addAttribute("http.response.body.size", String.valueOf(body.length()));
+        span.addAttribute(ObservabilityConstants.HTTP_RESPONSE_BODY_PRESENT, true);
+        span.addAttribute(ObservabilityConstants.HTTP_RESPONSE_BODY_SIZE, (long) body.length());
 
         // Incluir snippet del body si está habilitado y es pequeño
         if (maxBodyLength > 0 && body.length() <= maxBodyLength) {
-            span.addAttribute("http.response.body.snippet", body);
+            span.addAttribute(ObservabilityConstants.HTTP_RESPONSE_BODY_SNIPPET, body);
         } else if (maxBodyLength > 0) {
-            span.addAttribute("http.response.body.snippet",
+            span.addAttribute(ObservabilityConstants.HTTP_RESPONSE_BODY_SNIPPET,
                     body.substring(0, Math.min(body.length(), maxBodyLength)) + "...");
         }
 
@@ -139,20 +140,20 @@ public class ResponseHttpEnricher {
         int statusCode = Optional.ofNullable(response.getStatusCode()).orElse(500);
 
         String category = categorizeStatusCode(statusCode);
-        span.addAttribute("http.response.category", category);
+        span.addAttribute(ObservabilityConstants.HTTP_RESPONSE_CATEGORY, category);
 
         // Información adicional por categoría
         switch (category) {
-            case "success" -> span.addAttribute("response.outcome", "success");
+            case "success" -> span.addAttribute(ObservabilityConstants.RESPONSE_OUTCOME, "success");
             case "client_error" -> {
-                span.addAttribute("response.outcome", "client_error");
-                span.addAttribute("error.client_side", "true");
+                span.addAttribute(ObservabilityConstants.RESPONSE_OUTCOME, "client_error");
+                span.addAttribute(ObservabilityConstants.ERROR_CLIENT_SIDE, true);
             }
             case "server_error" -> {
-                span.addAttribute("response.outcome", "server_error");
-                span.addAttribute("error.server_side", "true");
+                span.addAttribute(ObservabilityConstants.RESPONSE_OUTCOME, "server_error");
+                span.addAttribute(ObservabilityConstants.ERROR_SERVER_SIDE, true);
             }
-            case "redirect" -> span.addAttribute("response.outcome", "redirect");
+            case "redirect" -> span.addAttribute(ObservabilityConstants.RESPONSE_OUTCOME, "redirect");
         }
     }
 
@@ -168,11 +169,11 @@ public class ResponseHttpEnricher {
         } else if (statusCode >= 400 && statusCode < 500) {
             // Client errors - marcar como error pero con menos severidad
             span.setStatus(false, "Client Error: HTTP " + statusCode);
-            span.addAttribute("error.type", "client_error");
+            span.addAttribute(ObservabilityConstants.ERROR_TYPE, "client_error");
         } else {
             // Server errors - marcar como error crítico
             span.setStatus(false, "Server Error: HTTP " + statusCode);
-            span.addAttribute("error.type", "server_error");
+            span.addAttribute(ObservabilityConstants.ERROR_TYPE, "server_error");
         }
     }
 
@@ -223,11 +224,11 @@ public class ResponseHttpEnricher {
      */
     private void detectContentType(TraceSpan span, String body) {
         if (body.trim().startsWith("{") || body.trim().startsWith("[")) {
-            span.addAttribute("http.response.body.format", "json");
+            span.addAttribute(ObservabilityConstants.HTTP_RESPONSE_BODY_FORMAT, "json");
         } else if (body.trim().startsWith("<")) {
-            span.addAttribute("http.response.body.format", "xml_or_html");
+            span.addAttribute(ObservabilityConstants.HTTP_RESPONSE_BODY_FORMAT, "xml_or_html");
         } else {
-            span.addAttribute("http.response.body.format", "text");
+            span.addAttribute(ObservabilityConstants.HTTP_RESPONSE_BODY_FORMAT, "text");
         }
     }
 
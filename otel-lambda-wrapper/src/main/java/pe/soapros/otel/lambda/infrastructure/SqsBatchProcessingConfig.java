@@ -0,0 +1,109 @@
+package pe.soapros.otel.lambda.infrastructure;
+
+import lombok.Getter;
+
+/**
+ * Configuración del procesamiento de lotes SQS en {@link SqsTracingLambdaWrapper}
+ */
+@Getter
+public class SqsBatchProcessingConfig {
+
+    private final boolean parallel;
+    private final int maxConcurrency;
+    private final boolean fifoPerMessageGroup;
+    private final boolean reportBatchItemFailures;
+    private final boolean batchSpan;
+    private final int maxBatchSpanLinks;
+
+    private SqsBatchProcessingConfig(Builder builder) {
+        this.parallel = builder.parallel;
+        this.maxConcurrency = builder.maxConcurrency;
+        this.fifoPerMessageGroup = builder.fifoPerMessageGroup;
+        this.reportBatchItemFailures = builder.reportBatchItemFailures;
+        this.batchSpan = builder.batchSpan;
+        this.maxBatchSpanLinks = builder.maxBatchSpanLinks;
+    }
+
+    /**
+     * Procesamiento secuencial: el primer error falla todo el lote (comportamiento original)
+     */
+    public static SqsBatchProcessingConfig sequential() {
+        return builder().build();
+    }
+
+    /**
+     * Procesamiento en virtual threads con fallos parciales reportados vía batchItemFailures.
+     * Requiere ReportBatchItemFailures en el event source mapping.
+     */
+    public static SqsBatchProcessingConfig parallel(int maxConcurrency) {
+        return builder()
+                .parallel(maxConcurrency)
+                .reportBatchItemFailures(true)
+                .build();
+    }
+
+    /**
+     * Igual que {@link #parallel(int)} pero manteniendo el orden dentro de cada MessageGroupId
+     */
+    public static SqsBatchProcessingConfig parallelFifo(int maxConcurrency) {
+        return builder()
+                .parallel(maxConcurrency)
+                .fifoPerMessageGroup(true)
+                .reportBatchItemFailures(true)
+                .build();
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public static class Builder {
+        private boolean parallel = false;
+        private int maxConcurrency = 1;
+        private boolean fifoPerMessageGroup = false;
+        private boolean reportBatchItemFailures = false;
+        private boolean batchSpan = false;
+        private int maxBatchSpanLinks = BatchSpanSupport.DEFAULT_MAX_LINKS;
+
+        public Builder parallel(int maxConcurrency) {
+            if (maxConcurrency < 1) {
+                throw new IllegalArgumentException("maxConcurrency must be >= 1");
+            }
+            this.parallel = true;
+            this.maxConcurrency = maxConcurrency;
+            return this;
+        }
+
+        public Builder fifoPerMessageGroup(boolean enabled) {
+            this.fifoPerMessageGroup = enabled;
+            return this;
+        }
+
+        public Builder reportBatchItemFailures(boolean enabled) {
+            this.reportBatchItemFailures = enabled;
+            return this;
+        }
+
+        /**
+         * Un span CONSUMER por lote con links a los contextos de los productores.
+         * Los spans por mensaje pasan a ser hijos del span de lote.
+         */
+        public Builder batchSpan(boolean enabled) {
+            this.batchSpan = enabled;
+            return this;
+        }
+
+        public Builder batchSpan(int maxLinks) {
+            if (maxLinks < 0) {
+                throw new IllegalArgumentException("maxLinks must be >= 0");
+            }
+            this.batchSpan = true;
+            this.maxBatchSpanLinks = maxLinks;
+            return this;
+        }
+
+        public SqsBatchProcessingConfig build() {
+            return new SqsBatchProcessingConfig(this);
+        }
+    }
+}
@@ -2,40 +2,67 @@ package pe.soapros.otel.lambda.infrastructure;
 
 import com.amazonaws.services.lambda.runtime.Context;
 import com.amazonaws.services.lambda.runtime.RequestHandler;
+import com.amazonaws.services.lambda.runtime.events.SQSBatchResponse;
 import com.amazonaws.services.lambda.runtime.events.SQSEvent;
 import io.opentelemetry.api.OpenTelemetry;
 import io.opentelemetry.api.common.AttributeKey;
 import io.opentelemetry.api.common.Attributes;
 import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.SpanBuilder;
+import io.opentelemetry.api.trace.SpanContext;
 import io.opentelemetry.api.trace.SpanKind;
 import io.opentelemetry.api.trace.StatusCode;
 import io.opentelemetry.api.trace.Tracer;
 import io.opentelemetry.context.Scope;
 import io.opentelemetry.semconv.ServiceAttributes;
+import pe.soapros.otel.core.infrastructure.InitPhaseTimer;
+import pe.soapros.otel.core.infrastructure.OpenTelemetryManager;
+import pe.soapros.otel.core.infrastructure.TelemetryFlushCoordinator;
 import pe.soapros.otel.metrics.infrastructure.MetricsFactory;
+import pe.soapros.otel.metrics.infrastructure.LambdaExecutionTimer;
 import pe.soapros.otel.metrics.infrastructure.LambdaMetricsCollector;
 
 import java.time.Duration;
 import java.time.Instant;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
-public abstract class SqsTracingLambdaWrapper implements RequestHandler<SQSEvent, Void> {
+public abstract class SqsTracingLambdaWrapper implements RequestHandler<SQSEvent, SQSBatchResponse> {
+
+    private static final String MESSAGE_GROUP_ID = "MessageGroupId";
     
     protected final OpenTelemetry openTelemetry;
     private final BusinessAwareObservabilityManager observabilityManager;
     private final LambdaMetricsCollector lambdaMetricsCollector;
+    private final TelemetryFlushCoordinator flushCoordinator;
+    private final SqsBatchProcessingConfig batchConfig;
 
     private final Tracer tracer;
     private final String serviceName;
     private final String serviceVersion;
 
     public SqsTracingLambdaWrapper(OpenTelemetry openTelemetry) {
+        this(openTelemetry, SqsBatchProcessingConfig.sequential());
+    }
+
+    public SqsTracingLambdaWrapper(OpenTelemetry openTelemetry, SqsBatchProcessingConfig batchConfig) {
+        InitPhaseTimer.Measurement initPhase = InitPhaseTimer.start("wrapper.sqs");
         Objects.requireNonNull(openTelemetry, "OpenTelemetry instance cannot be null");
         this.openTelemetry = openTelemetry;
+        this.batchConfig = batchConfig != null ? batchConfig : SqsBatchProcessingConfig.sequential();
 
         // Configuración desde variables de entorno
         this.serviceName = Optional.ofNullable(System.getenv("OTEL_SERVICE_NAME"))
@@ -66,39 +93,190 @@ public abstract class SqsTracingLambdaWrapper implements RequestHandler<SQSEvent
                 serviceVersion != null ? serviceVersion : "1.0.0"
         );
         this.lambdaMetricsCollector = metricsFactory.getLambdaMetricsCollector();
+
+        // Flush real de trazas, métricas y logs al final de cada invocación
+        this.flushCoordinator = OpenTelemetryManager.flushCoordinatorFor(openTelemetry);
+        initPhase.stop();
     }
 
     @Override
-    public Void handleRequest(SQSEvent event, Context lambdaContext) {
+    public SQSBatchResponse handleRequest(SQSEvent event, Context lambdaContext) {
         // Iniciar métricas de Lambda con el colector especializado
-        lambdaMetricsCollector.startExecution(lambdaContext);
+        LambdaExecutionTimer executionTimer = lambdaMetricsCollector.startExecution(lambdaContext);
 
         // Log lambda start
         observabilityManager.logLambdaStart(serviceName, lambdaContext.getAwsRequestId());
         
-        try {
-            event.getRecords().forEach(message -> processSqsMessage(message, lambdaContext));
+        // El timer queda en el Context de la invocación (LambdaExecutionTimer.current())
+        try (Scope timerScope = executionTimer.makeCurrent()) {
+            List<SQSEvent.SQSMessage> records = Optional.ofNullable(event.getRecords()).orElse(List.of());
+            List<SQSBatchResponse.BatchItemFailure> failures = batchConfig.isBatchSpan()
+                    ? processWithBatchSpan(records, lambdaContext)
+                    : processRecords(records, TraceContextExtractor::extractFromSqsMessage, lambdaContext);
             
-            // Finalizar métricas de Lambda exitosamente
-            lambdaMetricsCollector.endExecution(lambdaContext, true, null);
+            // Finalizar métricas de Lambda (los fallos parciales no fallan la invocación)
+            executionTimer.end(lambdaContext, failures.isEmpty(), null);
             
-            return null;
+            return new SQSBatchResponse(failures);
             
         } catch (Exception ex) {
             // Finalizar métricas de Lambda con error
-            lambdaMetricsCollector.endExecution(lambdaContext, false, ex);
+            executionTimer.end(lambdaContext, false, ex);
             throw ex;
         } finally {
             Duration totalDuration = Duration.between(Instant.now().minusMillis(System.currentTimeMillis() - lambdaContext.getRemainingTimeInMillis()), Instant.now());
             observabilityManager.logLambdaEnd(serviceName, lambdaContext.getAwsRequestId(), totalDuration.toMillis());
             
-            if (lambdaContext.getRemainingTimeInMillis() < 5000) {
-                forceFlushTelemetry();
+            forceFlushTelemetry(lambdaContext.getRemainingTimeInMillis());
+        }
+    }
+
+    // ==================== PROCESAMIENTO DEL LOTE ====================
+
+    private List<SQSBatchResponse.BatchItemFailure> processRecords(List<SQSEvent.SQSMessage> records,
+                                                                    Function<SQSEvent.SQSMessage, io.opentelemetry.context.Context> producerContexts,
+                                                                    Context lambdaContext) {
+        return batchConfig.isParallel()
+                ? processInParallel(records, producerContexts, lambdaContext)
+                : processSequentially(records, producerContexts, lambdaContext);
+    }
+
+    /**
+     * Un span CONSUMER para todo el lote con links a los productores; los spans por
+     * mensaje quedan como hijos suyos, de modo que el lote completo es una sola traza.
+     * El contexto de cada productor se extrae una sola vez y sirve tanto para los links
+     * del lote como para el span del mensaje.
+     */
+    private List<SQSBatchResponse.BatchItemFailure> processWithBatchSpan(List<SQSEvent.SQSMessage> records,
+                                                                          Context lambdaContext) {
+        Map<SQSEvent.SQSMessage, io.opentelemetry.context.Context> producerContexts = new IdentityHashMap<>(records.size());
+        for (SQSEvent.SQSMessage message : records) {
+            producerContexts.put(message, TraceContextExtractor.extractFromSqsMessage(message));
+        }
+
+        String eventSourceArn = records.isEmpty() ? null : records.get(0).getEventSourceArn();
+        Span batchSpan = BatchSpanSupport.startBatchSpan(
+                tracer,
+                String.format("sqs %s process batch", extractQueueName(eventSourceArn)),
+                "aws.sqs",
+                eventSourceArn != null ? eventSourceArn : "unknown",
+                records,
+                records.size(),
+                producerContexts::get,
+                batchConfig.getMaxBatchSpanLinks());
+
+        try (Scope scope = batchSpan.makeCurrent()) {
+            batchSpan.setAttribute("faas.trigger", "pubsub");
+            batchSpan.setAttribute("faas.execution", lambdaContext.getAwsRequestId());
+
+            List<SQSBatchResponse.BatchItemFailure> failures = processRecords(records, producerContexts::get, lambdaContext);
+
+            batchSpan.setAttribute(BatchSpanSupport.BATCH_FAILED_COUNT, (long) failures.size());
+            if (!failures.isEmpty()) {
+                batchSpan.setStatus(StatusCode.ERROR, failures.size() + " of " + records.size() + " messages failed");
             }
+            return failures;
+        } catch (Exception ex) {
+            batchSpan.recordException(ex);
+            batchSpan.setStatus(StatusCode.ERROR, ex.getMessage() != null ? ex.getMessage() : ex.getClass().getSimpleName());
+            throw ex;
+        } finally {
+            batchSpan.end();
         }
     }
 
-    private void processSqsMessage(SQSEvent.SQSMessage message, Context lambdaContext) {
+    private List<SQSBatchResponse.BatchItemFailure> processSequentially(List<SQSEvent.SQSMessage> records,
+                                                                         Function<SQSEvent.SQSMessage, io.opentelemetry.context.Context> producerContexts,
+                                                                         Context lambdaContext) {
+        List<SQSBatchResponse.BatchItemFailure> failures = new ArrayList<>();
+        Set<String> failedGroups = new HashSet<>();
+
+        for (SQSEvent.SQSMessage message : records) {
+            String groupId = messageGroupId(message);
+
+            // En FIFO, tras un fallo no se procesan mensajes posteriores del mismo grupo
+            if (groupId != null && failedGroups.contains(groupId)) {
+                failures.add(new SQSBatchResponse.BatchItemFailure(message.getMessageId()));
+                continue;
+            }
+
+            try {
+                processSqsMessage(message, producerContexts.apply(message), lambdaContext);
+            } catch (RuntimeException ex) {
+                if (!batchConfig.isReportBatchItemFailures()) {
+                    throw ex;
+                }
+                failures.add(new SQSBatchResponse.BatchItemFailure(message.getMessageId()));
+                if (groupId != null) {
+                    failedGroups.add(groupId);
+                }
+            }
+        }
+        return failures;
+    }
+
+    private List<SQSBatchResponse.BatchItemFailure> processInParallel(List<SQSEvent.SQSMessage> records,
+                                                                       Function<SQSEvent.SQSMessage, io.opentelemetry.context.Context> producerContexts,
+                                                                       Context lambdaContext) {
+        Queue<SQSBatchResponse.BatchItemFailure> failures = new ConcurrentLinkedQueue<>();
+        AtomicReference<RuntimeException> firstError = new AtomicReference<>();
+
+        // Un Error no se reporta por mensaje: sale del carril y ParallelLaneExecutor lo relanza,
+        // como en modo secuencial, para que falle la invocación completa
+        ParallelLaneExecutor.run(buildLanes(records), batchConfig.getMaxConcurrency(), lane -> {
+            for (int i = 0; i < lane.size(); i++) {
+                SQSEvent.SQSMessage message = lane.get(i);
+                try {
+                    processSqsMessage(message, producerContexts.apply(message), lambdaContext);
+                } catch (RuntimeException ex) {
+                    firstError.compareAndSet(null, ex);
+                    // Un carril con más de un mensaje es un grupo FIFO: el resto se reintenta
+                    for (int j = i; j < lane.size(); j++) {
+                        failures.add(new SQSBatchResponse.BatchItemFailure(lane.get(j).getMessageId()));
+                    }
+                    return;
+                }
+            }
+        });
+
+        if (!batchConfig.isReportBatchItemFailures() && firstError.get() != null) {
+            throw firstError.get();
+        }
+        return new ArrayList<>(failures);
+    }
+
+    /**
+     * Un carril por mensaje, o uno por MessageGroupId si se conserva el orden FIFO
+     */
+    private List<List<SQSEvent.SQSMessage>> buildLanes(List<SQSEvent.SQSMessage> records) {
+        List<List<SQSEvent.SQSMessage>> lanes = new ArrayList<>();
+        Map<String, List<SQSEvent.SQSMessage>> groups = new LinkedHashMap<>();
+
+        for (SQSEvent.SQSMessage message : records) {
+            String groupId = messageGroupId(message);
+            if (groupId == null) {
+                lanes.add(List.of(message));
+            } else {
+                groups.computeIfAbsent(groupId, k -> {
+                    List<SQSEvent.SQSMessage> lane = new ArrayList<>();
+                    lanes.add(lane);
+                    return lane;
+                }).add(message);
+            }
+        }
+        return lanes;
+    }
+
+    private String messageGroupId(SQSEvent.SQSMessage message) {
+        if (!batchConfig.isFifoPerMessageGroup() || message.getAttributes() == null) {
+            return null;
+        }
+        return message.getAttributes().get(MESSAGE_GROUP_ID);
+    }
+
+    private void processSqsMessage(SQSEvent.SQSMessage message,
+                                   io.opentelemetry.context.Context otelContext,
+                                   Context lambdaContext) {
         Map<String, String> headers = message.getMessageAttributes().entrySet().stream()
                 .filter(entry -> entry.getValue().getStringValue() != null)
                 .collect(Collectors.toMap(Map.Entry::getKey, e -> e.getValue().getStringValue()));
@@ -106,16 +284,26 @@ public abstract class SqsTracingLambdaWrapper implements RequestHandler<SQSEvent
         // Setup business context from message attributes
         observabilityManager.setupBusinessContextFromHeaders(headers);
 
-        io.opentelemetry.context.Context otelContext = TraceContextExtractor.extractFromHeaders(headers);
-        
         String queueName = extractQueueName(message.getEventSourceArn());
         final String correlationId = extractCorrelationId(headers);
         final String userId = extractUserId(headers);
         
-        Span span = tracer.spanBuilder(String.format("sqs %s process", queueName))
-                .setParent(otelContext)
-                .setSpanKind(SpanKind.CONSUMER)
-                .startSpan();
+        SpanBuilder spanBuilder = tracer.spanBuilder(String.format("sqs %s process", queueName))
+                .setSpanKind(SpanKind.CONSUMER);
+
+        if (batchConfig.isBatchSpan()) {
+            // En modo lote el padre es el span de lote y el productor queda como link
+            io.opentelemetry.context.Context batchContext = io.opentelemetry.context.Context.current();
+            SpanContext producer = BatchSpanSupport.producerLink(otelContext, batchContext);
+            if (producer != null) {
+                spanBuilder.addLink(producer);
+            }
+            spanBuilder.setParent(batchContext);
+        } else {
+            spanBuilder.setParent(otelContext);
+        }
+
+        Span span = spanBuilder.startSpan();
 
         try (Scope scope = span.makeCurrent()) {
             enrichSpanWithSqsAttributes(span, message, lambdaContext, correlationId, userId);
@@ -135,8 +323,8 @@ public abstract class SqsTracingLambdaWrapper implements RequestHandler<SQSEvent
             observabilityManager.closeSpanSuccessfully(span, "SQS message processed");
 
         } catch (Exception ex) {
-            // Use observability manager for error handling
-            //observabilityManager.closeSpan(span, ex);
+            span.recordException(ex);
+            span.setStatus(StatusCode.ERROR, ex.getMessage() != null ? ex.getMessage() : ex.getClass().getSimpleName());
             throw ex;
         } finally {
             span.end();
@@ -254,6 +442,14 @@ public abstract class SqsTracingLambdaWrapper implements RequestHandler<SQSEvent
     protected ObservabilityManager getObservabilityManager() {
         return observabilityManager;
     }
+
+    protected TelemetryFlushCoordinator getFlushCoordinator() {
+        return flushCoordinator;
+    }
+
+    protected SqsBatchProcessingConfig getBatchConfig() {
+        return batchConfig;
+    }
     
     protected void logInfo(String message, Map<String, String> attributes) {
         observabilityManager.getLoggerService().info(message, attributes);
@@ -279,11 +475,12 @@ public abstract class SqsTracingLambdaWrapper implements RequestHandler<SQSEvent
         return observabilityManager.getCurrentBusinessId();
     }
 
-    private void forceFlushTelemetry() {
+    private void forceFlushTelemetry(long remainingTimeMillis) {
         try {
-            // Intentar hacer flush de telemetría antes de que termine Lambda
-            // Esto es una aproximación - el método exacto depende de la implementación del SDK
-            System.out.println("Forcing telemetry flush due to low remaining time");
+            // Flush antes de que Lambda congele el entorno; el presupuesto sale del tiempo restante
+            if (!flushCoordinator.flushForRemainingTime(remainingTimeMillis)) {
+                System.err.println("Telemetry flush incomplete: " + flushCoordinator.getFlushStats());
+            }
         } catch (Exception e) {
             // No fallar la Lambda por problemas de telemetría
             System.err.println("Failed to flush telemetry: " + e.getMessage());
@@ -1,11 +1,9 @@
 package pe.soapros.otel.lambda.infrastructure;
 
-import io.opentelemetry.api.trace.Span;
-import io.opentelemetry.context.Scope;
 import lombok.SneakyThrows;
+import pe.soapros.otel.core.domain.ActiveSpan;
 import pe.soapros.otel.core.domain.TraceSpan;
 import pe.soapros.otel.core.domain.TracerService;
-import pe.soapros.otel.core.infrastructure.OpenTelemetryTraceSpan;
 
 import java.util.Map;
 import java.util.concurrent.Callable;
@@ -41,12 +39,12 @@ public class SubSpanExecutor {
      */
     public <T> T executeWithSubSpan(String spanName, Map<String, String> attributes, Supplier<T> operation) {
 
-        TraceSpan subSpan = tracerService.startSpan(spanName, attributes);
-        Span otelSubSpan = ((OpenTelemetryTraceSpan)subSpan).getSpan();
+        // Queda current hasta close(); close() además termina el span
+        ActiveSpan subSpan = tracerService.activate(spanName, attributes);
 
         long startTime = System.currentTimeMillis();
 
-        try (Scope subScope = otelSubSpan.makeCurrent()) {
+        try {
             //agregar evento de inicio si está habilitado
             if (enableEvents) {
                 subSpan.addEvent("operation.started", Map.of(
@@ -61,8 +59,8 @@ public class SubSpanExecutor {
             // Agregar métricas de duración
             long duration = System.currentTimeMillis() -startTime;
             if (enableDurationMetrics) {
-                subSpan.addAttribute("operation.duration_ms", String.valueOf(duration));
-                subSpan.addAttribute("operation.status", "success");
+                subSpan.addAttribute(ObservabilityConstants.OPERATION_DURATION_MS, duration);
+                subSpan.addAttribute(ObservabilityConstants.OPERATION_STATUS, "success");
             }
 
             // Agregar evento de finalización exitosa
@@ -80,7 +78,7 @@ public class SubSpanExecutor {
             handleSubSpanError(subSpan, spanName, startTime, e);
             throw e;
         } finally {
-            subSpan.end();
+            subSpan.close();
         }
     }
 
@@ -100,12 +98,12 @@ public class SubSpanExecutor {
     @SneakyThrows
     public <T> T executeWithSubSpan(String spanName, Map<String, String> attributes, Callable<T> callable) {
 
-        TraceSpan subSpan = tracerService.startSpan(spanName, attributes);
-        Span otelSubSpan = ((OpenTelemetryTraceSpan) subSpan).getSpan();
+        // Queda current hasta close(); close() además termina el span
+        ActiveSpan subSpan = tracerService.activate(spanName, attributes);
 
         long startTime = System.currentTimeMillis();
 
-        try (Scope subScope = otelSubSpan.makeCurrent()) {
+        try {
             if (enableEvents) {
                 subSpan.addEvent("operation.started", Map.of(
                         "start.timestamp", String.valueOf(startTime),
@@ -117,8 +115,8 @@ public class SubSpanExecutor {
 
             long duration = System.currentTimeMillis() - startTime;
             if (enableDurationMetrics) {
-                subSpan.addAttribute("operation.duration_ms", String.valueOf(duration));
-                subSpan.addAttribute("operation.status", "success");
+                subSpan.addAttribute(ObservabilityConstants.OPERATION_DURATION_MS, duration);
+                subSpan.addAttribute(ObservabilityConstants.OPERATION_STATUS, "success");
             }
 
             if (enableEvents) {
@@ -134,7 +132,7 @@ public class SubSpanExecutor {
             handleSubSpanError(subSpan, spanName, startTime, e);
             throw e;
         } finally {
-            subSpan.end();
+            subSpan.close();
         }
     }
 
@@ -213,9 +211,9 @@ public class SubSpanExecutor {
         long duration = System.currentTimeMillis() - startTime;
 
         if (enableDurationMetrics) {
-            subSpan.addAttribute("operation.duration_ms", String.valueOf(duration));
-            subSpan.addAttribute("operation.status", "error");
-            subSpan.addAttribute("error.type", e.getClass().getSimpleName());
+            subSpan.addAttribute(ObservabilityConstants.OPERATION_DURATION_MS, duration);
+            subSpan.addAttribute(ObservabilityConstants.OPERATION_STATUS, "error");
+            subSpan.addAttribute(ObservabilityConstants.ERROR_TYPE, e.getClass().getSimpleName());
         }
 
         if (enableEvents) {
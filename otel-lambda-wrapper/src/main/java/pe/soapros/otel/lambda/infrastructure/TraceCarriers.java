@@ -0,0 +1,182 @@
+package pe.soapros.otel.lambda.infrastructure;
+
+import com.amazonaws.services.lambda.runtime.events.SQSEvent;
+import io.opentelemetry.context.propagation.TextMapGetter;
+import pe.soapros.otel.core.infrastructure.AwsXrayPropagator;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Carriers de lectura para los propagators, sin copiar los headers del evento.
+ *
+ * - HTTP: búsqueda exacta y, si falla, en un índice case-folded que se construye una sola vez
+ *   por request (API Gateway v2 manda los headers en minúsculas, ALB / v1 los respeta).
+ * - Kafka: recorre los headers y decodifica a String sólo el valor de la clave pedida.
+ * - SQS: lee el MessageAttribute directamente del mapa del mensaje (y AWSTraceHeader para X-Ray).
+ */
+public final class TraceCarriers {
+
+    private TraceCarriers() {
+        throw new UnsupportedOperationException("Utility class");
+    }
+
+    // ==================== HTTP ====================
+
+    /**
+     * Headers HTTP con lookup case-insensitive (RFC 7230). Crear uno por request.
+     */
+    public static final class HeaderCarrier {
+        private final Map<String, String> headers;
+        private Map<String, String> folded;
+
+        public HeaderCarrier(Map<String, String> headers) {
+            this.headers = headers != null ? headers : Map.of();
+        }
+
+        public String get(String key) {
+            if (key == null) {
+                return null;
+            }
+            String value = headers.get(key);
+            if (value != null) {
+                return value;
+            }
+            return foldedIndex().get(key.toLowerCase(Locale.ROOT));
+        }
+
+        public Iterable<String> keys() {
+            return headers.keySet();
+        }
+
+        public boolean isEmpty() {
+            return headers.isEmpty();
+        }
+
+        private Map<String, String> foldedIndex() {
+            if (folded == null) {
+                Map<String, String> index = new HashMap<>(headers.size() * 2);
+                headers.forEach((name, value) -> {
+                    if (name != null && value != null) {
+                        index.putIfAbsent(name.toLowerCase(Locale.ROOT), value);
+                    }
+                });
+                folded = index;
+            }
+            return folded;
+        }
+    }
+
+    public static final TextMapGetter<HeaderCarrier> HEADERS = new TextMapGetter<>() {
+        @Override
+        public Iterable<String> keys(HeaderCarrier carrier) {
+            return carrier != null ? carrier.keys() : Collections.emptyList();
+        }
+
+        @Override
+        public String get(HeaderCarrier carrier, String key) {
+            return carrier != null ? carrier.get(key) : null;
+        }
+    };
+
+    // ==================== KAFKA ====================
+
+    /**
+     * Headers de un KafkaEventRecord: lista de mapas nombre → bytes. Si una clave se repite
+     * gana la última, como {@code Headers.lastHeader} en el cliente de Kafka.
+     */
+    public static final TextMapGetter<List<Map<String, byte[]>>> KAFKA_HEADERS = new TextMapGetter<>() {
+        @Override
+        public Iterable<String> keys(List<Map<String, byte[]>> carrier) {
+            if (carrier == null) {
+                return Collections.emptyList();
+            }
+            List<String> keys = new ArrayList<>();
+            for (Map<String, byte[]> header : carrier) {
+                if (header != null) {
+                    keys.addAll(header.keySet());
+                }
+            }
+            return keys;
+        }
+
+        @Override
+        public String get(List<Map<String, byte[]>> carrier, String key) {
+            if (carrier == null || key == null) {
+                return null;
+            }
+            byte[] match = null;
+            for (Map<String, byte[]> header : carrier) {
+                if (header == null) {
+                    continue;
+                }
+                for (Map.Entry<String, byte[]> entry : header.entrySet()) {
+                    if (entry.getValue() != null && key.equalsIgnoreCase(entry.getKey())) {
+                        match = entry.getValue();
+                    }
+                }
+            }
+            return match != null ? new String(match, StandardCharsets.UTF_8) : null;
+        }
+    };
+
+    // ==================== SQS ====================
+
+    /** Atributo de sistema de SQS con el header de X-Ray del productor */
+    public static final String SQS_AWS_TRACE_HEADER = "AWSTraceHeader";
+
+    /**
+     * Mensaje SQS completo: MessageAttributes y, para X-Amzn-Trace-Id, el atributo de sistema
+     * AWSTraceHeader (lo agrega SQS cuando el productor tiene X-Ray activo)
+     */
+    public static final TextMapGetter<SQSEvent.SQSMessage> SQS_MESSAGE = new TextMapGetter<>() {
+        @Override
+        public Iterable<String> keys(SQSEvent.SQSMessage carrier) {
+            return carrier != null ? SQS_MESSAGE_ATTRIBUTES.keys(carrier.getMessageAttributes()) : Collections.emptyList();
+        }
+
+        @Override
+        public String get(SQSEvent.SQSMessage carrier, String key) {
+            if (carrier == null || key == null) {
+                return null;
+            }
+            String value = SQS_MESSAGE_ATTRIBUTES.get(carrier.getMessageAttributes(), key);
+            if (value == null && AwsXrayPropagator.TRACE_HEADER.equalsIgnoreCase(key) && carrier.getAttributes() != null) {
+                value = carrier.getAttributes().get(SQS_AWS_TRACE_HEADER);
+            }
+            return value;
+        }
+    };
+
+    /**
+     * MessageAttributes de un mensaje SQS (máximo 10, el fallback case-insensitive es un recorrido corto)
+     */
+    public static final TextMapGetter<Map<String, SQSEvent.MessageAttribute>> SQS_MESSAGE_ATTRIBUTES = new TextMapGetter<>() {
+        @Override
+        public Iterable<String> keys(Map<String, SQSEvent.MessageAttribute> carrier) {
+            return carrier != null ? carrier.keySet() : Collections.emptyList();
+        }
+
+        @Override
+        public String get(Map<String, SQSEvent.MessageAttribute> carrier, String key) {
+            if (carrier == null || key == null) {
+                return null;
+            }
+            SQSEvent.MessageAttribute attribute = carrier.get(key);
+            if (attribute == null) {
+                for (Map.Entry<String, SQSEvent.MessageAttribute> entry : carrier.entrySet()) {
+                    if (key.equalsIgnoreCase(entry.getKey())) {
+                        attribute = entry.getValue();
+                        break;
+                    }
+                }
+            }
+            return attribute != null ? attribute.getStringValue() : null;
+        }
+    };
+}
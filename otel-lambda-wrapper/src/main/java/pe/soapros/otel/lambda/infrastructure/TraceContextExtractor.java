@@ -3,22 +3,36 @@ package pe.soapros.otel.lambda.infrastructure;
 import com.amazonaws.services.lambda.runtime.events.KafkaEvent;
 
 import com.amazonaws.services.lambda.runtime.events.SQSEvent;
-import io.opentelemetry.api.GlobalOpenTelemetry;
-import io.opentelemetry.api.trace.propagation.W3CTraceContextPropagator;
 import io.opentelemetry.context.Context;
-import io.opentelemetry.context.propagation.TextMapGetter;
+import io.opentelemetry.context.propagation.ContextPropagators;
+import io.opentelemetry.context.propagation.TextMapPropagator;
+import pe.soapros.otel.core.infrastructure.PropagationConfig;
 
-import java.nio.charset.StandardCharsets;
-import java.util.Collections;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
 public class TraceContextExtractor {
 
-    // W3C Trace Context Propagator - El estándar propagator de traces
-    private static final W3CTraceContextPropagator PROPAGATOR = W3CTraceContextPropagator.getInstance();
+    // Propagator compuesto (W3C, baggage, B3, X-Ray); se reemplaza por el del SDK con usePropagators
+    private static volatile TextMapPropagator propagator = PropagationConfig.fromEnvironment().createTextMapPropagator();
 
+    /**
+     * Usar los propagators registrados en el SDK para extraer e inyectar.
+     * Un OpenTelemetry sin propagators (noop) no reemplaza los configurados.
+     */
+    public static void usePropagators(ContextPropagators propagators) {
+        if (propagators == null) {
+            return;
+        }
+        TextMapPropagator textMapPropagator = propagators.getTextMapPropagator();
+        if (!textMapPropagator.fields().isEmpty()) {
+            propagator = textMapPropagator;
+        }
+    }
+
+    public static TextMapPropagator getPropagator() {
+        return propagator;
+    }
 
     /**
      * MÉTODO PRINCIPAL: Extrae contexto de trace a partir de hearders HTTP
@@ -32,61 +46,14 @@ public class TraceContextExtractor {
         }
 
         try {
-            // PASO 1: Crear un TextMapGetter para leer headers
-            TextMapGetter<Map<String, String>> getter = createHeaderGetter();
-
-            // PASO 2: Usar el propagator para extraer contexto
-            return PROPAGATOR.extract(Context.current(), headers, getter);
-
-            // Log para debugging
-            //logContextInfo(extractedContext, headers);
-
-            //return extractedContext;
-
+            // El carrier indexa los headers en minúsculas una sola vez si el lookup exacto falla
+            return propagator.extract(Context.current(), new TraceCarriers.HeaderCarrier(headers), TraceCarriers.HEADERS);
         } catch (Exception e) {
             System.err.println("🔥 Error extracting trace context: " + e.getMessage());
             return Context.current();
         }
     }
 
-    /**
-     * CREACIÓN DEL GETTER: Interfaz para leer headers de forma case-sensitive
-     * <p>
-     * El TexMapGetter es una interfaz funcional que le dice al propagator
-     * cómo leer valores de nuestro Map de headers
-     */
-    private static TextMapGetter<Map<String, String>> createHeaderGetter() {
-        return new TextMapGetter<Map<String, String>>() {
-
-            @Override
-            public Iterable<String> keys(Map<String, String> carrier) {
-                // Retorna todas las claves disponibles
-                return carrier.keySet();
-            }
-
-            @Override
-            public String get(Map<String, String> carrier, String key) {
-                if (carrier == null) {
-                    return null;
-                }
-
-                // 🔧 BÚSQUEDA EXACTA primero
-                String exactMatch = carrier.get(key);
-                if (exactMatch != null) {
-                    return exactMatch;
-                }
-
-                // 🔧 BÚSQUEDA CASE-INSENSITIVE como fallback
-                // Los headers HTTP son case-insensitive según RFC 7230
-                return carrier.entrySet().stream()
-                        .filter(entry -> entry.getKey().equalsIgnoreCase(key))
-                        .map(Map.Entry::getValue)
-                        .findFirst()
-                        .orElse(null);
-            }
-        };
-    }
-
     private static void logContextInfo(Context context, Map<String, String> headers) {
         try {
             var span = io.opentelemetry.api.trace.Span.fromContext(context);
@@ -141,19 +108,15 @@ public class TraceContextExtractor {
         }
 
         Map<String, SQSEvent.MessageAttribute> attributes = message.getMessageAttributes();
-        if (attributes == null || attributes.isEmpty()) {
+        boolean hasAwsTraceHeader = message.getAttributes() != null
+                && message.getAttributes().containsKey(TraceCarriers.SQS_AWS_TRACE_HEADER);
+        if ((attributes == null || attributes.isEmpty()) && !hasAwsTraceHeader) {
             return Context.current();
         }
 
         try {
-            Map<String, String> headerMap = attributes.entrySet().stream()
-                    .filter(e -> e.getValue() != null && e.getValue().getStringValue() != null)
-                    .collect(java.util.stream.Collectors.toMap(
-                            Map.Entry::getKey,
-                            e -> e.getValue().getStringValue()
-                    ));
-
-            return extractFromHeaders(headerMap);
+            // Lectura directa de los MessageAttributes (y AWSTraceHeader), sin mapa intermedio
+            return propagator.extract(Context.current(), message, TraceCarriers.SQS_MESSAGE);
         } catch (Exception e) {
             System.err.println("Failed to extract trace context from SQS message: " + e.getMessage());
             return Context.current();
@@ -165,24 +128,14 @@ public class TraceContextExtractor {
             return Context.current();
         }
 
-        Map<String, String> headersMap = new HashMap<>();
+        List<Map<String, byte[]>> headers = record.getHeaders();
+        if (headers == null || headers.isEmpty()) {
+            return Context.current();
+        }
 
         try {
-            List<Map<String, byte[]>> headers = record.getHeaders();
-            if (headers != null) {
-                for (Map<String, byte[]> header : headers) {
-                    if (header != null) {
-                        for (Map.Entry<String, byte[]> entry : header.entrySet()) {
-                            if (entry.getKey() != null && entry.getValue() != null) {
-                                headersMap.put(entry.getKey(),
-                                        new String(entry.getValue(), StandardCharsets.UTF_8));
-                            }
-                        }
-                    }
-                }
-            }
-
-            return extractFromHeaders(headersMap);
+            // Sólo se decodifican los headers que pide el propagator
+            return propagator.extract(Context.current(), headers, TraceCarriers.KAFKA_HEADERS);
         } catch (Exception e) {
             System.err.println("Failed to extract trace context from Kafka record: " + e.getMessage());
             return Context.current();
@@ -193,13 +146,11 @@ public class TraceContextExtractor {
         if (context == null || headers == null) return;
 
         try {
-            GlobalOpenTelemetry.getPropagators()
-                    .getTextMapPropagator()
-                    .inject(context, headers, (carrier, key, value) -> {
-                        if (carrier != null && key != null && value != null) {
-                            carrier.put(key, value);
-                        }
-                    });
+            propagator.inject(context, headers, (carrier, key, value) -> {
+                if (carrier != null && key != null && value != null) {
+                    carrier.put(key, value);
+                }
+            });
         } catch (Exception e) {
             System.err.println("Failed to inject trace context: " + e.getMessage());
         }
@@ -0,0 +1,84 @@
+package pe.soapros.otel.lambda.infrastructure.client;
+
+import io.opentelemetry.context.Context;
+import io.opentelemetry.context.propagation.TextMapSetter;
+import pe.soapros.otel.lambda.infrastructure.TraceContextExtractor;
+
+import java.nio.charset.StandardCharsets;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+/**
+ * Inyecta el contexto de trace en los headers de un ProducerRecord de Kafka.
+ *
+ * No depende de kafka-clients: recibe las operaciones de {@code Headers} como method references,
+ * de modo que el consumidor lo lee con {@code TraceContextExtractor.extractFromKafkaRecord}.
+ * <pre>
+ *   ProducerRecord&lt;String, String&gt; record = new ProducerRecord&lt;&gt;(topic, key, value);
+ *   KafkaHeaderInjector.inject(record.headers()::add, record.headers()::remove);
+ *   producer.send(record);
+ * </pre>
+ */
+public final class KafkaHeaderInjector {
+
+    private static final TextMapSetter<BiConsumer<String, byte[]>> SETTER = (headers, key, value) -> {
+        if (headers != null && key != null && value != null) {
+            headers.accept(key, value.getBytes(StandardCharsets.UTF_8));
+        }
+    };
+
+    private static final TextMapSetter<HeaderWriter> REPLACING_SETTER = (writer, key, value) -> {
+        if (writer != null && key != null && value != null) {
+            writer.remove().accept(key);
+            writer.add().accept(key, value.getBytes(StandardCharsets.UTF_8));
+        }
+    };
+
+    private KafkaHeaderInjector() {
+        throw new UnsupportedOperationException("Utility class");
+    }
+
+    /**
+     * Agrega los headers del contexto actual ({@code Headers.add})
+     */
+    public static void inject(BiConsumer<String, byte[]> addHeader) {
+        inject(Context.current(), addHeader);
+    }
+
+    public static void inject(Context context, BiConsumer<String, byte[]> addHeader) {
+        if (context == null || addHeader == null) {
+            return;
+        }
+        try {
+            TraceContextExtractor.getPropagator().inject(context, addHeader, SETTER);
+        } catch (Exception e) {
+            System.err.println("Failed to inject trace context into Kafka headers: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Igual que {@link #inject(BiConsumer)} pero quitando antes los headers con el mismo nombre,
+     * para reenvíos del mismo record ({@code Headers.add} no reemplaza, acumula)
+     */
+    public static void inject(BiConsumer<String, byte[]> addHeader, Consumer<String> removeHeader) {
+        inject(Context.current(), addHeader, removeHeader);
+    }
+
+    public static void inject(Context context, BiConsumer<String, byte[]> addHeader, Consumer<String> removeHeader) {
+        if (removeHeader == null) {
+            inject(context, addHeader);
+            return;
+        }
+        if (context == null || addHeader == null) {
+            return;
+        }
+        try {
+            TraceContextExtractor.getPropagator().inject(context, new HeaderWriter(addHeader, removeHeader), REPLACING_SETTER);
+        } catch (Exception e) {
+            System.err.println("Failed to inject trace context into Kafka headers: " + e.getMessage());
+        }
+    }
+
+    private record HeaderWriter(BiConsumer<String, byte[]> add, Consumer<String> remove) {
+    }
+}
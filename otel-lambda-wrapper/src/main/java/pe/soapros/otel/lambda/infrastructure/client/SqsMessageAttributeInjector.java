@@ -0,0 +1,259 @@
+package pe.soapros.otel.lambda.infrastructure.client;
+
+import io.opentelemetry.context.Context;
+import io.opentelemetry.context.propagation.TextMapSetter;
+import pe.soapros.otel.core.infrastructure.AwsXrayPropagator;
+import pe.soapros.otel.lambda.infrastructure.TraceContextExtractor;
+import software.amazon.awssdk.services.sqs.model.MessageAttributeValue;
+import software.amazon.awssdk.services.sqs.model.MessageSystemAttributeNameForSends;
+import software.amazon.awssdk.services.sqs.model.MessageSystemAttributeValue;
+import software.amazon.awssdk.services.sqs.model.SendMessageBatchRequest;
+import software.amazon.awssdk.services.sqs.model.SendMessageBatchRequestEntry;
+import software.amazon.awssdk.services.sqs.model.SendMessageRequest;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Inyecta el contexto de trace en los MessageAttributes de SendMessage / SendMessageBatch
+ * (SDK v2), para que {@code TraceContextExtractor.extractFromSqsMessage} lo recupere en el consumidor.
+ *
+ * SQS admite como máximo 10 MessageAttributes por mensaje. Los campos se agregan por prioridad
+ * (traceparent, tracestate, b3, X-B3-*, baggage) mientras haya espacio; los que no entran se omiten
+ * en lugar de hacer fallar el envío. X-Amzn-Trace-Id va al atributo de sistema AWSTraceHeader,
+ * que no cuenta para el límite.
+ *
+ * Los requests del SDK son inmutables: cada método devuelve una copia con los atributos agregados
+ * (o el mismo request si no hay nada que inyectar).
+ */
+public final class SqsMessageAttributeInjector {
+
+    public static final int MAX_MESSAGE_ATTRIBUTES = 10;
+
+    private static final String STRING_DATA_TYPE = "String";
+
+    // Orden en que se ocupan los atributos libres; las claves no listadas van al final
+    private static final List<String> PRIORITY = List.of(
+            "traceparent", "tracestate", "b3", "X-B3-TraceId", "X-B3-SpanId", "X-B3-Sampled", "baggage");
+
+    // Un buffer por hilo: el propagator escribe aquí y luego se reparte en los atributos
+    private static final ThreadLocal<FieldBuffer> BUFFER = ThreadLocal.withInitial(FieldBuffer::new);
+
+    private static final TextMapSetter<FieldBuffer> SETTER = (buffer, key, value) -> {
+        if (buffer != null && key != null && value != null) {
+            buffer.put(key, value);
+        }
+    };
+
+    private SqsMessageAttributeInjector() {
+        throw new UnsupportedOperationException("Utility class");
+    }
+
+    // ==================== SEND MESSAGE ====================
+
+    public static SendMessageRequest inject(SendMessageRequest request) {
+        return inject(Context.current(), request);
+    }
+
+    public static SendMessageRequest inject(Context context, SendMessageRequest request) {
+        if (context == null || request == null) {
+            return request;
+        }
+        FieldBuffer buffer = collect(context);
+        if (buffer.size == 0) {
+            return request;
+        }
+
+        Map<String, MessageAttributeValue> attributes = mergeAttributes(request.messageAttributes(), buffer);
+        Map<MessageSystemAttributeNameForSends, MessageSystemAttributeValue> systemAttributes =
+                mergeSystemAttributes(request.messageSystemAttributes(), buffer);
+        if (attributes == null && systemAttributes == null) {
+            return request;
+        }
+
+        SendMessageRequest.Builder builder = request.toBuilder();
+        if (attributes != null) {
+            builder.messageAttributes(attributes);
+        }
+        if (systemAttributes != null) {
+            builder.messageSystemAttributes(systemAttributes);
+        }
+        return builder.build();
+    }
+
+    // ==================== SEND MESSAGE BATCH ====================
+
+    public static SendMessageBatchRequest inject(SendMessageBatchRequest request) {
+        return inject(Context.current(), request);
+    }
+
+    /**
+     * Todas las entradas del batch llevan el mismo contexto: se inyecta una vez y se reparte
+     */
+    public static SendMessageBatchRequest inject(Context context, SendMessageBatchRequest request) {
+        if (context == null || request == null || !request.hasEntries()) {
+            return request;
+        }
+        FieldBuffer buffer = collect(context);
+        if (buffer.size == 0) {
+            return request;
+        }
+
+        List<SendMessageBatchRequestEntry> entries = request.entries();
+        List<SendMessageBatchRequestEntry> injected = null;
+        for (int i = 0; i < entries.size(); i++) {
+            SendMessageBatchRequestEntry entry = entries.get(i);
+            SendMessageBatchRequestEntry updated = inject(entry, buffer);
+            if (updated != entry && injected == null) {
+                injected = new ArrayList<>(entries.subList(0, i));
+            }
+            if (injected != null) {
+                injected.add(updated);
+            }
+        }
+        return injected != null ? request.toBuilder().entries(injected).build() : request;
+    }
+
+    public static SendMessageBatchRequestEntry inject(Context context, SendMessageBatchRequestEntry entry) {
+        if (context == null || entry == null) {
+            return entry;
+        }
+        FieldBuffer buffer = collect(context);
+        return buffer.size == 0 ? entry : inject(entry, buffer);
+    }
+
+    private static SendMessageBatchRequestEntry inject(SendMessageBatchRequestEntry entry, FieldBuffer buffer) {
+        Map<String, MessageAttributeValue> attributes = mergeAttributes(entry.messageAttributes(), buffer);
+        Map<MessageSystemAttributeNameForSends, MessageSystemAttributeValue> systemAttributes =
+                mergeSystemAttributes(entry.messageSystemAttributes(), buffer);
+        if (attributes == null && systemAttributes == null) {
+            return entry;
+        }
+
+        SendMessageBatchRequestEntry.Builder builder = entry.toBuilder();
+        if (attributes != null) {
+            builder.messageAttributes(attributes);
+        }
+        if (systemAttributes != null) {
+            builder.messageSystemAttributes(systemAttributes);
+        }
+        return builder.build();
+    }
+
+    // ==================== MERGE ====================
+
+    private static FieldBuffer collect(Context context) {
+        FieldBuffer buffer = BUFFER.get();
+        buffer.clear();
+        TraceContextExtractor.getPropagator().inject(context, buffer, SETTER);
+        return buffer;
+    }
+
+    /**
+     * Atributos existentes + campos del propagator que entren en el límite; null si no cambia nada
+     */
+    private static Map<String, MessageAttributeValue> mergeAttributes(
+            Map<String, MessageAttributeValue> existing, FieldBuffer buffer) {
+        Map<String, MessageAttributeValue> merged = null;
+        // Primero los campos conocidos en orden de prioridad, luego el resto en el orden del propagator
+        for (String key : PRIORITY) {
+            int index = buffer.indexOf(key);
+            if (index >= 0) {
+                merged = put(merged, existing, buffer, index);
+            }
+        }
+        for (int i = 0; i < buffer.size; i++) {
+            if (!PRIORITY.contains(buffer.keys[i])) {
+                merged = put(merged, existing, buffer, i);
+            }
+        }
+        return merged;
+    }
+
+    private static Map<String, MessageAttributeValue> put(Map<String, MessageAttributeValue> merged,
+                                                          Map<String, MessageAttributeValue> existing,
+                                                          FieldBuffer buffer, int index) {
+        String key = buffer.keys[index];
+        if (AwsXrayPropagator.TRACE_HEADER.equals(key)) {
+            return merged;
+        }
+        Map<String, MessageAttributeValue> current = merged != null ? merged : existing;
+        // Reemplazar un atributo del mismo nombre no ocupa espacio nuevo
+        if (!current.containsKey(key) && current.size() >= MAX_MESSAGE_ATTRIBUTES) {
+            return merged;
+        }
+        if (merged == null) {
+            merged = new HashMap<>(existing.size() + buffer.size + 1, 1.0f);
+            merged.putAll(existing);
+        }
+        merged.put(key, MessageAttributeValue.builder()
+                .dataType(STRING_DATA_TYPE)
+                .stringValue(buffer.values[index])
+                .build());
+        return merged;
+    }
+
+    /**
+     * X-Amzn-Trace-Id → AWSTraceHeader, salvo que el productor ya lo haya puesto (p.ej. el agente de X-Ray)
+     */
+    private static Map<MessageSystemAttributeNameForSends, MessageSystemAttributeValue> mergeSystemAttributes(
+            Map<MessageSystemAttributeNameForSends, MessageSystemAttributeValue> existing, FieldBuffer buffer) {
+        int index = buffer.indexOf(AwsXrayPropagator.TRACE_HEADER);
+        if (index < 0 || existing.containsKey(MessageSystemAttributeNameForSends.AWS_TRACE_HEADER)) {
+            return null;
+        }
+        Map<MessageSystemAttributeNameForSends, MessageSystemAttributeValue> merged =
+                new EnumMap<>(MessageSystemAttributeNameForSends.class);
+        merged.putAll(existing);
+        merged.put(MessageSystemAttributeNameForSends.AWS_TRACE_HEADER, MessageSystemAttributeValue.builder()
+                .dataType(STRING_DATA_TYPE)
+                .stringValue(buffer.values[index])
+                .build());
+        return merged;
+    }
+
+    /**
+     * Pares clave/valor en arrays reutilizables; los propagators escriben pocos campos
+     */
+    private static final class FieldBuffer {
+        private String[] keys = new String[8];
+        private String[] values = new String[8];
+        private int size;
+
+        void put(String key, String value) {
+            int index = indexOf(key);
+            if (index >= 0) {
+                values[index] = value;
+                return;
+            }
+            if (size == keys.length) {
+                keys = Arrays.copyOf(keys, size * 2);
+                values = Arrays.copyOf(values, size * 2);
+            }
+            keys[size] = key;
+            values[size] = value;
+            size++;
+        }
+
+        int indexOf(String key) {
+            for (int i = 0; i < size; i++) {
+                if (keys[i].equals(key)) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        void clear() {
+            for (int i = 0; i < size; i++) {
+                keys[i] = null;
+                values[i] = null;
+            }
+            size = 0;
+        }
+    }
+}
@@ -0,0 +1,272 @@
+package pe.soapros.otel.lambda.infrastructure.client;
+
+import io.opentelemetry.api.OpenTelemetry;
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.SpanKind;
+import io.opentelemetry.api.trace.StatusCode;
+import io.opentelemetry.api.trace.Tracer;
+import io.opentelemetry.context.Context;
+import io.opentelemetry.context.Scope;
+import io.opentelemetry.context.propagation.TextMapSetter;
+import io.opentelemetry.semconv.ErrorAttributes;
+import io.opentelemetry.semconv.HttpAttributes;
+import io.opentelemetry.semconv.ServerAttributes;
+import io.opentelemetry.semconv.UrlAttributes;
+import pe.soapros.otel.lambda.infrastructure.TraceContextExtractor;
+
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLParameters;
+import java.io.IOException;
+import java.net.Authenticator;
+import java.net.CookieHandler;
+import java.net.ProxySelector;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.WebSocket;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.function.BiPredicate;
+
+/**
+ * HttpClient que envuelve a otro y, por cada request, crea un span CLIENT e inyecta el contexto
+ * (traceparent, X-Amzn-Trace-Id, b3... según los propagators configurados) en los headers.
+ *
+ * Se usa en lugar del cliente original:
+ * {@code HttpClient client = TracingHttpClient.wrap(HttpClient.newHttpClient(), openTelemetry);}
+ *
+ * El resto de métodos (configuración, WebSocket, shutdown) se delegan sin cambios.
+ */
+public final class TracingHttpClient extends HttpClient {
+
+    private static final String INSTRUMENTATION_NAME = "pe.soapros.otel.lambda.client.http";
+
+    // Copia todos los headers del request original
+    private static final BiPredicate<String, String> ALL_HEADERS = (name, value) -> true;
+
+    private static final TextMapSetter<HttpRequest.Builder> SETTER = (builder, key, value) -> {
+        if (builder != null && key != null && value != null) {
+            builder.setHeader(key, value);
+        }
+    };
+
+    private final HttpClient delegate;
+    private final Tracer tracer;
+
+    private TracingHttpClient(HttpClient delegate, Tracer tracer) {
+        this.delegate = delegate;
+        this.tracer = tracer;
+    }
+
+    public static HttpClient wrap(HttpClient delegate, OpenTelemetry openTelemetry) {
+        return wrap(delegate, openTelemetry.getTracer(INSTRUMENTATION_NAME));
+    }
+
+    public static HttpClient wrap(HttpClient delegate, Tracer tracer) {
+        if (delegate == null || tracer == null) {
+            throw new IllegalArgumentException("delegate and tracer are required");
+        }
+        if (delegate instanceof TracingHttpClient) {
+            return delegate;
+        }
+        return new TracingHttpClient(delegate, tracer);
+    }
+
+    // ==================== ENVÍO ====================
+
+    @Override
+    public <T> HttpResponse<T> send(HttpRequest request, HttpResponse.BodyHandler<T> responseBodyHandler)
+            throws IOException, InterruptedException {
+        Context parent = Context.current();
+        Span span = startSpan(parent, request);
+        Context context = parent.with(span);
+
+        try (Scope ignored = context.makeCurrent()) {
+            HttpResponse<T> response = delegate.send(inject(context, request), responseBodyHandler);
+            endSpan(span, response, null);
+            return response;
+        } catch (Throwable e) {
+            // Cualquier fallo (también un Error) termina el span; se relanza tal cual
+            endSpan(span, null, e);
+            throw e;
+        }
+    }
+
+    @Override
+    public <T> CompletableFuture<HttpResponse<T>> sendAsync(HttpRequest request,
+                                                            HttpResponse.BodyHandler<T> responseBodyHandler) {
+        return sendAsync(request, responseBodyHandler, null);
+    }
+
+    @Override
+    public <T> CompletableFuture<HttpResponse<T>> sendAsync(HttpRequest request,
+                                                            HttpResponse.BodyHandler<T> responseBodyHandler,
+                                                            HttpResponse.PushPromiseHandler<T> pushPromiseHandler) {
+        Context parent = Context.current();
+        Span span = startSpan(parent, request);
+        Context context = parent.with(span);
+
+        CompletableFuture<HttpResponse<T>> future;
+        try (Scope ignored = context.makeCurrent()) {
+            HttpRequest traced = inject(context, request);
+            future = pushPromiseHandler != null
+                    ? delegate.sendAsync(traced, responseBodyHandler, pushPromiseHandler)
+                    : delegate.sendAsync(traced, responseBodyHandler);
+        } catch (Throwable e) {
+            endSpan(span, null, e);
+            throw e;
+        }
+        return future.whenComplete((response, error) -> endSpan(span, response, unwrap(error)));
+    }
+
+    private Span startSpan(Context parent, HttpRequest request) {
+        URI uri = request.uri();
+        var builder = tracer.spanBuilder(request.method())
+                .setParent(parent)
+                .setSpanKind(SpanKind.CLIENT)
+                .setAttribute(HttpAttributes.HTTP_REQUEST_METHOD, request.method())
+                .setAttribute(UrlAttributes.URL_FULL, sanitizeUrl(uri));
+        if (uri.getHost() != null) {
+            builder.setAttribute(ServerAttributes.SERVER_ADDRESS, uri.getHost());
+            builder.setAttribute(ServerAttributes.SERVER_PORT, (long) port(uri));
+        }
+        return builder.startSpan();
+    }
+
+    private static HttpRequest inject(Context context, HttpRequest request) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(request, ALL_HEADERS);
+        TraceContextExtractor.getPropagator().inject(context, builder, SETTER);
+        return builder.build();
+    }
+
+    private static void endSpan(Span span, HttpResponse<?> response, Throwable error) {
+        if (response != null) {
+            int statusCode = response.statusCode();
+            span.setAttribute(HttpAttributes.HTTP_RESPONSE_STATUS_CODE, (long) statusCode);
+            if (statusCode >= 400) {
+                span.setAttribute(ErrorAttributes.ERROR_TYPE, Integer.toString(statusCode));
+                span.setStatus(StatusCode.ERROR);
+            }
+        }
+        if (error != null) {
+            span.setAttribute(ErrorAttributes.ERROR_TYPE, error.getClass().getName());
+            span.setStatus(StatusCode.ERROR, error.getMessage());
+            span.recordException(error);
+        }
+        span.end();
+    }
+
+    private static Throwable unwrap(Throwable error) {
+        return error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+    }
+
+    private static int port(URI uri) {
+        if (uri.getPort() > 0) {
+            return uri.getPort();
+        }
+        return "http".equalsIgnoreCase(uri.getScheme()) ? 80 : 443;
+    }
+
+    /**
+     * URL sin query string ni fragmento (la query suele llevar tokens o firmas) y con las
+     * credenciales de user info redactadas
+     */
+    private static String sanitizeUrl(URI uri) {
+        String url = uri.toString();
+        int end = url.length();
+        int query = url.indexOf('?');
+        if (query >= 0) {
+            end = query;
+        }
+        int fragment = url.indexOf('#');
+        if (fragment >= 0 && fragment < end) {
+            end = fragment;
+        }
+        if (end < url.length()) {
+            url = url.substring(0, end);
+        }
+        String userInfo = uri.getRawUserInfo();
+        return userInfo != null ? url.replace(userInfo + "@", "REDACTED:REDACTED@") : url;
+    }
+
+    // ==================== DELEGACIÓN ====================
+
+    @Override
+    public Optional<CookieHandler> cookieHandler() {
+        return delegate.cookieHandler();
+    }
+
+    @Override
+    public Optional<Duration> connectTimeout() {
+        return delegate.connectTimeout();
+    }
+
+    @Override
+    public Redirect followRedirects() {
+        return delegate.followRedirects();
+    }
+
+    @Override
+    public Optional<ProxySelector> proxy() {
+        return delegate.proxy();
+    }
+
+    @Override
+    public SSLContext sslContext() {
+        return delegate.sslContext();
+    }
+
+    @Override
+    public SSLParameters sslParameters() {
+        return delegate.sslParameters();
+    }
+
+    @Override
+    public Optional<Authenticator> authenticator() {
+        return delegate.authenticator();
+    }
+
+    @Override
+    public Version version() {
+        return delegate.version();
+    }
+
+    @Override
+    public Optional<Executor> executor() {
+        return delegate.executor();
+    }
+
+    @Override
+    public WebSocket.Builder newWebSocketBuilder() {
+        return delegate.newWebSocketBuilder();
+    }
+
+    @Override
+    public void shutdown() {
+        delegate.shutdown();
+    }
+
+    @Override
+    public boolean awaitTermination(Duration duration) throws InterruptedException {
+        return delegate.awaitTermination(duration);
+    }
+
+    @Override
+    public boolean isTerminated() {
+        return delegate.isTerminated();
+    }
+
+    @Override
+    public void shutdownNow() {
+        delegate.shutdownNow();
+    }
+
+    @Override
+    public void close() {
+        delegate.close();
+    }
+}
@@ -7,19 +7,34 @@ import io.opentelemetry.api.common.AttributeKey;
 import io.opentelemetry.api.trace.SpanKind;
 import io.opentelemetry.sdk.OpenTelemetrySdk;
 import io.opentelemetry.sdk.trace.SdkTracerProvider;
+import io.opentelemetry.sdk.trace.data.SpanData;
 import io.opentelemetry.sdk.trace.export.SimpleSpanProcessor;
+import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import pe.soapros.otel.core.infrastructure.OpenTelemetryManager;
+import pe.soapros.otel.lambda.infrastructure.KafkaBatchProcessingConfig;
 import pe.soapros.otel.lambda.infrastructure.KafkaTracingLambdaWrapper;
 
+import java.nio.charset.StandardCharsets;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiConsumer;
 
-import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.*;
 
 public class KafkaTracingLambdaWrapperTest {
     private InMemorySpanExporter spanExporter;
     private OpenTelemetry openTelemetry;
 
+    @BeforeAll
+    static void initializeManager() {
+        // ObservabilityManager toma su TracerService del manager global
+        if (!OpenTelemetryManager.isInitialized()) {
+            OpenTelemetryManager.initialize("kafka-wrapper-test");
+        }
+    }
+
     @BeforeEach
     void setUp() {
         spanExporter = InMemorySpanExporter.create();
@@ -70,4 +85,135 @@ public class KafkaTracingLambdaWrapperTest {
         assertEquals(SpanKind.CONSUMER, span.getKind());
         assertEquals(42L, span.getAttributes().get(AttributeKey.longKey("messaging.kafka.message.offset")));
     }
+
+    // ==================== PARTICIONES EN PARALELO ====================
+
+    private static final String PRODUCER_TRACE_ID = "4bf92f3577b34da6a3ce929d0e0e4736";
+
+    @Test
+    void recordsWithinAPartitionStayInOrderUnderParallelism() {
+        Map<Integer, List<Long>> processed = new ConcurrentHashMap<>();
+        KafkaEvent event = event(3, 20, null);
+
+        wrapper(KafkaBatchProcessingConfig.parallelPartitions(3), (record, context) -> {
+            processed.computeIfAbsent(record.getPartition(), p -> Collections.synchronizedList(new ArrayList<>()))
+                    .add(record.getOffset());
+            Thread.yield();
+        }).handleRequest(event, new MockLambdaContext());
+
+        assertEquals(3, processed.size());
+        for (List<Long> offsets : processed.values()) {
+            List<Long> expected = new ArrayList<>();
+            for (long offset = 0; offset < 20; offset++) {
+                expected.add(offset);
+            }
+            assertEquals(expected, offsets);
+        }
+    }
+
+    @Test
+    void oneFailingPartitionFailsTheInvocation() {
+        Map<Integer, List<Long>> processed = new ConcurrentHashMap<>();
+        KafkaEvent event = event(3, 5, null);
+
+        KafkaTracingLambdaWrapper wrapper = wrapper(KafkaBatchProcessingConfig.parallelPartitions(3), (record, context) -> {
+            processed.computeIfAbsent(record.getPartition(), p -> Collections.synchronizedList(new ArrayList<>()))
+                    .add(record.getOffset());
+            if (record.getPartition() == 1 && record.getOffset() == 2) {
+                throw new IllegalStateException("partition 1 failed");
+            }
+        });
+
+        IllegalStateException ex = assertThrows(IllegalStateException.class,
+                () -> wrapper.handleRequest(event, new MockLambdaContext()));
+        assertEquals("partition 1 failed", ex.getMessage());
+        // La partición fallida se detiene; las demás terminan
+        assertEquals(List.of(0L, 1L, 2L), processed.get(1));
+        assertEquals(5, processed.get(0).size());
+        assertEquals(5, processed.get(2).size());
+    }
+
+    @Test
+    void errorInAPartitionFailsTheInvocation() {
+        KafkaTracingLambdaWrapper wrapper = wrapper(KafkaBatchProcessingConfig.parallelPartitions(2), (record, context) -> {
+            if (record.getPartition() == 0) {
+                throw new AssertionError("fatal");
+            }
+        });
+
+        assertThrows(AssertionError.class, () -> wrapper.handleRequest(event(2, 2, null), new MockLambdaContext()));
+    }
+
+    // ==================== SPAN DE LOTE ====================
+
+    @Test
+    void batchSpanIsParentOfRecordSpansAndCapsProducerLinks() {
+        KafkaBatchProcessingConfig config = KafkaBatchProcessingConfig.builder()
+                .maxPartitionConcurrency(2)
+                .batchSpan(3)
+                .build();
+
+        wrapper(config, (record, context) -> { }).handleRequest(event(2, 2, PRODUCER_TRACE_ID), new MockLambdaContext());
+
+        List<SpanData> spans = spanExporter.getFinishedSpanItems();
+        SpanData batch = spans.stream()
+                .filter(span -> span.getName().equals("kafka my-topic process batch"))
+                .findFirst()
+                .orElseThrow();
+        assertEquals(SpanKind.CONSUMER, batch.getKind());
+        assertEquals(3, batch.getLinks().size());
+        assertEquals(Boolean.TRUE, batch.getAttributes().get(AttributeKey.booleanKey("messaging.batch.links_truncated")));
+        assertEquals(4L, batch.getAttributes().get(AttributeKey.longKey("messaging.batch.message_count")));
+
+        List<SpanData> recordSpans = spans.stream()
+                .filter(span -> span.getName().equals("kafka my-topic process"))
+                .toList();
+        assertEquals(4, recordSpans.size());
+        for (SpanData span : recordSpans) {
+            assertEquals(batch.getSpanId(), span.getParentSpanId());
+            assertEquals(1, span.getLinks().size());
+            assertEquals(PRODUCER_TRACE_ID, span.getLinks().getFirst().getSpanContext().getTraceId());
+        }
+    }
+
+    private KafkaTracingLambdaWrapper wrapper(KafkaBatchProcessingConfig config,
+                                              BiConsumer<KafkaEvent.KafkaEventRecord, Context> handler) {
+        return new KafkaTracingLambdaWrapper(openTelemetry, config) {
+            @Override
+            protected void handleRecord(KafkaEvent.KafkaEventRecord record, Context lambdaContext) {
+                handler.accept(record, lambdaContext);
+            }
+        };
+    }
+
+    /**
+     * {@code partitions} particiones de {@code recordsPerPartition} registros con offsets 0..n-1;
+     * con {@code producerTraceId} cada registro lleva un traceparent distinto.
+     */
+    private static KafkaEvent event(int partitions, int recordsPerPartition, String producerTraceId) {
+        Map<String, List<KafkaEvent.KafkaEventRecord>> records = new LinkedHashMap<>();
+        for (int partition = 0; partition < partitions; partition++) {
+            List<KafkaEvent.KafkaEventRecord> partitionRecords = new ArrayList<>();
+            for (int offset = 0; offset < recordsPerPartition; offset++) {
+                KafkaEvent.KafkaEventRecord record = new KafkaEvent.KafkaEventRecord();
+                record.setTopic("my-topic");
+                record.setPartition(partition);
+                record.setOffset(offset);
+                record.setTimestamp(System.currentTimeMillis());
+                record.setValue(Base64.getEncoder().encodeToString("mensaje".getBytes(StandardCharsets.UTF_8)));
+                List<Map<String, byte[]>> headers = new ArrayList<>();
+                if (producerTraceId != null) {
+                    String spanId = String.format("%016x", partition * 1000L + offset + 1);
+                    String traceparent = "00-" + producerTraceId + "-" + spanId + "-01";
+                    headers.add(Map.of("traceparent", traceparent.getBytes(StandardCharsets.UTF_8)));
+                }
+                record.setHeaders(headers);
+                partitionRecords.add(record);
+            }
+            records.put("my-topic-" + partition, partitionRecords);
+        }
+        KafkaEvent event = new KafkaEvent();
+        event.setRecords(records);
+        return event;
+    }
 }
@@ -1,21 +1,31 @@
 package pe.soapros.otel.lambda;
 
 import com.amazonaws.services.lambda.runtime.Context;
+import com.amazonaws.services.lambda.runtime.events.SQSBatchResponse;
 import com.amazonaws.services.lambda.runtime.events.SQSEvent;
 import io.opentelemetry.api.OpenTelemetry;
 import io.opentelemetry.api.common.AttributeKey;
 import io.opentelemetry.api.trace.SpanKind;
 import io.opentelemetry.sdk.OpenTelemetrySdk;
 import io.opentelemetry.sdk.trace.SdkTracerProvider;
+import io.opentelemetry.sdk.trace.data.SpanData;
 import io.opentelemetry.sdk.trace.export.SimpleSpanProcessor;
+import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import pe.soapros.otel.core.infrastructure.OpenTelemetryManager;
+import pe.soapros.otel.lambda.infrastructure.SqsBatchProcessingConfig;
 import pe.soapros.otel.lambda.infrastructure.SqsTracingLambdaWrapper;
 
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -24,6 +34,14 @@ class SqsTracingLambdaWrapperTest {
     private InMemorySpanExporter spanExporter;
     private OpenTelemetry openTelemetry;
 
+    @BeforeAll
+    static void initializeManager() {
+        // ObservabilityManager toma su TracerService del manager global
+        if (!OpenTelemetryManager.isInitialized()) {
+            OpenTelemetryManager.initialize("sqs-wrapper-test");
+        }
+    }
+
     @BeforeEach
     void setUp() {
         spanExporter = InMemorySpanExporter.create();
@@ -64,7 +82,202 @@ class SqsTracingLambdaWrapperTest {
         assertEquals(SpanKind.CONSUMER, span.getKind());
         assertEquals(message.getMessageId(), span.getAttributes().get(AttributeKey.stringKey("messaging.message.id")));
     }
-}
 
+    // ==================== PROCESAMIENTO PARALELO ====================
+
+    private static final String QUEUE_ARN = "arn:aws:sqs:us-east-1:123456789012:my-queue";
+    private static final String PRODUCER_TRACE_ID = "4bf92f3577b34da6a3ce929d0e0e4736";
+
+    @Test
+    void parallelReportsOnlyFailedMessageIds() {
+        SQSEvent event = event(message("m1", null), message("m2", null), message("m3", null), message("m4", null));
+
+        SQSBatchResponse response = wrapper(SqsBatchProcessingConfig.parallel(4), failing("m2", "m4"))
+                .handleRequest(event, new MockLambdaContext());
+
+        assertEquals(Set.of("m2", "m4"), failedIds(response));
+    }
+
+    @Test
+    void fifoGroupStopsAfterFirstFailure() {
+        for (SqsBatchProcessingConfig config : List.of(
+                SqsBatchProcessingConfig.parallelFifo(4),
+                SqsBatchProcessingConfig.builder().fifoPerMessageGroup(true).reportBatchItemFailures(true).build())) {
+            Queue<String> processed = new ConcurrentLinkedQueue<>();
+            SQSEvent event = event(message("a1", "A"), message("a2", "A"), message("b1", "B"), message("a3", "A"));
+
+            SQSBatchResponse response = wrapper(config, (message, context) -> {
+                processed.add(message.getMessageId());
+                if ("a2".equals(message.getMessageId())) {
+                    throw new IllegalStateException("a2 failed");
+                }
+            }).handleRequest(event, new MockLambdaContext());
+
+            // a3 no se procesa pero se reporta para que SQS lo reintente después de a2
+            assertEquals(Set.of("a2", "a3"), failedIds(response));
+            assertFalse(processed.contains("a3"));
+            assertTrue(processed.contains("b1"));
+        }
+    }
+
+    @Test
+    void parallelWithoutReportBatchItemFailuresRethrows() {
+        SqsBatchProcessingConfig config = SqsBatchProcessingConfig.builder().parallel(2).build();
+        SQSEvent event = event(message("m1", null), message("m2", null));
+
+        IllegalStateException ex = assertThrows(IllegalStateException.class,
+                () -> wrapper(config, failing("m2")).handleRequest(event, new MockLambdaContext()));
+        assertEquals("m2 failed", ex.getMessage());
+    }
+
+    @Test
+    void parallelPropagatesErrorsEvenWhenReportingItemFailures() {
+        SQSEvent event = event(message("m1", null), message("m2", null));
+
+        SqsTracingLambdaWrapper wrapper = wrapper(SqsBatchProcessingConfig.parallel(2), (message, context) -> {
+            if ("m2".equals(message.getMessageId())) {
+                throw new AssertionError("fatal");
+            }
+        });
+
+        assertThrows(AssertionError.class, () -> wrapper.handleRequest(event, new MockLambdaContext()));
+    }
+
+    @Test
+    void parallelSpansKeepTheSameParentAsSequential() {
+        for (SqsBatchProcessingConfig config : List.of(SqsBatchProcessingConfig.sequential(), SqsBatchProcessingConfig.parallel(4))) {
+            spanExporter.reset();
+            SQSEvent event = event(
+                    tracedMessage("m1", "00f067aa0ba902b7"),
+                    tracedMessage("m2", "00f067aa0ba902b8"));
+
+            wrapper(config, (message, context) -> { }).handleRequest(event, new MockLambdaContext());
+
+            Map<String, SpanData> spans = messageSpans();
+            assertEquals(2, spans.size());
+            assertEquals(PRODUCER_TRACE_ID, spans.get("m1").getTraceId());
+            assertEquals("00f067aa0ba902b7", spans.get("m1").getParentSpanId());
+            assertEquals("00f067aa0ba902b8", spans.get("m2").getParentSpanId());
+        }
+    }
+
+    // ==================== SPAN DE LOTE ====================
+
+    @Test
+    void batchSpanIsParentOfMessageSpansAndLinksProducers() {
+        SqsBatchProcessingConfig config = SqsBatchProcessingConfig.builder().batchSpan(true).build();
+        SQSEvent event = event(tracedMessage("m1", "00f067aa0ba902b7"), tracedMessage("m2", "00f067aa0ba902b8"));
+
+        wrapper(config, (message, context) -> { }).handleRequest(event, new MockLambdaContext());
+
+        SpanData batch = batchSpan();
+        assertEquals(SpanKind.CONSUMER, batch.getKind());
+        assertEquals(Set.of("00f067aa0ba902b7", "00f067aa0ba902b8"), linkedSpanIds(batch));
+        assertEquals(2L, batch.getAttributes().get(AttributeKey.longKey("messaging.batch.message_count")));
+
+        Map<String, SpanData> spans = messageSpans();
+        assertEquals(2, spans.size());
+        for (SpanData span : spans.values()) {
+            assertEquals(batch.getSpanId(), span.getParentSpanId());
+            assertEquals(batch.getTraceId(), span.getTraceId());
+        }
+        // El productor pasa a ser link del span del mensaje
+        assertEquals(Set.of("00f067aa0ba902b7"), linkedSpanIds(spans.get("m1")));
+    }
+
+    @Test
+    void batchSpanCapsProducerLinks() {
+        SqsBatchProcessingConfig config = SqsBatchProcessingConfig.builder().batchSpan(2).build();
+        SQSEvent event = event(
+                tracedMessage("m1", "00f067aa0ba902b7"),
+                tracedMessage("m2", "00f067aa0ba902b8"),
+                tracedMessage("m3", "00f067aa0ba902b9"));
 
+        wrapper(config, (message, context) -> { }).handleRequest(event, new MockLambdaContext());
 
+        SpanData batch = batchSpan();
+        assertEquals(2, batch.getLinks().size());
+        assertEquals(2L, batch.getAttributes().get(AttributeKey.longKey("messaging.batch.link_count")));
+        assertEquals(Boolean.TRUE, batch.getAttributes().get(AttributeKey.booleanKey("messaging.batch.links_truncated")));
+        assertEquals(3L, batch.getAttributes().get(AttributeKey.longKey("messaging.batch.message_count")));
+        assertEquals(3, messageSpans().size());
+    }
+
+    private interface MessageHandler {
+        void handle(SQSEvent.SQSMessage message, Context context);
+    }
+
+    private SqsTracingLambdaWrapper wrapper(SqsBatchProcessingConfig config, MessageHandler handler) {
+        return new SqsTracingLambdaWrapper(openTelemetry, config) {
+            @Override
+            public void handle(SQSEvent.SQSMessage message, Context context) {
+                handler.handle(message, context);
+            }
+        };
+    }
+
+    private static MessageHandler failing(String... messageIds) {
+        Set<String> failing = Set.of(messageIds);
+        return (message, context) -> {
+            if (failing.contains(message.getMessageId())) {
+                throw new IllegalStateException(message.getMessageId() + " failed");
+            }
+        };
+    }
+
+    private static SQSEvent event(SQSEvent.SQSMessage... messages) {
+        SQSEvent event = new SQSEvent();
+        event.setRecords(List.of(messages));
+        return event;
+    }
+
+    private static SQSEvent.SQSMessage message(String messageId, String groupId) {
+        SQSEvent.SQSMessage message = new SQSEvent.SQSMessage();
+        message.setMessageId(messageId);
+        message.setEventSourceArn(QUEUE_ARN);
+        message.setMessageAttributes(new HashMap<>());
+        Map<String, String> attributes = new HashMap<>();
+        if (groupId != null) {
+            attributes.put("MessageGroupId", groupId);
+        }
+        message.setAttributes(attributes);
+        return message;
+    }
+
+    private static SQSEvent.SQSMessage tracedMessage(String messageId, String producerSpanId) {
+        SQSEvent.SQSMessage message = message(messageId, null);
+        SQSEvent.MessageAttribute traceparent = new SQSEvent.MessageAttribute();
+        traceparent.setDataType("String");
+        traceparent.setStringValue("00-" + PRODUCER_TRACE_ID + "-" + producerSpanId + "-01");
+        message.getMessageAttributes().put("traceparent", traceparent);
+        return message;
+    }
+
+    private static Set<String> failedIds(SQSBatchResponse response) {
+        return response.getBatchItemFailures().stream()
+                .map(SQSBatchResponse.BatchItemFailure::getItemIdentifier)
+                .collect(Collectors.toSet());
+    }
+
+    private Map<String, SpanData> messageSpans() {
+        return spanExporter.getFinishedSpanItems().stream()
+                .filter(span -> span.getName().equals("sqs my-queue process"))
+                .collect(Collectors.toMap(
+                        span -> span.getAttributes().get(AttributeKey.stringKey("messaging.message.id")),
+                        span -> span));
+    }
+
+    private SpanData batchSpan() {
+        List<SpanData> batches = spanExporter.getFinishedSpanItems().stream()
+                .filter(span -> span.getName().equals("sqs my-queue process batch"))
+                .toList();
+        assertEquals(1, batches.size());
+        return batches.getFirst();
+    }
+
+    private static Set<String> linkedSpanIds(SpanData span) {
+        return span.getLinks().stream()
+                .map(link -> link.getSpanContext().getSpanId())
+                .collect(Collectors.toSet());
+    }
+}
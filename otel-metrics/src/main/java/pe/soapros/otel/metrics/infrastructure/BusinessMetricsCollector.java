@@ -2,6 +2,7 @@ package pe.soapros.otel.metrics.infrastructure;
 
 import io.opentelemetry.api.common.AttributeKey;
 import io.opentelemetry.api.common.Attributes;
+import io.opentelemetry.api.metrics.Meter;
 import pe.soapros.otel.metrics.domain.MetricsService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -12,7 +13,6 @@ import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.DoubleAdder;
 
 /**
@@ -28,9 +28,10 @@ public class BusinessMetricsCollector {
     private final String serviceName;
     
     // Accumuladores para métricas de negocio
-    private final ConcurrentHashMap<String, AtomicLong> businessCounters = new ConcurrentHashMap<>();
+    // Actividad/s por tipo y feature en ventana deslizante; los valores acumulados
+    // (revenue por categoría/canal) son totales de negocio y se mantienen aparte
+    private final SlidingWindowRateTracker activityRates = new SlidingWindowRateTracker();
     private final ConcurrentHashMap<String, DoubleAdder> businessValues = new ConcurrentHashMap<>();
-    private final ThreadLocal<BusinessTransactionMetrics> currentTransaction = new ThreadLocal<>();
     
     public BusinessMetricsCollector(MetricsService metricsService, String serviceName) {
         this.metricsService = metricsService;
@@ -43,8 +44,8 @@ public class BusinessMetricsCollector {
      * Registra actividad de usuario
      */
     public void recordUserActivity(String userId, String activityType, String feature, Map<String, String> context) {
+        // user.id no va en las métricas: una serie por usuario no escala (queda en el log/span)
         Attributes userAttributes = Attributes.builder()
-            .put(AttributeKey.stringKey("user.id"), userId != null ? userId : "anonymous")
             .put(AttributeKey.stringKey("user.activity"), activityType)
             .put(AttributeKey.stringKey("feature.name"), feature)
             .put(AttributeKey.stringKey("service.name"), serviceName)
@@ -75,8 +76,10 @@ public class BusinessMetricsCollector {
         );
         
         // Actualizar contadores internos
-        String activityKey = activityType + ":" + feature;
-        businessCounters.computeIfAbsent(activityKey, k -> new AtomicLong(0)).incrementAndGet();
+        activityRates.record(Attributes.of(
+            AttributeKey.stringKey("user.activity"), activityType,
+            AttributeKey.stringKey("feature.name"), feature
+        ));
         
         logger.debug("Recorded user activity: {} - {} on feature: {}", userId, activityType, feature);
     }
@@ -150,11 +153,12 @@ public class BusinessMetricsCollector {
     // ==================== MÉTRICAS DE TRANSACCIONES ====================
     
     /**
-     * Inicia el tracking de una transacción de negocio
+     * Inicia el tracking de una transacción de negocio; terminarla con {@link BusinessTransactionTimer#end}
      */
-    public void startBusinessTransaction(String transactionId, String transactionType, String userId, 
-                                       double amount, String currency) {
-        BusinessTransactionMetrics transaction = new BusinessTransactionMetrics(
+    public BusinessTransactionTimer startBusinessTransaction(String transactionId, String transactionType, String userId, 
+                                                         double amount, String currency) {
+        BusinessTransactionTimer transaction = new BusinessTransactionTimer(
+            this,
             transactionId,
             transactionType,
             userId,
@@ -163,8 +167,6 @@ public class BusinessMetricsCollector {
             Instant.now()
         );
         
-        currentTransaction.set(transaction);
-        
         // Counter de transacciones iniciadas
         Attributes startAttributes = buildTransactionAttributes(transaction, "started", null);
         
@@ -177,44 +179,34 @@ public class BusinessMetricsCollector {
         
         logger.debug("Started business transaction: {} type: {} amount: {} {}", 
                      transactionId, transactionType, amount, currency);
+        return transaction;
     }
     
     /**
-     * Finaliza el tracking de una transacción de negocio
+     * Registra las métricas de fin de una transacción (invocado una sola vez por el handle)
      */
-    public void endBusinessTransaction(String status, String failureReason) {
-        BusinessTransactionMetrics transaction = currentTransaction.get();
-        if (transaction == null) {
-            logger.warn("No business transaction found for current thread");
-            return;
-        }
+    void completeBusinessTransaction(BusinessTransactionTimer transaction, String status, String failureReason) {
+        Duration duration = Duration.between(transaction.startTime, Instant.now());
+        boolean isSuccess = "success".equals(status);
         
-        try {
-            Duration duration = Duration.between(transaction.startTime, Instant.now());
-            boolean isSuccess = "success".equals(status);
-            
-            Attributes endAttributes = buildTransactionAttributes(transaction, status, failureReason);
-            
-            // Métricas básicas de transacción
-            recordBasicTransactionMetrics(transaction, duration, status, endAttributes);
-            
-            // Métricas de valor/revenue
-            recordTransactionValueMetrics(transaction, isSuccess);
-            
-            // Métricas de tiempo/performance
-            recordTransactionPerformanceMetrics(transaction, duration, endAttributes);
-            
-            // Métricas de errores si aplica
-            if (!isSuccess) {
-                recordTransactionErrorMetrics(transaction, failureReason, endAttributes);
-            }
-            
-            logger.debug("Completed business transaction: {} - {}ms - status: {}", 
-                         transaction.transactionId, duration.toMillis(), status);
-            
-        } finally {
-            currentTransaction.remove();
+        Attributes endAttributes = buildTransactionAttributes(transaction, status, failureReason);
+        
+        // Métricas básicas de transacción
+        recordBasicTransactionMetrics(transaction, duration, status, endAttributes);
+        
+        // Métricas de valor/revenue
+        recordTransactionValueMetrics(transaction, isSuccess);
+        
+        // Métricas de tiempo/performance
+        recordTransactionPerformanceMetrics(transaction, duration, endAttributes);
+        
+        // Métricas de errores si aplica
+        if (!isSuccess) {
+            recordTransactionErrorMetrics(transaction, failureReason, endAttributes);
         }
+        
+        logger.debug("Completed business transaction: {} - {}ms - status: {}", 
+                     transaction.transactionId, duration.toMillis(), status);
     }
     
     /**
@@ -224,8 +216,8 @@ public class BusinessMetricsCollector {
                                          Duration duration, boolean success) {
         String transactionId = generateTransactionId();
         
-        startBusinessTransaction(transactionId, transactionType, userId, amount, currency);
-        endBusinessTransaction(success ? "success" : "failed", success ? null : "processing_error");
+        startBusinessTransaction(transactionId, transactionType, userId, amount, currency)
+            .end(success ? "success" : "failed", success ? null : "processing_error");
     }
     
     // ==================== MÉTRICAS DE INVENTARIO/PRODUCTOS ====================
@@ -235,6 +227,7 @@ public class BusinessMetricsCollector {
      */
     public void recordInventoryMetrics(String productId, String productCategory, int stockLevel, 
                                      int reservedStock, double productValue) {
+        // product.id identifica el gauge; el límite de series del MetricsService acota catálogos grandes
         Map<String, String> inventoryAttributes = Map.of(
             "product.id", productId,
             "product.category", productCategory,
@@ -440,7 +433,7 @@ public class BusinessMetricsCollector {
     
     // ==================== MÉTODOS PRIVADOS ====================
     
-    private void recordBasicTransactionMetrics(BusinessTransactionMetrics transaction, Duration duration, 
+    private void recordBasicTransactionMetrics(BusinessTransactionTimer transaction, Duration duration, 
                                              String status, Attributes attributes) {
         // Counter de transacciones completadas
         metricsService.incrementCounter(
@@ -476,7 +469,7 @@ public class BusinessMetricsCollector {
         }
     }
     
-    private void recordTransactionValueMetrics(BusinessTransactionMetrics transaction, boolean isSuccess) {
+    private void recordTransactionValueMetrics(BusinessTransactionTimer transaction, boolean isSuccess) {
         if (isSuccess && transaction.amount > 0) {
             Map<String, String> valueAttributes = Map.of(
                 "transaction.type", transaction.transactionType,
@@ -506,7 +499,7 @@ public class BusinessMetricsCollector {
         }
     }
     
-    private void recordTransactionPerformanceMetrics(BusinessTransactionMetrics transaction, Duration duration, 
+    private void recordTransactionPerformanceMetrics(BusinessTransactionTimer transaction, Duration duration, 
                                                    Attributes attributes) {
         double durationMs = duration.toNanos() / 1_000_000.0;
         
@@ -524,7 +517,7 @@ public class BusinessMetricsCollector {
         );
     }
     
-    private void recordTransactionErrorMetrics(BusinessTransactionMetrics transaction, String failureReason, 
+    private void recordTransactionErrorMetrics(BusinessTransactionTimer transaction, String failureReason, 
                                              Attributes attributes) {
         if (failureReason != null) {
             Map<String, String> errorAttributes = Map.of(
@@ -542,7 +535,7 @@ public class BusinessMetricsCollector {
         }
     }
     
-    private Attributes buildTransactionAttributes(BusinessTransactionMetrics transaction, String status, String failureReason) {
+    private Attributes buildTransactionAttributes(BusinessTransactionTimer transaction, String status, String failureReason) {
         var builder = Attributes.builder()
             .put(AttributeKey.stringKey("transaction.id"), transaction.transactionId)
             .put(AttributeKey.stringKey("transaction.type"), transaction.transactionType)
@@ -587,7 +580,7 @@ public class BusinessMetricsCollector {
         attributes.put("metric.unit", unit);
         attributes.put("service.name", serviceName);
         
-        BusinessTransactionMetrics transaction = currentTransaction.get();
+        BusinessTransactionTimer transaction = BusinessTransactionTimer.current();
         if (transaction != null) {
             attributes.put("transaction.id", transaction.transactionId);
             attributes.put("transaction.type", transaction.transactionType);
@@ -605,19 +598,31 @@ public class BusinessMetricsCollector {
      * Limpia los acumuladores (útil para testing)
      */
     public void clearAccumulators() {
-        businessCounters.clear();
+        activityRates.clear();
         businessValues.clear();
     }
     
+    /**
+     * Publicar actividad/s por tipo y feature como gauge observable business.user.activity_rate
+     */
+    public void registerRateGauge(Meter meter) {
+        activityRates.registerGauge(meter, "business.user.activity_rate", "User activity per second by feature (sliding window)");
+    }
+    
+    /**
+     * Dar de baja el gauge de rate (al descartar el collector)
+     */
+    public void closeRateGauge() {
+        activityRates.close();
+    }
+    
     /**
      * Obtiene estadísticas de los acumuladores
      */
     public Map<String, Object> getAccumulatorStats() {
         Map<String, Object> stats = new java.util.HashMap<>();
         
-        Map<String, Long> counters = new java.util.HashMap<>();
-        businessCounters.forEach((key, count) -> counters.put(key, count.get()));
-        stats.put("counters", counters);
+        stats.put("activity_rates", activityRates.getRates());
         
         Map<String, Double> values = new java.util.HashMap<>();
         businessValues.forEach((key, value) -> values.put(key, value.sum()));
@@ -625,26 +630,4 @@ public class BusinessMetricsCollector {
         
         return stats;
     }
-    
-    /**
-     * Clase interna para mantener métricas de transacción actual
-     */
-    private static class BusinessTransactionMetrics {
-        final String transactionId;
-        final String transactionType;
-        final String userId;
-        final double amount;
-        final String currency;
-        final Instant startTime;
-        
-        BusinessTransactionMetrics(String transactionId, String transactionType, String userId, 
-                                 double amount, String currency, Instant startTime) {
-            this.transactionId = transactionId;
-            this.transactionType = transactionType;
-            this.userId = userId;
-            this.amount = amount;
-            this.currency = currency;
-            this.startTime = startTime;
-        }
-    }
-}
\ No newline at end of file
+}
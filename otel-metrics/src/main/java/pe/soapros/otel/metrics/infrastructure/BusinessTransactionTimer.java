@@ -0,0 +1,84 @@
+package pe.soapros.otel.metrics.infrastructure;
+
+import io.opentelemetry.context.Context;
+import io.opentelemetry.context.ContextKey;
+import io.opentelemetry.context.ImplicitContextKeyed;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Transacción de negocio en curso devuelta por {@link BusinessMetricsCollector#startBusinessTransaction}.
+ *
+ * El handle no depende del hilo: se puede terminar desde otro hilo (CompletableFuture,
+ * virtual threads). Para recuperarlo sin pasarlo explícitamente, guardarlo en el
+ * contexto de OpenTelemetry con {@code makeCurrent()} y leerlo con {@link #current()}.
+ */
+public final class BusinessTransactionTimer implements ImplicitContextKeyed {
+
+    private static final ContextKey<BusinessTransactionTimer> CONTEXT_KEY =
+            ContextKey.named("pe.soapros.otel.metrics.business-transaction");
+
+    private final BusinessMetricsCollector collector;
+    private final AtomicBoolean ended = new AtomicBoolean(false);
+
+    final String transactionId;
+    final String transactionType;
+    final String userId;
+    final double amount;
+    final String currency;
+    final Instant startTime;
+
+    BusinessTransactionTimer(BusinessMetricsCollector collector, String transactionId,
+                             String transactionType, String userId, double amount, String currency,
+                             Instant startTime) {
+        this.collector = collector;
+        this.transactionId = transactionId;
+        this.transactionType = transactionType;
+        this.userId = userId;
+        this.amount = amount;
+        this.currency = currency;
+        this.startTime = startTime;
+    }
+
+    /**
+     * Registra las métricas de fin; solo la primera llamada tiene efecto
+     */
+    public void end(String status, String failureReason) {
+        if (ended.compareAndSet(false, true)) {
+            collector.completeBusinessTransaction(this, status, failureReason);
+        }
+    }
+
+    public boolean isEnded() {
+        return ended.get();
+    }
+
+    public Duration elapsed() {
+        return Duration.between(startTime, Instant.now());
+    }
+
+    public String getTransactionId() { return transactionId; }
+    public String getTransactionType() { return transactionType; }
+    public String getUserId() { return userId; }
+    public double getAmount() { return amount; }
+    public String getCurrency() { return currency; }
+    public Instant getStartTime() { return startTime; }
+
+    @Override
+    public Context storeInContext(Context context) {
+        return context.with(CONTEXT_KEY, this);
+    }
+
+    /**
+     * Handle guardado en el contexto actual, o null
+     */
+    public static BusinessTransactionTimer current() {
+        return fromContext(Context.current());
+    }
+
+    public static BusinessTransactionTimer fromContext(Context context) {
+        return context.get(CONTEXT_KEY);
+    }
+}
@@ -0,0 +1,195 @@
+package pe.soapros.otel.metrics.infrastructure;
+
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.api.common.Attributes;
+import io.opentelemetry.api.common.AttributesBuilder;
+import io.opentelemetry.api.metrics.LongCounter;
+import io.opentelemetry.api.metrics.Meter;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Predicate;
+
+/**
+ * Aplica {@link CardinalityLimits} antes de registrar un valor: filtra claves y
+ * lleva la cuenta de series vistas por instrumento.
+ *
+ * Las series vistas se olvidan en cada ciclo de recolección del SDK (el callback de
+ * {@code otel.metrics.active_series}): con temporalidad delta el agregador también las
+ * olvida, así que el límite es por intervalo de exportación y no acumulado de por vida.
+ */
+final class CardinalityGuard {
+
+    static final AttributeKey<String> OVERFLOW_KEY = AttributeKey.stringKey("otel.metric.overflow");
+    static final Attributes OVERFLOW_ATTRIBUTES = Attributes.of(OVERFLOW_KEY, CardinalityLimits.OVERFLOW_VALUE);
+
+    private static final AttributeKey<String> INSTRUMENT_KEY = AttributeKey.stringKey("instrument");
+
+    private final CardinalityLimits limits;
+    private final boolean tracksSeries;
+    private final List<AttributeKey<?>> deniedKeys;
+    private final List<AttributeKey<?>> allowedKeys;
+    private final Predicate<AttributeKey<?>> notAllowed;
+    private final Map<String, InstrumentSeries> seriesByInstrument = new ConcurrentHashMap<>();
+    private final LongCounter overflowMeasurements;
+
+    CardinalityGuard(CardinalityLimits limits, Meter meter) {
+        this.limits = limits;
+        this.tracksSeries = limits.getDefaultMaxSeries() != Integer.MAX_VALUE
+                || !limits.getMaxSeriesByInstrument().isEmpty();
+        this.deniedKeys = typedKeys(limits.getDeniedKeys());
+        this.allowedKeys = typedKeys(limits.getAllowedKeys().stream()
+                .filter(limits::isKeyAllowed)
+                .toList());
+        this.notAllowed = key -> !limits.isKeyAllowed(key.getKey());
+
+        this.overflowMeasurements = meter.counterBuilder("otel.metrics.overflow_measurements")
+                .setDescription("Valores de métricas agrupados en la serie __overflow__ por exceder el límite de series")
+                .setUnit("{measurement}")
+                .build();
+
+        if (tracksSeries) {
+            meter.gaugeBuilder("otel.metrics.active_series")
+                    .setDescription("Series distintas admitidas por instrumento en el último intervalo de recolección")
+                    .setUnit("{series}")
+                    .ofLongs()
+                    .buildWithCallback(m -> seriesByInstrument.values().forEach(series ->
+                            m.record(series.startNewCycle(), series.instrumentAttributes)));
+        }
+    }
+
+    /**
+     * Atributos a usar para registrar en {@code instrumentName}
+     */
+    Attributes apply(String instrumentName, Attributes attributes) {
+        Attributes filtered = limits.hasKeyFilters() ? filterKeys(attributes) : attributes;
+        if (!tracksSeries) {
+            return filtered;
+        }
+
+        InstrumentSeries series = seriesByInstrument.computeIfAbsent(instrumentName,
+                k -> new InstrumentSeries(limits.maxSeriesFor(k), Attributes.of(INSTRUMENT_KEY, k)));
+
+        if (series.admit(filtered)) {
+            return filtered;
+        }
+
+        series.overflowed.increment();
+        overflowMeasurements.add(1, series.instrumentAttributes);
+        return OVERFLOW_ATTRIBUTES;
+    }
+
+    /**
+     * Camino común sin asignaciones: se consultan sólo las claves configuradas y, si no hay
+     * nada que quitar, se reutiliza la misma instancia
+     */
+    private Attributes filterKeys(Attributes attributes) {
+        boolean filter = allowedKeys.isEmpty()
+                ? containsAny(attributes, deniedKeys)
+                : countPresent(attributes, allowedKeys) != attributes.size();
+        if (!filter) {
+            return attributes;
+        }
+        AttributesBuilder builder = attributes.toBuilder();
+        builder.removeIf(notAllowed);
+        return builder.build();
+    }
+
+    private static boolean containsAny(Attributes attributes, List<AttributeKey<?>> keys) {
+        for (int i = 0; i < keys.size(); i++) {
+            if (attributes.get(keys.get(i)) != null) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static int countPresent(Attributes attributes, List<AttributeKey<?>> keys) {
+        int present = 0;
+        for (int i = 0; i < keys.size(); i++) {
+            if (attributes.get(keys.get(i)) != null) {
+                present++;
+            }
+        }
+        return present;
+    }
+
+    /**
+     * Los límites se expresan por nombre; {@link Attributes#get} compara nombre y tipo, así que
+     * cada nombre se consulta con todos los tipos posibles
+     */
+    private static List<AttributeKey<?>> typedKeys(Collection<String> names) {
+        List<AttributeKey<?>> keys = new ArrayList<>(names.size() * 8);
+        for (String name : names) {
+            keys.add(AttributeKey.stringKey(name));
+            keys.add(AttributeKey.longKey(name));
+            keys.add(AttributeKey.doubleKey(name));
+            keys.add(AttributeKey.booleanKey(name));
+            keys.add(AttributeKey.stringArrayKey(name));
+            keys.add(AttributeKey.longArrayKey(name));
+            keys.add(AttributeKey.doubleArrayKey(name));
+            keys.add(AttributeKey.booleanArrayKey(name));
+        }
+        return List.copyOf(keys);
+    }
+
+    Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        seriesByInstrument.forEach((name, series) -> {
+            stats.put(name + ".series", series.seen.size());
+            stats.put(name + ".overflowed", series.overflowed.sum());
+        });
+        return stats;
+    }
+
+    long getOverflowCount() {
+        return seriesByInstrument.values().stream().mapToLong(s -> s.overflowed.sum()).sum();
+    }
+
+    void clear() {
+        seriesByInstrument.clear();
+    }
+
+    private static final class InstrumentSeries {
+        private final int maxSeries;
+        private final Attributes instrumentAttributes;
+        private volatile Set<Attributes> seen = ConcurrentHashMap.newKeySet();
+        private final LongAdder overflowed = new LongAdder();
+
+        private InstrumentSeries(int maxSeries, Attributes instrumentAttributes) {
+            this.maxSeries = maxSeries;
+            this.instrumentAttributes = instrumentAttributes;
+        }
+
+        boolean admit(Attributes attributes) {
+            if (maxSeries == Integer.MAX_VALUE) {
+                return true;
+            }
+            Set<Attributes> current = seen;
+            if (current.contains(attributes)) {
+                return true;
+            }
+            // El límite puede excederse por unas pocas series bajo concurrencia; no importa
+            if (current.size() >= maxSeries) {
+                return false;
+            }
+            current.add(attributes);
+            return true;
+        }
+
+        /**
+         * Series del ciclo que termina; el siguiente empieza vacío
+         */
+        int startNewCycle() {
+            Set<Attributes> previous = seen;
+            seen = ConcurrentHashMap.newKeySet();
+            return previous.size();
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package pe.soapros.otel.metrics.infrastructure;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Límites de cardinalidad para los atributos de métricas de {@link OpenTelemetryMetricsService}.
+ *
+ * Cada combinación distinta de atributos es una serie en el agregador del SDK; valores
+ * únicos por request (request id, user id...) hacen crecer la memoria sin límite.
+ * Las claves denegadas se eliminan, y si hay allowlist sólo se conservan sus claves.
+ * Las series nuevas por encima del límite de un instrumento se agrupan en una serie
+ * {@value #OVERFLOW_VALUE}.
+ */
+public class CardinalityLimits {
+
+    public static final String OVERFLOW_VALUE = "__overflow__";
+    public static final int DEFAULT_MAX_SERIES_PER_INSTRUMENT = 1000;
+
+    private static final CardinalityLimits DEFAULTS = builder()
+            .denyKey("lambda.request_id", "user.id")
+            .build();
+
+    private final int defaultMaxSeries;
+    private final Map<String, Integer> maxSeriesByInstrument;
+    private final Set<String> deniedKeys;
+    private final Set<String> allowedKeys;
+
+    private CardinalityLimits(Builder builder) {
+        this.defaultMaxSeries = builder.defaultMaxSeries;
+        this.maxSeriesByInstrument = Map.copyOf(builder.maxSeriesByInstrument);
+        this.deniedKeys = Set.copyOf(builder.deniedKeys);
+        this.allowedKeys = Set.copyOf(builder.allowedKeys);
+    }
+
+    /**
+     * 1000 series por instrumento, sin lambda.request_id (único por invocación) ni user.id
+     */
+    public static CardinalityLimits defaults() {
+        return DEFAULTS;
+    }
+
+    /**
+     * Sin filtros ni límites (comportamiento anterior)
+     */
+    public static CardinalityLimits unlimited() {
+        return builder().maxSeriesPerInstrument(Integer.MAX_VALUE).build();
+    }
+
+    public int maxSeriesFor(String instrumentName) {
+        return maxSeriesByInstrument.getOrDefault(instrumentName, defaultMaxSeries);
+    }
+
+    public boolean isKeyAllowed(String key) {
+        if (deniedKeys.contains(key)) {
+            return false;
+        }
+        return allowedKeys.isEmpty() || allowedKeys.contains(key);
+    }
+
+    public boolean hasKeyFilters() {
+        return !deniedKeys.isEmpty() || !allowedKeys.isEmpty();
+    }
+
+    public int getDefaultMaxSeries() { return defaultMaxSeries; }
+    public Map<String, Integer> getMaxSeriesByInstrument() { return maxSeriesByInstrument; }
+    public Set<String> getDeniedKeys() { return deniedKeys; }
+    public Set<String> getAllowedKeys() { return allowedKeys; }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public static class Builder {
+        private int defaultMaxSeries = DEFAULT_MAX_SERIES_PER_INSTRUMENT;
+        private final Map<String, Integer> maxSeriesByInstrument = new HashMap<>();
+        private final Set<String> deniedKeys = new HashSet<>();
+        private final Set<String> allowedKeys = new HashSet<>();
+
+        private Builder() {
+        }
+
+        public Builder maxSeriesPerInstrument(int maxSeries) {
+            if (maxSeries < 1) {
+                throw new IllegalArgumentException("maxSeries must be >= 1");
+            }
+            this.defaultMaxSeries = maxSeries;
+            return this;
+        }
+
+        public Builder maxSeries(String instrumentName, int maxSeries) {
+            if (maxSeries < 1) {
+                throw new IllegalArgumentException("maxSeries must be >= 1");
+            }
+            this.maxSeriesByInstrument.put(instrumentName, maxSeries);
+            return this;
+        }
+
+        /**
+         * Eliminar una clave de atributo de todas las métricas
+         */
+        public Builder denyKey(String... keys) {
+            this.deniedKeys.addAll(Set.of(keys));
+            return this;
+        }
+
+        /**
+         * Conservar sólo estas claves de atributo (además de no estar denegadas)
+         */
+        public Builder allowKey(String... keys) {
+            this.allowedKeys.addAll(Set.of(keys));
+            return this;
+        }
+
+        public CardinalityLimits build() {
+            return new CardinalityLimits(this);
+        }
+    }
+}
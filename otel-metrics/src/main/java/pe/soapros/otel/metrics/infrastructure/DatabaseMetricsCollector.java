@@ -2,6 +2,7 @@ package pe.soapros.otel.metrics.infrastructure;
 
 import io.opentelemetry.api.common.AttributeKey;
 import io.opentelemetry.api.common.Attributes;
+import io.opentelemetry.api.metrics.Meter;
 import pe.soapros.otel.metrics.domain.MetricsService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -23,22 +24,41 @@ public class DatabaseMetricsCollector {
     
     private final MetricsService metricsService;
     private final String serviceName;
+    private final SloTracker sloTracker;
+    private final boolean ownsSloTracker;
     
-    // Contadores para tracking de conexiones y queries  
+    // Conexiones activas por pool (claves acotadas por la configuración de pools)
     private final ConcurrentHashMap<String, AtomicLong> connectionCounts = new ConcurrentHashMap<>();
-    private final ConcurrentHashMap<String, AtomicLong> queryCounts = new ConcurrentHashMap<>();
-    private final ThreadLocal<DatabaseOperationMetrics> currentOperation = new ThreadLocal<>();
     
+    // Operaciones/s por tabla en ventana deslizante (claves acotadas)
+    private final SlidingWindowRateTracker operationRates = new SlidingWindowRateTracker();
+    
+    /**
+     * Con un SloTracker propio; su gauge de burn rate se publica junto con el de rate
+     * en {@link #registerRateGauge}
+     */
     public DatabaseMetricsCollector(MetricsService metricsService, String serviceName) {
+        this(metricsService, serviceName, new SloTracker(metricsService, SloConfig.fromEnvironment()), true);
+    }
+    
+    public DatabaseMetricsCollector(MetricsService metricsService, String serviceName, SloTracker sloTracker) {
+        this(metricsService, serviceName, sloTracker, false);
+    }
+    
+    private DatabaseMetricsCollector(MetricsService metricsService, String serviceName, SloTracker sloTracker,
+                                     boolean ownsSloTracker) {
         this.metricsService = metricsService;
         this.serviceName = serviceName;
+        this.sloTracker = sloTracker;
+        this.ownsSloTracker = ownsSloTracker;
     }
     
     /**
-     * Inicia la medición de una operación de base de datos
+     * Inicia la medición de una operación de base de datos; terminarla con {@link DatabaseOperationTimer#end}
      */
-    public void startDatabaseOperation(String operation, String table, String database, String connectionPool) {
-        DatabaseOperationMetrics dbOperation = new DatabaseOperationMetrics(
+    public DatabaseOperationTimer startDatabaseOperation(String operation, String table, String database, String connectionPool) {
+        DatabaseOperationTimer dbOperation = new DatabaseOperationTimer(
+            this,
             operation,
             table,
             database,
@@ -46,8 +66,6 @@ public class DatabaseMetricsCollector {
             Instant.now()
         );
         
-        currentOperation.set(dbOperation);
-        
         // Counter de operaciones iniciadas
         Attributes startAttributes = buildDatabaseAttributes(operation, table, database, connectionPool, true, null);
         
@@ -58,52 +76,45 @@ public class DatabaseMetricsCollector {
             startAttributes
         );
         
-        // Actualizar contadores de queries
-        String queryKey = database + ":" + table + ":" + operation;
-        queryCounts.computeIfAbsent(queryKey, k -> new AtomicLong(0)).incrementAndGet();
+        // Actualizar rate tracking
+        operationRates.record(rateKey(operation, table, database));
         
         logger.debug("Started database operation metrics collection for {} on {}.{}", operation, database, table);
+        return dbOperation;
     }
     
     /**
-     * Finaliza la medición de una operación de base de datos
+     * Registra las métricas de fin de una operación (invocado una sola vez por el handle)
      */
-    public void endDatabaseOperation(boolean success, long recordsAffected, Throwable error) {
-        DatabaseOperationMetrics operation = currentOperation.get();
-        if (operation == null) {
-            logger.warn("No database operation metrics found for current thread");
-            return;
-        }
+    void completeDatabaseOperation(DatabaseOperationTimer operation, boolean success, long recordsAffected, Throwable error) {
+        Duration duration = Duration.between(operation.startTime, Instant.now());
+        
+        Attributes endAttributes = buildDatabaseAttributes(
+            operation.operation, 
+            operation.table, 
+            operation.database, 
+            operation.connectionPool,
+            success, 
+            error
+        );
         
-        try {
-            Duration duration = Duration.between(operation.startTime, Instant.now());
-            
-            Attributes endAttributes = buildDatabaseAttributes(
-                operation.operation, 
-                operation.table, 
-                operation.database, 
-                operation.connectionPool,
-                success, 
-                error
-            );
-            
-            // Métricas básicas de database
-            recordBasicDatabaseMetrics(operation, duration, success, recordsAffected, endAttributes);
-            
-            // Métricas de errores
-            if (!success || error != null) {
-                recordDatabaseErrorMetrics(operation, error, endAttributes);
-            }
-            
-            // Métricas de performance
-            recordDatabasePerformanceMetrics(operation, duration, recordsAffected, endAttributes);
-            
-            logger.debug("Completed database operation metrics for {} on {}.{} - {}ms - success: {}", 
-                         operation.operation, operation.database, operation.table, duration.toMillis(), success);
-            
-        } finally {
-            currentOperation.remove();
+        // Métricas básicas de database
+        recordBasicDatabaseMetrics(operation, duration, success, recordsAffected, endAttributes);
+        
+        // Métricas de errores
+        if (!success || error != null) {
+            recordDatabaseErrorMetrics(operation, error, endAttributes);
         }
+        
+        // Métricas de performance
+        recordDatabasePerformanceMetrics(operation, duration, recordsAffected, endAttributes);
+        
+        // SLO: una sola medición por operación (los fallos cuentan como malos)
+        sloTracker.recordDatabase(operation.operation, operation.table,
+            duration.toNanos() / 1_000_000.0, success && error == null);
+        
+        logger.debug("Completed database operation metrics for {} on {}.{} - {}ms - success: {}", 
+                     operation.operation, operation.database, operation.table, duration.toMillis(), success);
     }
     
     /**
@@ -167,7 +178,7 @@ public class DatabaseMetricsCollector {
         Attributes serviceAttributes = Attributes.builder()
             .put(AttributeKey.stringKey("external.service"), serviceName)
             .put(AttributeKey.stringKey("external.operation"), operation)
-            .put(AttributeKey.stringKey("external.endpoint"), endpoint)
+            .put(AttributeKey.stringKey("external.endpoint"), normalizeEndpoint(endpoint))
             .put(AttributeKey.booleanKey("external.success"), success)
             .put(AttributeKey.stringKey("service.name"), this.serviceName)
             .build();
@@ -222,7 +233,7 @@ public class DatabaseMetricsCollector {
     /**
      * Registra métricas básicas de database
      */
-    private void recordBasicDatabaseMetrics(DatabaseOperationMetrics operation, Duration duration, 
+    private void recordBasicDatabaseMetrics(DatabaseOperationTimer operation, Duration duration, 
                                           boolean success, long recordsAffected, Attributes attributes) {
         
         // Counter de operaciones completadas
@@ -272,7 +283,7 @@ public class DatabaseMetricsCollector {
     /**
      * Registra métricas de errores de database
      */
-    private void recordDatabaseErrorMetrics(DatabaseOperationMetrics operation, Throwable error, Attributes attributes) {
+    private void recordDatabaseErrorMetrics(DatabaseOperationTimer operation, Throwable error, Attributes attributes) {
         
         if (error != null) {
             Map<String, String> errorAttributes = Map.of(
@@ -299,7 +310,7 @@ public class DatabaseMetricsCollector {
     /**
      * Registra métricas de performance de database
      */
-    private void recordDatabasePerformanceMetrics(DatabaseOperationMetrics operation, Duration duration, 
+    private void recordDatabasePerformanceMetrics(DatabaseOperationTimer operation, Duration duration, 
                                                 long recordsAffected, Attributes attributes) {
         
         double durationMs = duration.toNanos() / 1_000_000.0;
@@ -328,12 +339,6 @@ public class DatabaseMetricsCollector {
                 attributes
             );
         }
-        
-        // Rate por tabla y operación
-        recordTableOperationRateMetrics(operation);
-        
-        // Métricas de SLA de database
-        recordDatabaseSlaMetrics(operation, durationMs);
     }
     
     /**
@@ -433,76 +438,6 @@ public class DatabaseMetricsCollector {
         );
     }
     
-    /**
-     * Registra métricas de rate por tabla y operación
-     */
-    private void recordTableOperationRateMetrics(DatabaseOperationMetrics operation) {
-        String queryKey = operation.database + ":" + operation.table + ":" + operation.operation;
-        AtomicLong count = queryCounts.get(queryKey);
-        
-        if (count != null) {
-            metricsService.recordGauge(
-                "db.table.operation_count", 
-                "Current operation count for database table", 
-                count.get(), 
-                Map.of(
-                    "db.operation", operation.operation,
-                    "db.table", operation.table,
-                    "db.name", operation.database,
-                    "service.name", serviceName
-                )
-            );
-        }
-    }
-    
-    /**
-     * Registra métricas de SLA de database
-     */
-    private void recordDatabaseSlaMetrics(DatabaseOperationMetrics operation, double durationMs) {
-        // SLA típicos: SELECT < 100ms, INSERT/UPDATE < 200ms, DELETE < 300ms
-        boolean withinSla = false;
-        
-        switch (operation.operation.toUpperCase()) {
-            case "SELECT":
-            case "FIND":
-                withinSla = durationMs < 100.0;
-                break;
-            case "INSERT":
-            case "UPDATE":
-            case "SAVE":
-                withinSla = durationMs < 200.0;
-                break;
-            case "DELETE":
-                withinSla = durationMs < 300.0;
-                break;
-            default:
-                withinSla = durationMs < 500.0;
-        }
-        
-        Map<String, String> slaAttributes = Map.of(
-            "db.operation", operation.operation,
-            "db.table", operation.table,
-            "db.name", operation.database,
-            "service.name", serviceName
-        );
-        
-        if (withinSla) {
-            metricsService.incrementCounter(
-                "db.operations.within_sla.total", 
-                "Database operations within SLA", 
-                1L, 
-                slaAttributes
-            );
-        } else {
-            metricsService.incrementCounter(
-                "db.operations.sla_violation.total", 
-                "Database operations that violated SLA", 
-                1L, 
-                slaAttributes
-            );
-        }
-    }
-    
     // ===== MÉTODOS UTILITARIOS =====
     
     private Attributes buildDatabaseAttributes(String operation, String table, String database, 
@@ -526,6 +461,13 @@ public class DatabaseMetricsCollector {
         return builder.build();
     }
     
+    /**
+     * Quitar query string e ids del endpoint (ej: /orders/123?x=1 -> /orders/{id})
+     */
+    private String normalizeEndpoint(String endpoint) {
+        return HttpAttributeTemplates.normalizeRoute(endpoint);
+    }
+    
     private String classifyDatabaseLatency(double durationMs) {
         if (durationMs < 10) return "ultra_fast";
         if (durationMs < 50) return "fast";
@@ -583,7 +525,7 @@ public class DatabaseMetricsCollector {
         Map<String, String> attributes = new java.util.HashMap<>(additionalAttributes);
         attributes.put("service.name", serviceName);
         
-        DatabaseOperationMetrics operation = currentOperation.get();
+        DatabaseOperationTimer operation = DatabaseOperationTimer.current();
         if (operation != null) {
             attributes.put("db.operation", operation.operation);
             attributes.put("db.table", operation.table);
@@ -598,12 +540,41 @@ public class DatabaseMetricsCollector {
         );
     }
     
+    /**
+     * Publicar operaciones/s por tabla como gauge observable db.table.operation_rate,
+     * y el burn rate si el SloTracker es propio del collector
+     */
+    public void registerRateGauge(Meter meter) {
+        operationRates.registerGauge(meter, "db.table.operation_rate", "Database operations per second by table (sliding window)");
+        if (ownsSloTracker) {
+            sloTracker.registerBurnRateGauge(meter);
+        }
+    }
+    
+    /**
+     * Dar de baja los gauges del collector (al descartarlo)
+     */
+    public void closeRateGauge() {
+        operationRates.close();
+        if (ownsSloTracker) {
+            sloTracker.close();
+        }
+    }
+    
+    private Attributes rateKey(String operation, String table, String database) {
+        return Attributes.of(
+            AttributeKey.stringKey("db.operation"), operation,
+            AttributeKey.stringKey("db.table"), table,
+            AttributeKey.stringKey("db.name"), database
+        );
+    }
+    
     /**
      * Limpia los contadores (útil para testing)
      */
     public void clearCounters() {
         connectionCounts.clear();
-        queryCounts.clear();
+        operationRates.clear();
     }
     
     /**
@@ -616,30 +587,8 @@ public class DatabaseMetricsCollector {
         connectionCounts.forEach((pool, count) -> connections.put(pool, count.get()));
         stats.put("connections", connections);
         
-        Map<String, Long> queries = new java.util.HashMap<>();
-        queryCounts.forEach((query, count) -> queries.put(query, count.get()));
-        stats.put("queries", queries);
+        stats.put("operation_rates", operationRates.getRates());
         
         return stats;
     }
-    
-    /**
-     * Clase interna para mantener métricas de operación actual
-     */
-    private static class DatabaseOperationMetrics {
-        final String operation;
-        final String table;
-        final String database;
-        final String connectionPool;
-        final Instant startTime;
-        
-        DatabaseOperationMetrics(String operation, String table, String database, 
-                               String connectionPool, Instant startTime) {
-            this.operation = operation;
-            this.table = table;
-            this.database = database;
-            this.connectionPool = connectionPool;
-            this.startTime = startTime;
-        }
-    }
-}
\ No newline at end of file
+}
@@ -0,0 +1,81 @@
+package pe.soapros.otel.metrics.infrastructure;
+
+import io.opentelemetry.context.Context;
+import io.opentelemetry.context.ContextKey;
+import io.opentelemetry.context.ImplicitContextKeyed;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Operación de base de datos en curso devuelta por {@link DatabaseMetricsCollector#startDatabaseOperation}.
+ * Cada operación tiene su propio handle, por lo que las operaciones anidadas no se pisan.
+ *
+ * El handle no depende del hilo: se puede terminar desde otro hilo (CompletableFuture,
+ * virtual threads). Para recuperarlo sin pasarlo explícitamente, guardarlo en el
+ * contexto de OpenTelemetry con {@code makeCurrent()} y leerlo con {@link #current()}.
+ */
+public final class DatabaseOperationTimer implements ImplicitContextKeyed {
+
+    private static final ContextKey<DatabaseOperationTimer> CONTEXT_KEY =
+            ContextKey.named("pe.soapros.otel.metrics.db-operation");
+
+    private final DatabaseMetricsCollector collector;
+    private final AtomicBoolean ended = new AtomicBoolean(false);
+
+    final String operation;
+    final String table;
+    final String database;
+    final String connectionPool;
+    final Instant startTime;
+
+    DatabaseOperationTimer(DatabaseMetricsCollector collector, String operation, String table,
+                           String database, String connectionPool, Instant startTime) {
+        this.collector = collector;
+        this.operation = operation;
+        this.table = table;
+        this.database = database;
+        this.connectionPool = connectionPool;
+        this.startTime = startTime;
+    }
+
+    /**
+     * Registra las métricas de fin; solo la primera llamada tiene efecto
+     */
+    public void end(boolean success, long recordsAffected, Throwable error) {
+        if (ended.compareAndSet(false, true)) {
+            collector.completeDatabaseOperation(this, success, recordsAffected, error);
+        }
+    }
+
+    public boolean isEnded() {
+        return ended.get();
+    }
+
+    public Duration elapsed() {
+        return Duration.between(startTime, Instant.now());
+    }
+
+    public String getOperation() { return operation; }
+    public String getTable() { return table; }
+    public String getDatabase() { return database; }
+    public String getConnectionPool() { return connectionPool; }
+    public Instant getStartTime() { return startTime; }
+
+    @Override
+    public Context storeInContext(Context context) {
+        return context.with(CONTEXT_KEY, this);
+    }
+
+    /**
+     * Handle guardado en el contexto actual, o null
+     */
+    public static DatabaseOperationTimer current() {
+        return fromContext(Context.current());
+    }
+
+    public static DatabaseOperationTimer fromContext(Context context) {
+        return context.get(CONTEXT_KEY);
+    }
+}
@@ -0,0 +1,306 @@
+package pe.soapros.otel.metrics.infrastructure;
+
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.api.common.Attributes;
+
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Cache de {@link Attributes} inmutables para las métricas HTTP, por
+ * (método, ruta, status code, tipo de error).
+ *
+ * Cada plantilla precalcula las variantes que usa el colector (bucket de latencia, clase de
+ * tamaño, excepción), así que tras el warmup una request no construye atributos. La ruta se
+ * normaliza antes de buscar y el mapa sólo guarda rutas normalizadas: ids crudos distintos no
+ * ocupan plantillas. La búsqueda usa una clave reutilizable por hilo y una ruta ya normalizada
+ * (p.ej. la plantilla de API Gateway) se devuelve tal cual, así que un acierto no asigna memoria.
+ *
+ * Pasado {@code maxTemplates}, las rutas nuevas comparten la plantilla de ruta
+ * {@value #OVERFLOW_ROUTE} de su (método, status, error) en lugar de crear una por request.
+ */
+final class HttpAttributeTemplates {
+
+    static final int DEFAULT_MAX_TEMPLATES = 2048;
+    static final String OVERFLOW_ROUTE = "other";
+
+    static final AttributeKey<String> HTTP_METHOD = AttributeKey.stringKey("http.method");
+    static final AttributeKey<String> HTTP_ROUTE = AttributeKey.stringKey("http.route");
+    static final AttributeKey<Long> HTTP_STATUS_CODE = AttributeKey.longKey("http.status_code");
+    static final AttributeKey<String> HTTP_STATUS_CLASS = AttributeKey.stringKey("http.status_class");
+    static final AttributeKey<String> SERVICE_NAME = AttributeKey.stringKey("service.name");
+    static final AttributeKey<String> ERROR_TYPE = AttributeKey.stringKey("error.type");
+    static final AttributeKey<String> LATENCY_BUCKET = AttributeKey.stringKey("latency.bucket");
+    static final AttributeKey<String> SIZE_CLASS = AttributeKey.stringKey("request.size_class");
+
+    static final String[] LATENCY_BUCKETS = {"ultra_fast", "fast", "normal", "slow", "very_slow", "extremely_slow"};
+    static final String[] SIZE_CLASSES = {"small", "medium", "large", "very_large", "huge"};
+
+    private static final String ID_PLACEHOLDER = "{id}";
+    private static final String UUID_PLACEHOLDER = "{uuid}";
+    private static final int UUID_LENGTH = 36;
+
+    // Clave de búsqueda por hilo; las claves guardadas en los mapas son copias que no cambian
+    private static final ThreadLocal<Key> LOOKUP_KEY = ThreadLocal.withInitial(Key::new);
+
+    private static final class Key {
+        private String method;
+        private String route;
+        private int statusCode;
+        private String errorType;
+        private int hash;
+
+        private Key() {
+        }
+
+        private Key(String method, String route, int statusCode, String errorType) {
+            set(method, route, statusCode, errorType);
+        }
+
+        Key set(String method, String route, int statusCode, String errorType) {
+            this.method = method;
+            this.route = route;
+            this.statusCode = statusCode;
+            this.errorType = errorType;
+            // Sin Objects.hash: su varargs asignaría en cada búsqueda
+            int h = Objects.hashCode(method);
+            h = 31 * h + Objects.hashCode(route);
+            h = 31 * h + statusCode;
+            this.hash = 31 * h + Objects.hashCode(errorType);
+            return this;
+        }
+
+        Key copy() {
+            return new Key(method, route, statusCode, errorType);
+        }
+
+        String method() { return method; }
+        String route() { return route; }
+        int statusCode() { return statusCode; }
+        String errorType() { return errorType; }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Key other
+                && statusCode == other.statusCode
+                && Objects.equals(method, other.method)
+                && Objects.equals(route, other.route)
+                && Objects.equals(errorType, other.errorType);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+
+    /** Atributos de una combinación y sus variantes precalculadas */
+    static final class Template {
+        final Attributes attributes;
+        /** Sólo método y ruta (clave del rate tracker) */
+        final Attributes routeAttributes;
+        /** Método, ruta, tipo de error y servicio; null si no hay error */
+        final Attributes exceptionAttributes;
+        private final Attributes[] byLatency;
+        private final Attributes[] bySize;
+
+        private Template(Attributes attributes, Attributes routeAttributes, Attributes exceptionAttributes,
+                         boolean completed) {
+            this.attributes = attributes;
+            this.routeAttributes = routeAttributes;
+            this.exceptionAttributes = exceptionAttributes;
+            // Las variantes sólo se usan al terminar la request
+            this.byLatency = completed ? withEach(attributes, LATENCY_BUCKET, LATENCY_BUCKETS) : null;
+            this.bySize = completed ? withEach(attributes, SIZE_CLASS, SIZE_CLASSES) : null;
+        }
+
+        /** Ruta normalizada, la misma que llevan los atributos */
+        String route() {
+            return routeAttributes.get(HTTP_ROUTE);
+        }
+
+        Attributes withLatencyBucket(int bucket) {
+            return byLatency[bucket];
+        }
+
+        Attributes withSizeClass(int sizeClass) {
+            return bySize[sizeClass];
+        }
+
+        private static Attributes[] withEach(Attributes base, AttributeKey<String> key, String[] values) {
+            Attributes[] result = new Attributes[values.length];
+            for (int i = 0; i < values.length; i++) {
+                result[i] = base.toBuilder().put(key, values[i]).build();
+            }
+            return result;
+        }
+    }
+
+    private final String serviceName;
+    private final int maxTemplates;
+    // Sólo rutas normalizadas: acotado por maxTemplates aunque lleguen ids crudos
+    private final ConcurrentHashMap<Key, Template> templates = new ConcurrentHashMap<>();
+    // Plantillas de ruta OVERFLOW_ROUTE, una por (método, status, error)
+    private final ConcurrentHashMap<Key, Template> overflow = new ConcurrentHashMap<>();
+
+    HttpAttributeTemplates(String serviceName) {
+        this(serviceName, DEFAULT_MAX_TEMPLATES);
+    }
+
+    HttpAttributeTemplates(String serviceName, int maxTemplates) {
+        this.serviceName = serviceName;
+        this.maxTemplates = maxTemplates;
+    }
+
+    /**
+     * Plantilla para (método, ruta, status, error). statusCode 0 = inicio de request.
+     */
+    Template get(String method, String route, int statusCode, Throwable error) {
+        String errorType = error != null ? error.getClass().getSimpleName() : null;
+        Key lookup = LOOKUP_KEY.get().set(method, normalizeRoute(route), statusCode, errorType);
+        Template template = templates.get(lookup);
+        if (template != null) {
+            lookup.set(null, null, 0, null);
+            return template;
+        }
+        Key key = lookup.copy();
+        lookup.set(null, null, 0, null);
+
+        if (templates.size() >= maxTemplates) {
+            return overflow.computeIfAbsent(new Key(method, OVERFLOW_ROUTE, statusCode, errorType), this::create);
+        }
+        return templates.computeIfAbsent(key, this::create);
+    }
+
+    private Template create(Key key) {
+        var builder = Attributes.builder()
+            .put(HTTP_METHOD, key.method())
+            .put(HTTP_ROUTE, key.route())
+            .put(SERVICE_NAME, serviceName);
+
+        if (key.statusCode() > 0) {
+            builder.put(HTTP_STATUS_CODE, key.statusCode());
+            builder.put(HTTP_STATUS_CLASS, statusClass(key.statusCode()));
+        }
+
+        Attributes exceptionAttributes = null;
+        if (key.errorType() != null) {
+            builder.put(ERROR_TYPE, key.errorType());
+            exceptionAttributes = Attributes.of(
+                HTTP_METHOD, key.method(),
+                HTTP_ROUTE, key.route(),
+                ERROR_TYPE, key.errorType(),
+                SERVICE_NAME, serviceName
+            );
+        }
+
+        return new Template(
+            builder.build(),
+            Attributes.of(HTTP_METHOD, key.method(), HTTP_ROUTE, key.route()),
+            exceptionAttributes,
+            key.statusCode() > 0
+        );
+    }
+
+    int size() {
+        return templates.size();
+    }
+
+    void clear() {
+        templates.clear();
+        overflow.clear();
+    }
+
+    // ===== MÉTODOS UTILITARIOS =====
+
+    /**
+     * Quitar query string e ids de la ruta (ej: /orders/123?x=1 -> /orders/{id}).
+     * Recorre la ruta una vez sin regex; si no hay nada que cambiar devuelve la misma instancia.
+     */
+    static String normalizeRoute(String route) {
+        if (route == null || route.isEmpty()) return "unknown";
+
+        int queryStart = route.indexOf('?');
+        int end = queryStart >= 0 ? queryStart : route.length();
+
+        StringBuilder normalized = null;
+        int segmentStart = 0;
+        while (segmentStart < end) {
+            int slash = route.indexOf('/', segmentStart + 1);
+            int segmentEnd = slash >= 0 && slash < end ? slash : end;
+
+            String placeholder = route.charAt(segmentStart) == '/'
+                ? placeholderFor(route, segmentStart + 1, segmentEnd)
+                : null;
+            if (placeholder != null) {
+                if (normalized == null) {
+                    normalized = new StringBuilder(end + 8).append(route, 0, segmentStart);
+                }
+                normalized.append('/').append(placeholder);
+            } else if (normalized != null) {
+                normalized.append(route, segmentStart, segmentEnd);
+            }
+            segmentStart = segmentEnd;
+        }
+
+        if (normalized != null) {
+            return normalized.toString();
+        }
+        return end == route.length() ? route : route.substring(0, end);
+    }
+
+    /**
+     * {id} si el segmento [start, end) es numérico, {uuid} si tiene forma de UUID, null si no
+     */
+    private static String placeholderFor(String route, int start, int end) {
+        if (start >= end) {
+            return null;
+        }
+        boolean numeric = true;
+        for (int i = start; i < end && numeric; i++) {
+            char c = route.charAt(i);
+            numeric = c >= '0' && c <= '9';
+        }
+        if (numeric) {
+            return ID_PLACEHOLDER;
+        }
+        return end - start == UUID_LENGTH && isUuid(route, start) ? UUID_PLACEHOLDER : null;
+    }
+
+    private static boolean isUuid(String route, int start) {
+        for (int i = 0; i < UUID_LENGTH; i++) {
+            char c = route.charAt(start + i);
+            boolean dash = i == 8 || i == 13 || i == 18 || i == 23;
+            boolean hex = (c >= '0' && c <= '9') || (c >= 'a' && c <= 'f') || (c >= 'A' && c <= 'F');
+            if (dash ? c != '-' : !hex) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    static String statusClass(int statusCode) {
+        if (statusCode >= 200 && statusCode < 300) return "2xx";
+        if (statusCode >= 300 && statusCode < 400) return "3xx";
+        if (statusCode >= 400 && statusCode < 500) return "4xx";
+        if (statusCode >= 500) return "5xx";
+        return "1xx";
+    }
+
+    static int latencyBucket(double durationMs) {
+        if (durationMs < 10) return 0;
+        if (durationMs < 50) return 1;
+        if (durationMs < 200) return 2;
+        if (durationMs < 500) return 3;
+        if (durationMs < 1000) return 4;
+        return 5;
+    }
+
+    static int sizeClass(long bytes) {
+        if (bytes < 1024) return 0;           // < 1KB
+        if (bytes < 10240) return 1;          // < 10KB
+        if (bytes < 102400) return 2;         // < 100KB
+        if (bytes < 1048576) return 3;        // < 1MB
+        return 4;                             // >= 1MB
+    }
+}
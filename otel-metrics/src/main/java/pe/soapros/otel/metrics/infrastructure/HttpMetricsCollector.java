@@ -1,7 +1,7 @@
 package pe.soapros.otel.metrics.infrastructure;
 
-import io.opentelemetry.api.common.AttributeKey;
 import io.opentelemetry.api.common.Attributes;
+import io.opentelemetry.api.metrics.Meter;
 import pe.soapros.otel.metrics.domain.MetricsService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -9,8 +9,6 @@ import org.slf4j.LoggerFactory;
 import java.time.Duration;
 import java.time.Instant;
 import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Colector especializado de métricas para operaciones HTTP/REST.
@@ -22,21 +20,42 @@ public class HttpMetricsCollector {
     
     private final MetricsService metricsService;
     private final String serviceName;
+    private final SloTracker sloTracker;
+    private final boolean ownsSloTracker;
     
-    // Contadores para rate tracking
-    private final ConcurrentHashMap<String, AtomicLong> requestCounts = new ConcurrentHashMap<>();
-    private final ThreadLocal<HttpRequestMetrics> currentRequest = new ThreadLocal<>();
+    // Requests/s por ruta en ventana deslizante (claves acotadas)
+    private final SlidingWindowRateTracker requestRates = new SlidingWindowRateTracker();
     
+    // Atributos precalculados por (método, ruta, status, error)
+    private final HttpAttributeTemplates attributeTemplates;
+    
+    /**
+     * Con un SloTracker propio; su gauge de burn rate se publica junto con el de rate
+     * en {@link #registerRateGauge}
+     */
     public HttpMetricsCollector(MetricsService metricsService, String serviceName) {
+        this(metricsService, serviceName, new SloTracker(metricsService, SloConfig.fromEnvironment()), true);
+    }
+    
+    public HttpMetricsCollector(MetricsService metricsService, String serviceName, SloTracker sloTracker) {
+        this(metricsService, serviceName, sloTracker, false);
+    }
+    
+    private HttpMetricsCollector(MetricsService metricsService, String serviceName, SloTracker sloTracker,
+                                 boolean ownsSloTracker) {
         this.metricsService = metricsService;
         this.serviceName = serviceName;
+        this.sloTracker = sloTracker;
+        this.ownsSloTracker = ownsSloTracker;
+        this.attributeTemplates = new HttpAttributeTemplates(serviceName);
     }
     
     /**
-     * Inicia la medición de una request HTTP
+     * Inicia la medición de una request HTTP; terminarla con {@link HttpRequestTimer#end}
      */
-    public void startRequest(String method, String route, String userAgent, String clientIp) {
-        HttpRequestMetrics request = new HttpRequestMetrics(
+    public HttpRequestTimer startRequest(String method, String route, String userAgent, String clientIp) {
+        HttpRequestTimer request = new HttpRequestTimer(
+            this,
             method,
             route,
             userAgent,
@@ -44,73 +63,59 @@ public class HttpMetricsCollector {
             Instant.now()
         );
         
-        currentRequest.set(request);
-        
         // Counter de requests iniciadas
-        Attributes startAttributes = buildHttpAttributes(method, route, 0, null);
+        HttpAttributeTemplates.Template startTemplate = attributeTemplates.get(method, route, 0, null);
         
         metricsService.incrementCounter(
             "http.requests.started.total", 
             "Total HTTP requests started", 
             1L, 
-            startAttributes
+            startTemplate.attributes
         );
         
         // Actualizar rate tracking
-        String routeKey = method + ":" + route;
-        requestCounts.computeIfAbsent(routeKey, k -> new AtomicLong(0)).incrementAndGet();
+        requestRates.record(startTemplate.routeAttributes);
         
         logger.debug("Started HTTP request metrics collection for {} {}", method, route);
+        return request;
     }
     
     /**
-     * Finaliza la medición de una request HTTP
+     * Registra las métricas de fin de una request (invocado una sola vez por el handle)
      */
-    public void endRequest(int statusCode, long requestSize, long responseSize, Throwable error) {
-        HttpRequestMetrics request = currentRequest.get();
-        if (request == null) {
-            logger.warn("No HTTP request metrics found for current thread");
-            return;
-        }
+    void completeRequest(HttpRequestTimer request, int statusCode, long requestSize, long responseSize, Throwable error) {
+        Duration duration = Duration.between(request.startTime, Instant.now());
+        boolean isError = statusCode >= 400 || error != null;
+        
+        HttpAttributeTemplates.Template endTemplate = attributeTemplates.get(
+            request.method, 
+            request.route, 
+            statusCode, 
+            error
+        );
         
-        try {
-            Duration duration = Duration.between(request.startTime, Instant.now());
-            boolean isError = statusCode >= 400 || error != null;
-            
-            Attributes endAttributes = buildHttpAttributes(
-                request.method, 
-                request.route, 
-                statusCode, 
-                error
-            );
-            
-            // Métricas básicas de HTTP
-            recordBasicHttpMetrics(request, duration, statusCode, requestSize, responseSize, endAttributes);
-            
-            // Métricas de errores
-            if (isError) {
-                recordHttpErrorMetrics(request, statusCode, error, endAttributes);
-            }
-            
-            // Métricas de performance
-            recordHttpPerformanceMetrics(request, duration, statusCode, endAttributes);
-            
-            // Métricas de tamaño
-            recordHttpSizeMetrics(request, requestSize, responseSize, endAttributes);
-            
-            logger.debug("Completed HTTP request metrics for {} {} - {}ms - status: {}", 
-                         request.method, request.route, duration.toMillis(), statusCode);
-            
-        } finally {
-            currentRequest.remove();
+        // Métricas básicas de HTTP
+        recordBasicHttpMetrics(duration, endTemplate.attributes);
+        
+        // Métricas de errores
+        if (isError) {
+            recordHttpErrorMetrics(statusCode, error, endTemplate);
         }
+        
+        // Métricas de performance
+        recordHttpPerformanceMetrics(request, duration, statusCode, endTemplate);
+        
+        // Métricas de tamaño
+        recordHttpSizeMetrics(requestSize, responseSize, endTemplate);
+        
+        logger.debug("Completed HTTP request metrics for {} {} - {}ms - status: {}", 
+                     request.method, request.route, duration.toMillis(), statusCode);
     }
     
     /**
      * Registra métricas básicas de HTTP
      */
-    private void recordBasicHttpMetrics(HttpRequestMetrics request, Duration duration, int statusCode, 
-                                      long requestSize, long responseSize, Attributes attributes) {
+    private void recordBasicHttpMetrics(Duration duration, Attributes attributes) {
         
         // Counter de requests completadas
         metricsService.incrementCounter(
@@ -128,24 +133,20 @@ public class HttpMetricsCollector {
             attributes
         );
         
-        // Counter por status class
-        String statusClass = getStatusClass(statusCode);
-        Attributes statusAttributes = attributes.toBuilder()
-            .put(AttributeKey.stringKey("http.status_class"), statusClass)
-            .build();
-            
+        // Counter por status class (los atributos ya incluyen http.status_class)
         metricsService.incrementCounter(
             "http.responses.by_status_class.total", 
             "HTTP responses by status class", 
             1L, 
-            statusAttributes
+            attributes
         );
     }
     
     /**
      * Registra métricas de errores HTTP
      */
-    private void recordHttpErrorMetrics(HttpRequestMetrics request, int statusCode, Throwable error, Attributes attributes) {
+    private void recordHttpErrorMetrics(int statusCode, Throwable error, HttpAttributeTemplates.Template template) {
+        Attributes attributes = template.attributes;
         
         // Counter de errores generales
         metricsService.incrementCounter(
@@ -174,12 +175,7 @@ public class HttpMetricsCollector {
         
         // Métricas de excepciones específicas
         if (error != null) {
-            Map<String, String> errorAttributes = Map.of(
-                "http.method", request.method,
-                "http.route", request.route,
-                "error.type", error.getClass().getSimpleName(),
-                "service.name", serviceName
-            );
+            Attributes errorAttributes = template.exceptionAttributes;
             
             metricsService.incrementCounter(
                 "http.requests.exceptions.total", 
@@ -196,35 +192,29 @@ public class HttpMetricsCollector {
     /**
      * Registra métricas de performance HTTP
      */
-    private void recordHttpPerformanceMetrics(HttpRequestMetrics request, Duration duration, int statusCode, Attributes attributes) {
+    private void recordHttpPerformanceMetrics(HttpRequestTimer request, Duration duration, int statusCode,
+                                              HttpAttributeTemplates.Template template) {
         
         // Histogram de latencia por percentiles
         double durationMs = duration.toNanos() / 1_000_000.0;
         
         // Clasificar por rangos de latencia
-        String latencyBucket = classifyLatency(durationMs);
-        Attributes latencyAttributes = attributes.toBuilder()
-            .put(AttributeKey.stringKey("latency.bucket"), latencyBucket)
-            .build();
-            
         metricsService.incrementCounter(
             "http.requests.by_latency.total", 
             "HTTP requests by latency bucket", 
             1L, 
-            latencyAttributes
+            template.withLatencyBucket(HttpAttributeTemplates.latencyBucket(durationMs))
         );
         
-        // Métricas de SLA
-        recordSlaMetrics(request, durationMs, statusCode);
-        
-        // Rate por ruta
-        recordRouteRateMetrics(request);
+        // SLO: una sola medición por request, con los atributos (método, ruta normalizada) de la plantilla
+        sloTracker.recordHttp(template.routeAttributes, durationMs, statusCode);
     }
     
     /**
      * Registra métricas de tamaño HTTP
      */
-    private void recordHttpSizeMetrics(HttpRequestMetrics request, long requestSize, long responseSize, Attributes attributes) {
+    private void recordHttpSizeMetrics(long requestSize, long responseSize, HttpAttributeTemplates.Template template) {
+        Attributes attributes = template.attributes;
         
         if (requestSize > 0) {
             metricsService.recordHistogram(
@@ -235,16 +225,11 @@ public class HttpMetricsCollector {
             );
             
             // Clasificar por tamaño de request
-            String sizeClass = classifyRequestSize(requestSize);
-            Attributes sizeAttributes = attributes.toBuilder()
-                .put(AttributeKey.stringKey("request.size_class"), sizeClass)
-                .build();
-                
             metricsService.incrementCounter(
                 "http.requests.by_size.total", 
                 "HTTP requests by size class", 
                 1L, 
-                sizeAttributes
+                template.withSizeClass(HttpAttributeTemplates.sizeClass(requestSize))
             );
         }
         
@@ -271,7 +256,7 @@ public class HttpMetricsCollector {
     /**
      * Registra métricas específicas por tipo de excepción
      */
-    private void recordSpecificExceptionMetrics(Throwable error, Map<String, String> baseAttributes) {
+    private void recordSpecificExceptionMetrics(Throwable error, Attributes baseAttributes) {
         
         if (isTimeoutException(error)) {
             metricsService.incrementCounter(
@@ -297,126 +282,8 @@ public class HttpMetricsCollector {
         }
     }
     
-    /**
-     * Registra métricas de SLA
-     */
-    private void recordSlaMetrics(HttpRequestMetrics request, double durationMs, int statusCode) {
-        // SLA típicos: 95% de requests < 200ms, 99% < 500ms
-        boolean withinSla200 = durationMs < 200.0;
-        boolean withinSla500 = durationMs < 500.0;
-        boolean withinSla1000 = durationMs < 1000.0;
-        
-        Map<String, String> slaAttributes = Map.of(
-            "http.method", request.method,
-            "http.route", request.route,
-            "service.name", serviceName
-        );
-        
-        if (withinSla200) {
-            metricsService.incrementCounter(
-                "http.requests.sla_200ms.total", 
-                "HTTP requests within 200ms SLA", 
-                1L, 
-                slaAttributes
-            );
-        }
-        
-        if (withinSla500) {
-            metricsService.incrementCounter(
-                "http.requests.sla_500ms.total", 
-                "HTTP requests within 500ms SLA", 
-                1L, 
-                slaAttributes
-            );
-        }
-        
-        if (withinSla1000) {
-            metricsService.incrementCounter(
-                "http.requests.sla_1000ms.total", 
-                "HTTP requests within 1000ms SLA", 
-                1L, 
-                slaAttributes
-            );
-        }
-        
-        // Métricas de éxito combinado (status + latencia)
-        boolean isSuccess = statusCode >= 200 && statusCode < 400 && withinSla500;
-        if (isSuccess) {
-            metricsService.incrementCounter(
-                "http.requests.success_with_sla.total", 
-                "HTTP requests successful and within SLA", 
-                1L, 
-                slaAttributes
-            );
-        }
-    }
-    
-    /**
-     * Registra métricas de rate por ruta
-     */
-    private void recordRouteRateMetrics(HttpRequestMetrics request) {
-        String routeKey = request.method + ":" + request.route;
-        AtomicLong count = requestCounts.get(routeKey);
-        
-        if (count != null) {
-            metricsService.recordGauge(
-                "http.route.request_count", 
-                "Current request count for HTTP route", 
-                count.get(), 
-                Map.of(
-                    "http.method", request.method,
-                    "http.route", request.route,
-                    "service.name", serviceName
-                )
-            );
-        }
-    }
-    
     // ===== MÉTODOS UTILITARIOS =====
     
-    private Attributes buildHttpAttributes(String method, String route, int statusCode, Throwable error) {
-        var builder = Attributes.builder()
-            .put(AttributeKey.stringKey("http.method"), method)
-            .put(AttributeKey.stringKey("http.route"), route)
-            .put(AttributeKey.stringKey("service.name"), serviceName);
-        
-        if (statusCode > 0) {
-            builder.put(AttributeKey.longKey("http.status_code"), statusCode);
-            builder.put(AttributeKey.stringKey("http.status_class"), getStatusClass(statusCode));
-        }
-        
-        if (error != null) {
-            builder.put(AttributeKey.stringKey("error.type"), error.getClass().getSimpleName());
-        }
-        
-        return builder.build();
-    }
-    
-    private String getStatusClass(int statusCode) {
-        if (statusCode >= 200 && statusCode < 300) return "2xx";
-        if (statusCode >= 300 && statusCode < 400) return "3xx";
-        if (statusCode >= 400 && statusCode < 500) return "4xx";
-        if (statusCode >= 500) return "5xx";
-        return "1xx";
-    }
-    
-    private String classifyLatency(double durationMs) {
-        if (durationMs < 10) return "ultra_fast";
-        if (durationMs < 50) return "fast";
-        if (durationMs < 200) return "normal";
-        if (durationMs < 500) return "slow";
-        if (durationMs < 1000) return "very_slow";
-        return "extremely_slow";
-    }
-    
-    private String classifyRequestSize(long bytes) {
-        if (bytes < 1024) return "small";           // < 1KB
-        if (bytes < 10240) return "medium";         // < 10KB
-        if (bytes < 102400) return "large";         // < 100KB
-        if (bytes < 1048576) return "very_large";   // < 1MB
-        return "huge";                              // >= 1MB
-    }
-    
     private boolean isTimeoutException(Throwable error) {
         return error instanceof InterruptedException ||
                (error.getMessage() != null && error.getMessage().toLowerCase().contains("timeout"));
@@ -444,7 +311,7 @@ public class HttpMetricsCollector {
         attributes.put("http.endpoint", endpointName);
         attributes.put("service.name", serviceName);
         
-        HttpRequestMetrics request = currentRequest.get();
+        HttpRequestTimer request = HttpRequestTimer.current();
         if (request != null) {
             attributes.put("http.method", request.method);
             attributes.put("http.route", request.route);
@@ -458,38 +325,49 @@ public class HttpMetricsCollector {
         );
     }
     
+    /**
+     * Publicar requests/s por ruta como gauge observable http.route.request_rate,
+     * y el burn rate si el SloTracker es propio del collector
+     */
+    public void registerRateGauge(Meter meter) {
+        requestRates.registerGauge(meter, "http.route.request_rate", "HTTP requests per second by route (sliding window)");
+        if (ownsSloTracker) {
+            sloTracker.registerBurnRateGauge(meter);
+        }
+    }
+    
+    /**
+     * Dar de baja los gauges del collector (al descartarlo)
+     */
+    public void closeRateGauge() {
+        requestRates.close();
+        if (ownsSloTracker) {
+            sloTracker.close();
+        }
+    }
+    
     /**
      * Limpia los contadores de rate (útil para testing)
      */
     public void clearRateCounters() {
-        requestCounts.clear();
+        requestRates.clear();
+        attributeTemplates.clear();
     }
     
     /**
-     * Obtiene estadísticas de los contadores de rate
+     * Requests por "método:ruta" en la ventana deslizante (ya no son totales acumulados)
+     *
+     * @deprecated usar {@link #getRequestRates()}
      */
+    @Deprecated
     public Map<String, Long> getRateCounterStats() {
-        Map<String, Long> stats = new java.util.HashMap<>();
-        requestCounts.forEach((route, count) -> stats.put(route, count.get()));
-        return stats;
+        return requestRates.getCounts();
     }
     
     /**
-     * Clase interna para mantener métricas de request actual
+     * Requests/s actuales por "método:ruta"
      */
-    private static class HttpRequestMetrics {
-        final String method;
-        final String route;
-        final String userAgent;
-        final String clientIp;
-        final Instant startTime;
-        
-        HttpRequestMetrics(String method, String route, String userAgent, String clientIp, Instant startTime) {
-            this.method = method;
-            this.route = route;
-            this.userAgent = userAgent;
-            this.clientIp = clientIp;
-            this.startTime = startTime;
-        }
+    public Map<String, Double> getRequestRates() {
+        return requestRates.getRates();
     }
-}
\ No newline at end of file
+}
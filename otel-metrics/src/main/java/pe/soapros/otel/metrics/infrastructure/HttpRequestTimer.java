@@ -0,0 +1,80 @@
+package pe.soapros.otel.metrics.infrastructure;
+
+import io.opentelemetry.context.Context;
+import io.opentelemetry.context.ContextKey;
+import io.opentelemetry.context.ImplicitContextKeyed;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Request HTTP en curso devuelta por {@link HttpMetricsCollector#startRequest}.
+ *
+ * El handle no depende del hilo: se puede terminar desde otro hilo (CompletableFuture,
+ * virtual threads). Para recuperarlo sin pasarlo explícitamente, guardarlo en el
+ * contexto de OpenTelemetry con {@code makeCurrent()} y leerlo con {@link #current()}.
+ */
+public final class HttpRequestTimer implements ImplicitContextKeyed {
+
+    private static final ContextKey<HttpRequestTimer> CONTEXT_KEY =
+            ContextKey.named("pe.soapros.otel.metrics.http-request");
+
+    private final HttpMetricsCollector collector;
+    private final AtomicBoolean ended = new AtomicBoolean(false);
+
+    final String method;
+    final String route;
+    final String userAgent;
+    final String clientIp;
+    final Instant startTime;
+
+    HttpRequestTimer(HttpMetricsCollector collector, String method, String route,
+                     String userAgent, String clientIp, Instant startTime) {
+        this.collector = collector;
+        this.method = method;
+        this.route = route;
+        this.userAgent = userAgent;
+        this.clientIp = clientIp;
+        this.startTime = startTime;
+    }
+
+    /**
+     * Registra las métricas de fin; solo la primera llamada tiene efecto
+     */
+    public void end(int statusCode, long requestSize, long responseSize, Throwable error) {
+        if (ended.compareAndSet(false, true)) {
+            collector.completeRequest(this, statusCode, requestSize, responseSize, error);
+        }
+    }
+
+    public boolean isEnded() {
+        return ended.get();
+    }
+
+    public Duration elapsed() {
+        return Duration.between(startTime, Instant.now());
+    }
+
+    public String getMethod() { return method; }
+    public String getRoute() { return route; }
+    public String getUserAgent() { return userAgent; }
+    public String getClientIp() { return clientIp; }
+    public Instant getStartTime() { return startTime; }
+
+    @Override
+    public Context storeInContext(Context context) {
+        return context.with(CONTEXT_KEY, this);
+    }
+
+    /**
+     * Handle guardado en el contexto actual, o null
+     */
+    public static HttpRequestTimer current() {
+        return fromContext(Context.current());
+    }
+
+    public static HttpRequestTimer fromContext(Context context) {
+        return context.get(CONTEXT_KEY);
+    }
+}
@@ -0,0 +1,84 @@
+package pe.soapros.otel.metrics.infrastructure;
+
+import com.amazonaws.services.lambda.runtime.Context;
+import io.opentelemetry.context.ContextKey;
+import io.opentelemetry.context.ImplicitContextKeyed;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Ejecución Lambda en curso devuelta por {@link LambdaMetricsCollector#startExecution}.
+ *
+ * El handle no depende del hilo: se puede terminar desde otro hilo (CompletableFuture,
+ * virtual threads). Para recuperarlo sin pasarlo explícitamente, guardarlo en el
+ * contexto de OpenTelemetry con {@code makeCurrent()} y leerlo con {@link #current()}.
+ */
+public final class LambdaExecutionTimer implements ImplicitContextKeyed {
+
+    private static final ContextKey<LambdaExecutionTimer> CONTEXT_KEY =
+            ContextKey.named("pe.soapros.otel.metrics.lambda-execution");
+
+    private final LambdaMetricsCollector collector;
+    private final AtomicBoolean ended = new AtomicBoolean(false);
+
+    final String requestId;
+    final String functionName;
+    final String functionVersion;
+    final boolean isColdStart;
+    final long initialRemainingTime;
+    final Instant startTime;
+
+    LambdaExecutionTimer(LambdaMetricsCollector collector, String requestId,
+                         String functionName, String functionVersion, boolean isColdStart,
+                         long initialRemainingTime, Instant startTime) {
+        this.collector = collector;
+        this.requestId = requestId;
+        this.functionName = functionName;
+        this.functionVersion = functionVersion;
+        this.isColdStart = isColdStart;
+        this.initialRemainingTime = initialRemainingTime;
+        this.startTime = startTime;
+    }
+
+    /**
+     * Registra las métricas de fin; solo la primera llamada tiene efecto
+     */
+    public void end(Context context, boolean success, Throwable error) {
+        if (ended.compareAndSet(false, true)) {
+            collector.completeExecution(this, context, success, error);
+        }
+    }
+
+    public boolean isEnded() {
+        return ended.get();
+    }
+
+    public Duration elapsed() {
+        return Duration.between(startTime, Instant.now());
+    }
+
+    public String getRequestId() { return requestId; }
+    public String getFunctionName() { return functionName; }
+    public String getFunctionVersion() { return functionVersion; }
+    public boolean isColdStart() { return isColdStart; }
+    public long getInitialRemainingTime() { return initialRemainingTime; }
+    public Instant getStartTime() { return startTime; }
+
+    @Override
+    public io.opentelemetry.context.Context storeInContext(io.opentelemetry.context.Context context) {
+        return context.with(CONTEXT_KEY, this);
+    }
+
+    /**
+     * Handle guardado en el contexto actual, o null
+     */
+    public static LambdaExecutionTimer current() {
+        return fromContext(io.opentelemetry.context.Context.current());
+    }
+
+    public static LambdaExecutionTimer fromContext(io.opentelemetry.context.Context context) {
+        return context.get(CONTEXT_KEY);
+    }
+}
@@ -3,6 +3,10 @@ package pe.soapros.otel.metrics.infrastructure;
 import com.amazonaws.services.lambda.runtime.Context;
 import io.opentelemetry.api.common.AttributeKey;
 import io.opentelemetry.api.common.Attributes;
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.SpanKind;
+import io.opentelemetry.api.trace.Tracer;
+import pe.soapros.otel.core.infrastructure.InitPhaseTimer;
 import pe.soapros.otel.metrics.domain.MetricsService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -11,6 +15,7 @@ import java.time.Duration;
 import java.time.Instant;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Colector especializado de métricas para funciones AWS Lambda.
@@ -23,42 +28,47 @@ public class LambdaMetricsCollector {
     private final MetricsService metricsService;
     private final String functionName;
     private final String functionVersion;
+    private final Tracer tracer;
     
     // Cache para detectar cold starts
     private static final ConcurrentHashMap<String, Boolean> functionWarmupCache = new ConcurrentHashMap<>();
     
-    // Registro de métricas de ejecución
-    private final ThreadLocal<ExecutionMetrics> currentExecution = new ThreadLocal<>();
-    
     public LambdaMetricsCollector(MetricsService metricsService, String functionName, String functionVersion) {
+        this(metricsService, functionName, functionVersion, null);
+    }
+    
+    /**
+     * @param tracer para emitir el span lambda.init en el cold start (null = sólo histogramas)
+     */
+    public LambdaMetricsCollector(MetricsService metricsService, String functionName, String functionVersion,
+                                  Tracer tracer) {
         this.metricsService = metricsService;
         this.functionName = functionName;
         this.functionVersion = functionVersion;
+        this.tracer = tracer;
     }
     
     /**
-     * Inicia la medición de una ejecución Lambda
+     * Inicia la medición de una ejecución Lambda; terminarla con {@link LambdaExecutionTimer#end}
      */
-    public void startExecution(Context context) {
+    public LambdaExecutionTimer startExecution(Context context) {
         String requestId = context.getAwsRequestId();
         boolean isColdStart = detectColdStart(context);
         
-        ExecutionMetrics execution = new ExecutionMetrics(
+        LambdaExecutionTimer execution = new LambdaExecutionTimer(
+            this,
             requestId,
             functionName,
             functionVersion,
             isColdStart,
-            Instant.now(),
-            context.getRemainingTimeInMillis()
+            context.getRemainingTimeInMillis(),
+            Instant.now()
         );
         
-        currentExecution.set(execution);
-        
         // Métricas de inicio
         Attributes startAttributes = Attributes.builder()
             .put(AttributeKey.stringKey("lambda.function_name"), functionName)
             .put(AttributeKey.stringKey("lambda.function_version"), functionVersion)
-            .put(AttributeKey.stringKey("lambda.request_id"), requestId)
             .put(AttributeKey.booleanKey("lambda.cold_start"), isColdStart)
             .build();
         
@@ -82,6 +92,9 @@ public class LambdaMetricsCollector {
             logger.debug("Cold start detected for function: {} requestId: {}", functionName, requestId);
         }
         
+        // Fases de init: una sola vez por proceso, en la primera invocación
+        InitPhaseTimer.claimReport().ifPresent(this::recordInitPhases);
+        
         // Gauge de tiempo restante al inicio
         metricsService.recordGauge(
             "lambda.remaining_time_ms", 
@@ -89,109 +102,85 @@ public class LambdaMetricsCollector {
             context.getRemainingTimeInMillis(), 
             Map.of(
                 "lambda.function_name", functionName,
-                "lambda.request_id", requestId,
                 "measurement.point", "start"
             )
         );
         
         logger.debug("Started Lambda execution metrics collection for function: {} requestId: {}", 
                      functionName, requestId);
+        return execution;
     }
     
     /**
-     * Finaliza la medición de una ejecución Lambda
+     * Registra las métricas de fin de una ejecución (invocado una sola vez por el handle)
      */
-    public void endExecution(Context context, boolean success, Throwable error) {
-        ExecutionMetrics execution = currentExecution.get();
-        if (execution == null) {
-            logger.warn("No execution metrics found for request: {}", context.getAwsRequestId());
-            return;
-        }
+    void completeExecution(LambdaExecutionTimer execution, Context context, boolean success, Throwable error) {
+        Duration executionDuration = Duration.between(execution.startTime, Instant.now());
         
-        try {
-            Duration executionDuration = Duration.between(execution.startTime, Instant.now());
-            long memoryUsed = Runtime.getRuntime().totalMemory() - Runtime.getRuntime().freeMemory();
-            long memoryUsedMB = memoryUsed / (1024 * 1024);
-            
-            Attributes endAttributes = Attributes.builder()
-                .put(AttributeKey.stringKey("lambda.function_name"), functionName)
-                .put(AttributeKey.stringKey("lambda.function_version"), functionVersion)
-                .put(AttributeKey.stringKey("lambda.request_id"), execution.requestId)
-                .put(AttributeKey.booleanKey("lambda.cold_start"), execution.isColdStart)
-                .put(AttributeKey.booleanKey("lambda.success"), success)
-                .build();
-            
-            // Histogram de duración de ejecución
-            metricsService.recordHistogram(
-                "lambda.execution.duration", 
-                "Lambda function execution duration in milliseconds", 
-                executionDuration.toNanos() / 1_000_000.0, 
+        Attributes endAttributes = Attributes.builder()
+            .put(AttributeKey.stringKey("lambda.function_name"), functionName)
+            .put(AttributeKey.stringKey("lambda.function_version"), functionVersion)
+            .put(AttributeKey.stringKey("lambda.request_id"), execution.requestId)
+            .put(AttributeKey.booleanKey("lambda.cold_start"), execution.isColdStart)
+            .put(AttributeKey.booleanKey("lambda.success"), success)
+            .build();
+        
+        // Histogram de duración de ejecución
+        metricsService.recordHistogram(
+            "lambda.execution.duration", 
+            "Lambda function execution duration in milliseconds", 
+            executionDuration.toNanos() / 1_000_000.0, 
+            endAttributes
+        );
+        
+        // La memoria se reporta por callback en RuntimeMetrics (process.memory.usage,
+        // lambda.memory.utilization_ratio), no por invocación
+        
+        // Gauge de tiempo restante al final
+        metricsService.recordGauge(
+            "lambda.remaining_time_ms", 
+            "Lambda remaining execution time at end in milliseconds", 
+            context.getRemainingTimeInMillis(), 
+            Map.of(
+                "lambda.function_name", functionName,
+                "lambda.request_id", execution.requestId,
+                "measurement.point", "end"
+            )
+        );
+        
+        // Counter de éxito/error
+        if (success) {
+            metricsService.incrementCounter(
+                "lambda.invocations.success.total", 
+                "Successful Lambda invocations", 
+                1L, 
                 endAttributes
             );
-            
-            // Gauge de memoria utilizada
-            metricsService.recordGauge(
-                "lambda.memory.used_mb", 
-                "Lambda memory used in MB", 
-                memoryUsedMB, 
-                Map.of(
-                    "lambda.function_name", functionName,
-                    "lambda.request_id", execution.requestId
-                )
-            );
-            
-            // Gauge de tiempo restante al final
-            metricsService.recordGauge(
-                "lambda.remaining_time_ms", 
-                "Lambda remaining execution time at end in milliseconds", 
-                context.getRemainingTimeInMillis(), 
-                Map.of(
-                    "lambda.function_name", functionName,
-                    "lambda.request_id", execution.requestId,
-                    "measurement.point", "end"
-                )
+        } else {
+            metricsService.incrementCounter(
+                "lambda.invocations.errors.total", 
+                "Failed Lambda invocations", 
+                1L, 
+                endAttributes
             );
             
-            // Métricas de memoria detalladas
-            recordDetailedMemoryMetrics(execution.requestId);
-            
-            // Counter de éxito/error
-            if (success) {
-                metricsService.incrementCounter(
-                    "lambda.invocations.success.total", 
-                    "Successful Lambda invocations", 
-                    1L, 
-                    endAttributes
-                );
-            } else {
-                metricsService.incrementCounter(
-                    "lambda.invocations.errors.total", 
-                    "Failed Lambda invocations", 
-                    1L, 
-                    endAttributes
-                );
-                
-                // Métricas específicas de error
-                if (error != null) {
-                    recordErrorMetrics(execution, error);
-                }
+            // Métricas específicas de error
+            if (error != null) {
+                recordErrorMetrics(execution, error);
             }
-            
-            // Métricas de timeout si aplica
-            recordTimeoutMetrics(context, execution, executionDuration);
-            
-            logger.debug("Completed Lambda execution metrics for function: {} requestId: {} duration: {}ms success: {}", 
-                         functionName, execution.requestId, executionDuration.toMillis(), success);
-            
-        } finally {
-            currentExecution.remove();
         }
+        
+        // Métricas de timeout si aplica
+        recordTimeoutMetrics(context, execution, executionDuration);
+        
+        logger.debug("Completed Lambda execution metrics for function: {} requestId: {} duration: {}ms success: {}", 
+                     functionName, execution.requestId, executionDuration.toMillis(), success);
     }
     
     /**
      * Registra métricas de timeout/tiempo restante
      */
-    private void recordTimeoutMetrics(Context context, ExecutionMetrics execution, Duration executionDuration) {
+    private void recordTimeoutMetrics(Context context, LambdaExecutionTimer execution, Duration executionDuration) {
         long remainingTimeMs = context.getRemainingTimeInMillis();
         long totalTimeMs = execution.initialRemainingTime;
         double timeUtilization = (double) executionDuration.toMillis() / totalTimeMs;
@@ -223,60 +212,10 @@ public class LambdaMetricsCollector {
         }
     }
     
-    /**
-     * Registra métricas detalladas de memoria
-     */
-    private void recordDetailedMemoryMetrics(String requestId) {
-        Runtime runtime = Runtime.getRuntime();
-        
-        long maxMemory = runtime.maxMemory();
-        long totalMemory = runtime.totalMemory();
-        long freeMemory = runtime.freeMemory();
-        long usedMemory = totalMemory - freeMemory;
-        
-        Map<String, String> memoryAttributes = Map.of(
-            "lambda.function_name", functionName,
-            "lambda.request_id", requestId
-        );
-        
-        // Gauge de memoria máxima disponible
-        metricsService.recordGauge(
-            "lambda.memory.max_mb", 
-            "Lambda maximum available memory in MB", 
-            maxMemory / (1024.0 * 1024.0), 
-            memoryAttributes
-        );
-        
-        // Gauge de memoria total asignada
-        metricsService.recordGauge(
-            "lambda.memory.total_mb", 
-            "Lambda total allocated memory in MB", 
-            totalMemory / (1024.0 * 1024.0), 
-            memoryAttributes
-        );
-        
-        // Gauge de memoria libre
-        metricsService.recordGauge(
-            "lambda.memory.free_mb", 
-            "Lambda free memory in MB", 
-            freeMemory / (1024.0 * 1024.0), 
-            memoryAttributes
-        );
-        
-        // Ratio de utilización de memoria
-        double memoryUtilization = (double) usedMemory / maxMemory;
-        metricsService.recordGauge(
-            "lambda.memory.utilization_ratio", 
-            "Lambda memory utilization ratio (0.0 to 1.0)", 
-            memoryUtilization, 
-            memoryAttributes
-        );
-    }
-    
     /**
      * Registra métricas específicas de errores
      */
-    private void recordErrorMetrics(ExecutionMetrics execution, Throwable error) {
+    private void recordErrorMetrics(LambdaExecutionTimer execution, Throwable error) {
         Map<String, String> errorAttributes = Map.of(
             "lambda.function_name", functionName,
             "lambda.request_id", execution.requestId,
@@ -310,6 +249,59 @@ public class LambdaMetricsCollector {
         }
     }
     
+    /**
+     * Histograma lambda.init.duration por fase y span lambda.init con una fase hija por medición
+     */
+    private void recordInitPhases(InitPhaseTimer.InitReport report) {
+        String initType = report.initType() != null ? report.initType() : "unknown";
+        
+        recordInitPhase("total", report.totalMs(), initType);
+        recordInitPhase("runtime", report.runtimeMs(), initType);
+        recordInitPhase("observability", report.observabilityMs(), initType);
+        for (InitPhaseTimer.Phase phase : report.phases()) {
+            recordInitPhase(phase.name(), phase.durationMs(), initType);
+        }
+        
+        if (tracer != null) {
+            Span initSpan = tracer.spanBuilder("lambda.init")
+                .setNoParent()
+                .setSpanKind(SpanKind.INTERNAL)
+                .setStartTimestamp(report.jvmStartEpochNanos(), TimeUnit.NANOSECONDS)
+                .setAttribute("lambda.function_name", functionName)
+                .setAttribute("lambda.init_type", initType)
+                .setAttribute("lambda.init.runtime_ms", report.runtimeMs())
+                .setAttribute("lambda.init.observability_ms", report.observabilityMs())
+                .startSpan();
+            
+            io.opentelemetry.context.Context initContext = io.opentelemetry.context.Context.root().with(initSpan);
+            for (InitPhaseTimer.Phase phase : report.phases()) {
+                tracer.spanBuilder("lambda.init." + phase.name())
+                    .setParent(initContext)
+                    .setStartTimestamp(phase.startEpochNanos(), TimeUnit.NANOSECONDS)
+                    .startSpan()
+                    .end(phase.startEpochNanos() + phase.durationNanos(), TimeUnit.NANOSECONDS);
+            }
+            initSpan.end(report.reportEpochNanos(), TimeUnit.NANOSECONDS);
+        }
+        
+        logger.info("Init phase for function {}: total={}ms runtime={}ms observability={}ms ({})",
+                    functionName, Math.round(report.totalMs()), Math.round(report.runtimeMs()),
+                    Math.round(report.observabilityMs()), initType);
+    }
+    
+    private void recordInitPhase(String phase, double durationMs, String initType) {
+        metricsService.recordHistogram(
+            "lambda.init.duration",
+            "Lambda init phase duration",
+            durationMs,
+            Map.of(
+                "lambda.function_name", functionName,
+                "lambda.init_type", initType,
+                "init.phase", phase
+            )
+        );
+    }
+    
     /**
      * Detecta si esta es la primera ejecución (cold start)
      */
@@ -342,7 +334,7 @@ public class LambdaMetricsCollector {
         attributes.put("lambda.function_name", functionName);
         attributes.put("lambda.function_version", functionVersion);
         
-        ExecutionMetrics execution = currentExecution.get();
+        LambdaExecutionTimer execution = LambdaExecutionTimer.current();
         if (execution != null) {
             attributes.put("lambda.request_id", execution.requestId);
             attributes.put("lambda.cold_start", String.valueOf(execution.isColdStart));
@@ -369,26 +361,4 @@ public class LambdaMetricsCollector {
     public static Map<String, Integer> getColdStartCacheStats() {
         return Map.of("cached_functions", functionWarmupCache.size());
     }
-    
-    /**
-     * Clase interna para mantener métricas de ejecución actual
-     */
-    private static class ExecutionMetrics {
-        final String requestId;
-        final String functionName;
-        final String functionVersion;
-        final boolean isColdStart;
-        final Instant startTime;
-        final long initialRemainingTime;
-        
-        ExecutionMetrics(String requestId, String functionName, String functionVersion, 
-                        boolean isColdStart, Instant startTime, long initialRemainingTime) {
-            this.requestId = requestId;
-            this.functionName = functionName;
-            this.functionVersion = functionVersion;
-            this.isColdStart = isColdStart;
-            this.startTime = startTime;
-            this.initialRemainingTime = initialRemainingTime;
-        }
-    }
-}
\ No newline at end of file
+}
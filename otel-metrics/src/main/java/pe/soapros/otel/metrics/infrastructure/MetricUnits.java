@@ -0,0 +1,49 @@
+package pe.soapros.otel.metrics.infrastructure;
+
+/**
+ * Unidad UCUM de un instrumento según su familia (sufijo del nombre).
+ * Los colectores registran duraciones en ms, tamaños en bytes y memoria en MB.
+ */
+public final class MetricUnits {
+
+    public static final String MILLISECONDS = "ms";
+    public static final String MINUTES = "min";
+    public static final String BYTES = "By";
+    public static final String MEBIBYTES = "MiBy";
+    public static final String PERCENT = "%";
+    public static final String DIMENSIONLESS = "1";
+
+    private MetricUnits() {
+        throw new UnsupportedOperationException("This is a utility class and cannot be instantiated");
+    }
+
+    /**
+     * Unidad para el instrumento {@code name}; "1" si no se reconoce la familia
+     */
+    public static String forInstrument(String name) {
+        if (name == null) {
+            return DIMENSIONLESS;
+        }
+
+        // La duración de sesiones se registra en minutos
+        if (name.equals("business.user.session.duration")) {
+            return MINUTES;
+        }
+        if (name.endsWith(".duration") || name.endsWith("_ms")) {
+            return MILLISECONDS;
+        }
+        if (name.endsWith(".size") || name.endsWith("_bytes") || name.endsWith(".bytes_total")) {
+            return BYTES;
+        }
+        if (name.endsWith("_mb") || name.equals("lambda.memory.used")) {
+            return MEBIBYTES;
+        }
+        if (name.endsWith("_percent")) {
+            return PERCENT;
+        }
+        if (name.endsWith(".amount")) {
+            return "{amount}";
+        }
+        return DIMENSIONLESS;
+    }
+}
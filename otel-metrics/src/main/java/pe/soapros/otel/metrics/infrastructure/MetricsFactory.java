@@ -19,6 +19,8 @@ public class MetricsFactory {
     private final OpenTelemetry openTelemetry;
     private final String serviceName;
     private final String serviceVersion;
+    private final CardinalityLimits cardinalityLimits;
+    private final SloConfig sloConfig;
     
     // Instancias singleton de los servicios
     private volatile MetricsService metricsService;
@@ -26,11 +28,25 @@ public class MetricsFactory {
     private volatile HttpMetricsCollector httpMetricsCollector;
     private volatile DatabaseMetricsCollector databaseMetricsCollector;
     private volatile BusinessMetricsCollector businessMetricsCollector;
+    private volatile SloTracker sloTracker;
+    private volatile RuntimeMetrics runtimeMetrics;
     
     public MetricsFactory(OpenTelemetry openTelemetry, String serviceName, String serviceVersion) {
+        this(openTelemetry, serviceName, serviceVersion, CardinalityLimits.defaults());
+    }
+    
+    public MetricsFactory(OpenTelemetry openTelemetry, String serviceName, String serviceVersion,
+                          CardinalityLimits cardinalityLimits) {
+        this(openTelemetry, serviceName, serviceVersion, cardinalityLimits, SloConfig.fromEnvironment());
+    }
+    
+    public MetricsFactory(OpenTelemetry openTelemetry, String serviceName, String serviceVersion,
+                          CardinalityLimits cardinalityLimits, SloConfig sloConfig) {
         this.openTelemetry = openTelemetry;
         this.serviceName = serviceName;
         this.serviceVersion = serviceVersion;
+        this.cardinalityLimits = cardinalityLimits != null ? cardinalityLimits : CardinalityLimits.defaults();
+        this.sloConfig = sloConfig != null ? sloConfig : SloConfig.defaults();
         
         logger.info("Initialized MetricsFactory for service: {} version: {}", serviceName, serviceVersion);
     }
@@ -44,7 +60,7 @@ public class MetricsFactory {
                 if (metricsService == null) {
                     Meter meter = openTelemetry.getMeter(serviceName);
                     
-                    metricsService = new OpenTelemetryMetricsService(meter, serviceName);
+                    metricsService = new OpenTelemetryMetricsService(meter, serviceName, cardinalityLimits);
                     logger.debug("Created MetricsService instance for service: {}", serviceName);
                 }
             }
@@ -52,6 +68,39 @@ public class MetricsFactory {
         return metricsService;
     }
     
+    /**
+     * Crea o devuelve el SloTracker compartido por los colectores HTTP y de database,
+     * con el gauge de burn rate registrado
+     */
+    public SloTracker getSloTracker() {
+        if (sloTracker == null) {
+            synchronized (this) {
+                if (sloTracker == null) {
+                    SloTracker tracker = new SloTracker(getMetricsService(), sloConfig);
+                    tracker.registerBurnRateGauge(openTelemetry.getMeter(serviceName));
+                    sloTracker = tracker;
+                    logger.debug("Created SloTracker instance for service: {}", serviceName);
+                }
+            }
+        }
+        return sloTracker;
+    }
+    
+    /**
+     * Registra (una sola vez) las métricas observables de JVM y proceso
+     */
+    public RuntimeMetrics getRuntimeMetrics() {
+        if (runtimeMetrics == null) {
+            synchronized (this) {
+                if (runtimeMetrics == null) {
+                    runtimeMetrics = RuntimeMetrics.register(openTelemetry.getMeter(serviceName));
+                    logger.debug("Registered runtime metrics for service: {}", serviceName);
+                }
+            }
+        }
+        return runtimeMetrics;
+    }
+    
     /**
      * Crea o devuelve la instancia singleton del LambdaMetricsCollector
      */
@@ -62,8 +111,11 @@ public class MetricsFactory {
                     lambdaMetricsCollector = new LambdaMetricsCollector(
                         getMetricsService(), 
                         serviceName, 
-                        serviceVersion
+                        serviceVersion,
+                        openTelemetry.getTracer("pe.soapros.otel.metrics.lambda", serviceVersion)
                     );
+                    // La memoria de la función se reporta por callback, no por invocación
+                    getRuntimeMetrics();
                     logger.debug("Created LambdaMetricsCollector instance for service: {}", serviceName);
                 }
             }
@@ -80,8 +132,10 @@ public class MetricsFactory {
                 if (httpMetricsCollector == null) {
                     httpMetricsCollector = new HttpMetricsCollector(
                         getMetricsService(), 
-                        serviceName
+                        serviceName,
+                        getSloTracker()
                     );
+                    httpMetricsCollector.registerRateGauge(openTelemetry.getMeter(serviceName));
                     logger.debug("Created HttpMetricsCollector instance for service: {}", serviceName);
                 }
             }
@@ -98,8 +152,10 @@ public class MetricsFactory {
                 if (databaseMetricsCollector == null) {
                     databaseMetricsCollector = new DatabaseMetricsCollector(
                         getMetricsService(), 
-                        serviceName
+                        serviceName,
+                        getSloTracker()
                     );
+                    databaseMetricsCollector.registerRateGauge(openTelemetry.getMeter(serviceName));
                     logger.debug("Created DatabaseMetricsCollector instance for service: {}", serviceName);
                 }
             }
@@ -118,6 +174,7 @@ public class MetricsFactory {
                         getMetricsService(), 
                         serviceName
                     );
+                    businessMetricsCollector.registerRateGauge(openTelemetry.getMeter(serviceName));
                     logger.debug("Created BusinessMetricsCollector instance for service: {}", serviceName);
                 }
             }
@@ -142,10 +199,14 @@ public class MetricsFactory {
      * Crea una nueva instancia de HttpMetricsCollector (para casos especiales)
      */
     public HttpMetricsCollector createHttpMetricsCollector(String customServiceName) {
+        String collectorServiceName = customServiceName != null ? customServiceName : serviceName;
         HttpMetricsCollector collector = new HttpMetricsCollector(
             getMetricsService(), 
-            customServiceName != null ? customServiceName : serviceName
+            collectorServiceName,
+            getSloTracker()
         );
+        // Meter propio del servicio: el gauge de rate no se mezcla con el del singleton
+        collector.registerRateGauge(openTelemetry.getMeter(collectorServiceName));
         logger.debug("Created custom HttpMetricsCollector for service: {}", customServiceName);
         return collector;
     }
@@ -156,7 +217,8 @@ public class MetricsFactory {
     public DatabaseMetricsCollector createDatabaseMetricsCollector(String customServiceName) {
         DatabaseMetricsCollector collector = new DatabaseMetricsCollector(
             getMetricsService(), 
-            customServiceName != null ? customServiceName : serviceName
+            customServiceName != null ? customServiceName : serviceName,
+            getSloTracker()
         );
         logger.debug("Created custom DatabaseMetricsCollector for service: {}", customServiceName);
         return collector;
@@ -204,14 +266,25 @@ public class MetricsFactory {
             
             if (httpMetricsCollector != null) {
                 httpMetricsCollector.clearRateCounters();
+                httpMetricsCollector.closeRateGauge();
             }
             
             if (databaseMetricsCollector != null) {
                 databaseMetricsCollector.clearCounters();
+                databaseMetricsCollector.closeRateGauge();
             }
             
             if (businessMetricsCollector != null) {
                 businessMetricsCollector.clearAccumulators();
+                businessMetricsCollector.closeRateGauge();
+            }
+            
+            if (sloTracker != null) {
+                sloTracker.close();
+            }
+            
+            if (runtimeMetrics != null) {
+                runtimeMetrics.close();
             }
             
             metricsService = null;
@@ -219,6 +292,8 @@ public class MetricsFactory {
             httpMetricsCollector = null;
             databaseMetricsCollector = null;
             businessMetricsCollector = null;
+            sloTracker = null;
+            runtimeMetrics = null;
             
             logger.debug("Cleared all MetricsFactory instances for service: {}", serviceName);
         }
@@ -234,6 +309,7 @@ public class MetricsFactory {
         
         if (metricsService instanceof OpenTelemetryMetricsService) {
             stats.put("metrics_service", ((OpenTelemetryMetricsService) metricsService).getInstrumentCacheStats());
+            stats.put("metrics_cardinality", ((OpenTelemetryMetricsService) metricsService).getCardinalityStats());
         }
         
         if (lambdaMetricsCollector != null) {
@@ -241,7 +317,7 @@ public class MetricsFactory {
         }
         
         if (httpMetricsCollector != null) {
-            stats.put("http_metrics", httpMetricsCollector.getRateCounterStats());
+            stats.put("http_metrics", httpMetricsCollector.getRequestRates());
         }
         
         if (databaseMetricsCollector != null) {
@@ -252,6 +328,10 @@ public class MetricsFactory {
             stats.put("business_metrics", businessMetricsCollector.getAccumulatorStats());
         }
         
+        if (sloTracker != null) {
+            stats.put("slo_burn_rates", sloTracker.getBurnRates());
+        }
+        
         return stats;
     }
     
@@ -266,6 +346,14 @@ public class MetricsFactory {
      * Factory method estático para crear instancias con configuración personalizada
      */
     public static MetricsFactory create(OpenTelemetry openTelemetry, String serviceName, String serviceVersion) {
+        return create(openTelemetry, serviceName, serviceVersion, CardinalityLimits.defaults());
+    }
+    
+    /**
+     * Factory method estático con límites de cardinalidad personalizados
+     */
+    public static MetricsFactory create(OpenTelemetry openTelemetry, String serviceName, String serviceVersion,
+                                        CardinalityLimits cardinalityLimits) {
         if (openTelemetry == null) {
             throw new IllegalArgumentException("OpenTelemetry instance cannot be null");
         }
@@ -276,7 +364,7 @@ public class MetricsFactory {
             serviceVersion = "1.0.0";
         }
         
-        return new MetricsFactory(openTelemetry, serviceName.trim(), serviceVersion.trim());
+        return new MetricsFactory(openTelemetry, serviceName.trim(), serviceVersion.trim(), cardinalityLimits);
     }
     
     /**
@@ -22,6 +22,7 @@ public class OpenTelemetryMetricsService implements MetricsService {
     
     private final Meter meter;
     private final String serviceName;
+    private final CardinalityGuard cardinalityGuard;
     
     // Cache para reutilizar instrumentos métricos
     private final ConcurrentHashMap<String, LongCounter> counters = new ConcurrentHashMap<>();
@@ -29,8 +30,13 @@ public class OpenTelemetryMetricsService implements MetricsService {
     private final ConcurrentHashMap<String, DoubleHistogram> histograms = new ConcurrentHashMap<>();
     
     public OpenTelemetryMetricsService(Meter meter, String serviceName) {
+        this(meter, serviceName, CardinalityLimits.defaults());
+    }
+
+    public OpenTelemetryMetricsService(Meter meter, String serviceName, CardinalityLimits cardinalityLimits) {
         this.meter = meter;
         this.serviceName = serviceName;
+        this.cardinalityGuard = new CardinalityGuard(cardinalityLimits, meter);
     }
 
     // ==================== COUNTERS ====================
@@ -56,7 +62,7 @@ public class OpenTelemetryMetricsService implements MetricsService {
                     .build()
             );
             
-            counter.add(value, attributes);
+            counter.add(value, cardinalityGuard.apply(name, attributes));
             
         } catch (Exception e) {
             logger.error("Error incrementing counter {}: {}", name, e.getMessage(), e);
@@ -77,19 +83,13 @@ public class OpenTelemetryMetricsService implements MetricsService {
             DoubleGauge gauge = gauges.computeIfAbsent(name, k ->
                 meter.gaugeBuilder(name)
                     .setDescription(description)
+                    .setUnit(MetricUnits.forInstrument(name))
                     .build()
             );
-            
-            // Para gauges, necesitamos usar un callback o establecer el valor
-            // En este caso, usaremos un histograma como alternativa para valores puntuales
-            DoubleHistogram histogram = histograms.computeIfAbsent(name + "_gauge", k ->
-                meter.histogramBuilder(name + "_gauge")
-                    .setDescription(description + " (as gauge)")
-                    .build()
-            );
-            
-            histogram.record(value, attributes);
-            
+
+            // Gauge síncrono: el SDK conserva el último valor por serie (agregación last-value)
+            gauge.set(value, cardinalityGuard.apply(name, attributes));
+
         } catch (Exception e) {
             logger.error("Error recording gauge {}: {}", name, e.getMessage(), e);
         }
@@ -115,11 +115,11 @@ public class OpenTelemetryMetricsService implements MetricsService {
             DoubleHistogram histogram = histograms.computeIfAbsent(name, k ->
                 meter.histogramBuilder(name)
                     .setDescription(description)
-                    .setUnit("ms")
+                    .setUnit(MetricUnits.forInstrument(name))
                     .build()
             );
             
-            histogram.record(value, attributes);
+            histogram.record(value, cardinalityGuard.apply(name, attributes));
             
         } catch (Exception e) {
             logger.error("Error recording histogram {}: {}", name, e.getMessage(), e);
@@ -313,6 +313,7 @@ public class OpenTelemetryMetricsService implements MetricsService {
         counters.clear();
         gauges.clear();
         histograms.clear();
+        cardinalityGuard.clear();
     }
     
     /**
@@ -325,4 +326,14 @@ public class OpenTelemetryMetricsService implements MetricsService {
             "histograms", histograms.size()
         );
     }
+    
+    /**
+     * Series vistas en el intervalo de recolección actual y valores agrupados en __overflow__
+     * por instrumento
+     */
+    public Map<String, Object> getCardinalityStats() {
+        Map<String, Object> stats = new java.util.LinkedHashMap<>(cardinalityGuard.getStats());
+        stats.put("total.overflowed", cardinalityGuard.getOverflowCount());
+        return stats;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,370 @@
+package pe.soapros.otel.metrics.infrastructure;
+
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.api.common.Attributes;
+import io.opentelemetry.api.metrics.Meter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.lang.management.ClassLoadingMXBean;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.MemoryUsage;
+import java.lang.management.OperatingSystemMXBean;
+import java.lang.management.PlatformManagedObject;
+import java.lang.management.ThreadMXBean;
+import java.lang.reflect.Method;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Métricas de runtime de la JVM y del proceso Lambda como instrumentos observables.
+ *
+ * Se registran una vez y el SDK invoca los callbacks sólo al exportar, así que no hay
+ * costo por invocación. Cubre memoria por pool (heap / non_heap), GC, threads (incluidos
+ * virtual threads si la JVM expone su scheduler), CPU, carga de clases y el RSS del proceso.
+ */
+public class RuntimeMetrics implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(RuntimeMetrics.class);
+
+    static final AttributeKey<String> MEMORY_TYPE = AttributeKey.stringKey("jvm.memory.type");
+    static final AttributeKey<String> MEMORY_POOL = AttributeKey.stringKey("jvm.memory.pool.name");
+    static final AttributeKey<String> GC_NAME = AttributeKey.stringKey("jvm.gc.name");
+    static final AttributeKey<Boolean> THREAD_DAEMON = AttributeKey.booleanKey("jvm.thread.daemon");
+
+    private static final Path PROC_STATUS = Path.of("/proc/self/status");
+    private static final String VIRTUAL_THREAD_MXBEAN = "jdk.management.VirtualThreadSchedulerMXBean";
+
+    private final List<AutoCloseable> instruments = new ArrayList<>();
+
+    private RuntimeMetrics() {
+    }
+
+    /**
+     * Registrar todos los instrumentos en {@code meter}. Cerrar la instancia los da de baja.
+     */
+    public static RuntimeMetrics register(Meter meter) {
+        RuntimeMetrics runtimeMetrics = new RuntimeMetrics();
+        runtimeMetrics.registerMemory(meter);
+        runtimeMetrics.registerGarbageCollection(meter);
+        runtimeMetrics.registerThreads(meter);
+        runtimeMetrics.registerCpu(meter);
+        runtimeMetrics.registerClassLoading(meter);
+        runtimeMetrics.registerProcessMemory(meter);
+        logger.debug("Registered {} runtime instruments", runtimeMetrics.instruments.size());
+        return runtimeMetrics;
+    }
+
+    // ==================== MEMORIA ====================
+
+    private void registerMemory(Meter meter) {
+        List<MemoryPoolMXBean> pools = ManagementFactory.getMemoryPoolMXBeans();
+        List<Attributes> poolAttributes = new ArrayList<>(pools.size());
+        for (MemoryPoolMXBean pool : pools) {
+            poolAttributes.add(Attributes.of(
+                MEMORY_TYPE, pool.getType() == MemoryType.HEAP ? "heap" : "non_heap",
+                MEMORY_POOL, pool.getName()
+            ));
+        }
+
+        instruments.add(meter.upDownCounterBuilder("jvm.memory.used")
+            .setDescription("Memory used by pool")
+            .setUnit("By")
+            .buildWithCallback(m -> forEachPool(pools, poolAttributes, MemoryPoolMXBean::getUsage,
+                (usage, attrs) -> m.record(usage.getUsed(), attrs))));
+
+        instruments.add(meter.upDownCounterBuilder("jvm.memory.committed")
+            .setDescription("Memory committed by pool")
+            .setUnit("By")
+            .buildWithCallback(m -> forEachPool(pools, poolAttributes, MemoryPoolMXBean::getUsage,
+                (usage, attrs) -> m.record(usage.getCommitted(), attrs))));
+
+        instruments.add(meter.upDownCounterBuilder("jvm.memory.limit")
+            .setDescription("Maximum memory obtainable by pool")
+            .setUnit("By")
+            .buildWithCallback(m -> forEachPool(pools, poolAttributes, MemoryPoolMXBean::getUsage,
+                (usage, attrs) -> {
+                    if (usage.getMax() >= 0) {
+                        m.record(usage.getMax(), attrs);
+                    }
+                })));
+
+        // Ocupación tras el último GC: la señal útil de presión de memoria
+        instruments.add(meter.upDownCounterBuilder("jvm.memory.used_after_last_gc")
+            .setDescription("Memory used by pool after the last garbage collection")
+            .setUnit("By")
+            .buildWithCallback(m -> forEachPool(pools, poolAttributes, MemoryPoolMXBean::getCollectionUsage,
+                (usage, attrs) -> m.record(usage.getUsed(), attrs))));
+    }
+
+    private interface UsageReader {
+        MemoryUsage read(MemoryPoolMXBean pool);
+    }
+
+    private interface UsageConsumer {
+        void accept(MemoryUsage usage, Attributes attributes);
+    }
+
+    private static void forEachPool(List<MemoryPoolMXBean> pools, List<Attributes> poolAttributes,
+                                    UsageReader reader, UsageConsumer consumer) {
+        for (int i = 0; i < pools.size(); i++) {
+            MemoryPoolMXBean pool = pools.get(i);
+            if (!pool.isValid()) {
+                continue;
+            }
+            MemoryUsage usage = reader.read(pool);
+            if (usage != null) {
+                consumer.accept(usage, poolAttributes.get(i));
+            }
+        }
+    }
+
+    // ==================== GC ====================
+
+    private void registerGarbageCollection(Meter meter) {
+        List<GarbageCollectorMXBean> collectors = ManagementFactory.getGarbageCollectorMXBeans();
+        List<Attributes> gcAttributes = new ArrayList<>(collectors.size());
+        for (GarbageCollectorMXBean collector : collectors) {
+            gcAttributes.add(Attributes.of(GC_NAME, collector.getName()));
+        }
+
+        instruments.add(meter.counterBuilder("jvm.gc.count")
+            .setDescription("Garbage collections since JVM start")
+            .setUnit("{collection}")
+            .buildWithCallback(m -> {
+                for (int i = 0; i < collectors.size(); i++) {
+                    long count = collectors.get(i).getCollectionCount();
+                    if (count >= 0) {
+                        m.record(count, gcAttributes.get(i));
+                    }
+                }
+            }));
+
+        instruments.add(meter.counterBuilder("jvm.gc.pause_time")
+            .setDescription("Accumulated garbage collection time since JVM start")
+            .setUnit("ms")
+            .buildWithCallback(m -> {
+                for (int i = 0; i < collectors.size(); i++) {
+                    long time = collectors.get(i).getCollectionTime();
+                    if (time >= 0) {
+                        m.record(time, gcAttributes.get(i));
+                    }
+                }
+            }));
+    }
+
+    // ==================== THREADS ====================
+
+    private void registerThreads(Meter meter) {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        Attributes daemon = Attributes.of(THREAD_DAEMON, true);
+        Attributes nonDaemon = Attributes.of(THREAD_DAEMON, false);
+
+        instruments.add(meter.upDownCounterBuilder("jvm.thread.count")
+            .setDescription("Live platform threads")
+            .setUnit("{thread}")
+            .buildWithCallback(m -> {
+                int total = threads.getThreadCount();
+                int daemonCount = threads.getDaemonThreadCount();
+                m.record(daemonCount, daemon);
+                m.record(total - daemonCount, nonDaemon);
+            }));
+
+        instruments.add(meter.counterBuilder("jvm.thread.started")
+            .setDescription("Platform threads started since JVM start")
+            .setUnit("{thread}")
+            .buildWithCallback(m -> m.record(threads.getTotalStartedThreadCount())));
+
+        registerVirtualThreads(meter);
+    }
+
+    /**
+     * ThreadMXBean sólo cuenta platform threads. El scheduler de virtual threads se expone
+     * como MXBean a partir de JDK 24; se resuelve por reflexión para seguir compilando en 21.
+     */
+    private void registerVirtualThreads(Meter meter) {
+        try {
+            Class<? extends PlatformManagedObject> type =
+                Class.forName(VIRTUAL_THREAD_MXBEAN).asSubclass(PlatformManagedObject.class);
+            Object scheduler = ManagementFactory.getPlatformMXBean(type);
+            if (scheduler == null) {
+                return;
+            }
+            Method mounted = type.getMethod("getMountedVirtualThreadCount");
+            Method queued = type.getMethod("getQueuedVirtualThreadCount");
+
+            instruments.add(meter.upDownCounterBuilder("jvm.thread.virtual.mounted")
+                .setDescription("Virtual threads mounted on a carrier thread")
+                .setUnit("{thread}")
+                .buildWithCallback(m -> recordReflective(m::record, scheduler, mounted)));
+
+            instruments.add(meter.upDownCounterBuilder("jvm.thread.virtual.queued")
+                .setDescription("Virtual threads queued to the scheduler")
+                .setUnit("{thread}")
+                .buildWithCallback(m -> recordReflective(m::record, scheduler, queued)));
+        } catch (ClassNotFoundException e) {
+            logger.debug("Virtual thread scheduler MXBean not available in this JVM");
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            logger.debug("Virtual thread metrics disabled: {}", e.getMessage());
+        }
+    }
+
+    private static void recordReflective(Consumer<Long> recorder, Object target, Method method) {
+        try {
+            Object value = method.invoke(target);
+            if (value instanceof Number number && number.longValue() >= 0) {
+                recorder.accept(number.longValue());
+            }
+        } catch (ReflectiveOperationException e) {
+            logger.debug("Error reading {}: {}", method.getName(), e.getMessage());
+        }
+    }
+
+    // ==================== CPU ====================
+
+    private void registerCpu(Meter meter) {
+        OperatingSystemMXBean os = ManagementFactory.getOperatingSystemMXBean();
+
+        instruments.add(meter.upDownCounterBuilder("jvm.cpu.count")
+            .setDescription("Processors available to the JVM")
+            .setUnit("{cpu}")
+            .buildWithCallback(m -> m.record(Runtime.getRuntime().availableProcessors())));
+
+        if (os instanceof com.sun.management.OperatingSystemMXBean sunOs) {
+            instruments.add(meter.counterBuilder("jvm.cpu.time")
+                .setDescription("CPU time used by the process")
+                .setUnit("ms")
+                .buildWithCallback(m -> {
+                    long nanos = sunOs.getProcessCpuTime();
+                    if (nanos >= 0) {
+                        m.record(nanos / 1_000_000L);
+                    }
+                }));
+
+            instruments.add(meter.gaugeBuilder("jvm.cpu.recent_utilization")
+                .setDescription("Recent CPU utilization of the process (0.0 to 1.0)")
+                .setUnit("1")
+                .buildWithCallback(m -> {
+                    double load = sunOs.getProcessCpuLoad();
+                    if (load >= 0) {
+                        m.record(load);
+                    }
+                }));
+        } else {
+            logger.debug("Process CPU metrics not available in this JVM");
+        }
+    }
+
+    // ==================== CLASES ====================
+
+    private void registerClassLoading(Meter meter) {
+        ClassLoadingMXBean classLoading = ManagementFactory.getClassLoadingMXBean();
+
+        instruments.add(meter.counterBuilder("jvm.class.loaded")
+            .setDescription("Classes loaded since JVM start")
+            .setUnit("{class}")
+            .buildWithCallback(m -> m.record(classLoading.getTotalLoadedClassCount())));
+
+        instruments.add(meter.counterBuilder("jvm.class.unloaded")
+            .setDescription("Classes unloaded since JVM start")
+            .setUnit("{class}")
+            .buildWithCallback(m -> m.record(classLoading.getUnloadedClassCount())));
+
+        instruments.add(meter.upDownCounterBuilder("jvm.class.count")
+            .setDescription("Classes currently loaded")
+            .setUnit("{class}")
+            .buildWithCallback(m -> m.record(classLoading.getLoadedClassCount())));
+    }
+
+    // ==================== PROCESO ====================
+
+    /**
+     * RSS del proceso desde /proc/self/status (Linux / Lambda). Incluye memoria nativa y
+     * metaspace, que es lo que cuenta contra el límite de memoria de la función.
+     */
+    private void registerProcessMemory(Meter meter) {
+        if (!Files.isReadable(PROC_STATUS)) {
+            logger.debug("{} not readable, process RSS metrics disabled", PROC_STATUS);
+            return;
+        }
+
+        instruments.add(meter.upDownCounterBuilder("process.memory.usage")
+            .setDescription("Resident set size of the process")
+            .setUnit("By")
+            .buildWithCallback(m -> {
+                long rss = readRssBytes();
+                if (rss >= 0) {
+                    m.record(rss);
+                }
+            }));
+
+        long limitBytes = lambdaMemoryLimitBytes();
+        if (limitBytes > 0) {
+            instruments.add(meter.gaugeBuilder("lambda.memory.utilization_ratio")
+                .setDescription("Process RSS relative to the Lambda memory size (0.0 to 1.0)")
+                .setUnit("1")
+                .buildWithCallback(m -> {
+                    long rss = readRssBytes();
+                    if (rss >= 0) {
+                        m.record((double) rss / limitBytes);
+                    }
+                }));
+        }
+    }
+
+    static long readRssBytes() {
+        try (BufferedReader reader = Files.newBufferedReader(PROC_STATUS)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.startsWith("VmRSS:")) {
+                    // Formato: "VmRSS:     123456 kB"
+                    String value = line.substring(6).trim();
+                    int space = value.indexOf(' ');
+                    return Long.parseLong(space > 0 ? value.substring(0, space) : value) * 1024L;
+                }
+            }
+        } catch (IOException | NumberFormatException e) {
+            logger.debug("Error reading process RSS: {}", e.getMessage());
+        }
+        return -1;
+    }
+
+    private static long lambdaMemoryLimitBytes() {
+        String memorySize = System.getenv("AWS_LAMBDA_FUNCTION_MEMORY_SIZE");
+        if (memorySize == null || memorySize.isBlank()) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(memorySize.trim()) * 1024L * 1024L;
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * Cantidad de instrumentos registrados (depende de lo que exponga la JVM / el SO)
+     */
+    public int getInstrumentCount() {
+        return instruments.size();
+    }
+
+    @Override
+    public synchronized void close() {
+        for (AutoCloseable instrument : instruments) {
+            try {
+                instrument.close();
+            } catch (Exception e) {
+                logger.debug("Error closing runtime instrument: {}", e.getMessage());
+            }
+        }
+        instruments.clear();
+    }
+}
@@ -0,0 +1,229 @@
+package pe.soapros.otel.metrics.infrastructure;
+
+import io.opentelemetry.api.common.Attributes;
+import io.opentelemetry.api.metrics.Meter;
+import io.opentelemetry.api.metrics.ObservableDoubleGauge;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Tasa de eventos por segundo en una ventana deslizante, por clave (los atributos del gauge).
+ *
+ * Cada clave tiene un anillo de {@link LongAdder} (uno por slot); los slots se reutilizan al
+ * avanzar la ventana, así que la memoria por clave es fija. El número de claves está acotado:
+ * las que no reciben eventos en {@code idleTtl} se eliminan y, si aun así se alcanza el
+ * límite, se expulsa la usada hace más tiempo (LRU).
+ */
+public class SlidingWindowRateTracker {
+
+    public static final Duration DEFAULT_WINDOW = Duration.ofSeconds(60);
+    public static final int DEFAULT_SLOTS = 12;
+    public static final int DEFAULT_MAX_KEYS = 512;
+    public static final Duration DEFAULT_IDLE_TTL = Duration.ofMinutes(10);
+
+    private final long slotMillis;
+    private final int slots;
+    private final double windowSeconds;
+    private final int maxKeys;
+    private final long idleTtlMillis;
+
+    private final Map<Attributes, Ring> rings = new ConcurrentHashMap<>();
+    private final LongAdder evictions = new LongAdder();
+    private volatile ObservableDoubleGauge gauge;
+
+    public SlidingWindowRateTracker() {
+        this(DEFAULT_WINDOW, DEFAULT_SLOTS, DEFAULT_MAX_KEYS, DEFAULT_IDLE_TTL);
+    }
+
+    public SlidingWindowRateTracker(Duration window, int slots, int maxKeys, Duration idleTtl) {
+        if (slots < 2) {
+            throw new IllegalArgumentException("slots must be >= 2");
+        }
+        if (maxKeys < 1) {
+            throw new IllegalArgumentException("maxKeys must be >= 1");
+        }
+        this.slots = slots;
+        this.slotMillis = Math.max(1, window.toMillis() / slots);
+        this.windowSeconds = (slotMillis * slots) / 1000.0;
+        this.maxKeys = maxKeys;
+        this.idleTtlMillis = idleTtl.toMillis();
+    }
+
+    public void record(Attributes key) {
+        record(key, 1L);
+    }
+
+    public void record(Attributes key, long count) {
+        long now = System.currentTimeMillis();
+        Ring ring = rings.get(key);
+        if (ring == null) {
+            ring = newRing(key, now);
+        }
+        ring.add(now, count);
+    }
+
+    /**
+     * Eventos por segundo de una clave en la ventana (0 si no existe)
+     */
+    public double ratePerSecond(Attributes key) {
+        Ring ring = rings.get(key);
+        return ring == null ? 0.0 : ring.sum(System.currentTimeMillis()) / windowSeconds;
+    }
+
+    /**
+     * Publicar la tasa por clave como gauge observable (una vez por tracker)
+     */
+    public synchronized void registerGauge(Meter meter, String name, String description) {
+        if (gauge != null) {
+            return;
+        }
+        gauge = meter.gaugeBuilder(name)
+                .setDescription(description)
+                .setUnit("1/s")
+                .buildWithCallback(measurement -> {
+                    long now = System.currentTimeMillis();
+                    rings.forEach((key, ring) -> {
+                        long sum = ring.sum(now);
+                        if (sum > 0) {
+                            measurement.record(sum / windowSeconds, key);
+                        }
+                    });
+                });
+    }
+
+    /**
+     * Tasa actual por clave, con la clave formateada como "v1:v2:..."
+     */
+    public Map<String, Double> getRates() {
+        long now = System.currentTimeMillis();
+        Map<String, Double> rates = new LinkedHashMap<>();
+        rings.forEach((key, ring) -> rates.put(formatKey(key), ring.sum(now) / windowSeconds));
+        return rates;
+    }
+
+    /**
+     * Eventos en la ventana por clave, con el mismo formato que {@link #getRates()}
+     */
+    public Map<String, Long> getCounts() {
+        long now = System.currentTimeMillis();
+        Map<String, Long> counts = new LinkedHashMap<>();
+        rings.forEach((key, ring) -> counts.put(formatKey(key), ring.sum(now)));
+        return counts;
+    }
+
+    private static String formatKey(Attributes key) {
+        StringBuilder name = new StringBuilder();
+        key.forEach((attributeKey, value) -> {
+            if (name.length() > 0) {
+                name.append(':');
+            }
+            name.append(value);
+        });
+        return name.toString();
+    }
+
+    public int size() {
+        return rings.size();
+    }
+
+    public long getEvictionCount() {
+        return evictions.sum();
+    }
+
+    public void clear() {
+        rings.clear();
+    }
+
+    public synchronized void close() {
+        if (gauge != null) {
+            gauge.close();
+            gauge = null;
+        }
+        rings.clear();
+    }
+
+    private synchronized Ring newRing(Attributes key, long now) {
+        Ring existing = rings.get(key);
+        if (existing != null) {
+            return existing;
+        }
+        if (rings.size() >= maxKeys) {
+            evict(now);
+        }
+        Ring ring = new Ring(slots, now);
+        rings.put(key, ring);
+        return ring;
+    }
+
+    /**
+     * Eliminar claves inactivas; si no hay, la menos usada recientemente
+     */
+    private void evict(long now) {
+        Attributes lru = null;
+        long oldestAccess = Long.MAX_VALUE;
+        int removed = 0;
+
+        for (Map.Entry<Attributes, Ring> entry : rings.entrySet()) {
+            long lastAccess = entry.getValue().lastAccess;
+            if (now - lastAccess > idleTtlMillis) {
+                rings.remove(entry.getKey());
+                removed++;
+            } else if (lastAccess < oldestAccess) {
+                oldestAccess = lastAccess;
+                lru = entry.getKey();
+            }
+        }
+
+        if (removed == 0 && lru != null) {
+            rings.remove(lru);
+            removed = 1;
+        }
+        evictions.add(removed);
+    }
+
+    private final class Ring {
+        private final LongAdder[] counts;
+        private final AtomicLongArray epochs;
+        private volatile long lastAccess;
+
+        private Ring(int slots, long now) {
+            this.counts = new LongAdder[slots];
+            this.epochs = new AtomicLongArray(slots);
+            for (int i = 0; i < slots; i++) {
+                counts[i] = new LongAdder();
+            }
+            this.lastAccess = now;
+        }
+
+        void add(long now, long count) {
+            long epoch = now / slotMillis;
+            int slot = (int) (epoch % counts.length);
+            long current = epochs.get(slot);
+            // El primero que entra a un slot vencido lo reinicia; puede perderse algún evento concurrente
+            if (current != epoch && epochs.compareAndSet(slot, current, epoch)) {
+                counts[slot].reset();
+            }
+            counts[slot].add(count);
+            // Granularidad de 1s para el LRU: evita escribir el campo volátil en cada evento
+            if (now - lastAccess >= 1000) {
+                lastAccess = now;
+            }
+        }
+
+        long sum(long now) {
+            long oldest = now / slotMillis - counts.length;
+            long sum = 0;
+            for (int i = 0; i < counts.length; i++) {
+                if (epochs.get(i) > oldest) {
+                    sum += counts[i].sum();
+                }
+            }
+            return sum;
+        }
+    }
+}
@@ -0,0 +1,239 @@
+package pe.soapros.otel.metrics.infrastructure;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Objetivos de latencia (SLO) para requests HTTP por ruta y operaciones de base de datos
+ * por tipo de operación, más las ventanas en las que se calcula el burn rate.
+ *
+ * Las rutas aceptan '*' final como comodín de prefijo; las operaciones no distinguen
+ * mayúsculas. Se pueden ajustar sin cambiar código con {@link #fromEnvironment()}:
+ * <pre>
+ * OTEL_SLO_HTTP_OBJECTIVES="default=500,/orders/*=300:0.995,/health=50"
+ * OTEL_SLO_DB_OBJECTIVES="SELECT=80,INSERT=150:0.999"
+ * </pre>
+ * cada entrada es {@code clave=umbralMs[:objetivo]}.
+ */
+public class SloConfig {
+
+    private static final Logger logger = LoggerFactory.getLogger(SloConfig.class);
+
+    public static final String HTTP_OBJECTIVES_ENV = "OTEL_SLO_HTTP_OBJECTIVES";
+    public static final String DB_OBJECTIVES_ENV = "OTEL_SLO_DB_OBJECTIVES";
+
+    public static final double DEFAULT_TARGET = 0.99;
+
+    /**
+     * Umbral de latencia y fracción de eventos que deben cumplirlo
+     */
+    public record Objective(double thresholdMs, double target) {
+        public Objective {
+            if (thresholdMs <= 0) {
+                throw new IllegalArgumentException("thresholdMs must be > 0");
+            }
+            if (target <= 0.0 || target >= 1.0) {
+                throw new IllegalArgumentException("target must be between 0.0 and 1.0 (exclusive)");
+            }
+        }
+
+        public static Objective of(double thresholdMs) {
+            return new Objective(thresholdMs, DEFAULT_TARGET);
+        }
+
+        /**
+         * Fracción de eventos malos permitida (1 - target)
+         */
+        public double errorBudget() {
+            return 1.0 - target;
+        }
+    }
+
+    private final Objective defaultHttpObjective;
+    private final Map<String, Objective> httpRoutes;
+    private final List<Map.Entry<String, Objective>> httpRoutePrefixes;
+    private final Objective defaultDbObjective;
+    private final Map<String, Objective> dbOperations;
+    private final List<Duration> burnRateWindows;
+
+    private SloConfig(Builder builder) {
+        this.defaultHttpObjective = builder.defaultHttpObjective;
+        this.defaultDbObjective = builder.defaultDbObjective;
+        this.dbOperations = Map.copyOf(builder.dbOperations);
+        this.burnRateWindows = List.copyOf(builder.burnRateWindows);
+
+        Map<String, Objective> exact = new HashMap<>();
+        List<Map.Entry<String, Objective>> prefixes = new ArrayList<>();
+        builder.httpRoutes.forEach((route, objective) -> {
+            if (route.endsWith("*")) {
+                prefixes.add(Map.entry(route.substring(0, route.length() - 1), objective));
+            } else {
+                exact.put(route, objective);
+            }
+        });
+        // El prefijo más largo gana
+        prefixes.sort((a, b) -> Integer.compare(b.getKey().length(), a.getKey().length()));
+        this.httpRoutes = Map.copyOf(exact);
+        this.httpRoutePrefixes = List.copyOf(prefixes);
+    }
+
+    /**
+     * HTTP: 500ms al 99%. Database: SELECT/FIND 100ms, INSERT/UPDATE/SAVE 200ms,
+     * DELETE 300ms y resto 500ms, al 99%. Burn rate en ventanas de 5m y 1h.
+     */
+    public static SloConfig defaults() {
+        return builder().build();
+    }
+
+    /**
+     * {@link #defaults()} con los objetivos de OTEL_SLO_HTTP_OBJECTIVES / OTEL_SLO_DB_OBJECTIVES
+     * (o las system properties otel.slo.http.objectives / otel.slo.db.objectives)
+     */
+    public static SloConfig fromEnvironment() {
+        Builder builder = builder();
+        parseObjectives(readSetting(HTTP_OBJECTIVES_ENV, "otel.slo.http.objectives"), (key, objective) -> {
+            if ("default".equals(key)) {
+                builder.defaultHttpObjective(objective);
+            } else {
+                builder.httpRoute(key, objective);
+            }
+        });
+        parseObjectives(readSetting(DB_OBJECTIVES_ENV, "otel.slo.db.objectives"), (key, objective) -> {
+            if ("default".equalsIgnoreCase(key)) {
+                builder.defaultDbObjective(objective);
+            } else {
+                builder.dbOperation(key, objective);
+            }
+        });
+        return builder.build();
+    }
+
+    /**
+     * Objetivo para una ruta HTTP ya normalizada (ej: /users/{id})
+     */
+    public Objective httpObjective(String route) {
+        if (route != null) {
+            Objective exact = httpRoutes.get(route);
+            if (exact != null) {
+                return exact;
+            }
+            for (Map.Entry<String, Objective> prefix : httpRoutePrefixes) {
+                if (route.startsWith(prefix.getKey())) {
+                    return prefix.getValue();
+                }
+            }
+        }
+        return defaultHttpObjective;
+    }
+
+    public Objective dbObjective(String operation) {
+        if (operation == null) {
+            return defaultDbObjective;
+        }
+        return dbOperations.getOrDefault(operation.toUpperCase(Locale.ROOT), defaultDbObjective);
+    }
+
+    public Objective getDefaultHttpObjective() { return defaultHttpObjective; }
+    public Objective getDefaultDbObjective() { return defaultDbObjective; }
+    public Map<String, Objective> getDbOperations() { return dbOperations; }
+    public List<Duration> getBurnRateWindows() { return burnRateWindows; }
+
+    private static String readSetting(String envName, String propertyName) {
+        String value = System.getenv(envName);
+        if (value == null || value.isBlank()) {
+            value = System.getProperty(propertyName);
+        }
+        return value;
+    }
+
+    private static void parseObjectives(String spec, java.util.function.BiConsumer<String, Objective> consumer) {
+        if (spec == null || spec.isBlank()) {
+            return;
+        }
+        for (String entry : spec.split(",")) {
+            String trimmed = entry.trim();
+            int eq = trimmed.lastIndexOf('=');
+            if (eq <= 0) {
+                logger.warn("Ignoring invalid SLO objective '{}'", trimmed);
+                continue;
+            }
+            try {
+                String key = trimmed.substring(0, eq).trim();
+                String[] parts = trimmed.substring(eq + 1).split(":");
+                double threshold = Double.parseDouble(parts[0].trim());
+                double target = parts.length > 1 ? Double.parseDouble(parts[1].trim()) : DEFAULT_TARGET;
+                consumer.accept(key, new Objective(threshold, target));
+            } catch (IllegalArgumentException e) {
+                logger.warn("Ignoring invalid SLO objective '{}': {}", trimmed, e.getMessage());
+            }
+        }
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public static class Builder {
+        private Objective defaultHttpObjective = Objective.of(500);
+        private final Map<String, Objective> httpRoutes = new LinkedHashMap<>();
+        private Objective defaultDbObjective = Objective.of(500);
+        private final Map<String, Objective> dbOperations = new HashMap<>();
+        private final List<Duration> burnRateWindows = new ArrayList<>(List.of(Duration.ofMinutes(5), Duration.ofHours(1)));
+
+        private Builder() {
+            dbOperation("SELECT", Objective.of(100));
+            dbOperation("FIND", Objective.of(100));
+            dbOperation("INSERT", Objective.of(200));
+            dbOperation("UPDATE", Objective.of(200));
+            dbOperation("SAVE", Objective.of(200));
+            dbOperation("DELETE", Objective.of(300));
+        }
+
+        public Builder defaultHttpObjective(Objective objective) {
+            this.defaultHttpObjective = objective;
+            return this;
+        }
+
+        /**
+         * Objetivo para una ruta ("/orders/{id}") o prefijo ("/internal/*")
+         */
+        public Builder httpRoute(String route, Objective objective) {
+            this.httpRoutes.put(route, objective);
+            return this;
+        }
+
+        public Builder defaultDbObjective(Objective objective) {
+            this.defaultDbObjective = objective;
+            return this;
+        }
+
+        public Builder dbOperation(String operation, Objective objective) {
+            this.dbOperations.put(operation.toUpperCase(Locale.ROOT), objective);
+            return this;
+        }
+
+        /**
+         * Ventanas del burn rate (ej: 5m y 1h para alertas de consumo rápido)
+         */
+        public Builder burnRateWindows(Duration... windows) {
+            if (windows.length == 0) {
+                throw new IllegalArgumentException("at least one window is required");
+            }
+            this.burnRateWindows.clear();
+            this.burnRateWindows.addAll(List.of(windows));
+            return this;
+        }
+
+        public SloConfig build() {
+            return new SloConfig(this);
+        }
+    }
+}
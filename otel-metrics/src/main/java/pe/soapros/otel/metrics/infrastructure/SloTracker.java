@@ -0,0 +1,336 @@
+package pe.soapros.otel.metrics.infrastructure;
+
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.api.common.Attributes;
+import io.opentelemetry.api.metrics.Meter;
+import io.opentelemetry.api.metrics.ObservableDoubleGauge;
+import pe.soapros.otel.metrics.domain.MetricsService;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Consumer;
+
+/**
+ * Motor de SLO para HTTP y base de datos.
+ *
+ * Cada evento se registra con una sola medición en el histograma {@value #LATENCY_RATIO_METRIC}:
+ * latencia / umbral del objetivo. Con un bucket en 1.0 (ver vistas por defecto) el backend
+ * obtiene los eventos buenos sin importar el umbral de cada ruta; los errores llevan
+ * slo.error=true y siempre cuentan como malos.
+ *
+ * En memoria se mantiene el burn rate (tasa de eventos malos / presupuesto de error) en
+ * varias ventanas deslizantes, publicado como gauge observable {@value #BURN_RATE_METRIC}.
+ *
+ * Las series HTTP se indexan por los {@link Attributes} de método y ruta que el colector ya
+ * tiene precalculados en su plantilla, y las de base de datos por operación y tabla, así que
+ * registrar un evento en una serie existente no asigna memoria. Pasado {@value #MAX_SERIES},
+ * las series nuevas comparten una serie overflow por tipo con el objetivo por defecto.
+ */
+public class SloTracker {
+
+    public static final String LATENCY_RATIO_METRIC = "slo.latency.ratio";
+    public static final String BURN_RATE_METRIC = "slo.burn_rate";
+
+    static final int MAX_SERIES = 1024;
+    private static final int SLOTS_PER_WINDOW = 60;
+    private static final String UNKNOWN = "unknown";
+
+    private static final AttributeKey<String> SLO_TYPE = AttributeKey.stringKey("slo.type");
+    private static final AttributeKey<String> HTTP_METHOD = AttributeKey.stringKey("http.method");
+    private static final AttributeKey<String> HTTP_ROUTE = AttributeKey.stringKey("http.route");
+    private static final AttributeKey<String> DB_OPERATION = AttributeKey.stringKey("db.operation");
+    private static final AttributeKey<String> DB_TABLE = AttributeKey.stringKey("db.table");
+    private static final AttributeKey<Boolean> SLO_ERROR = AttributeKey.booleanKey("slo.error");
+    private static final AttributeKey<String> SLO_WINDOW = AttributeKey.stringKey("slo.window");
+
+    private final MetricsService metricsService;
+    private final SloConfig config;
+    // (http.method, http.route) → serie
+    private final Map<Attributes, SloSeries> httpSeries = new ConcurrentHashMap<>();
+    // operación → tabla → serie
+    private final Map<String, Map<String, SloSeries>> dbSeries = new ConcurrentHashMap<>();
+    private final AtomicInteger seriesCount = new AtomicInteger();
+    private volatile SloSeries httpOverflow;
+    private volatile SloSeries dbOverflow;
+    private volatile ObservableDoubleGauge burnRateGauge;
+
+    public SloTracker(MetricsService metricsService, SloConfig config) {
+        this.metricsService = metricsService;
+        this.config = config;
+    }
+
+    /**
+     * Registra una request HTTP; los 5xx cuentan como malos. Devuelve true si cumplió el SLO.
+     */
+    public boolean recordHttp(String method, String route, double durationMs, int statusCode) {
+        return recordHttp(Attributes.of(HTTP_METHOD, method, HTTP_ROUTE, route), durationMs, statusCode);
+    }
+
+    /**
+     * Igual que {@link #recordHttp(String, String, double, int)} con los atributos
+     * (http.method, http.route) ya construidos, p.ej. los de la plantilla del colector
+     */
+    boolean recordHttp(Attributes routeAttributes, double durationMs, int statusCode) {
+        SloSeries slo = httpSeries.get(routeAttributes);
+        if (slo == null) {
+            slo = createHttpSeries(routeAttributes);
+        }
+        return slo.record(durationMs, statusCode >= 500);
+    }
+
+    /**
+     * Registra una operación de base de datos. Devuelve true si cumplió el SLO.
+     */
+    public boolean recordDatabase(String operation, String table, double durationMs, boolean success) {
+        // Claves de ConcurrentHashMap: sin nulls
+        operation = operation != null ? operation : UNKNOWN;
+        table = table != null ? table : UNKNOWN;
+        Map<String, SloSeries> byTable = dbSeries.get(operation);
+        SloSeries slo = byTable != null ? byTable.get(table) : null;
+        if (slo == null) {
+            slo = createDbSeries(operation, table);
+        }
+        return slo.record(durationMs, !success);
+    }
+
+    /**
+     * Publicar el burn rate por serie y ventana como gauge observable (una vez por meter)
+     */
+    public synchronized void registerBurnRateGauge(Meter meter) {
+        if (burnRateGauge != null) {
+            return;
+        }
+        burnRateGauge = meter.gaugeBuilder(BURN_RATE_METRIC)
+                .setDescription("SLO burn rate: bad event ratio divided by the error budget")
+                .setUnit("1")
+                .buildWithCallback(measurement -> {
+                    long now = System.currentTimeMillis();
+                    forEachSeries(slo -> {
+                        for (int i = 0; i < slo.windows.length; i++) {
+                            if (slo.windows[i].hasEvents(now)) {
+                                measurement.record(slo.burnRate(i, now), slo.windowAttributes[i]);
+                            }
+                        }
+                    });
+                });
+    }
+
+    /**
+     * Burn rate actual por serie ("http GET /orders") y ventana ("5m")
+     */
+    public Map<String, Map<String, Double>> getBurnRates() {
+        long now = System.currentTimeMillis();
+        Map<String, Map<String, Double>> rates = new LinkedHashMap<>();
+        forEachSeries(slo -> {
+            Map<String, Double> byWindow = new LinkedHashMap<>();
+            for (int i = 0; i < slo.windows.length; i++) {
+                byWindow.put(formatWindow(config.getBurnRateWindows().get(i)), slo.burnRate(i, now));
+            }
+            rates.put(slo.name, byWindow);
+        });
+        return rates;
+    }
+
+    public SloConfig getConfig() {
+        return config;
+    }
+
+    public void clear() {
+        httpSeries.clear();
+        dbSeries.clear();
+        seriesCount.set(0);
+        httpOverflow = null;
+        dbOverflow = null;
+    }
+
+    /**
+     * Quitar el gauge de burn rate y las series
+     */
+    public synchronized void close() {
+        if (burnRateGauge != null) {
+            burnRateGauge.close();
+            burnRateGauge = null;
+        }
+        clear();
+    }
+
+    // ===== CREACIÓN DE SERIES (sólo la primera vez por ruta u operación) =====
+
+    private SloSeries createHttpSeries(Attributes routeAttributes) {
+        if (seriesCount.get() >= MAX_SERIES) {
+            return httpOverflow();
+        }
+        return httpSeries.computeIfAbsent(routeAttributes, attributes -> {
+            seriesCount.incrementAndGet();
+            String route = attributes.get(HTTP_ROUTE);
+            return new SloSeries(
+                    "http " + attributes.get(HTTP_METHOD) + " " + route,
+                    attributes.toBuilder().put(SLO_TYPE, "http").build(),
+                    config.httpObjective(route));
+        });
+    }
+
+    private SloSeries createDbSeries(String operation, String table) {
+        if (seriesCount.get() >= MAX_SERIES) {
+            return dbOverflow();
+        }
+        return dbSeries.computeIfAbsent(operation, k -> new ConcurrentHashMap<>())
+                .computeIfAbsent(table, k -> {
+                    seriesCount.incrementAndGet();
+                    return new SloSeries(
+                            "db " + operation + " " + table,
+                            Attributes.of(SLO_TYPE, "db", DB_OPERATION, operation, DB_TABLE, table),
+                            config.dbObjective(operation));
+                });
+    }
+
+    /**
+     * La serie overflow agrupa rutas distintas: usa el objetivo por defecto, no el de la
+     * primera ruta que desbordó
+     */
+    private synchronized SloSeries httpOverflow() {
+        if (httpOverflow == null) {
+            httpOverflow = overflowSeries("http", config.getDefaultHttpObjective());
+        }
+        return httpOverflow;
+    }
+
+    private synchronized SloSeries dbOverflow() {
+        if (dbOverflow == null) {
+            dbOverflow = overflowSeries("db", config.getDefaultDbObjective());
+        }
+        return dbOverflow;
+    }
+
+    private SloSeries overflowSeries(String type, SloConfig.Objective objective) {
+        return new SloSeries(
+                type + " " + CardinalityLimits.OVERFLOW_VALUE,
+                Attributes.of(SLO_TYPE, type, CardinalityGuard.OVERFLOW_KEY, CardinalityLimits.OVERFLOW_VALUE),
+                objective);
+    }
+
+    private void forEachSeries(Consumer<SloSeries> action) {
+        httpSeries.values().forEach(action);
+        dbSeries.values().forEach(byTable -> byTable.values().forEach(action));
+        SloSeries http = httpOverflow;
+        if (http != null) {
+            action.accept(http);
+        }
+        SloSeries db = dbOverflow;
+        if (db != null) {
+            action.accept(db);
+        }
+    }
+
+    private static String formatWindow(Duration window) {
+        if (window.toHours() > 0 && window.toMinutes() % 60 == 0) {
+            return window.toHours() + "h";
+        }
+        if (window.toMinutes() > 0 && window.getSeconds() % 60 == 0) {
+            return window.toMinutes() + "m";
+        }
+        return window.getSeconds() + "s";
+    }
+
+    private final class SloSeries {
+        private final String name;
+        private final SloConfig.Objective objective;
+        private final Attributes attributes;
+        private final Attributes errorAttributes;
+        private final SlidingWindow[] windows;
+        private final Attributes[] windowAttributes;
+
+        private SloSeries(String name, Attributes attributes, SloConfig.Objective objective) {
+            this.name = name;
+            this.objective = objective;
+            this.attributes = attributes;
+            this.errorAttributes = attributes.toBuilder().put(SLO_ERROR, true).build();
+
+            List<Duration> configured = config.getBurnRateWindows();
+            this.windows = new SlidingWindow[configured.size()];
+            this.windowAttributes = new Attributes[configured.size()];
+            for (int i = 0; i < configured.size(); i++) {
+                windows[i] = new SlidingWindow(configured.get(i));
+                windowAttributes[i] = attributes.toBuilder()
+                        .put(SLO_WINDOW, formatWindow(configured.get(i)))
+                        .build();
+            }
+        }
+
+        boolean record(double durationMs, boolean error) {
+            double ratio = durationMs / objective.thresholdMs();
+            boolean good = !error && ratio <= 1.0;
+
+            metricsService.recordHistogram(LATENCY_RATIO_METRIC,
+                    "Latency divided by the SLO threshold (<= 1 meets the objective)",
+                    ratio, error ? errorAttributes : attributes);
+
+            long now = System.currentTimeMillis();
+            for (SlidingWindow window : windows) {
+                window.record(now, !good);
+            }
+            return good;
+        }
+
+        double burnRate(int windowIndex, long now) {
+            return windows[windowIndex].badRatio(now) / objective.errorBudget();
+        }
+    }
+
+    /**
+     * Ventana deslizante en {@value #SLOTS_PER_WINDOW} slots; un slot se reinicia al reutilizarse.
+     * Bajo concurrencia un reinicio puede perder algún evento del slot, aceptable para alertas.
+     */
+    private static final class SlidingWindow {
+        private final long slotMillis;
+        private final AtomicLongArray epochs = new AtomicLongArray(SLOTS_PER_WINDOW);
+        private final AtomicLongArray totals = new AtomicLongArray(SLOTS_PER_WINDOW);
+        private final AtomicLongArray bads = new AtomicLongArray(SLOTS_PER_WINDOW);
+
+        private SlidingWindow(Duration window) {
+            this.slotMillis = Math.max(1, window.toMillis() / SLOTS_PER_WINDOW);
+        }
+
+        void record(long now, boolean bad) {
+            long epoch = now / slotMillis;
+            int slot = (int) (epoch % SLOTS_PER_WINDOW);
+            long current = epochs.get(slot);
+            if (current != epoch && epochs.compareAndSet(slot, current, epoch)) {
+                totals.set(slot, 0);
+                bads.set(slot, 0);
+            }
+            totals.incrementAndGet(slot);
+            if (bad) {
+                bads.incrementAndGet(slot);
+            }
+        }
+
+        boolean hasEvents(long now) {
+            long oldest = now / slotMillis - SLOTS_PER_WINDOW;
+            for (int i = 0; i < SLOTS_PER_WINDOW; i++) {
+                if (epochs.get(i) > oldest && totals.get(i) > 0) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        double badRatio(long now) {
+            long oldest = now / slotMillis - SLOTS_PER_WINDOW;
+            long total = 0;
+            long bad = 0;
+            for (int i = 0; i < SLOTS_PER_WINDOW; i++) {
+                if (epochs.get(i) > oldest) {
+                    total += totals.get(i);
+                    bad += bads.get(i);
+                }
+            }
+            return total == 0 ? 0.0 : (double) bad / total;
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package pe.soapros.otel.metrics.infrastructure;
+
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.api.common.Attributes;
+import io.opentelemetry.api.metrics.Meter;
+import io.opentelemetry.sdk.common.CompletableResultCode;
+import io.opentelemetry.sdk.metrics.InstrumentType;
+import io.opentelemetry.sdk.metrics.SdkMeterProvider;
+import io.opentelemetry.sdk.metrics.data.AggregationTemporality;
+import io.opentelemetry.sdk.metrics.data.MetricData;
+import io.opentelemetry.sdk.metrics.export.CollectionRegistration;
+import io.opentelemetry.sdk.metrics.export.MetricReader;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Collection;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CardinalityGuardTest {
+
+    private final ManualReader reader = new ManualReader();
+    private final SdkMeterProvider meterProvider = SdkMeterProvider.builder().registerMetricReader(reader).build();
+    private final Meter meter = meterProvider.get("cardinality-guard-test");
+
+    @AfterEach
+    void tearDown() {
+        meterProvider.close();
+    }
+
+    @Test
+    void deniedKeysAreRemovedWhateverTheirType() {
+        CardinalityGuard guard = new CardinalityGuard(CardinalityLimits.builder().denyKey("user.id").build(), meter);
+
+        Attributes clean = Attributes.of(AttributeKey.stringKey("route"), "/orders");
+        assertSame(clean, guard.apply("requests", clean));
+
+        Attributes withUser = Attributes.of(
+                AttributeKey.stringKey("route"), "/orders",
+                AttributeKey.longKey("user.id"), 42L);
+        assertEquals(clean, guard.apply("requests", withUser));
+    }
+
+    @Test
+    void allowlistKeepsOnlyAllowedKeys() {
+        CardinalityGuard guard = new CardinalityGuard(CardinalityLimits.builder().allowKey("route").build(), meter);
+
+        Attributes allowed = Attributes.of(AttributeKey.stringKey("route"), "/orders");
+        assertSame(allowed, guard.apply("requests", allowed));
+
+        Attributes extra = Attributes.of(
+                AttributeKey.stringKey("route"), "/orders",
+                AttributeKey.stringKey("request.id"), "abc");
+        assertEquals(allowed, guard.apply("requests", extra));
+    }
+
+    @Test
+    void seriesAboveTheLimitOverflowUntilTheNextCollection() {
+        CardinalityGuard guard = new CardinalityGuard(CardinalityLimits.builder().maxSeriesPerInstrument(2).build(), meter);
+
+        assertEquals(route("/a"), guard.apply("requests", route("/a")));
+        assertEquals(route("/b"), guard.apply("requests", route("/b")));
+        assertSame(CardinalityGuard.OVERFLOW_ATTRIBUTES, guard.apply("requests", route("/c")));
+        // Una serie ya admitida sigue pasando
+        assertEquals(route("/a"), guard.apply("requests", route("/a")));
+        assertEquals(1L, guard.getOverflowCount());
+
+        Collection<MetricData> metrics = reader.collect();
+        assertTrue(metrics.stream().anyMatch(m -> m.getName().equals("otel.metrics.active_series")));
+        assertTrue(metrics.stream().anyMatch(m -> m.getName().equals("otel.metrics.overflow_measurements")));
+
+        // El nuevo ciclo empieza sin series vistas
+        assertEquals(route("/c"), guard.apply("requests", route("/c")));
+    }
+
+    @Test
+    void unlimitedDoesNotTrackSeries() {
+        CardinalityGuard guard = new CardinalityGuard(CardinalityLimits.unlimited(), meter);
+
+        for (int i = 0; i < 100; i++) {
+            assertEquals(route("/" + i), guard.apply("requests", route("/" + i)));
+        }
+        assertTrue(guard.getStats().isEmpty());
+    }
+
+    private static Attributes route(String route) {
+        return Attributes.of(AttributeKey.stringKey("route"), route);
+    }
+
+    private static final class ManualReader implements MetricReader {
+        private CollectionRegistration registration = CollectionRegistration.noop();
+
+        @Override
+        public void register(CollectionRegistration registration) {
+            this.registration = registration;
+        }
+
+        Collection<MetricData> collect() {
+            return registration.collectAllMetrics();
+        }
+
+        @Override
+        public AggregationTemporality getAggregationTemporality(InstrumentType instrumentType) {
+            return AggregationTemporality.DELTA;
+        }
+
+        @Override
+        public CompletableResultCode forceFlush() {
+            return CompletableResultCode.ofSuccess();
+        }
+
+        @Override
+        public CompletableResultCode shutdown() {
+            return CompletableResultCode.ofSuccess();
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package pe.soapros.otel.metrics.infrastructure;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HttpAttributeTemplatesTest {
+
+    @Test
+    void normalizeRouteReplacesIdsAndDropsTheQuery() {
+        assertEquals("/orders/{id}", HttpAttributeTemplates.normalizeRoute("/orders/123?expand=items"));
+        assertEquals("/orders/{id}/items/{id}", HttpAttributeTemplates.normalizeRoute("/orders/1/items/22"));
+        assertEquals("/users/{uuid}/profile",
+                HttpAttributeTemplates.normalizeRoute("/users/3f2504e0-4f89-11d3-9a0c-0305e82c3301/profile"));
+        assertEquals("/v1/orders", HttpAttributeTemplates.normalizeRoute("/v1/orders"));
+        assertEquals("unknown", HttpAttributeTemplates.normalizeRoute(""));
+        assertEquals("unknown", HttpAttributeTemplates.normalizeRoute(null));
+    }
+
+    @Test
+    void normalizedRoutesAreReturnedAsIs() {
+        String route = "/orders/{id}";
+        assertSame(route, HttpAttributeTemplates.normalizeRoute(route));
+    }
+
+    @Test
+    void rawIdsShareTheNormalizedTemplate() {
+        HttpAttributeTemplates templates = new HttpAttributeTemplates("svc", 4);
+
+        HttpAttributeTemplates.Template first = templates.get("GET", "/orders/1", 200, null);
+        for (int i = 2; i < 100; i++) {
+            assertSame(first, templates.get("GET", "/orders/" + i, 200, null));
+        }
+        assertEquals(1, templates.size());
+        assertEquals("/orders/{id}", first.route());
+    }
+
+    @Test
+    void newRoutesOverTheLimitShareTheOverflowTemplate() {
+        HttpAttributeTemplates templates = new HttpAttributeTemplates("svc", 1);
+
+        templates.get("GET", "/orders", 200, null);
+        HttpAttributeTemplates.Template overflow = templates.get("GET", "/customers", 200, null);
+
+        assertEquals(HttpAttributeTemplates.OVERFLOW_ROUTE, overflow.route());
+        assertSame(overflow, templates.get("GET", "/products", 200, null));
+        assertEquals(1, templates.size());
+    }
+}
@@ -0,0 +1,63 @@
+package pe.soapros.otel.metrics.infrastructure;
+
+import io.opentelemetry.api.OpenTelemetry;
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.api.common.Attributes;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SloTrackerTest {
+
+    private static final AttributeKey<String> HTTP_METHOD = AttributeKey.stringKey("http.method");
+    private static final AttributeKey<String> HTTP_ROUTE = AttributeKey.stringKey("http.route");
+
+    private final SloConfig config = SloConfig.builder()
+            .defaultHttpObjective(SloConfig.Objective.of(500))
+            .httpRoute("/reports", SloConfig.Objective.of(10_000))
+            .build();
+    private final SloTracker tracker = new SloTracker(
+            new OpenTelemetryMetricsService(OpenTelemetry.noop().getMeter("slo-test"), "svc"), config);
+
+    @Test
+    void httpSeriesUseTheRouteObjective() {
+        assertTrue(tracker.recordHttp("GET", "/reports", 2_000, 200));
+        assertFalse(tracker.recordHttp("GET", "/orders", 2_000, 200));
+        assertFalse(tracker.recordHttp("GET", "/orders", 10, 503));
+
+        Map<String, Map<String, Double>> burnRates = tracker.getBurnRates();
+        assertEquals(2, burnRates.size());
+        assertTrue(burnRates.containsKey("http GET /orders"));
+        assertTrue(burnRates.containsKey("http GET /reports"));
+    }
+
+    @Test
+    void prebuiltRouteAttributesShareTheSeriesOfTheStringOverload() {
+        tracker.recordHttp("GET", "/orders", 10, 200);
+        tracker.recordHttp(Attributes.of(HTTP_METHOD, "GET", HTTP_ROUTE, "/orders"), 10, 200);
+
+        assertEquals(1, tracker.getBurnRates().size());
+    }
+
+    @Test
+    void overflowSeriesUsesTheDefaultObjective() {
+        for (int i = 0; i < SloTracker.MAX_SERIES; i++) {
+            tracker.recordHttp("GET", "/route-" + i, 10, 200);
+        }
+
+        // /reports tiene un umbral de 10s, pero la serie overflow usa el objetivo por defecto
+        assertFalse(tracker.recordHttp("GET", "/reports", 2_000, 200));
+        assertTrue(tracker.recordHttp("GET", "/other", 100, 200));
+        assertTrue(tracker.getBurnRates().containsKey("http " + CardinalityLimits.OVERFLOW_VALUE));
+        assertEquals(SloTracker.MAX_SERIES + 1, tracker.getBurnRates().size());
+    }
+
+    @Test
+    void databaseSeriesToleratesMissingTable() {
+        assertTrue(tracker.recordDatabase("SELECT", null, 1, true));
+        assertFalse(tracker.recordDatabase("SELECT", null, 1, false));
+        assertTrue(tracker.getBurnRates().containsKey("db SELECT unknown"));
+    }
+}
@@ -1,5 +1,6 @@
 package pe.soapros.otel.traces.infrastructure;
 
+import io.opentelemetry.api.common.AttributeKey;
 import io.opentelemetry.api.trace.Span;
 import io.opentelemetry.api.trace.StatusCode;
 import pe.soapros.otel.core.domain.TraceSpan;
@@ -19,6 +20,26 @@ public class OpenTelemetryTraceSpan implements TraceSpan {
         this.span.setAttribute(key, value);
     }
 
+    @Override
+    public void addAttribute(String key, long value) {
+        this.span.setAttribute(key, value);
+    }
+
+    @Override
+    public void addAttribute(String key, double value) {
+        this.span.setAttribute(key, value);
+    }
+
+    @Override
+    public void addAttribute(String key, boolean value) {
+        this.span.setAttribute(key, value);
+    }
+
+    @Override
+    public <T> void addAttribute(AttributeKey<T> key, T value) {
+        this.span.setAttribute(key, value);
+    }
+
     @Override
     public void addAttributes(Map<String, String> attributes) {
         attributes.forEach(this.span::setAttribute);